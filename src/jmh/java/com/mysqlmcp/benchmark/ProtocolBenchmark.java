@@ -0,0 +1,69 @@
+package com.mysqlmcp.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mysqlmcp.server.MCPServer;
+
+/**
+ * MCPServer 的读取行 → 解析 → 调度 → 序列化循环
+ * 每次调用处理 LINES 行请求，结果按每个请求计算
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtocolBenchmark {
+    private static final int LINES = 1000;
+
+    /** ping：协议层开销；query：带 20 行结果的 execute_query（非流式） */
+    @Param({"ping", "query"})
+    public String message;
+
+    private MCPServer server;
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        server = new MCPServer(new StubDatabaseManager(20, 8));
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i <= LINES; i++) {
+            if ("ping".equals(message)) {
+                builder.append("{\"jsonrpc\":\"2.0\",\"id\":").append(i).append(",\"method\":\"ping\"}\n");
+            } else {
+                builder.append("{\"jsonrpc\":\"2.0\",\"id\":").append(i)
+                    .append(",\"method\":\"tools/call\",\"params\":{\"name\":\"execute_query\",")
+                    .append("\"arguments\":{\"sql\":\"SELECT * FROM t WHERE id > ?\",\"params\":[")
+                    .append(i).append("],\"stream\":false}}}\n");
+            }
+        }
+        input = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void serve() throws IOException {
+        server.serve(Channels.newChannel(new ByteArrayInputStream(input)),
+                     Channels.newChannel(OutputStream.nullOutputStream()));
+    }
+}
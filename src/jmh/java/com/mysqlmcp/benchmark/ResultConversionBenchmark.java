@@ -0,0 +1,79 @@
+package com.mysqlmcp.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.mysqlmcp.tools.MCPToolHandler;
+
+/**
+ * execute_query 的行 → JSON 转换，按行数、列数和结果格式组合测量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultConversionBenchmark {
+    private static final Gson gson = new Gson();
+
+    @Param({"10", "1000", "10000"})
+    public int rows;
+
+    @Param({"4", "32"})
+    public int columns;
+
+    @Param({"objects", "columns"})
+    public String format;
+
+    private MCPToolHandler toolHandler;
+    private JsonObject arguments;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        toolHandler = new MCPToolHandler(new StubDatabaseManager(rows, columns));
+        arguments = new JsonObject();
+        arguments.addProperty("sql", "SELECT * FROM t");
+        arguments.addProperty("format", format);
+        arguments.addProperty("stream", false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        toolHandler.close();
+    }
+
+    /**
+     * 只构建结果 JSON 树
+     */
+    @Benchmark
+    public JsonObject convert() throws SQLException {
+        return toolHandler.callTool("execute_query", arguments);
+    }
+
+    /**
+     * 构建结果并序列化为文本
+     */
+    @Benchmark
+    public void convertAndSerialize() throws SQLException, IOException {
+        gson.toJson(toolHandler.callTool("execute_query", arguments), Writer.nullWriter());
+    }
+}
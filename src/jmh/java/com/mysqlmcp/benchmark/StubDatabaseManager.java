@@ -0,0 +1,84 @@
+package com.mysqlmcp.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mysqlmcp.database.DatabaseManager;
+import com.mysqlmcp.database.QueryResult;
+import com.mysqlmcp.database.ResultLimits;
+
+/**
+ * 不连接数据库的 DatabaseManager
+ * 查询返回预先生成的合成结果，更新语句只返回固定的影响行数，用于在没有 MySQL 的环境下测量工具层的开销
+ */
+public class StubDatabaseManager extends DatabaseManager {
+    private final QueryResult result;
+
+    public StubDatabaseManager(int rowCount, int columnCount) {
+        super("jdbc:mysql://stub:3306/stub", "stub", "stub");
+        this.result = syntheticResult(rowCount, columnCount);
+    }
+
+    /**
+     * 生成合成结果，列类型依次为整数、字符串、小数、时间戳，每 7 个值中有一个 NULL
+     */
+    static QueryResult syntheticResult(int rowCount, int columnCount) {
+        String[] columns = new String[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            columns[c] = "column_" + c;
+        }
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            Object[] row = new Object[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                if ((r + c) % 7 == 6) {
+                    continue;
+                }
+                switch (c % 4) {
+                    case 0:
+                        row[c] = (long) r * columnCount + c;
+                        break;
+                    case 1:
+                        row[c] = "value " + r + "-" + c;
+                        break;
+                    case 2:
+                        row[c] = BigDecimal.valueOf(r * 100L + c, 2);
+                        break;
+                    default:
+                        row[c] = new Timestamp(1_700_000_000_000L + r * 1000L);
+                        break;
+                }
+            }
+            rows.add(row);
+        }
+        return new QueryResult(columns, rows);
+    }
+
+    @Override
+    public QueryResult executeQueryResult(String sql, List<Object> params, ResultLimits limits) {
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, List<Object> params) {
+        return 1;
+    }
+
+    @Override
+    public Map<String, Object> executeUpdateWithKeys(String sql, List<Object> params) {
+        Map<String, Object> keys = new HashMap<>();
+        keys.put("affectedRows", 1);
+        keys.put("generatedKey", 1L);
+        return keys;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        // 没有连接池需要关闭
+    }
+}
@@ -0,0 +1,84 @@
+package com.mysqlmcp.benchmark;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mysqlmcp.tools.MCPToolHandler;
+
+/**
+ * tools/list 的构建，以及 insert_data/update_data 的 SQL 构建和参数转换
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolHandlerBenchmark {
+
+    /** insert_data/update_data 的列数 */
+    @Param({"4", "32"})
+    public int columns;
+
+    private MCPToolHandler toolHandler;
+    private JsonObject insertArguments;
+    private JsonObject updateArguments;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.quietLogging();
+        toolHandler = new MCPToolHandler(new StubDatabaseManager(0, 0));
+        JsonObject data = new JsonObject();
+        for (int c = 0; c < columns; c++) {
+            if (c % 2 == 0) {
+                data.addProperty("column_" + c, c * 31L);
+            } else {
+                data.addProperty("column_" + c, "value " + c);
+            }
+        }
+        insertArguments = new JsonObject();
+        insertArguments.addProperty("table", "benchmark_table");
+        insertArguments.add("data", data);
+
+        updateArguments = insertArguments.deepCopy();
+        updateArguments.addProperty("where", "id = ?");
+        JsonArray params = new JsonArray();
+        params.add(42);
+        updateArguments.add("params", params);
+    }
+
+    @TearDown
+    public void tearDown() {
+        toolHandler.close();
+    }
+
+    @Benchmark
+    public JsonObject toolsList() {
+        return toolHandler.getToolsList();
+    }
+
+    @Benchmark
+    public JsonObject insertData() throws SQLException {
+        return toolHandler.callTool("insert_data", insertArguments);
+    }
+
+    @Benchmark
+    public JsonObject updateData() throws SQLException {
+        return toolHandler.callTool("update_data", updateArguments);
+    }
+}
@@ -0,0 +1,137 @@
+package com.mysqlmcp.config;
+
+import java.nio.charset.StandardCharsets;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.filter.ThresholdFilter;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.hook.DefaultShutdownHook;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * 可选的代码日志配置
+ * logback.xml 是日志配置的唯一来源，默认由 logback 读取。设置 mcp.fastStart.logging=true 时
+ * 用代码创建与打包的 logback.xml 等价的输出器，跳过 XML 解析（启动时间中占比最大的一项），
+ * 此时不读取 logback.xml，只适合使用默认配置的部署。
+ * 通过 ServiceLoader 在 logback 默认配置之前调用；未开启、关闭快速启动或指定了
+ * logback.configurationFile 时不做处理，由 logback 继续读取 XML 配置。
+ */
+public class LoggingConfigurator extends ContextAwareBase implements Configurator {
+    private static final String LOG_HOME = "logs";
+    private static final String LOG_FILE = "mysql-mcp-server";
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%level] %logger{36} - %msg%n";
+
+    @Override
+    public ExecutionStatus configure(LoggerContext context) {
+        // 日志系统尚未初始化，不能使用 ServerConfig（它本身会记录日志）
+        if (System.getProperty("logback.configurationFile") != null || !isCodeConfigEnabled()) {
+            return ExecutionStatus.INVOKE_NEXT_IF_ANY;
+        }
+
+        ConsoleAppender<ILoggingEvent> console = new ConsoleAppender<>();
+        console.setContext(context);
+        console.setName("CONSOLE");
+        // 输出到 stderr（MCP协议要求）
+        console.setTarget("System.err");
+        console.setEncoder(encoder(context));
+        console.start();
+
+        RollingFileAppender<ILoggingEvent> file = rollingFile(context, "FILE", LOG_FILE, "1GB");
+        RollingFileAppender<ILoggingEvent> errorFile = rollingFile(context, "ERROR_FILE", LOG_FILE + "-error", "500MB");
+        ThresholdFilter errorOnly = new ThresholdFilter();
+        errorOnly.setLevel(Level.ERROR.toString());
+        errorOnly.start();
+        errorFile.addFilter(errorOnly);
+        errorFile.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(async(context, "ASYNC_CONSOLE", console, 8192, -1));
+        root.addAppender(async(context, "ASYNC_FILE", file, 8192, -1));
+        root.addAppender(async(context, "ASYNC_ERROR_FILE", errorFile, 1024, 0));
+        context.getLogger("com.mysqlmcp").setLevel(Level.INFO);
+
+        // 进程退出时等待队列中的日志写完
+        DefaultShutdownHook shutdownHook = new DefaultShutdownHook();
+        shutdownHook.setContext(context);
+        Runtime.getRuntime().addShutdownHook(new Thread(shutdownHook, "Logback shutdown hook [" + context.getName() + "]"));
+        return ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+    }
+
+    /**
+     * mcp.fastStart.logging 默认关闭，并且只在快速启动开启时生效
+     */
+    private static boolean isCodeConfigEnabled() {
+        return isEnabled("mcp.fastStart.logging", "MCP_FAST_START_LOGGING", false)
+            && isEnabled("mcp.fastStart.enabled", "MCP_FAST_START_ENABLED", true);
+    }
+
+    private static boolean isEnabled(String property, String env, boolean defaultValue) {
+        String value = System.getProperty(property, System.getenv().get(env));
+        return value == null || value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    private static PatternLayoutEncoder encoder(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.setCharset(StandardCharsets.UTF_8);
+        encoder.start();
+        return encoder;
+    }
+
+    /**
+     * 按日期和大小滚动的文件输出器，调用方添加过滤器后启动
+     */
+    private static RollingFileAppender<ILoggingEvent> rollingFile(LoggerContext context, String name, String fileName,
+                                                                  String totalSizeCap) {
+        RollingFileAppender<ILoggingEvent> appender = new RollingFileAppender<>();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setFile(LOG_HOME + "/" + fileName + ".log");
+        appender.setEncoder(encoder(context));
+
+        SizeAndTimeBasedRollingPolicy<ILoggingEvent> policy = new SizeAndTimeBasedRollingPolicy<>();
+        policy.setContext(context);
+        policy.setParent(appender);
+        policy.setFileNamePattern(LOG_HOME + "/" + fileName + ".%d{yyyy-MM-dd}.%i.log");
+        policy.setMaxFileSize(FileSize.valueOf("10MB"));
+        policy.setMaxHistory(30);
+        policy.setTotalSizeCap(FileSize.valueOf(totalSizeCap));
+        policy.start();
+        appender.setRollingPolicy(policy);
+        return appender;
+    }
+
+    /**
+     * 异步输出器，参数与 logback.xml 中的 AsyncAppender 一致
+     * @param discardingThreshold 小于 0 时使用默认值（队列剩余 20% 时丢弃 INFO 及以下）
+     */
+    private static AsyncAppender async(LoggerContext context, String name, Appender<ILoggingEvent> delegate,
+                                       int queueSize, int discardingThreshold) {
+        if (!delegate.isStarted()) {
+            delegate.start();
+        }
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setName(name);
+        async.setQueueSize(queueSize);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        if (discardingThreshold >= 0) {
+            async.setDiscardingThreshold(discardingThreshold);
+        }
+        async.addAppender(delegate);
+        async.start();
+        return async;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mysqlmcp.config;
+
+import cn.hutool.core.util.StrUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 服务器配置读取工具
+ * 与 mysql.url 相同的读取方式：优先系统属性，其次环境变量，最后使用默认值
+ */
+public final class ServerConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ServerConfig.class);
+
+    private ServerConfig() {
+    }
+
+    /**
+     * 读取字符串配置
+     * @param property 系统属性名，例如 mysql.pool.maxSize
+     * @param env 环境变量名，例如 MYSQL_POOL_MAX_SIZE
+     * @param defaultValue 未配置时的默认值
+     */
+    public static String getString(String property, String env, String defaultValue) {
+        String value = System.getProperty(property, System.getenv().get(env));
+        return StrUtil.isBlank(value) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String property, String env, int defaultValue) {
+        String value = getString(property, env, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid integer for {}: {}, using default {}", property, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String property, String env, long defaultValue) {
+        String value = getString(property, env, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid long for {}: {}, using default {}", property, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String property, String env, double defaultValue) {
+        String value = getString(property, env, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid number for {}: {}, using default {}", property, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String property, String env, boolean defaultValue) {
+        String value = getString(property, env, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * 是否启用快速启动（mcp.fastStart.enabled，默认开启）
+     * 开启时推迟 JMX 注册；同时设置 mcp.fastStart.logging 时用代码配置日志（见 LoggingConfigurator）
+     */
+    public static boolean isFastStartEnabled() {
+        return getBoolean("mcp.fastStart.enabled", "MCP_FAST_START_ENABLED", true);
+    }
+}
@@ -0,0 +1,139 @@
+package com.mysqlmcp.database;
+
+/**
+ * 查询准入检查的结果：处理方式、原因和执行计划摘要
+ */
+public class AdmissionDecision {
+
+    /**
+     * 处理方式
+     */
+    public enum Action {
+        /** 正常执行 */
+        ALLOW("allow"),
+        /** 执行，并在结果中提示 */
+        WARN("warn"),
+        /** 执行，但加上服务器端执行时间上限并降低行数上限 */
+        DOWNGRADE("downgrade"),
+        /** 不执行 */
+        REJECT("reject");
+
+        private final String name;
+
+        Action(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 按名称解析（不区分大小写），无法识别时返回 null
+         */
+        public static Action parse(String name) {
+            for (Action action : values()) {
+                if (action.name.equalsIgnoreCase(name)) {
+                    return action;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Action action;
+    private final String reason;
+    private final QueryPlan plan;
+    private final boolean planCached;
+    private final long maxExecutionMillis;
+    private final long maxRows;
+
+    AdmissionDecision(Action action, String reason, QueryPlan plan, boolean planCached, long maxExecutionMillis,
+                      long maxRows) {
+        this.action = action;
+        this.reason = reason;
+        this.plan = plan;
+        this.planCached = planCached;
+        this.maxExecutionMillis = maxExecutionMillis;
+        this.maxRows = maxRows;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * 超过阈值的原因，ALLOW 时为 null（EXPLAIN 失败时为失败原因）
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * 执行计划摘要，EXPLAIN 失败时为 null
+     */
+    public QueryPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * 执行计划是否来自缓存
+     */
+    public boolean isPlanCached() {
+        return planCached;
+    }
+
+    /**
+     * 降级时的服务器端执行时间上限（毫秒），不降级时为 0
+     */
+    public long getMaxExecutionMillis() {
+        return maxExecutionMillis;
+    }
+
+    /**
+     * 降级时的行数上限，不降级时为 0
+     */
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * 降级时降低行数上限
+     */
+    public ResultLimits applyTo(ResultLimits limits) {
+        return action == Action.DOWNGRADE && maxRows > 0 ? limits.withMaxRows(maxRows) : limits;
+    }
+
+    /**
+     * 降级时为语句加上 MAX_EXECUTION_TIME 提示
+     */
+    public String applyTo(String sql) {
+        return action == Action.DOWNGRADE && maxExecutionMillis > 0
+            ? SqlStatements.withMaxExecutionTime(sql, maxExecutionMillis) : sql;
+    }
+
+    /**
+     * 返回给调用方的说明
+     */
+    public String describe() {
+        String planText = plan == null ? "no plan" : "plan: " + plan;
+        switch (action) {
+            case WARN:
+                return "Expensive query (" + reason + "; " + planText
+                    + "). Consider a more selective WHERE on an indexed column or a LIMIT";
+            case DOWNGRADE:
+                return "Expensive query downgraded (" + reason + "; " + planText + "): limited to "
+                    + (maxExecutionMillis > 0 ? maxExecutionMillis + " ms and " : "") + maxRows + " row(s)";
+            case REJECT:
+                return "Query rejected by admission control: " + reason + " (" + planText
+                    + "). Add a more selective WHERE on an indexed column or a LIMIT";
+            default:
+                return reason == null ? "Query admitted (" + planText + ")" : "Query admitted unchecked: " + reason;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return action.getName() + (reason == null ? "" : " (" + reason + ")");
+    }
+}
@@ -0,0 +1,116 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量执行结果
+ * 每个分块在独立事务中提交；某个分块失败时回滚该分块并停止，之前的分块保持已提交状态
+ */
+public class BatchResult {
+    /** 是否保留每个分块的明细（大文件导入时只保留汇总，内存占用不随分块数增长） */
+    private final boolean retainChunks;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int chunkCount;
+    private long committedRows;
+    private long totalAffectedRows;
+    private String error;
+    private int failedChunk = -1;
+
+    public BatchResult(boolean retainChunks) {
+        this.retainChunks = retainChunks;
+    }
+
+    /**
+     * 分块提交监听器，用于报告进度
+     */
+    public interface Listener {
+        void chunkCommitted(Chunk chunk, BatchResult totals);
+    }
+
+    /**
+     * 已提交分块的明细，retainChunks 为 false 时为空
+     */
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    void addChunk(Chunk chunk) {
+        chunkCount++;
+        committedRows += chunk.getRowCount();
+        totalAffectedRows += chunk.getAffectedRows();
+        if (retainChunks) {
+            chunks.add(chunk);
+        }
+    }
+
+    /**
+     * 失败原因，全部成功时为 null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * 失败分块的序号（从 0 开始），全部成功时为 -1
+     */
+    public int getFailedChunk() {
+        return failedChunk;
+    }
+
+    void fail(int chunkIndex, String error) {
+        this.failedChunk = chunkIndex;
+        this.error = error;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getTotalAffectedRows() {
+        return totalAffectedRows;
+    }
+
+    public long getCommittedRows() {
+        return committedRows;
+    }
+
+    /**
+     * 已提交的一个分块
+     */
+    public static class Chunk {
+        private final int index;
+        private final int rowCount;
+        private final long affectedRows;
+        private final List<Object> generatedKeys;
+        private final long elapsedMillis;
+
+        Chunk(int index, int rowCount, long affectedRows, List<Object> generatedKeys, long elapsedMillis) {
+            this.index = index;
+            this.rowCount = rowCount;
+            this.affectedRows = affectedRows;
+            this.generatedKeys = generatedKeys;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public long getAffectedRows() {
+            return affectedRows;
+        }
+
+        public List<Object> getGeneratedKeys() {
+            return generatedKeys;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
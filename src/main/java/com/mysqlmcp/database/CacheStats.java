@@ -0,0 +1,58 @@
+package com.mysqlmcp.database;
+
+/**
+ * 缓存统计快照
+ */
+public class CacheStats {
+    private final int size;
+    private final long weight;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+
+    public CacheStats(int size, long weight, long hits, long misses, long evictions, long invalidations) {
+        this.size = size;
+        this.weight = weight;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{size=" + size + ", hits=" + hits + ", misses=" + misses
+            + ", hitRatio=" + String.format("%.3f", getHitRatio())
+            + ", evictions=" + evictions + ", invalidations=" + invalidations + "}";
+    }
+}
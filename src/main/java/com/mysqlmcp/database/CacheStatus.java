@@ -0,0 +1,13 @@
+package com.mysqlmcp.database;
+
+/**
+ * 查询结果缓存的查找状态
+ */
+public enum CacheStatus {
+    /** 缓存未开启或语句不可缓存 */
+    BYPASS,
+    /** 从缓存返回 */
+    HIT,
+    /** 未命中，已从数据库读取 */
+    MISS
+}
@@ -0,0 +1,357 @@
+package com.mysqlmcp.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界 JDBC 连接池
+ * 借出的连接是代理对象，调用 close() 时归还连接池而不是关闭物理连接。
+ * 支持最小/最大连接数、借用时校验、空闲回收、最大存活时间和连接泄漏检测。
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String name;
+    private final String url;
+    private final Properties properties;
+    private final PoolConfig config;
+
+    /** 空闲连接，后进先出以优先复用最近使用的连接 */
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledEntry> all = ConcurrentHashMap.newKeySet();
+    /** 许可数等于最大连接数，借出连接前必须获得许可 */
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, String url, Properties properties, PoolConfig config) {
+        this.name = name;
+        this.url = url;
+        this.properties = properties;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mysql-pool-" + name + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, config.getHousekeepingPeriodMs());
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+        logger.info("Connection pool '{}' created: minSize={}, maxSize={}", name, config.getMinSize(), config.getMaxSize());
+    }
+
+    /**
+     * 从连接池借用连接，使用完毕后调用 close() 归还
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLException("Timeout after " + config.getConnectionTimeoutMs()
+                + "ms waiting for connection from pool '" + name + "' (" + getStats() + ")", "08001");
+        }
+
+        try {
+            PooledEntry entry = takeValidEntry();
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.leakReported = false;
+            if (config.getLeakDetectionThresholdMs() > 0) {
+                entry.borrowTrace = new Exception("Connection borrowed here");
+            }
+            entry.logicallyClosed = false;
+
+            borrowCount.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return entry.createProxy();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 取出一个可用的空闲连接，没有时新建连接
+     */
+    private PooledEntry takeValidEntry() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isExpired(entry)) {
+                closeEntry(entry, "max lifetime reached");
+                continue;
+            }
+            long idleFor = System.currentTimeMillis() - entry.lastReturnedAt;
+            if (idleFor >= config.getValidationIntervalMs() && !isValid(entry)) {
+                closeEntry(entry, "validation failed");
+                continue;
+            }
+            return entry;
+        }
+        return createEntry();
+    }
+
+    private boolean isValid(PooledEntry entry) {
+        try {
+            return entry.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledEntry entry) {
+        return config.getMaxLifetimeMs() > 0
+            && System.currentTimeMillis() - entry.createdAt >= config.getMaxLifetimeMs();
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, properties);
+        PooledEntry entry = new PooledEntry(physical);
+        all.add(entry);
+        createdCount.increment();
+        logger.info("Pool '{}' opened connection to {} (total={})", name, url, all.size());
+        return entry;
+    }
+
+    private void closeEntry(PooledEntry entry, String reason) {
+        all.remove(entry);
+        closedCount.increment();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing pooled connection", e);
+        }
+        logger.debug("Pool '{}' closed connection ({}), total={}", name, reason, all.size());
+    }
+
+    /**
+     * 标记借出的连接在归还时关闭，不再放回连接池
+     * 用于会话状态（当前数据库、会话变量、临时表等）已被修改、无法简单重置的连接；不是连接池的连接时忽略
+     */
+    static void discardOnClose(Connection connection) {
+        if (Proxy.isProxyClass(connection.getClass())
+            && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler) {
+            ((ConnectionHandler) Proxy.getInvocationHandler(connection)).entry.broken = true;
+        }
+    }
+
+    /**
+     * 归还连接：重置会话状态后放回空闲队列
+     */
+    private void release(PooledEntry entry) {
+        try {
+            if (closed || entry.broken || isExpired(entry)) {
+                closeEntry(entry, entry.broken ? "broken" : "released after close/expiry");
+                return;
+            }
+            try {
+                if (!entry.physical.getAutoCommit()) {
+                    entry.physical.rollback();
+                    entry.physical.setAutoCommit(true);
+                }
+                entry.physical.clearWarnings();
+            } catch (SQLException e) {
+                closeEntry(entry, "reset failed");
+                return;
+            }
+            entry.borrowTrace = null;
+            entry.lastReturnedAt = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 后台维护：空闲回收、最大存活时间、泄漏检测以及补足最小连接数
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // 从队尾（最久未使用）开始回收
+            for (PooledEntry entry : idle.toArray(new PooledEntry[0])) {
+                boolean idleTooLong = config.getIdleTimeoutMs() > 0
+                    && now - entry.lastReturnedAt >= config.getIdleTimeoutMs()
+                    && all.size() > config.getMinSize();
+                if ((idleTooLong || isExpired(entry)) && idle.remove(entry)) {
+                    closeEntry(entry, idleTooLong ? "idle timeout" : "max lifetime reached");
+                }
+            }
+
+            long threshold = config.getLeakDetectionThresholdMs();
+            if (threshold > 0) {
+                for (PooledEntry entry : all) {
+                    if (!entry.logicallyClosed && !entry.leakReported && entry.borrowedAt > 0
+                        && now - entry.borrowedAt >= threshold) {
+                        entry.leakReported = true;
+                        leakCount.increment();
+                        logger.warn("Possible connection leak in pool '{}': connection borrowed for {}ms",
+                            name, now - entry.borrowedAt, entry.borrowTrace);
+                    }
+                }
+            }
+
+            fillToMinimum();
+        } catch (Exception e) {
+            logger.warn("Connection pool '{}' housekeeping failed", name, e);
+        }
+    }
+
+    /**
+     * 预先创建连接直到达到最小连接数
+     */
+    public void fillToMinimum() {
+        while (!closed && all.size() < config.getMinSize() && permits.tryAcquire()) {
+            try {
+                PooledEntry entry = createEntry();
+                entry.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                logger.warn("Pool '{}' could not pre-create connection: {}", name, e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    public PoolStats getStats() {
+        int total = all.size();
+        int idleCount = idle.size();
+        return new PoolStats(total, Math.max(0, total - idleCount), idleCount, waiting.get(),
+            config.getMaxSize(), borrowCount.sum(), timeoutCount.sum(), createdCount.sum(),
+            closedCount.sum(), leakCount.sum(), totalWaitNanos.sum(), maxWaitNanos.get());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeEntry(entry, "pool closed");
+        }
+        logger.info("Connection pool '{}' closed ({} connections still borrowed)", name, all.size());
+    }
+
+    /**
+     * 池中的一个物理连接
+     */
+    private final class PooledEntry {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastReturnedAt = createdAt;
+        private volatile long borrowedAt;
+        private volatile boolean logicallyClosed = true;
+        private volatile boolean broken;
+        private volatile boolean leakReported;
+        private volatile Exception borrowTrace;
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection createProxy() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(this));
+        }
+    }
+
+    /**
+     * 连接代理：拦截 close()/isClosed()，其余调用转发给物理连接
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean proxyClosed;
+
+        private ConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!proxyClosed) {
+                        proxyClosed = true;
+                        entry.logicallyClosed = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return proxyClosed || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+            if (proxyClosed) {
+                throw new SQLException("Connection is closed", "08003");
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    if (state != null && state.startsWith("08")) {
+                        entry.broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+    }
+}
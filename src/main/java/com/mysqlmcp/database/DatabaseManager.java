@@ -1,14 +1,31 @@
 package com.mysqlmcp.database;
 
 import cn.hutool.core.util.StrUtil;
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.mysqlmcp.config.ServerConfig;
+import com.mysqlmcp.metrics.CallTimings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MySQL数据库管理器
@@ -20,7 +37,22 @@ public class DatabaseManager {
     private String url;
     private String username;
     private String password;
-    private Connection connection;
+    private final PoolConfig poolConfig = PoolConfig.fromEnvironment();
+    private volatile ConnectionPool connectionPool;
+    private final MetadataCache metadataCache = MetadataCache.fromEnvironment();
+    private final QueryResultCache resultCache = QueryResultCache.fromEnvironment();
+    private final ResultLimits resultLimits = ResultLimits.fromEnvironment();
+    private final ResultMemoryBudget resultMemoryBudget = ResultMemoryBudget.fromEnvironment();
+    private final QueryAdmission queryAdmission = QueryAdmission.fromEnvironment();
+    private final boolean loadLocalInfileEnabled =
+        ServerConfig.getBoolean("mysql.loadLocalInfile.enabled", "MYSQL_LOAD_LOCAL_INFILE_ENABLED", false);
+    /** 默认查询超时（秒），0 表示不限制 */
+    private final int defaultQueryTimeoutSeconds =
+        ServerConfig.getInt("mysql.queryTimeoutSeconds", "MYSQL_QUERY_TIMEOUT_SECONDS", 0);
+    private final Map<String, RequestContext> activeRequests = new ConcurrentHashMap<>();
+    private final ReplicaRouter replicaRouter;
+    private final Map<String, ShardGroup> shardGroups;
+    private volatile ExecutorService metadataExecutor;
 
     public DatabaseManager() {
         // 从环境变量或系统属性读取配置
@@ -31,23 +63,232 @@ public class DatabaseManager {
         if (StrUtil.isEmpty(url) || StrUtil.isEmpty(username) || StrUtil.isEmpty(password)) {
             throw new RuntimeException("数据库参数缺失");
         }
+        this.replicaRouter = ReplicaRouter.fromEnvironment(url, this::createConnectionProperties, poolConfig,
+            defaultQueryTimeoutSeconds);
+        this.shardGroups = ShardGroup.fromEnvironment(this::createConnectionProperties, poolConfig);
     }
 
     public DatabaseManager(String url, String username, String password) {
         this.url = url;
         this.username = username;
         this.password = password;
+        this.replicaRouter = ReplicaRouter.fromEnvironment(url, this::createConnectionProperties, poolConfig,
+            defaultQueryTimeoutSeconds);
+        this.shardGroups = ShardGroup.fromEnvironment(this::createConnectionProperties, poolConfig);
     }
 
     /**
-     * 获取数据库连接
+     * 从连接池获取数据库连接
+     * 调用方使用 try-with-resources 关闭时，连接会归还连接池而不是断开
      */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(url, username, password);
-            logger.info("Connected to database: {}", url);
+        return getConnectionPool().borrow();
+    }
+
+    /**
+     * 获取连接池，首次使用时才创建
+     */
+    private ConnectionPool getConnectionPool() {
+        ConnectionPool pool = connectionPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = connectionPool;
+                if (pool == null) {
+                    pool = new ConnectionPool("primary", url, createConnectionProperties(url), poolConfig);
+                    connectionPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 创建物理连接使用的属性
+     * 默认开启驱动的预编译语句缓存（每个连接一份）和服务端预编译，
+     * 相同结构的语句在连接复用时跳过解析和执行计划生成；URL 中已指定的属性不会被覆盖
+     * @param targetUrl 连接地址（主库或只读副本）
+     */
+    private Properties createConnectionProperties(String targetUrl) {
+        Properties properties = new Properties();
+        if (username != null) {
+            properties.setProperty("user", username);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        if (ServerConfig.getBoolean("mysql.prepStmtCache.enabled", "MYSQL_PREP_STMT_CACHE_ENABLED", true)) {
+            setDefaultProperty(properties, targetUrl, "cachePrepStmts", "true");
+            setDefaultProperty(properties, targetUrl, "prepStmtCacheSize",
+                ServerConfig.getString("mysql.prepStmtCache.size", "MYSQL_PREP_STMT_CACHE_SIZE", "256"));
+            setDefaultProperty(properties, targetUrl, "prepStmtCacheSqlLimit",
+                ServerConfig.getString("mysql.prepStmtCache.sqlLimit", "MYSQL_PREP_STMT_CACHE_SQL_LIMIT", "2048"));
+            setDefaultProperty(properties, targetUrl, "useServerPrepStmts",
+                ServerConfig.getString("mysql.serverPrepStmts", "MYSQL_SERVER_PREP_STMTS", "true"));
+        }
+        // 批量 INSERT 改写为多值 INSERT，一个分块只需一次往返
+        setDefaultProperty(properties, targetUrl, "rewriteBatchedStatements",
+            ServerConfig.getString("mysql.rewriteBatchedStatements", "MYSQL_REWRITE_BATCHED_STATEMENTS", "true"));
+        if (loadLocalInfileEnabled) {
+            setDefaultProperty(properties, targetUrl, "allowLoadLocalInfile", "true");
+        }
+        return properties;
+    }
+
+    /**
+     * 仅在 URL 中没有指定该属性时设置
+     */
+    private void setDefaultProperty(Properties properties, String targetUrl, String key, String value) {
+        if (targetUrl == null || !targetUrl.contains(key + "=")) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    public boolean isLoadLocalInfileEnabled() {
+        return loadLocalInfileEnabled;
+    }
+
+    public PoolConfig getPoolConfig() {
+        return poolConfig;
+    }
+
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * 服务器配置的结果行数和字节数上限
+     */
+    public ResultLimits getResultLimits() {
+        return resultLimits;
+    }
+
+    public ResultMemoryBudget getResultMemoryBudget() {
+        return resultMemoryBudget;
+    }
+
+    public QueryAdmission getQueryAdmission() {
+        return queryAdmission;
+    }
+
+    public ReplicaRouter getReplicaRouter() {
+        return replicaRouter;
+    }
+
+    /**
+     * 已配置的分片组（按配置顺序）
+     */
+    public Map<String, ShardGroup> getShardGroups() {
+        return Collections.unmodifiableMap(shardGroups);
+    }
+
+    public int getDefaultQueryTimeoutSeconds() {
+        return defaultQueryTimeoutSeconds;
+    }
+
+    /**
+     * 开始处理一个请求，返回的上下文绑定到当前线程，请求结束时关闭
+     * 上下文存在期间执行的语句都会登记到该请求，可以通过 cancelRequest 中止
+     * @param requestId 请求 ID
+     * @param timeoutSeconds 本次请求的查询超时（秒），为 null 时使用默认值，0 表示不限制
+     */
+    public RequestContext beginRequest(String requestId, Integer timeoutSeconds) {
+        int timeout = timeoutSeconds != null ? Math.max(0, timeoutSeconds) : defaultQueryTimeoutSeconds;
+        return new RequestContext(requestId, timeout, activeRequests);
+    }
+
+    /**
+     * 取消正在处理的请求，中止其正在执行的语句
+     * @return 请求是否仍在处理中
+     */
+    public boolean cancelRequest(String requestId) {
+        RequestContext context = requestId == null ? null : activeRequests.get(requestId);
+        if (context == null) {
+            return false;
+        }
+        context.cancel();
+        return true;
+    }
+
+    public int getActiveRequestCount() {
+        return activeRequests.size();
+    }
+
+    /**
+     * 设置语句的查询超时并登记到当前请求
+     * 超时由驱动在到期时发送 KILL QUERY 中止；当前请求已取消时直接抛出异常
+     */
+    private RequestContext.Registration track(Statement stmt) throws SQLException {
+        RequestContext context = RequestContext.current();
+        int timeout = context != null ? context.getTimeoutSeconds() : defaultQueryTimeoutSeconds;
+        if (timeout > 0) {
+            stmt.setQueryTimeout(timeout);
+        }
+        if (context == null) {
+            return RequestContext.Registration.NONE;
+        }
+        context.register(stmt);
+        return new RequestContext.Registration(context, stmt);
+    }
+
+    /**
+     * 语句会改变会话状态（当前数据库、会话变量、临时表、表锁等）时，连接用完后关闭而不放回连接池，
+     * 避免状态泄漏给之后借用该连接的请求
+     */
+    private static void guardSessionState(Connection conn, String sql) {
+        if (SqlStatements.changesSessionState(sql)) {
+            ConnectionPool.discardOnClose(conn);
+        }
+    }
+
+    /**
+     * 预热：创建连接池并建立最小连接数的连接，然后加载当前数据库的表列表到元数据缓存
+     * 在后台线程调用，首个工具调用不再等待建立连接；无法连接时只记录警告
+     * @return 是否成功连接数据库
+     */
+    public boolean warmUp() {
+        ConnectionPool pool = getConnectionPool();
+        pool.fillToMinimum();
+        if (pool.getStats().getTotalConnections() == 0 && poolConfig.getMinSize() > 0) {
+            // 无法建立连接（原因已由连接池记录），不再为元数据重试
+            return false;
+        }
+        try {
+            List<String> tables = getTables();
+            logger.info("Warm-up loaded {} table(s) into metadata cache", tables.size());
+            if (replicaRouter.isEnabled() && !replicaRouter.warmUp()) {
+                logger.warn("Warm-up found no available replica, reads will use the primary");
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Warm-up could not load table list: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 获取连接池统计信息，连接池尚未创建时返回 null
+     */
+    public PoolStats getPoolStats() {
+        ConnectionPool pool = connectionPool;
+        return pool == null ? null : pool.getStats();
+    }
+
+    /**
+     * 执行读操作：配置了只读副本且 toReplica 为 true 时由 ReplicaRouter 选择副本，否则使用主库连接
+     * @param hedgeable 是否允许对冲读（在两个副本上同时执行）
+     */
+    private <T> T executeRead(boolean toReplica, boolean hedgeable, ReplicaRouter.ReadOperation<T> operation)
+            throws SQLException {
+        if (toReplica) {
+            return replicaRouter.read(operation, hedgeable, this::getConnection);
+        }
+        try (Connection conn = getConnection()) {
+            return operation.execute(conn);
         }
-        return connection;
     }
 
     /**
@@ -55,61 +296,767 @@ public class DatabaseManager {
      */
     public List<Map<String, Object>> executeQuery(String sql) throws SQLException {
         logger.debug("Executing query: {}", sql);
-        List<Map<String, Object>> results = new ArrayList<>();
         
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
+        return executeRead(replicaRouter.routes(sql), true, conn -> {
+            guardSessionState(conn, sql);
+            List<Map<String, Object>> results = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                RequestContext.Registration registration = track(stmt);
+                try (ResultSet rs = stmt.executeQuery()) {
+                
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    int columnCount = metaData.getColumnCount();
+                
+                    while (rs.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int i = 1; i <= columnCount; i++) {
+                            String columnName = metaData.getColumnName(i);
+                            Object value = rs.getObject(i);
+                            row.put(columnName, value);
+                        }
+                        results.add(row);
+                    }
+                } finally {
+                    registration.close();
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * 执行查询SQL，按列顺序返回结果
+     */
+    public QueryResult executeQueryResult(String sql) throws SQLException {
+        return executeQueryResult(sql, Collections.emptyList());
+    }
+
+    /**
+     * 执行带参数的查询SQL，参数按顺序绑定到 ? 占位符
+     */
+    public QueryResult executeQueryResult(String sql, List<Object> params) throws SQLException {
+        return executeQueryResult(sql, params, resultLimits);
+    }
+
+    /**
+     * 执行带参数的查询SQL，结果按 limits 截断
+     * 没有 LIMIT 的 SELECT 自动追加 LIMIT；结果在内存中占用的空间计入全局结果内存预算，预算不足时排队等待，
+     * 请求结束后归还。
+     */
+    public QueryResult executeQueryResult(String sql, List<Object> params, ResultLimits limits) throws SQLException {
+        String limitedSql = limits.limitSql(sql);
+        int maxRows = limitedSql.equals(sql) ? limits.statementMaxRows() : 0;
+        QueryResultCache.Key cacheKey = resultCache.keyFor(limitedSql, params);
+        QueryResult cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            logger.debug("Result cache hit: {}, params: {}", limitedSql, params);
+            return applyLimits(cached, limits).withCacheStatus(CacheStatus.HIT);
+        }
+        cacheKey = cacheableKey(cacheKey, limitedSql);
+        logger.debug("Executing query: {}, params: {}", limitedSql, params);
+        
+        ResultMemoryBudget.Lease lease = resultMemoryBudget.admit();
+        QueryResult result;
+        try {
+            result = executeRead(replicaRouter.routes(limitedSql), true, conn -> {
+                guardSessionState(conn, limitedSql);
+                try (PreparedStatement stmt = conn.prepareStatement(limitedSql, ResultSet.TYPE_FORWARD_ONLY,
+                         ResultSet.CONCUR_READ_ONLY)) {
+                    RequestContext.Registration registration = track(stmt);
+                    try {
+                        stmt.setMaxRows(maxRows);
+                        stmt.setFetchSize(Integer.MIN_VALUE);
+                        bindParameters(stmt, params);
+                        return readResult(stmt, new ResultCollector(limits, lease));
+                    } finally {
+                        registration.close();
+                    }
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+        releaseOnRequestEnd(lease);
+        if (cacheKey == null || result.getTruncation() != ResultTruncation.NONE) {
+            return result;
+        }
+        resultCache.put(cacheKey, result);
+        return result.withCacheStatus(CacheStatus.MISS);
+    }
+
+    /**
+     * 结果缓存只保存只引用基本表的查询：视图和存储函数读取的表无法从语句中识别，修改这些表时不会失效缓存条目，
+     * 因此引用了视图等非基本表、无法确认类型的名称或存储函数的语句不缓存
+     * 表类型和存储函数名从 information_schema 读取，按数据库缓存在元数据缓存中
+     * @return 可以缓存时返回 key，否则返回 null
+     */
+    private QueryResultCache.Key cacheableKey(QueryResultCache.Key key, String sql) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            for (SqlStatements.TableName table : key.getTables()) {
+                if (!"BASE TABLE".equals(getTableTypes(table.getDatabase()).get(table.getTable()))) {
+                    logger.debug("Not caching result, {} is not a base table", table);
+                    return null;
+                }
+            }
+            for (SqlStatements.TableName function : SqlStatements.functionCalls(sql)) {
+                // db.f( 只可能是存储函数
+                if (function.getDatabase() != null || getStoredFunctions(null).contains(function.getTable())) {
+                    logger.debug("Not caching result, {} is a stored function", function);
+                    return null;
+                }
+            }
+        } catch (SQLException e) {
+            logger.debug("Cannot check result cache sources, not caching: {}", e.getMessage());
+            return null;
+        }
+        return key;
+    }
+
+    /**
+     * 数据库中每张表的类型（information_schema.TABLES.TABLE_TYPE），键为小写表名
+     * @param databaseName 数据库名，为 null 时使用连接的当前数据库
+     */
+    private Map<String, String> getTableTypes(String databaseName) throws SQLException {
+        Map<String, String> cached = metadataCache.getTableTypes(databaseName);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, String> types = new HashMap<>();
+        for (Object[] row : readMetadataRows("SELECT TABLE_NAME, TABLE_TYPE FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = COALESCE(?, DATABASE())", Collections.singletonList(databaseName))) {
+            // 只有大小写不同的同名表按非基本表处理
+            types.merge(String.valueOf(row[0]).toLowerCase(Locale.ROOT), String.valueOf(row[1]),
+                (first, second) -> "BASE TABLE".equals(first) ? second : first);
+        }
+        metadataCache.putTableTypes(databaseName, types);
+        return types;
+    }
+
+    /**
+     * 数据库中的存储函数名（小写）
+     * @param databaseName 数据库名，为 null 时使用连接的当前数据库
+     */
+    private Set<String> getStoredFunctions(String databaseName) throws SQLException {
+        Set<String> cached = metadataCache.getFunctions(databaseName);
+        if (cached != null) {
+            return cached;
+        }
+        Set<String> functions = new HashSet<>();
+        for (Object[] row : readMetadataRows("SELECT ROUTINE_NAME FROM information_schema.ROUTINES "
+                + "WHERE ROUTINE_SCHEMA = COALESCE(?, DATABASE()) AND ROUTINE_TYPE = 'FUNCTION'",
+                Collections.singletonList(databaseName))) {
+            functions.add(String.valueOf(row[0]).toLowerCase(Locale.ROOT));
+        }
+        metadataCache.putFunctions(databaseName, functions);
+        return functions;
+    }
+
+    /**
+     * 查询准入检查：按 EXPLAIN FORMAT=JSON 估算的扫描行数和成本决定放行、提示、降级或拒绝
+     * 执行计划按规范化 SQL 缓存，重复的查询不再执行 EXPLAIN；EXPLAIN 失败时放行。
+     * @return 未开启准入控制或语句不是 SELECT 时返回 null
+     * @throws SQLException 查询被拒绝
+     */
+    public AdmissionDecision admitQuery(String sql, List<Object> params) throws SQLException {
+        if (!queryAdmission.appliesTo(sql)) {
+            return null;
+        }
+        String key = SqlStatements.normalize(sql);
+        QueryPlan plan = queryAdmission.getPlan(key);
+        boolean cached = plan != null;
+        if (plan == null) {
+            try {
+                plan = explain(sql, params);
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("EXPLAIN failed, admitting query unchecked: {}", e.getMessage());
+                return queryAdmission.unchecked(e.getMessage());
+            }
+            queryAdmission.putPlan(key, plan);
+        }
+        AdmissionDecision decision = queryAdmission.decide(plan, cached);
+        if (decision.getAction() != AdmissionDecision.Action.ALLOW) {
+            logger.info("Query admission: {}, plan: {}, sql: {}", decision, plan, sql);
+        }
+        if (decision.getAction() == AdmissionDecision.Action.REJECT) {
+            throw new SQLException(decision.describe(), "42000");
+        }
+        return decision;
+    }
+
+    /**
+     * 取得语句的执行计划摘要（与语句本身使用相同的读路由）
+     */
+    private QueryPlan explain(String sql, List<Object> params) throws SQLException {
+        String json = executeRead(replicaRouter.routes(sql), true, conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN FORMAT=JSON " + sql)) {
+                RequestContext.Registration registration = track(stmt);
+                try {
+                    bindParameters(stmt, params);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next() ? rs.getString(1) : null;
+                    }
+                } finally {
+                    registration.close();
+                }
+            }
+        });
+        if (json == null) {
+            throw new SQLException("EXPLAIN returned no plan");
+        }
+        return QueryPlan.parse(json);
+    }
+
+    /**
+     * 把流式结果读取到内存中，按 limits 截断并计入全局结果内存预算
+     * 用于不能流式输出的格式；调用方负责关闭 stream
+     */
+    public QueryResult materialize(RowStream stream, ResultLimits limits) throws SQLException {
+        ResultMemoryBudget.Lease lease = resultMemoryBudget.admit();
+        try {
+            ResultCollector collector = new ResultCollector(limits, lease);
+            int columnCount = stream.getColumnNames().length;
+            while (stream.next()) {
+                if (collector.isFull()) {
+                    collector.truncate(ResultTruncation.MAX_ROWS);
+                    break;
+                }
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = stream.getValue(i);
+                }
+                if (!collector.add(row)) {
+                    break;
+                }
+            }
+            releaseOnRequestEnd(lease);
+            return collector.toResult(stream.getColumnNames());
+        } catch (SQLException | RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 结果占用的内存预算在请求结束（响应写出）后归还，不在请求中时立即归还
+     */
+    private void releaseOnRequestEnd(ResultMemoryBudget.Lease lease) {
+        RequestContext context = RequestContext.current();
+        if (context != null) {
+            context.attach(lease);
+        } else {
+            lease.close();
+        }
+    }
+
+    /**
+     * 对缓存中的结果应用上限，缓存的结果不受调用时的上限约束
+     */
+    private QueryResult applyLimits(QueryResult result, ResultLimits limits) {
+        List<Object[]> rows = result.getRows();
+        int end = rows.size();
+        ResultTruncation truncation = ResultTruncation.NONE;
+        if (limits.getMaxRows() > 0 && end > limits.getMaxRows()) {
+            end = (int) limits.getMaxRows();
+            truncation = ResultTruncation.MAX_ROWS;
+        }
+        if (limits.getMaxBytes() > 0) {
+            long bytes = 0;
+            for (int i = 0; i < end; i++) {
+                bytes += QueryResultCache.estimateRowBytes(rows.get(i));
+                if (bytes > limits.getMaxBytes()) {
+                    end = i;
+                    truncation = ResultTruncation.MAX_BYTES;
+                    break;
+                }
+            }
+        }
+        return truncation == ResultTruncation.NONE ? result
+            : new QueryResult(result.getColumnNames(), rows.subList(0, end), result.getCacheStatus(), truncation);
+    }
+
+    /**
+     * 按顺序绑定参数
+     */
+    private void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        if (params == null) {
+            return;
+        }
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * 执行查询并将流式结果集读取为 QueryResult
+     * 行逐行读取并计入 collector，超过字节数上限或内存预算时中止查询（避免关闭结果集时读完剩余的行）
+     */
+    private QueryResult readResult(PreparedStatement stmt, ResultCollector collector) throws SQLException {
+        CallTimings timings = RequestContext.timings();
+        long begin = System.nanoTime();
+        ResultSet rs = stmt.executeQuery();
+        long jdbcNanos = System.nanoTime() - begin;
+        long conversionNanos = 0;
+        try {
             ResultSetMetaData metaData = rs.getMetaData();
             int columnCount = metaData.getColumnCount();
+            String[] columnNames = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columnNames[i] = metaData.getColumnLabel(i + 1);
+            }
             
-            while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    String columnName = metaData.getColumnName(i);
-                    Object value = rs.getObject(i);
-                    row.put(columnName, value);
+            while (true) {
+                long fetchBegin = System.nanoTime();
+                boolean hasNext = rs.next();
+                long fetched = System.nanoTime();
+                jdbcNanos += fetched - fetchBegin;
+                if (!hasNext) {
+                    break;
+                }
+                if (collector.isFull()) {
+                    collector.truncate(ResultTruncation.MAX_ROWS);
+                    break;
+                }
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = rs.getObject(i + 1);
                 }
-                results.add(row);
+                boolean added = collector.add(row);
+                conversionNanos += System.nanoTime() - fetched;
+                if (!added) {
+                    stmt.cancel();
+                    break;
+                }
+            }
+            return collector.toResult(columnNames);
+        } finally {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // 中止查询后关闭结果集可能报告中断错误，已读取的结果仍然有效
+                logger.debug("Error closing result set", e);
             }
+            timings.addJdbcNanos(jdbcNanos);
+            timings.addConversionNanos(conversionNanos);
+            timings.addRows(collector.getRowCount());
         }
-        
-        return results;
+    }
+
+    /**
+     * 以流式方式执行查询
+     * 使用 MySQL 流式读取逐行返回结果，不在内存中缓存整个结果集；
+     * 返回的 QueryStream 在关闭前占用一个连接，调用方必须关闭。
+     */
+    public QueryStream openQueryStream(String sql) throws SQLException {
+        return openQueryStream(sql, Collections.emptyList());
+    }
+
+    /**
+     * 以流式方式执行带参数的查询
+     */
+    public QueryStream openQueryStream(String sql, List<Object> params) throws SQLException {
+        return openStream(sql, params, 0);
+    }
+
+    /**
+     * 以流式方式执行带参数的查询，结果按 limits 截断
+     * 没有 LIMIT 的 SELECT 自动追加 LIMIT；流式结果的内存占用与结果集大小无关，不计入结果内存预算
+     */
+    public RowStream openQueryStream(String sql, List<Object> params, ResultLimits limits) throws SQLException {
+        String limitedSql = limits.limitSql(sql);
+        int maxRows = limitedSql.equals(sql) ? limits.statementMaxRows() : 0;
+        return limits.limitStream(openStream(limitedSql, params, maxRows));
+    }
+
+    /**
+     * @param maxRows 语句级的最大行数，0 表示不限制
+     */
+    private QueryStream openStream(String sql, List<Object> params, int maxRows) throws SQLException {
+        QueryResultCache.Key cacheKey = resultCache.keyFor(sql, params);
+        QueryResult cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            logger.debug("Result cache hit: {}, params: {}", sql, params);
+            return new QueryStream(cached);
+        }
+        cacheKey = cacheableKey(cacheKey, sql);
+        logger.debug("Executing streaming query: {}, params: {}", sql, params);
+        Connection conn = replicaRouter.routes(sql)
+            ? replicaRouter.borrowReadConnection(this::getConnection)
+            : getConnection();
+        PreparedStatement stmt = null;
+        RequestContext.Registration registration = RequestContext.Registration.NONE;
+        try {
+            guardSessionState(conn, sql);
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setMaxRows(maxRows);
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            registration = track(stmt);
+            bindParameters(stmt, params);
+            long begin = System.nanoTime();
+            ResultSet rs = stmt.executeQuery();
+            RequestContext.timings().addJdbcNanos(System.nanoTime() - begin);
+            return new QueryStream(conn, stmt, rs, registration, resultCache, cacheKey);
+        } catch (SQLException | RuntimeException e) {
+            registration.close();
+            if (stmt != null) {
+                try {
+                    stmt.close();
+                } catch (SQLException ignored) {
+                    // 关闭失败不影响原始异常
+                }
+            }
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 在分片组的所有分片上并行执行同一条只读查询，返回合并后的流式结果
+     * 每个分片占用一个自己连接池的连接，返回的 ShardedQuery 关闭前一直占用，调用方必须关闭。
+     * @param groupName 分片组名
+     * @param includeShardColumn 是否在结果最前面加入来源分片列 _shard
+     */
+    public ShardedQuery openShardedQuery(String groupName, String sql, List<Object> params, boolean includeShardColumn)
+            throws SQLException {
+        ShardGroup group = shardGroups.get(groupName);
+        if (group == null) {
+            throw new IllegalArgumentException("Unknown shard group: " + groupName + ", configured groups: "
+                + shardGroups.keySet());
+        }
+        if (!SqlStatements.isReadOnlyQuery(sql)) {
+            throw new IllegalArgumentException("Only read-only SELECT statements can run on a shard group");
+        }
+        logger.debug("Executing sharded query on group {}: {}, params: {}", groupName, sql, params);
+        return group.openQuery(sql, params, includeShardColumn, defaultQueryTimeoutSeconds);
     }
 
     /**
      * 执行更新SQL（INSERT, UPDATE, DELETE）
      */
     public int executeUpdate(String sql) throws SQLException {
-        logger.debug("Executing update: {}", sql);
+        return executeUpdate(sql, Collections.emptyList());
+    }
+
+    /**
+     * 执行带参数的更新SQL
+     */
+    public int executeUpdate(String sql, List<Object> params) throws SQLException {
+        logger.debug("Executing update: {}, params: {}", sql, params);
         
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            return stmt.executeUpdate();
+            RequestContext.Registration registration = track(stmt);
+            try {
+                guardSessionState(conn, sql);
+                bindParameters(stmt, params);
+                long begin = System.nanoTime();
+                try {
+                    return stmt.executeUpdate();
+                } finally {
+                    RequestContext.timings().addJdbcNanos(System.nanoTime() - begin);
+                }
+            } finally {
+                registration.close();
+            }
+        } finally {
+            afterUpdate(sql);
+        }
+    }
+
+    /**
+     * 分块批量执行同一条带参数的语句（通常是 INSERT）
+     * 每个分块使用 addBatch/executeBatch 在一个事务中执行并提交；开启 rewriteBatchedStatements 时
+     * 驱动会把一个分块的 INSERT 改写为多值 INSERT，一次往返发送。
+     * @param rows 每行的绑定参数
+     * @param chunkSize 每个分块（事务）的行数
+     * @param returnKeys 是否返回自动生成的键
+     */
+    public BatchResult executeBatch(String sql, List<List<Object>> rows, int chunkSize, boolean returnKeys)
+            throws SQLException {
+        return executeBatch(sql, rows.iterator(), chunkSize, returnKeys, true, null);
+    }
+
+    /**
+     * 分块批量执行，行从迭代器中按需读取，内存中最多保留一个分块
+     * 迭代器抛出的运行时异常（例如文件格式错误）按当前分块失败处理
+     * @param retainChunks 是否在结果中保留每个分块的明细
+     * @param listener 每个分块提交后回调，可为 null
+     */
+    public BatchResult executeBatch(String sql, Iterator<List<Object>> rows, int chunkSize, boolean returnKeys,
+                                    boolean retainChunks, BatchResult.Listener listener) throws SQLException {
+        logger.debug("Executing batch: {}, chunkSize: {}", sql, chunkSize);
+        int size = Math.max(1, chunkSize);
+        BatchResult result = new BatchResult(retainChunks);
+        
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = returnKeys
+                 ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                 : conn.prepareStatement(sql);
+             RequestContext.Registration registration = track(stmt)) {
+            guardSessionState(conn, sql);
+            conn.setAutoCommit(false);
+            try {
+                for (int index = 0; rows.hasNext(); index++) {
+                    long begin = System.nanoTime();
+                    int count = 0;
+                    try {
+                        registration.checkCancelled();
+                        while (count < size && rows.hasNext()) {
+                            bindParameters(stmt, rows.next());
+                            stmt.addBatch();
+                            count++;
+                        }
+                        long executeBegin = System.nanoTime();
+                        int[] counts = stmt.executeBatch();
+                        List<Object> keys = returnKeys ? readGeneratedKeys(stmt) : new ArrayList<>();
+                        conn.commit();
+                        RequestContext.timings().addJdbcNanos(System.nanoTime() - executeBegin);
+                        BatchResult.Chunk chunk = new BatchResult.Chunk(index, count, sumUpdateCounts(counts, count),
+                            keys, (System.nanoTime() - begin) / 1_000_000);
+                        result.addChunk(chunk);
+                        if (listener != null) {
+                            listener.chunkCommitted(chunk, result);
+                        }
+                    } catch (SQLException | RuntimeException e) {
+                        conn.rollback();
+                        stmt.clearBatch();
+                        logger.warn("Batch chunk {} failed and was rolled back: {}", index, e.getMessage());
+                        result.fail(index, e.getMessage());
+                        break;
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            afterUpdate(sql);
+        }
+        return result;
+    }
+
+    /**
+     * 在一个连接上依次执行脚本中的语句，记录每条语句的影响行数、返回行数和耗时
+     * transaction 为 true 时所有语句在一个事务中执行，全部执行完后提交（DDL 会被 MySQL 隐式提交，无法回滚）；
+     * 出错时 continueOnError 为 false 则停止执行（事务中回滚已执行的语句），为 true 则跳过失败的语句继续执行。
+     * 执行过改变会话状态的语句（USE、SET 等）的连接用完后关闭，不放回连接池。
+     * @throws IllegalArgumentException 在事务中执行包含事务控制语句的脚本
+     */
+    public ScriptResult executeScript(List<String> statements, boolean transaction, boolean continueOnError)
+            throws SQLException {
+        if (transaction) {
+            for (String sql : statements) {
+                if (SqlStatements.controlsTransaction(sql)) {
+                    throw new IllegalArgumentException("Script controls transactions itself ("
+                        + SqlStatements.leadingKeyword(sql) + "), run it with transaction=false");
+                }
+            }
         }
+        logger.debug("Executing script: {} statement(s), transaction: {}, continueOnError: {}",
+            statements.size(), transaction, continueOnError);
+        ScriptResult result = new ScriptResult(transaction, statements.size());
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             RequestContext.Registration registration = track(stmt)) {
+            // USE 切换后的当前数据库，为 null 时是默认数据库
+            String database = null;
+            conn.setAutoCommit(!transaction);
+            try {
+                for (int index = 0; index < statements.size(); index++) {
+                    registration.checkCancelled();
+                    String sql = statements.get(index);
+                    guardSessionState(conn, sql);
+                    ScriptResult.StatementResult executed = executeScriptStatement(stmt, index, sql, database);
+                    result.add(executed);
+                    String target = SqlStatements.useTarget(sql);
+                    if (target != null && executed.getError() == null) {
+                        database = target;
+                    }
+                    if (executed.getError() != null && !continueOnError) {
+                        if (transaction) {
+                            conn.rollback();
+                            result.rollBack();
+                        }
+                        break;
+                    }
+                }
+                if (transaction && !result.isRolledBack()) {
+                    conn.commit();
+                    result.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (transaction) {
+                    conn.rollback();
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 执行脚本中的一条语句，读取它返回的全部结果（存储过程可能返回多个结果集和影响行数）
+     * 语句失败时返回带错误的结果，不抛出异常
+     * @param database 连接的当前数据库，为 null 时是默认数据库
+     */
+    private ScriptResult.StatementResult executeScriptStatement(Statement stmt, int index, String sql,
+                                                                String database) {
+        long begin = System.nanoTime();
+        long affectedRows = 0;
+        long rows = 0;
+        boolean hasResultSet = false;
+        String error = null;
+        try {
+            boolean isResultSet = stmt.execute(sql);
+            while (true) {
+                if (isResultSet) {
+                    hasResultSet = true;
+                    try (ResultSet rs = stmt.getResultSet()) {
+                        while (rs.next()) {
+                            rows++;
+                        }
+                    }
+                } else {
+                    long count = stmt.getLargeUpdateCount();
+                    if (count == -1) {
+                        break;
+                    }
+                    affectedRows += count;
+                }
+                isResultSet = stmt.getMoreResults();
+            }
+        } catch (SQLException e) {
+            logger.warn("Script statement {} failed: {}", index, e.getMessage());
+            error = e.getMessage();
+        } finally {
+            RequestContext.timings().addJdbcNanos(System.nanoTime() - begin);
+            if (!SqlStatements.isReadOnlyQuery(sql)) {
+                afterUpdate(sql, database);
+            }
+        }
+        return new ScriptResult.StatementResult(index, sql, affectedRows, rows, hasResultSet,
+            (System.nanoTime() - begin) / 1_000_000, error);
+    }
+
+    /**
+     * 使用 LOAD DATA LOCAL INFILE 从输入流导入数据
+     * 驱动从输入流分段读取并发送，不在内存中缓存整个文件；需要开启 mysql.loadLocalInfile.enabled
+     * @param sql LOAD DATA LOCAL INFILE 语句
+     * @return 影响行数
+     */
+    public long loadLocalInfile(String sql, InputStream input) throws SQLException {
+        if (!loadLocalInfileEnabled) {
+            throw new SQLException("LOAD DATA LOCAL INFILE is disabled, set mysql.loadLocalInfile.enabled=true to enable");
+        }
+        logger.debug("Executing load data: {}", sql);
+        
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            RequestContext.Registration registration = track(stmt);
+            try {
+                guardSessionState(conn, sql);
+                stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(input);
+                long begin = System.nanoTime();
+                try {
+                    stmt.execute(sql);
+                    return stmt.getLargeUpdateCount();
+                } finally {
+                    RequestContext.timings().addJdbcNanos(System.nanoTime() - begin);
+                }
+            } finally {
+                registration.close();
+            }
+        } finally {
+            afterUpdate(sql);
+        }
+    }
+
+    /**
+     * 汇总批量执行的影响行数
+     * 改写为多值语句时驱动可能返回 SUCCESS_NO_INFO，此时按每行影响一行计算
+     */
+    private long sumUpdateCounts(int[] counts, int rowCount) {
+        long total = 0;
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                return rowCount;
+            }
+            total += Math.max(0, count);
+        }
+        return total;
+    }
+
+    private List<Object> readGeneratedKeys(Statement stmt) throws SQLException {
+        List<Object> keys = new ArrayList<>();
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                keys.add(generatedKeys.getObject(1));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 更新语句执行后的处理：DDL 语句使相关元数据缓存失效，写操作使引用相关表的结果缓存失效
+     * 即使执行失败也会失效，因为部分 DDL 失败时可能已经生效
+     */
+    private void afterUpdate(String sql) {
+        afterUpdate(sql, null);
+    }
+
+    /**
+     * @param database 连接的当前数据库（脚本中 USE 切换后），为 null 时是默认数据库
+     */
+    private void afterUpdate(String sql, String database) {
+        metadataCache.invalidateForStatement(sql);
+        resultCache.invalidateForStatement(sql);
+        queryAdmission.invalidateForStatement(sql);
+        replicaRouter.recordWrite(sql, database);
     }
 
     /**
      * 执行更新SQL并返回生成的键
      */
     public Map<String, Object> executeUpdateWithKeys(String sql) throws SQLException {
-        logger.debug("Executing update with keys: {}", sql);
+        return executeUpdateWithKeys(sql, Collections.emptyList());
+    }
+
+    /**
+     * 执行带参数的更新SQL并返回生成的键
+     */
+    public Map<String, Object> executeUpdateWithKeys(String sql, List<Object> params) throws SQLException {
+        logger.debug("Executing update with keys: {}, params: {}", sql, params);
         
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            RequestContext.Registration registration = track(stmt);
+            try {
+                guardSessionState(conn, sql);
+                bindParameters(stmt, params);
             
-            int affectedRows = stmt.executeUpdate();
-            Map<String, Object> result = new HashMap<>();
-            result.put("affectedRows", affectedRows);
+                long begin = System.nanoTime();
+                int affectedRows = stmt.executeUpdate();
+                RequestContext.timings().addJdbcNanos(System.nanoTime() - begin);
+                Map<String, Object> result = new HashMap<>();
+                result.put("affectedRows", affectedRows);
             
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    result.put("generatedKey", generatedKeys.getObject(1));
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        result.put("generatedKey", generatedKeys.getObject(1));
+                    }
                 }
-            }
             
-            return result;
+                return result;
+            } finally {
+                registration.close();
+            }
+        } finally {
+            afterUpdate(sql);
         }
     }
 
@@ -125,16 +1072,25 @@ public class DatabaseManager {
      * @param databaseName 数据库名，如果为 null 则使用当前连接的数据库
      */
     public List<String> getTables(String databaseName) throws SQLException {
+        List<String> cached = metadataCache.getTables(databaseName);
+        if (cached != null) {
+            return cached;
+        }
+        
+
         logger.debug("Getting table list for database: {}", databaseName);
-        List<String> tables = new ArrayList<>();
         
-        try (Connection conn = getConnection();
-             ResultSet rs = conn.getMetaData().getTables(databaseName, null, "%", new String[]{"TABLE"})) {
-            while (rs.next()) {
-                tables.add(rs.getString("TABLE_NAME"));
+        List<String> tables = executeRead(replicaRouter.routesMetadata(null, null), true, conn -> {
+            List<String> names = new ArrayList<>();
+            try (ResultSet rs = conn.getMetaData().getTables(databaseName, null, "%", new String[]{"TABLE"})) {
+                while (rs.next()) {
+                    names.add(rs.getString("TABLE_NAME"));
+                }
             }
-        }
+            return names;
+        });
         
+        metadataCache.putTables(databaseName, tables);
         return tables;
     }
 
@@ -142,22 +1098,30 @@ public class DatabaseManager {
      * 获取表的列信息
      */
     public List<Map<String, Object>> getTableColumns(String tableName) throws SQLException {
+        List<Map<String, Object>> cached = metadataCache.getColumns(null, tableName);
+        if (cached != null) {
+            return cached;
+        }
+        
         logger.debug("Getting table columns: {}", tableName);
-        List<Map<String, Object>> columns = new ArrayList<>();
         
-        try (Connection conn = getConnection();
-             ResultSet rs = conn.getMetaData().getColumns(null, null, tableName, null)) {
-            while (rs.next()) {
-                Map<String, Object> column = new HashMap<>();
-                column.put("name", rs.getString("COLUMN_NAME"));
-                column.put("type", rs.getString("TYPE_NAME"));
-                column.put("size", rs.getInt("COLUMN_SIZE"));
-                column.put("nullable", rs.getBoolean("NULLABLE"));
-                column.put("defaultValue", rs.getString("COLUMN_DEF"));
-                columns.add(column);
+        List<Map<String, Object>> columns = executeRead(replicaRouter.routesMetadata(null, tableName), true, conn -> {
+            List<Map<String, Object>> list = new ArrayList<>();
+            try (ResultSet rs = conn.getMetaData().getColumns(null, null, tableName, null)) {
+                while (rs.next()) {
+                    Map<String, Object> column = new HashMap<>();
+                    column.put("name", rs.getString("COLUMN_NAME"));
+                    column.put("type", rs.getString("TYPE_NAME"));
+                    column.put("size", rs.getInt("COLUMN_SIZE"));
+                    column.put("nullable", rs.getBoolean("NULLABLE"));
+                    column.put("defaultValue", rs.getString("COLUMN_DEF"));
+                    list.add(column);
+                }
             }
-        }
+            return list;
+        });
         
+        metadataCache.putColumns(null, tableName, columns);
         return columns;
     }
 
@@ -177,6 +1141,11 @@ public class DatabaseManager {
      * @return CREATE TABLE 语句
      */
     public String getTableDDL(String databaseName, String tableName) throws SQLException {
+        String cached = metadataCache.getDdl(databaseName, tableName);
+        if (cached != null) {
+            return cached;
+        }
+        
         logger.debug("Getting DDL for table: {}.{}", databaseName, tableName);
         
         String sql;
@@ -186,28 +1155,204 @@ public class DatabaseManager {
             sql = "SHOW CREATE TABLE `" + tableName + "`";
         }
         
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            if (rs.next()) {
-                // SHOW CREATE TABLE 返回两列：Table 和 Create Table
-                // 第二列包含完整的 CREATE TABLE 语句
-                String ddl = rs.getString(2);
-                return ddl;
-            } else {
-                throw new SQLException("Table not found: " + (databaseName != null ? databaseName + "." : "") + tableName);
+        String ddl = executeRead(replicaRouter.routesMetadata(databaseName, tableName), true, conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                RequestContext.Registration registration = track(stmt);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                
+                    if (rs.next()) {
+                        // SHOW CREATE TABLE 返回两列：Table 和 Create Table
+                        // 第二列包含完整的 CREATE TABLE 语句
+                        return rs.getString(2);
+                    } else {
+                        throw new SQLException("Table not found: " + (databaseName != null ? databaseName + "." : "") + tableName);
+                    }
+                } finally {
+                    registration.close();
+                }
+            }
+        });
+        metadataCache.putDdl(databaseName, tableName, ddl);
+        return ddl;
+    }
+
+    /**
+     * 读取一页数据库结构快照：表、列、索引、外键和估算行数
+     * 先按表名顺序查询一页表，再在 information_schema 上并行执行列、索引、外键三条集合查询（各占用一个连接），
+     * 每条查询覆盖整页的表，不逐表查询。
+     * @param databaseName 数据库名，为 null 时使用连接的当前数据库
+     * @param tablePattern 表名的 LIKE 模式，为 null 时不过滤
+     * @param afterTable 只返回表名排在其后的表（上一页的 nextAfter），为 null 时从头开始
+     * @param maxTables 每页最多的表数
+     */
+    public SchemaPage describeSchema(String databaseName, String tablePattern, String afterTable, int maxTables)
+            throws SQLException {
+        String pageKey = tablePattern + "\u0000" + afterTable + "\u0000" + maxTables;
+        SchemaPage cached = metadataCache.getSchemaPage(databaseName, pageKey);
+        if (cached != null) {
+            return cached;
+        }
+        
+        logger.debug("Describing schema: database={}, pattern={}, after={}, maxTables={}",
+            databaseName, tablePattern, afterTable, maxTables);
+        
+        StringBuilder tablesSql = new StringBuilder("SELECT TABLE_SCHEMA, TABLE_NAME, TABLE_TYPE, ENGINE, TABLE_ROWS, "
+            + "TABLE_COMMENT FROM information_schema.TABLES WHERE TABLE_SCHEMA = COALESCE(?, DATABASE())");
+        List<Object> tablesParams = new ArrayList<>();
+        tablesParams.add(databaseName);
+        if (tablePattern != null) {
+            tablesSql.append(" AND TABLE_NAME LIKE ?");
+            tablesParams.add(tablePattern);
+        }
+        if (afterTable != null) {
+            tablesSql.append(" AND TABLE_NAME > ?");
+            tablesParams.add(afterTable);
+        }
+        tablesSql.append(" ORDER BY TABLE_NAME LIMIT ?");
+        tablesParams.add(maxTables + 1);
+        List<Object[]> tableRows = readMetadataRows(tablesSql.toString(), tablesParams);
+        
+        List<Object[]> columnRows = Collections.emptyList();
+        List<Object[]> indexRows = Collections.emptyList();
+        List<Object[]> foreignKeyRows = Collections.emptyList();
+        String database = tableRows.isEmpty() ? databaseName : (String) tableRows.get(0)[0];
+        if (!tableRows.isEmpty()) {
+            // 列、索引、外键按本页第一张和最后一张表的表名范围查询，不在本页的表在组装时忽略
+            List<Object> range = List.of(database, tableRows.get(0)[1],
+                tableRows.get(Math.min(maxTables, tableRows.size()) - 1)[1]);
+            String where = " WHERE TABLE_SCHEMA = ? AND TABLE_NAME BETWEEN ? AND ?";
+            List<List<Object[]>> results = readMetadataRowsInParallel(List.of(
+                "SELECT TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT, EXTRA, COLUMN_COMMENT "
+                    + "FROM information_schema.COLUMNS" + where + " ORDER BY TABLE_NAME, ORDINAL_POSITION",
+                "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME, SUB_PART "
+                    + "FROM information_schema.STATISTICS" + where + " ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX",
+                "SELECT TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME, REFERENCED_TABLE_SCHEMA, REFERENCED_TABLE_NAME, "
+                    + "REFERENCED_COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE" + where
+                    + " AND REFERENCED_TABLE_NAME IS NOT NULL ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION"),
+                range);
+            columnRows = results.get(0);
+            indexRows = results.get(1);
+            foreignKeyRows = results.get(2);
+        }
+        
+        SchemaPage page = SchemaPage.assemble(database, maxTables, tableRows, columnRows, indexRows, foreignKeyRows);
+        metadataCache.putSchemaPage(databaseName, pageKey, page);
+        return page;
+    }
+
+    /**
+     * 执行一条元数据查询，返回全部行（每行按 SELECT 列表顺序）
+     */
+    private List<Object[]> readMetadataRows(String sql, List<Object> params) throws SQLException {
+        return executeRead(replicaRouter.routesMetadata(null, null), true, conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                RequestContext.Registration registration = track(stmt);
+                try {
+                    bindParameters(stmt, params);
+                    long begin = System.nanoTime();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        RequestContext.timings().addJdbcNanos(System.nanoTime() - begin);
+                        int columnCount = rs.getMetaData().getColumnCount();
+                        List<Object[]> rows = new ArrayList<>();
+                        while (rs.next()) {
+                            Object[] row = new Object[columnCount];
+                            for (int i = 0; i < columnCount; i++) {
+                                row[i] = rs.getObject(i + 1);
+                            }
+                            rows.add(row);
+                        }
+                        return rows;
+                    }
+                } finally {
+                    registration.close();
+                }
             }
+        });
+    }
+
+    /**
+     * 在元数据线程池中并行执行多条使用相同参数的元数据查询，每条查询占用一个连接
+     * 各查询使用当前请求的子上下文（取消请求时一并中止）；任何一条失败时抛出它的异常
+     */
+    private List<List<Object[]>> readMetadataRowsInParallel(List<String> sqls, List<Object> params)
+            throws SQLException {
+        RequestContext parent = RequestContext.current();
+        List<Future<List<Object[]>>> futures = new ArrayList<>(sqls.size());
+        for (String sql : sqls) {
+            futures.add(metadataExecutor().submit(() -> {
+                RequestContext context = new RequestContext(parent, defaultQueryTimeoutSeconds);
+                try {
+                    return readMetadataRows(sql, params);
+                } finally {
+                    context.close();
+                }
+            }));
         }
+        List<List<Object[]>> results = new ArrayList<>(sqls.size());
+        try {
+            for (Future<List<Object[]>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while reading metadata", "70100", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Metadata query failed: " + cause, cause);
+        } finally {
+            for (Future<List<Object[]>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 元数据并行查询的线程池，首次使用时创建
+     */
+    private ExecutorService metadataExecutor() {
+        ExecutorService executor = metadataExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = metadataExecutor;
+                if (executor == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    executor = Executors.newCachedThreadPool(r -> {
+                        Thread t = new Thread(r, "mysql-metadata-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    metadataExecutor = executor;
+                }
+            }
+        }
+        return executor;
     }
 
     /**
-     * 关闭连接
+     * 关闭连接池（包括只读副本和分片的连接池）
      */
     public void close() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
-            logger.info("Database connection closed");
+        ExecutorService executor = metadataExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+            metadataExecutor = null;
+        }
+        replicaRouter.close();
+        for (ShardGroup group : shardGroups.values()) {
+            group.close();
+        }
+        ConnectionPool pool = connectionPool;
+        if (pool != null) {
+            pool.close();
+            connectionPool = null;
+            logger.info("Database connection pool closed");
         }
     }
 }
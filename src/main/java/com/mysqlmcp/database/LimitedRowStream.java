@@ -0,0 +1,80 @@
+package com.mysqlmcp.database;
+
+import java.sql.SQLException;
+
+/**
+ * 按 ResultLimits 截断的流式结果
+ * 达到行数上限后再读一行判断是否还有更多结果；超过字节数上限的行不返回。停止读取后关闭时由底层结果中止查询。
+ */
+final class LimitedRowStream implements RowStream {
+    private final RowStream stream;
+    private final ResultLimits limits;
+    private long rowCount;
+    private long bytes;
+    private ResultTruncation truncation = ResultTruncation.NONE;
+
+    LimitedRowStream(RowStream stream, ResultLimits limits) {
+        this.stream = stream;
+        this.limits = limits;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return stream.getColumnNames();
+    }
+
+    @Override
+    public CacheStatus getCacheStatus() {
+        return stream.getCacheStatus();
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (truncation != ResultTruncation.NONE) {
+            return false;
+        }
+        if (limits.getMaxRows() > 0 && rowCount >= limits.getMaxRows()) {
+            if (stream.next()) {
+                truncation = ResultTruncation.MAX_ROWS;
+            }
+            return false;
+        }
+        if (!stream.next()) {
+            return false;
+        }
+        if (limits.getMaxBytes() > 0) {
+            int columnCount = stream.getColumnNames().length;
+            long rowBytes = 16 + 8L * columnCount;
+            for (int i = 0; i < columnCount; i++) {
+                rowBytes += QueryResultCache.estimateValueBytes(stream.getValue(i));
+            }
+            if (bytes + rowBytes > limits.getMaxBytes()) {
+                truncation = ResultTruncation.MAX_BYTES;
+                return false;
+            }
+            bytes += rowBytes;
+        }
+        rowCount++;
+        return true;
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return stream.getValue(index);
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public ResultTruncation getTruncation() {
+        return truncation != ResultTruncation.NONE ? truncation : stream.getTruncation();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
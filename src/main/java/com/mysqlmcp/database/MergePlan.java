@@ -0,0 +1,242 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 分片查询的合并方式
+ * 解析语句最外层的 ORDER BY 和 LIMIT：有 ORDER BY 时各分片按相同顺序返回，合并时按排序列做 k 路归并；
+ * 有 LIMIT 时在合并后截断。LIMIT 带偏移量时各分片改为返回前 offset + count 行，合并后再跳过 offset 行。
+ */
+final class MergePlan {
+    private static final Pattern LIMIT_CLAUSE = Pattern.compile(
+        "^LIMIT\\s+(\\d+)(?:\\s*,\\s*(\\d+)|\\s+OFFSET\\s+(\\d+))?\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DIRECTION = Pattern.compile("\\s+(ASC|DESC)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern IDENTIFIER = Pattern.compile(
+        "(?:`(?:[^`]|``)+`|[A-Za-z0-9_$]+)(?:\\s*\\.\\s*(?:`(?:[^`]|``)+`|[A-Za-z0-9_$]+)){0,2}");
+
+    /**
+     * ORDER BY 中的一项
+     */
+    static final class OrderItem {
+        final String expression;
+        final boolean descending;
+
+        OrderItem(String expression, boolean descending) {
+            this.expression = expression;
+            this.descending = descending;
+        }
+    }
+
+    private final String shardSql;
+    private final List<OrderItem> orderBy;
+    private final long limit;
+    private final long offset;
+
+    private MergePlan(String shardSql, List<OrderItem> orderBy, long limit, long offset) {
+        this.shardSql = shardSql;
+        this.orderBy = orderBy;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    /**
+     * 在各分片上执行的语句
+     */
+    String getShardSql() {
+        return shardSql;
+    }
+
+    List<OrderItem> getOrderBy() {
+        return orderBy;
+    }
+
+    boolean isOrdered() {
+        return !orderBy.isEmpty();
+    }
+
+    /**
+     * 合并后的最大行数，-1 表示不限制
+     */
+    long getLimit() {
+        return limit;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    static MergePlan parse(String sql) {
+        String text = SqlStatements.normalize(sql);
+        int n = text.length();
+        int depth = 0;
+        int orderStart = -1;
+        int orderEnd = -1;
+        int limitStart = -1;
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlStatements.skipQuoted(text, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && Character.isLetter(c) && (i == 0 || !isIdentifierChar(text.charAt(i - 1)))) {
+                int end = i;
+                while (end < n && isIdentifierChar(text.charAt(end))) {
+                    end++;
+                }
+                String word = text.substring(i, end).toUpperCase(Locale.ROOT);
+                switch (word) {
+                    case "ORDER":
+                        if (text.regionMatches(true, end, " BY", 0, 3)) {
+                            orderStart = end + 3;
+                            orderEnd = n;
+                            limitStart = -1;
+                        }
+                        break;
+                    case "UNION":
+                    case "EXCEPT":
+                    case "INTERSECT":
+                        // 之前的 ORDER BY/LIMIT 只作用于前一个查询块
+                        orderStart = -1;
+                        limitStart = -1;
+                        break;
+                    case "LIMIT":
+                        limitStart = i;
+                        if (orderStart >= 0 && orderEnd == n) {
+                            orderEnd = i;
+                        }
+                        break;
+                    case "FOR":
+                    case "LOCK":
+                    case "INTO":
+                        if (orderStart >= 0 && orderEnd == n) {
+                            orderEnd = i;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                i = end - 1;
+            }
+        }
+
+        List<OrderItem> orderBy = new ArrayList<>();
+        if (orderStart >= 0) {
+            for (String item : splitTopLevel(text.substring(orderStart, orderEnd))) {
+                Matcher direction = DIRECTION.matcher(item);
+                boolean descending = false;
+                if (direction.find()) {
+                    descending = "DESC".equalsIgnoreCase(direction.group(1));
+                    item = item.substring(0, direction.start()).trim();
+                }
+                orderBy.add(new OrderItem(item, descending));
+            }
+        }
+
+        long limit = -1;
+        long offset = 0;
+        String shardSql = sql;
+        if (limitStart >= 0) {
+            Matcher m = LIMIT_CLAUSE.matcher(text.substring(limitStart));
+            if (!m.matches()) {
+                throw new IllegalArgumentException("LIMIT of a sharded query must use integer literals");
+            }
+            if (m.group(2) != null) {
+                offset = Long.parseLong(m.group(1));
+                limit = Long.parseLong(m.group(2));
+            } else {
+                limit = Long.parseLong(m.group(1));
+                offset = m.group(3) != null ? Long.parseLong(m.group(3)) : 0;
+            }
+            if (offset > 0) {
+                shardSql = text.substring(0, limitStart) + "LIMIT " + (offset + limit);
+            }
+        }
+        return new MergePlan(shardSql, orderBy, limit, offset);
+    }
+
+    /**
+     * 把 ORDER BY 的各项对应到结果列
+     * 支持列序号、列名或别名（可带表名限定），其他表达式必须与结果列的名称完全相同
+     * @return 每一项对应的列下标（从 0 开始）
+     */
+    int[] resolve(String[] columnNames) {
+        int[] indexes = new int[orderBy.size()];
+        for (int k = 0; k < indexes.length; k++) {
+            String expression = orderBy.get(k).expression;
+            int index = -1;
+            if (expression.chars().allMatch(Character::isDigit)) {
+                index = Integer.parseInt(expression) - 1;
+                if (index < 0 || index >= columnNames.length) {
+                    index = -1;
+                }
+            } else {
+                String name = expression;
+                if (IDENTIFIER.matcher(expression).matches()) {
+                    List<String> parts = splitIdentifier(expression);
+                    name = SqlStatements.unquote(parts.get(parts.size() - 1));
+                }
+                for (int i = 0; i < columnNames.length && index < 0; i++) {
+                    if (columnNames[i].equalsIgnoreCase(name)) {
+                        index = i;
+                    }
+                }
+            }
+            if (index < 0) {
+                throw new IllegalArgumentException("ORDER BY " + expression
+                    + " must refer to a selected column (by name, alias or position) to merge sharded results");
+            }
+            indexes[k] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * 按最外层的逗号拆分
+     */
+    private static List<String> splitTopLevel(String text) {
+        List<String> items = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = SqlStatements.skipQuoted(text, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                items.add(text.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        items.add(text.substring(start).trim());
+        return items;
+    }
+
+    private static List<String> splitIdentifier(String identifier) {
+        List<String> parts = new ArrayList<>(3);
+        int start = 0;
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (c == '`') {
+                i = SqlStatements.skipQuoted(identifier, i) - 1;
+            } else if (c == '.') {
+                parts.add(identifier.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(identifier.substring(start).trim());
+        return parts;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
@@ -0,0 +1,207 @@
+package com.mysqlmcp.database;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 表结构元数据缓存
+ * 缓存表列表、列信息、DDL、结构快照分页、表类型和存储函数名，按数据库区分键，支持过期时间和 LRU 淘汰；
+ * 执行 DDL 语句后自动失效受影响表的条目。
+ */
+public class MetadataCache {
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    private static final String TABLES = "tables";
+    private static final String COLUMNS = "columns";
+    private static final String DDL = "ddl";
+    private static final String SCHEMA = "schema";
+    private static final String TABLE_TYPES = "tableTypes";
+    private static final String FUNCTIONS = "functions";
+
+    private final boolean enabled;
+    private final TtlLruCache<Key, Object> cache;
+
+    public MetadataCache(boolean enabled, long maxEntries, long ttlMs) {
+        this.enabled = enabled;
+        this.cache = new TtlLruCache<>(maxEntries, ttlMs);
+    }
+
+    /**
+     * 从系统属性/环境变量读取配置
+     */
+    public static MetadataCache fromEnvironment() {
+        boolean enabled = ServerConfig.getBoolean("mysql.metadataCache.enabled", "MYSQL_METADATA_CACHE_ENABLED", true);
+        long maxEntries = ServerConfig.getLong("mysql.metadataCache.maxEntries", "MYSQL_METADATA_CACHE_MAX_ENTRIES", 1000);
+        long ttlMs = ServerConfig.getLong("mysql.metadataCache.ttlMs", "MYSQL_METADATA_CACHE_TTL_MS", 300_000);
+        return new MetadataCache(enabled, maxEntries, ttlMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> getTables(String database) {
+        return enabled ? (List<String>) cache.get(new Key(TABLES, database, null)) : null;
+    }
+
+    public void putTables(String database, List<String> tables) {
+        if (enabled) {
+            cache.put(new Key(TABLES, database, null), List.copyOf(tables));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getColumns(String database, String table) {
+        return enabled ? (List<T>) cache.get(new Key(COLUMNS, database, table)) : null;
+    }
+
+    public <T> void putColumns(String database, String table, List<T> columns) {
+        if (enabled) {
+            cache.put(new Key(COLUMNS, database, table), List.copyOf(columns));
+        }
+    }
+
+    public String getDdl(String database, String table) {
+        return enabled ? (String) cache.get(new Key(DDL, database, table)) : null;
+    }
+
+    public void putDdl(String database, String table, String ddl) {
+        if (enabled) {
+            cache.put(new Key(DDL, database, table), ddl);
+        }
+    }
+
+    /**
+     * @param page 分页条件（表名模式、起始表名和每页表数），与数据库一起作为键
+     */
+    public SchemaPage getSchemaPage(String database, String page) {
+        return enabled ? (SchemaPage) cache.get(new Key(SCHEMA, database, page)) : null;
+    }
+
+    public void putSchemaPage(String database, String page, SchemaPage schemaPage) {
+        if (enabled) {
+            cache.put(new Key(SCHEMA, database, page), schemaPage);
+        }
+    }
+
+    /**
+     * 数据库中每张表的类型（BASE TABLE、VIEW 等），键为小写表名
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, String> getTableTypes(String database) {
+        return enabled ? (Map<String, String>) cache.get(new Key(TABLE_TYPES, database, null)) : null;
+    }
+
+    public void putTableTypes(String database, Map<String, String> tableTypes) {
+        if (enabled) {
+            cache.put(new Key(TABLE_TYPES, database, null), Map.copyOf(tableTypes));
+        }
+    }
+
+    /**
+     * 数据库中的存储函数名（小写）
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> getFunctions(String database) {
+        return enabled ? (Set<String>) cache.get(new Key(FUNCTIONS, database, null)) : null;
+    }
+
+    public void putFunctions(String database, Set<String> functions) {
+        if (enabled) {
+            cache.put(new Key(FUNCTIONS, database, null), Set.copyOf(functions));
+        }
+    }
+
+    /**
+     * 根据执行的 SQL 失效相关缓存，非 DDL 语句不做处理
+     */
+    public void invalidateForStatement(String sql) {
+        if (!enabled || !SqlStatements.isDdl(sql)) {
+            return;
+        }
+        List<SqlStatements.TableName> targets = SqlStatements.ddlTargets(sql);
+        if (targets == null) {
+            logger.debug("Unrecognized DDL, clearing metadata cache: {}", sql);
+            cache.clear();
+            return;
+        }
+        for (SqlStatements.TableName target : targets) {
+            invalidate(target.getDatabase(), target.getTable());
+        }
+    }
+
+    /**
+     * 失效指定表的缓存
+     * 未指定数据库的语句可能作用于任意数据库（取决于当前数据库），因此按表名匹配所有数据库的条目；
+     * 按数据库缓存的条目（表列表、结构快照、表类型和存储函数）同时失效对应数据库和默认数据库的条目。
+     * @param table 为 null 时失效整个数据库
+     */
+    public void invalidate(String database, String table) {
+        String db = normalize(database);
+        String tbl = normalize(table);
+        int removed = cache.invalidateIf(key -> {
+            boolean sameDb = db == null || key.database == null || db.equalsIgnoreCase(key.database);
+            if (TABLES.equals(key.type) || SCHEMA.equals(key.type) || TABLE_TYPES.equals(key.type)
+                || FUNCTIONS.equals(key.type)) {
+                return sameDb;
+            }
+            return sameDb && (tbl == null || tbl.equalsIgnoreCase(key.table));
+        });
+        logger.debug("Invalidated {} metadata cache entries for {}.{}", removed, db, tbl);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private static String normalize(String name) {
+        return name == null || name.isEmpty() ? null : name;
+    }
+
+    /**
+     * 缓存键：类型 + 数据库 + 表名（数据库为 null 表示当前数据库）
+     * 键区分大小写，与 MySQL 在大小写敏感文件系统上的行为一致；失效时不区分大小写
+     */
+    private static final class Key {
+        private final String type;
+        private final String database;
+        private final String table;
+
+        private Key(String type, String database, String table) {
+            this.type = type;
+            this.database = normalize(database);
+            this.table = normalize(table);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return type.equals(other.type)
+                && Objects.equals(database, other.database)
+                && Objects.equals(table, other.table);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, database, table);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.mysqlmcp.database;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 连接池配置
+ * 与 mysql.url 一样，可通过系统属性（mysql.pool.*）或环境变量（MYSQL_POOL_*）设置
+ */
+public class PoolConfig {
+    private int minSize = 1;
+    private int maxSize = 10;
+    private long connectionTimeoutMs = 30_000;
+    private int validationTimeoutSeconds = 3;
+    private long validationIntervalMs = 500;
+    private long idleTimeoutMs = 600_000;
+    private long maxLifetimeMs = 1_800_000;
+    private long leakDetectionThresholdMs = 0;
+    private long housekeepingPeriodMs = 30_000;
+
+    /**
+     * 从系统属性/环境变量读取配置
+     */
+    public static PoolConfig fromEnvironment() {
+        PoolConfig config = new PoolConfig();
+        config.minSize = ServerConfig.getInt("mysql.pool.minSize", "MYSQL_POOL_MIN_SIZE", config.minSize);
+        config.maxSize = ServerConfig.getInt("mysql.pool.maxSize", "MYSQL_POOL_MAX_SIZE", config.maxSize);
+        config.connectionTimeoutMs = ServerConfig.getLong("mysql.pool.connectionTimeoutMs",
+            "MYSQL_POOL_CONNECTION_TIMEOUT_MS", config.connectionTimeoutMs);
+        config.validationTimeoutSeconds = ServerConfig.getInt("mysql.pool.validationTimeoutSeconds",
+            "MYSQL_POOL_VALIDATION_TIMEOUT_SECONDS", config.validationTimeoutSeconds);
+        config.validationIntervalMs = ServerConfig.getLong("mysql.pool.validationIntervalMs",
+            "MYSQL_POOL_VALIDATION_INTERVAL_MS", config.validationIntervalMs);
+        config.idleTimeoutMs = ServerConfig.getLong("mysql.pool.idleTimeoutMs",
+            "MYSQL_POOL_IDLE_TIMEOUT_MS", config.idleTimeoutMs);
+        config.maxLifetimeMs = ServerConfig.getLong("mysql.pool.maxLifetimeMs",
+            "MYSQL_POOL_MAX_LIFETIME_MS", config.maxLifetimeMs);
+        config.leakDetectionThresholdMs = ServerConfig.getLong("mysql.pool.leakDetectionThresholdMs",
+            "MYSQL_POOL_LEAK_DETECTION_THRESHOLD_MS", config.leakDetectionThresholdMs);
+        config.housekeepingPeriodMs = ServerConfig.getLong("mysql.pool.housekeepingPeriodMs",
+            "MYSQL_POOL_HOUSEKEEPING_PERIOD_MS", config.housekeepingPeriodMs);
+
+        if (config.maxSize < 1) {
+            config.maxSize = 1;
+        }
+        if (config.minSize < 0) {
+            config.minSize = 0;
+        }
+        if (config.minSize > config.maxSize) {
+            config.minSize = config.maxSize;
+        }
+        return config;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public PoolConfig setMinSize(int minSize) {
+        this.minSize = minSize;
+        return this;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public PoolConfig setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public PoolConfig setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        return this;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public PoolConfig setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        return this;
+    }
+
+    public long getValidationIntervalMs() {
+        return validationIntervalMs;
+    }
+
+    public PoolConfig setValidationIntervalMs(long validationIntervalMs) {
+        this.validationIntervalMs = validationIntervalMs;
+        return this;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public PoolConfig setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        return this;
+    }
+
+    public long getMaxLifetimeMs() {
+        return maxLifetimeMs;
+    }
+
+    public PoolConfig setMaxLifetimeMs(long maxLifetimeMs) {
+        this.maxLifetimeMs = maxLifetimeMs;
+        return this;
+    }
+
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+
+    public PoolConfig setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        return this;
+    }
+
+    public long getHousekeepingPeriodMs() {
+        return housekeepingPeriodMs;
+    }
+
+    public PoolConfig setHousekeepingPeriodMs(long housekeepingPeriodMs) {
+        this.housekeepingPeriodMs = housekeepingPeriodMs;
+        return this;
+    }
+}
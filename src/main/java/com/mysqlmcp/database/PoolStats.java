@@ -0,0 +1,96 @@
+package com.mysqlmcp.database;
+
+/**
+ * 连接池统计快照
+ */
+public class PoolStats {
+    private final int totalConnections;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int waitingThreads;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long closedCount;
+    private final long leakCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    public PoolStats(int totalConnections, int activeConnections, int idleConnections, int waitingThreads,
+                     int maxSize, long borrowCount, long timeoutCount, long createdCount, long closedCount,
+                     long leakCount, long totalWaitNanos, long maxWaitNanos) {
+        this.totalConnections = totalConnections;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.waitingThreads = waitingThreads;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.closedCount = closedCount;
+        this.leakCount = leakCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getClosedCount() {
+        return closedCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    /**
+     * 借用连接的平均等待时间（毫秒）
+     */
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{total=" + totalConnections + ", active=" + activeConnections
+            + ", idle=" + idleConnections + ", waiting=" + waitingThreads
+            + ", borrows=" + borrowCount + ", timeouts=" + timeoutCount
+            + ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis())
+            + ", maxWaitMs=" + String.format("%.3f", getMaxWaitMillis()) + "}";
+    }
+}
@@ -0,0 +1,193 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 查询准入控制
+ * 执行 SELECT 之前先取得 EXPLAIN FORMAT=JSON 的执行计划（按规范化 SQL 缓存），按估算的扫描行数和成本决定：
+ * 超过警告阈值时照常执行并提示，超过上限时按配置拒绝、降级或只提示。
+ * DDL（可能增删索引）会清空计划缓存，统计信息的变化只能依赖过期时间。
+ */
+public class QueryAdmission {
+    private static final Logger logger = LoggerFactory.getLogger(QueryAdmission.class);
+
+    private final boolean enabled;
+    private final long warnRowsExamined;
+    private final long maxRowsExamined;
+    private final double warnCost;
+    private final double maxCost;
+    private final AdmissionDecision.Action overLimitAction;
+    private final long downgradeMaxExecutionMillis;
+    private final long downgradeMaxRows;
+    private final TtlLruCache<String, QueryPlan> plans;
+    private final AtomicLong[] decisions = new AtomicLong[AdmissionDecision.Action.values().length];
+    private final AtomicLong explainFailures = new AtomicLong();
+
+    /**
+     * 扫描行数和成本的各阈值为 0 时不检查
+     * @param overLimitAction 超过上限时的处理方式：WARN、DOWNGRADE 或 REJECT
+     */
+    QueryAdmission(boolean enabled, long warnRowsExamined, long maxRowsExamined, double warnCost, double maxCost,
+                   AdmissionDecision.Action overLimitAction, long downgradeMaxExecutionMillis, long downgradeMaxRows,
+                   long planCacheSize, long planCacheTtlMs) {
+        this.enabled = enabled;
+        this.warnRowsExamined = warnRowsExamined;
+        this.maxRowsExamined = maxRowsExamined;
+        this.warnCost = warnCost;
+        this.maxCost = maxCost;
+        this.overLimitAction = overLimitAction;
+        this.downgradeMaxExecutionMillis = downgradeMaxExecutionMillis;
+        this.downgradeMaxRows = downgradeMaxRows;
+        this.plans = new TtlLruCache<>(planCacheSize, planCacheTtlMs);
+        for (int i = 0; i < decisions.length; i++) {
+            decisions[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * 从系统属性/环境变量读取配置，默认关闭
+     */
+    static QueryAdmission fromEnvironment() {
+        String actionName = ServerConfig.getString("mysql.admission.action", "MYSQL_ADMISSION_ACTION", "reject");
+        AdmissionDecision.Action action = AdmissionDecision.Action.parse(actionName);
+        if (action == null || action == AdmissionDecision.Action.ALLOW) {
+            logger.warn("Invalid admission action '{}', expected reject, downgrade or warn; using reject", actionName);
+            action = AdmissionDecision.Action.REJECT;
+        }
+        return new QueryAdmission(
+            ServerConfig.getBoolean("mysql.admission.enabled", "MYSQL_ADMISSION_ENABLED", false),
+            ServerConfig.getLong("mysql.admission.warnRowsExamined", "MYSQL_ADMISSION_WARN_ROWS_EXAMINED", 100_000),
+            ServerConfig.getLong("mysql.admission.maxRowsExamined", "MYSQL_ADMISSION_MAX_ROWS_EXAMINED", 1_000_000),
+            ServerConfig.getDouble("mysql.admission.warnCost", "MYSQL_ADMISSION_WARN_COST", 0),
+            ServerConfig.getDouble("mysql.admission.maxCost", "MYSQL_ADMISSION_MAX_COST", 0),
+            action,
+            ServerConfig.getLong("mysql.admission.downgradeMaxExecutionMs", "MYSQL_ADMISSION_DOWNGRADE_MAX_EXECUTION_MS",
+                5000),
+            ServerConfig.getLong("mysql.admission.downgradeMaxRows", "MYSQL_ADMISSION_DOWNGRADE_MAX_ROWS", 1000),
+            ServerConfig.getLong("mysql.admission.planCacheSize", "MYSQL_ADMISSION_PLAN_CACHE_SIZE", 1000),
+            ServerConfig.getLong("mysql.admission.planCacheTtlMs", "MYSQL_ADMISSION_PLAN_CACHE_TTL_MS", 300_000));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 是否需要检查该语句：只检查 SELECT
+     */
+    boolean appliesTo(String sql) {
+        return enabled && "SELECT".equals(SqlStatements.leadingKeyword(sql));
+    }
+
+    QueryPlan getPlan(String normalizedSql) {
+        return plans.get(normalizedSql);
+    }
+
+    void putPlan(String normalizedSql, QueryPlan plan) {
+        plans.put(normalizedSql, plan);
+    }
+
+    /**
+     * 按执行计划做出决定
+     */
+    AdmissionDecision decide(QueryPlan plan, boolean planCached) {
+        String overLimit = exceeds(plan, maxRowsExamined, maxCost, "limit");
+        AdmissionDecision decision;
+        if (overLimit != null) {
+            boolean downgrade = overLimitAction == AdmissionDecision.Action.DOWNGRADE;
+            decision = new AdmissionDecision(overLimitAction, overLimit, plan, planCached,
+                downgrade ? downgradeMaxExecutionMillis : 0, downgrade ? downgradeMaxRows : 0);
+        } else {
+            String warning = exceeds(plan, warnRowsExamined, warnCost, "warning threshold");
+            decision = new AdmissionDecision(warning != null ? AdmissionDecision.Action.WARN
+                : AdmissionDecision.Action.ALLOW, warning, plan, planCached, 0, 0);
+        }
+        decisions[decision.getAction().ordinal()].incrementAndGet();
+        return decision;
+    }
+
+    /**
+     * EXPLAIN 失败时放行（语句本身有错误时执行会返回真正的错误）
+     */
+    AdmissionDecision unchecked(String error) {
+        explainFailures.incrementAndGet();
+        decisions[AdmissionDecision.Action.ALLOW.ordinal()].incrementAndGet();
+        return new AdmissionDecision(AdmissionDecision.Action.ALLOW, "EXPLAIN failed: " + error, null, false, 0, 0);
+    }
+
+    /**
+     * DDL 语句清空计划缓存
+     */
+    void invalidateForStatement(String sql) {
+        if (enabled && SqlStatements.isDdl(sql)) {
+            plans.clear();
+        }
+    }
+
+    private static String exceeds(QueryPlan plan, long rowsThreshold, double costThreshold, String thresholdName) {
+        List<String> reasons = new ArrayList<>();
+        if (rowsThreshold > 0 && plan.getRowsExamined() > rowsThreshold) {
+            reasons.add("estimated " + plan.getRowsExamined() + " rows examined exceeds the " + thresholdName
+                + " of " + rowsThreshold);
+        }
+        if (costThreshold > 0 && plan.getCost() > costThreshold) {
+            reasons.add(String.format("estimated cost %.1f exceeds the %s of %.1f", plan.getCost(), thresholdName,
+                costThreshold));
+        }
+        return reasons.isEmpty() ? null : String.join(", ", reasons);
+    }
+
+    public long getWarnRowsExamined() {
+        return warnRowsExamined;
+    }
+
+    public long getMaxRowsExamined() {
+        return maxRowsExamined;
+    }
+
+    public double getWarnCost() {
+        return warnCost;
+    }
+
+    public double getMaxCost() {
+        return maxCost;
+    }
+
+    public AdmissionDecision.Action getOverLimitAction() {
+        return overLimitAction;
+    }
+
+    /**
+     * 做出某种决定的次数
+     */
+    public long getDecisions(AdmissionDecision.Action action) {
+        return decisions[action.ordinal()].get();
+    }
+
+    public long getExplainFailures() {
+        return explainFailures.get();
+    }
+
+    public CacheStats getPlanCacheStats() {
+        return plans.getStats();
+    }
+
+    @Override
+    public String toString() {
+        if (!enabled) {
+            return "disabled";
+        }
+        StringBuilder text = new StringBuilder();
+        for (AdmissionDecision.Action action : AdmissionDecision.Action.values()) {
+            text.append(text.length() == 0 ? "" : ", ").append(action.getName()).append(' ').append(getDecisions(action));
+        }
+        return text + ", plan cache: " + plans.getStats();
+    }
+}
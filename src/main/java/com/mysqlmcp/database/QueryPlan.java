@@ -0,0 +1,184 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * 执行计划摘要：由 EXPLAIN FORMAT=JSON 的输出提取的成本、估算扫描行数、全表扫描的表以及是否使用文件排序和临时表
+ */
+public class QueryPlan {
+    private final double cost;
+    private final long rowsExamined;
+    private final List<String> fullScans;
+    private final boolean filesort;
+    private final boolean temporary;
+
+    public QueryPlan(double cost, long rowsExamined, List<String> fullScans, boolean filesort, boolean temporary) {
+        this.cost = cost;
+        this.rowsExamined = rowsExamined;
+        this.fullScans = Collections.unmodifiableList(new ArrayList<>(fullScans));
+        this.filesort = filesort;
+        this.temporary = temporary;
+    }
+
+    /**
+     * 解析 EXPLAIN FORMAT=JSON 的输出
+     * 嵌套循环连接中每张表的扫描次数为前面各表产生的行数（rows_produced_per_join 是到该表为止的累计值），
+     * 估算扫描行数为各表每次扫描的行数乘以扫描次数之和；UNION 的成本为各查询块成本之和。
+     */
+    public static QueryPlan parse(String json) {
+        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        Walker walker = new Walker();
+        walker.visit(root, 1);
+        return new QueryPlan(cost(root), Math.round(walker.rowsExamined), walker.fullScans, walker.filesort,
+            walker.temporary);
+    }
+
+    /**
+     * 优化器估算的查询成本（query_cost）
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * 估算扫描的行数
+     */
+    public long getRowsExamined() {
+        return rowsExamined;
+    }
+
+    /**
+     * 全表扫描（access_type 为 ALL）的表，不包括派生表和 UNION 的临时表
+     */
+    public List<String> getFullScans() {
+        return fullScans;
+    }
+
+    public boolean isFilesort() {
+        return filesort;
+    }
+
+    public boolean isTemporary() {
+        return temporary;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("cost ").append(String.format("%.1f", cost))
+            .append(", ~").append(rowsExamined).append(" row(s) examined");
+        if (!fullScans.isEmpty()) {
+            text.append(", full scan of ").append(String.join(", ", fullScans));
+        }
+        if (filesort) {
+            text.append(", filesort");
+        }
+        if (temporary) {
+            text.append(", temporary table");
+        }
+        return text.toString();
+    }
+
+    /**
+     * 第一个带 query_cost 的节点的成本；没有时取各子节点成本之和（UNION 的各查询块）
+     */
+    private static double cost(JsonElement element) {
+        double total = 0;
+        if (element.isJsonArray()) {
+            for (JsonElement item : element.getAsJsonArray()) {
+                total += cost(item);
+            }
+        } else if (element.isJsonObject()) {
+            JsonObject node = element.getAsJsonObject();
+            JsonElement costInfo = node.get("cost_info");
+            if (costInfo != null && costInfo.isJsonObject() && costInfo.getAsJsonObject().has("query_cost")) {
+                return costInfo.getAsJsonObject().get("query_cost").getAsDouble();
+            }
+            for (Map.Entry<String, JsonElement> entry : node.entrySet()) {
+                total += cost(entry.getValue());
+            }
+        }
+        return total;
+    }
+
+    private static final class Walker {
+        private double rowsExamined;
+        private final List<String> fullScans = new ArrayList<>();
+        private boolean filesort;
+        private boolean temporary;
+
+        /**
+         * @param loops 当前节点被执行的次数
+         */
+        void visit(JsonElement element, double loops) {
+            if (element.isJsonArray()) {
+                for (JsonElement item : element.getAsJsonArray()) {
+                    visit(item, loops);
+                }
+                return;
+            }
+            if (!element.isJsonObject()) {
+                return;
+            }
+            JsonObject node = element.getAsJsonObject();
+            filesort |= flag(node, "using_filesort");
+            temporary |= flag(node, "using_temporary_table");
+            for (Map.Entry<String, JsonElement> entry : node.entrySet()) {
+                JsonElement value = entry.getValue();
+                if ("table".equals(entry.getKey()) && value.isJsonObject()) {
+                    visitTable(value.getAsJsonObject(), loops);
+                } else if ("nested_loop".equals(entry.getKey()) && value.isJsonArray()) {
+                    double prefix = loops;
+                    for (JsonElement item : value.getAsJsonArray()) {
+                        JsonElement table = item.isJsonObject() ? item.getAsJsonObject().get("table") : null;
+                        if (table != null && table.isJsonObject()) {
+                            prefix = loops * visitTable(table.getAsJsonObject(), prefix);
+                        } else {
+                            visit(item, prefix);
+                        }
+                    }
+                } else {
+                    visit(value, loops);
+                }
+            }
+        }
+
+        /**
+         * 累计一张表的扫描行数，物化的子查询和附加的子查询按执行一次计算
+         * @return 到这张表为止连接产生的行数
+         */
+        private double visitTable(JsonObject table, double loops) {
+            double perScan = number(table, "rows_examined_per_scan");
+            rowsExamined += loops * perScan;
+            String name = table.has("table_name") ? table.get("table_name").getAsString() : null;
+            if ("ALL".equals(text(table, "access_type")) && name != null && !name.startsWith("<")
+                && !fullScans.contains(name)) {
+                fullScans.add(name);
+            }
+            visit(table, 1);
+            return table.has("rows_produced_per_join") ? number(table, "rows_produced_per_join") : perScan;
+        }
+
+        private static boolean flag(JsonObject node, String name) {
+            JsonElement value = node.get(name);
+            return value != null && value.isJsonPrimitive() && value.getAsBoolean();
+        }
+
+        private static double number(JsonObject node, String name) {
+            JsonElement value = node.get(name);
+            return value != null && value.isJsonPrimitive() ? value.getAsDouble() : 0;
+        }
+
+        private static String text(JsonObject node, String name) {
+            JsonElement value = node.get(name);
+            return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mysqlmcp.database;
+
+import java.util.List;
+
+/**
+ * 物化的查询结果
+ * 按列顺序保存列名，每行是与列名一一对应的值数组，避免每行一个 Map 重复保存列名
+ */
+public class QueryResult {
+    private final String[] columnNames;
+    private final List<Object[]> rows;
+    private final CacheStatus cacheStatus;
+    private final ResultTruncation truncation;
+
+    public QueryResult(String[] columnNames, List<Object[]> rows) {
+        this(columnNames, rows, CacheStatus.BYPASS);
+    }
+
+    public QueryResult(String[] columnNames, List<Object[]> rows, CacheStatus cacheStatus) {
+        this(columnNames, rows, cacheStatus, ResultTruncation.NONE);
+    }
+
+    public QueryResult(String[] columnNames, List<Object[]> rows, CacheStatus cacheStatus, ResultTruncation truncation) {
+        this.columnNames = columnNames;
+        this.rows = rows;
+        this.cacheStatus = cacheStatus;
+        this.truncation = truncation;
+    }
+
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    public List<Object[]> getRows() {
+        return rows;
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * 结果缓存的查找状态
+     */
+    public CacheStatus getCacheStatus() {
+        return cacheStatus;
+    }
+
+    /**
+     * 结果是否因为行数、字节数上限或内存预算被截断
+     */
+    public ResultTruncation getTruncation() {
+        return truncation;
+    }
+
+    /**
+     * 返回共享同一份数据、但带有指定缓存状态的结果（缓存中的结果不可修改）
+     */
+    QueryResult withCacheStatus(CacheStatus status) {
+        return new QueryResult(columnNames, rows, status, truncation);
+    }
+}
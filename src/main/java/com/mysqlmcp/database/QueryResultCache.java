@@ -0,0 +1,215 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 查询结果缓存
+ * 键为规范化的 SQL 加绑定参数，按 LRU 淘汰并限制总字节数（估算值）；
+ * 通过本服务器执行的写操作和 DDL 会失效引用了相关表的条目，其他客户端的修改只能依赖过期时间。
+ * 视图和存储函数所依赖的表无法从语句中识别，由 DatabaseManager 在写入前检查，只缓存引用基本表的结果。
+ */
+public class QueryResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+
+    /** 结果依赖执行时刻、会话或锁的语句不缓存 */
+    private static final Pattern NON_DETERMINISTIC = Pattern.compile(
+        "\\b(?:NOW|SYSDATE|CURDATE|CURTIME|CURRENT_DATE|CURRENT_TIME|CURRENT_TIMESTAMP|LOCALTIME|LOCALTIMESTAMP"
+            + "|UTC_DATE|UTC_TIME|UTC_TIMESTAMP|UNIX_TIMESTAMP|RAND|UUID|UUID_SHORT|CONNECTION_ID|LAST_INSERT_ID"
+            + "|FOUND_ROWS|ROW_COUNT|USER|CURRENT_USER|SESSION_USER|SYSTEM_USER|DATABASE|SCHEMA|SLEEP|GET_LOCK"
+            + "|RELEASE_LOCK|IS_FREE_LOCK|IS_USED_LOCK|NEXTVAL)\\s*\\("
+            + "|\\b(?:CURRENT_DATE|CURRENT_TIME|CURRENT_TIMESTAMP|CURRENT_USER|LOCALTIME|LOCALTIMESTAMP)\\b"
+            + "|@|\\bFOR\\s+(?:UPDATE|SHARE)\\b|\\bLOCK\\s+IN\\s+SHARE\\s+MODE\\b|\\bINTO\\b",
+        Pattern.CASE_INSENSITIVE);
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final TtlLruCache<Key, QueryResult> cache;
+    /** 每次失效时递增，查询开始后发生过失效的结果不写入缓存，避免写入过期数据 */
+    private final AtomicLong version = new AtomicLong();
+
+    public QueryResultCache(boolean enabled, long maxEntries, long maxBytes, long maxEntryBytes, long ttlMs) {
+        this.enabled = enabled;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        this.cache = new TtlLruCache<>(maxEntries, maxBytes, ttlMs, QueryResultCache::estimateBytes);
+    }
+
+    /**
+     * 从系统属性/环境变量读取配置，默认关闭
+     */
+    public static QueryResultCache fromEnvironment() {
+        boolean enabled = ServerConfig.getBoolean("mysql.resultCache.enabled", "MYSQL_RESULT_CACHE_ENABLED", false);
+        long maxEntries = ServerConfig.getLong("mysql.resultCache.maxEntries", "MYSQL_RESULT_CACHE_MAX_ENTRIES", 10_000);
+        long maxBytes = ServerConfig.getLong("mysql.resultCache.maxBytes", "MYSQL_RESULT_CACHE_MAX_BYTES", 64L * 1024 * 1024);
+        long maxEntryBytes = ServerConfig.getLong("mysql.resultCache.maxEntryBytes", "MYSQL_RESULT_CACHE_MAX_ENTRY_BYTES",
+            4L * 1024 * 1024);
+        long ttlMs = ServerConfig.getLong("mysql.resultCache.ttlMs", "MYSQL_RESULT_CACHE_TTL_MS", 60_000);
+        return new QueryResultCache(enabled, maxEntries, maxBytes, maxEntryBytes, ttlMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 单个结果的最大估算字节数，超过时不缓存
+     */
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * 生成缓存键
+     * @return 缓存未开启或语句不可缓存时返回 null
+     */
+    public Key keyFor(String sql, List<Object> params) {
+        if (!enabled || !"SELECT".equals(SqlStatements.leadingKeyword(sql))) {
+            return null;
+        }
+        String normalized = SqlStatements.normalize(sql);
+        if (NON_DETERMINISTIC.matcher(SqlStatements.maskLiterals(normalized)).find()) {
+            return null;
+        }
+        List<SqlStatements.TableName> tables = SqlStatements.referencedTables(normalized);
+        if (tables == null) {
+            return null;
+        }
+        return new Key(normalized, params == null ? List.of() : new ArrayList<>(params), tables, version.get());
+    }
+
+    public QueryResult get(Key key) {
+        return key == null ? null : cache.get(key);
+    }
+
+    public void put(Key key, QueryResult result) {
+        if (key != null && key.version == version.get() && estimateBytes(result) <= maxEntryBytes) {
+            cache.put(key, result);
+        }
+    }
+
+    /**
+     * 根据执行的 SQL 失效引用了被修改表的条目，无法识别修改的表时清空缓存
+     */
+    public void invalidateForStatement(String sql) {
+        if (!enabled) {
+            return;
+        }
+        List<SqlStatements.TableName> targets = SqlStatements.writeTargets(sql);
+        if (targets != null && targets.isEmpty()) {
+            return;
+        }
+        version.incrementAndGet();
+        if (targets == null) {
+            logger.debug("Unrecognized statement, clearing result cache: {}", sql);
+            cache.clear();
+            return;
+        }
+        for (SqlStatements.TableName target : targets) {
+            int removed = cache.invalidateIf(key -> key.references(target));
+            logger.debug("Invalidated {} result cache entries for {}", removed, target);
+        }
+    }
+
+    public void clear() {
+        version.incrementAndGet();
+        cache.clear();
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * 估算结果占用的字节数
+     */
+    public static long estimateBytes(QueryResult result) {
+        long bytes = 64;
+        for (String column : result.getColumnNames()) {
+            bytes += 40 + 2L * column.length();
+        }
+        for (Object[] row : result.getRows()) {
+            bytes += estimateRowBytes(row);
+        }
+        return bytes;
+    }
+
+    static long estimateRowBytes(Object[] row) {
+        long bytes = 16 + 8L * row.length;
+        for (Object value : row) {
+            bytes += estimateValueBytes(value);
+        }
+        return bytes;
+    }
+
+    static long estimateValueBytes(Object value) {
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        }
+        return value != null ? 32 : 0;
+    }
+
+    /**
+     * 缓存键：规范化 SQL + 参数，同时记录引用的表和创建时的版本（不参与比较）
+     */
+    public static final class Key {
+        private final String sql;
+        private final List<Object> params;
+        private final List<SqlStatements.TableName> tables;
+        private final long version;
+
+        private Key(String sql, List<Object> params, List<SqlStatements.TableName> tables, long version) {
+            this.sql = sql;
+            this.params = params;
+            this.tables = tables;
+            this.version = version;
+        }
+
+        /**
+         * 语句引用的表（表名小写，未指定数据库时数据库为 null）
+         */
+        List<SqlStatements.TableName> getTables() {
+            return tables;
+        }
+
+        /**
+         * 是否引用了指定的表；未指定数据库的名称可能指向任意数据库，按匹配处理
+         */
+        boolean references(SqlStatements.TableName target) {
+            for (SqlStatements.TableName table : tables) {
+                boolean sameDb = target.getDatabase() == null || table.getDatabase() == null
+                    || target.getDatabase().equals(table.getDatabase());
+                if (sameDb && (target.getTable() == null || target.getTable().equals(table.getTable()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return sql.equals(other.sql) && params.equals(other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, params);
+        }
+    }
+}
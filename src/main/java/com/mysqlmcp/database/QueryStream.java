@@ -0,0 +1,187 @@
+package com.mysqlmcp.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.metrics.CallTimings;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 流式查询结果
+ * 基于 MySQL 的流式读取（fetchSize = Integer.MIN_VALUE），逐行从服务器读取，内存占用与结果集大小无关。
+ * 在关闭之前独占一个连接池连接，调用方必须使用 try-with-resources 关闭。
+ * 命中结果缓存时直接遍历缓存的行，不占用连接；未命中且结果足够小时，读完后写入结果缓存。
+ */
+public class QueryStream implements RowStream {
+    private static final Logger logger = LoggerFactory.getLogger(QueryStream.class);
+
+    private final Connection connection;
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final RequestContext.Registration registration;
+    private final Iterator<Object[]> cachedRows;
+    private final String[] columnNames;
+    private final CacheStatus cacheStatus;
+    private Object[] current;
+    private long rowCount;
+    private boolean exhausted;
+
+    private final QueryResultCache cache;
+    private final QueryResultCache.Key cacheKey;
+    private List<Object[]> collected;
+    private long collectedBytes;
+
+    QueryStream(Connection connection, Statement statement, ResultSet resultSet, RequestContext.Registration registration,
+                QueryResultCache cache, QueryResultCache.Key cacheKey) throws SQLException {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.registration = registration;
+        this.cachedRows = null;
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+        this.cacheStatus = cacheKey != null ? CacheStatus.MISS : CacheStatus.BYPASS;
+        this.collected = cacheKey != null ? new ArrayList<>() : null;
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        this.columnNames = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = metaData.getColumnLabel(i + 1);
+        }
+    }
+
+    /**
+     * 遍历缓存中的结果
+     */
+    QueryStream(QueryResult cached) {
+        this.connection = null;
+        this.statement = null;
+        this.resultSet = null;
+        this.registration = RequestContext.Registration.NONE;
+        this.cachedRows = cached.getRows().iterator();
+        this.columnNames = cached.getColumnNames();
+        this.cache = null;
+        this.cacheKey = null;
+        this.cacheStatus = CacheStatus.HIT;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * 结果缓存的查找状态
+     */
+    @Override
+    public CacheStatus getCacheStatus() {
+        return cacheStatus;
+    }
+
+    /**
+     * 移动到下一行
+     */
+    @Override
+    public boolean next() throws SQLException {
+        if (cachedRows != null) {
+            if (!cachedRows.hasNext()) {
+                return false;
+            }
+            current = cachedRows.next();
+            rowCount++;
+            RequestContext.timings().addRows(1);
+            return true;
+        }
+        CallTimings timings = RequestContext.timings();
+        long begin = System.nanoTime();
+        boolean hasNext = resultSet.next();
+        long fetched = System.nanoTime();
+        timings.addJdbcNanos(fetched - begin);
+        if (!hasNext) {
+            exhausted = true;
+            if (collected != null) {
+                cache.put(cacheKey, new QueryResult(columnNames, collected));
+                collected = null;
+            }
+            return false;
+        }
+        current = new Object[columnNames.length];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = resultSet.getObject(i + 1);
+        }
+        timings.addConversionNanos(System.nanoTime() - fetched);
+        timings.addRows(1);
+        rowCount++;
+        if (collected != null) {
+            collectedBytes += QueryResultCache.estimateRowBytes(current);
+            if (collectedBytes > cache.getMaxEntryBytes()) {
+                // 结果太大，不缓存
+                collected = null;
+            } else {
+                collected.add(current);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取当前行的列值
+     * @param index 列序号，从 0 开始
+     */
+    @Override
+    public Object getValue(int index) {
+        return current[index];
+    }
+
+    /**
+     * 已读取的行数
+     */
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() {
+        collected = null;
+        if (resultSet == null) {
+            return;
+        }
+        registration.close();
+        if (!exhausted) {
+            // 提前结束（例如结果被截断）时中止查询，避免关闭流式结果集时读完剩余的行
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                logger.debug("Error cancelling streaming statement", e);
+            }
+        }
+        try {
+            resultSet.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing streaming result set", e);
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing streaming statement", e);
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Error releasing streaming connection", e);
+        }
+    }
+}
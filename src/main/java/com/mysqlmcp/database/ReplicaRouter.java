@@ -0,0 +1,737 @@
+package com.mysqlmcp.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysql.cj.conf.ConnectionUrl;
+import com.mysqlmcp.config.ServerConfig;
+import com.mysqlmcp.metrics.LatencyHistogram;
+
+/**
+ * 读写分离路由
+ * 只读查询和元数据读取发往只读副本，写操作和其他语句始终在主库执行。
+ * 按读请求耗时的指数移动平均乘以（在途请求数 + 1）选择副本；后台定期检查副本的复制延迟，
+ * 超过 maxLagSeconds 或无法连接的副本暂不参与路由，没有可用副本时回退到主库。
+ * 写入某张表后的一段时间内，读取该表的查询仍发往主库，保证读到自己的写入；表按数据库区分，
+ * 未指定数据库的表名按主库连接地址中的默认数据库处理。
+ * 开启对冲读后，副本读取超过近期 p95 耗时仍未返回时在另一个副本上再发一次，先返回的结果胜出，
+ * 另一次执行通过 KILL QUERY 中止。
+ */
+public class ReplicaRouter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+    /** 延迟移动平均的平滑系数 */
+    private static final double EWMA_ALPHA = 0.2;
+    /** 对冲延迟所需的最少样本数，样本不足时不对冲 */
+    private static final long MIN_HEDGE_SAMPLES = 50;
+    private static final int ER_PARSE_ERROR = 1064;
+    private static final int ER_SPECIFIC_ACCESS_DENIED = 1227;
+
+    /**
+     * 在一个连接上执行的读操作
+     */
+    @FunctionalInterface
+    public interface ReadOperation<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * 主库连接的来源
+     */
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+
+    private final List<Replica> replicas;
+    private final int defaultTimeoutSeconds;
+    private final long maxLagSeconds;
+    private final long checkIntervalMs;
+    private final long readYourWritesMs;
+    private final boolean hedgeEnabled;
+    private final double hedgeQuantile;
+    private final long hedgeMinDelayMs;
+    /** 主库连接的默认数据库（小写），未指定时为 null */
+    private final String defaultDatabase;
+
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    /** 数据库.表名（小写）到最近一次写入时间 */
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    /** 最近一次无法识别目标表的写操作的时间 */
+    private volatile long lastUnknownWrite;
+    private final AtomicInteger nextStart = new AtomicInteger();
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private volatile ScheduledExecutorService scheduler;
+    private volatile ExecutorService hedgeExecutor;
+    private volatile boolean closed;
+
+    /**
+     * @param primaryUrl 主库连接地址，用于确定未指定数据库的表名所属的数据库
+     */
+    ReplicaRouter(List<String> urls, String primaryUrl, Function<String, Properties> propertiesFactory,
+                  PoolConfig poolConfig, int defaultTimeoutSeconds) {
+        String username = ServerConfig.getString("mysql.replicas.username", "MYSQL_REPLICA_USERNAME", null);
+        String password = ServerConfig.getString("mysql.replicas.password", "MYSQL_REPLICA_PASSWORD", null);
+        List<Replica> list = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            Properties properties = propertiesFactory.apply(urls.get(i));
+            if (username != null) {
+                properties.setProperty("user", username);
+            }
+            if (password != null) {
+                properties.setProperty("password", password);
+            }
+            list.add(new Replica("replica-" + (i + 1), urls.get(i), properties, poolConfig));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.defaultTimeoutSeconds = defaultTimeoutSeconds;
+        this.defaultDatabase = replicas.isEmpty() ? null : defaultDatabase(primaryUrl);
+        this.maxLagSeconds = ServerConfig.getLong("mysql.replicas.maxLagSeconds", "MYSQL_REPLICA_MAX_LAG_SECONDS", 0);
+        this.checkIntervalMs = Math.max(500,
+            ServerConfig.getLong("mysql.replicas.checkIntervalMs", "MYSQL_REPLICA_CHECK_INTERVAL_MS", 5000));
+        this.readYourWritesMs = Math.max(0,
+            ServerConfig.getLong("mysql.replicas.readYourWritesMs", "MYSQL_REPLICA_READ_YOUR_WRITES_MS", 2000));
+        this.hedgeEnabled = ServerConfig.getBoolean("mysql.replicas.hedge.enabled", "MYSQL_REPLICA_HEDGE_ENABLED", false);
+        double percentile = ServerConfig.getDouble("mysql.replicas.hedge.percentile", "MYSQL_REPLICA_HEDGE_PERCENTILE", 95);
+        this.hedgeQuantile = Math.min(0.999, Math.max(0.5, percentile / 100));
+        this.hedgeMinDelayMs = Math.max(1,
+            ServerConfig.getLong("mysql.replicas.hedge.minDelayMs", "MYSQL_REPLICA_HEDGE_MIN_DELAY_MS", 20));
+        if (!replicas.isEmpty()) {
+            logger.info("Read/write splitting enabled: {} replica(s), maxLagSeconds={}, hedge={}",
+                replicas.size(), maxLagSeconds, hedgeEnabled);
+        }
+    }
+
+    /**
+     * 从 mysql.replicas.urls（逗号分隔）读取副本地址，未配置时路由不生效
+     * @param primaryUrl 主库连接地址
+     * @param propertiesFactory 为副本地址创建连接属性（与主库相同的驱动设置）
+     */
+    static ReplicaRouter fromEnvironment(String primaryUrl, Function<String, Properties> propertiesFactory,
+                                         PoolConfig poolConfig, int defaultTimeoutSeconds) {
+        String value = ServerConfig.getString("mysql.replicas.urls", "MYSQL_REPLICA_URLS", "");
+        List<String> urls = new ArrayList<>();
+        for (String url : value.split(",")) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        return new ReplicaRouter(urls, primaryUrl, propertiesFactory, poolConfig, defaultTimeoutSeconds);
+    }
+
+    /**
+     * 连接地址中的默认数据库（小写），未指定或无法解析时返回 null
+     */
+    private static String defaultDatabase(String url) {
+        if (url == null || !ConnectionUrl.acceptsUrl(url)) {
+            return null;
+        }
+        try {
+            String database = ConnectionUrl.getConnectionUrlInstance(url, null).getDatabase();
+            return database == null || database.isEmpty() ? null : database.toLowerCase(Locale.ROOT);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot determine default database from {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * 查询是否发往副本：只读、且近期没有写入它引用的表
+     */
+    public boolean routes(String sql) {
+        if (!isEnabled() || !SqlStatements.isReadOnlyQuery(sql)) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (recentlyWrittenUnknown(now)) {
+            return false;
+        }
+        List<SqlStatements.TableName> tables = SqlStatements.referencedTables(sql);
+        if (tables == null) {
+            return !hasRecentWrites(now);
+        }
+        for (SqlStatements.TableName table : tables) {
+            if (isRecentlyWritten(writeKey(table.getDatabase(), table.getTable()), now)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 元数据读取是否发往副本
+     * @param databaseName 表所在的数据库，为 null 时使用默认数据库
+     * @param tableName 读取的表，为 null 时（表列表）近期有任何写入都在主库读取
+     */
+    public boolean routesMetadata(String databaseName, String tableName) {
+        if (!isEnabled()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (recentlyWrittenUnknown(now)) {
+            return false;
+        }
+        return tableName == null ? !hasRecentWrites(now)
+            : !isRecentlyWritten(writeKey(databaseName, tableName), now);
+    }
+
+    /**
+     * 记录主库上的写操作，读到自己写入的窗口内读取这些表的查询不发往副本
+     * @param database 执行语句时连接的当前数据库，为 null 时使用默认数据库
+     */
+    public void recordWrite(String sql, String database) {
+        if (!isEnabled() || readYourWritesMs == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<SqlStatements.TableName> targets = SqlStatements.writeTargets(sql);
+        if (targets == null) {
+            lastUnknownWrite = now;
+            return;
+        }
+        for (SqlStatements.TableName target : targets) {
+            if (target == null || target.getTable() == null) {
+                lastUnknownWrite = now;
+            } else {
+                recentWrites.put(writeKey(target.getDatabase() != null ? target.getDatabase() : database,
+                    target.getTable()), now);
+            }
+        }
+    }
+
+    private boolean recentlyWrittenUnknown(long now) {
+        return readYourWritesMs > 0 && now - lastUnknownWrite < readYourWritesMs;
+    }
+
+    /**
+     * 写入记录的键：数据库.表名（小写），未指定数据库时使用默认数据库
+     */
+    private String writeKey(String database, String table) {
+        String db = database != null ? database.toLowerCase(Locale.ROOT) : defaultDatabase;
+        return (db != null ? db : "") + "." + table.toLowerCase(Locale.ROOT);
+    }
+
+    private boolean isRecentlyWritten(String key, long now) {
+        Long writtenAt = recentWrites.get(key);
+        return writtenAt != null && now - writtenAt < readYourWritesMs;
+    }
+
+    private boolean hasRecentWrites(long now) {
+        for (Long writtenAt : recentWrites.values()) {
+            if (now - writtenAt < readYourWritesMs) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在副本上执行读操作
+     * 没有可用副本时在主库执行；副本连接失败时标记为不可用并在主库重试一次。
+     * @param hedgeable 是否允许对冲（操作必须没有副作用，可以在两个副本上同时执行）
+     * @param primary 主库连接，用于回退
+     */
+    public <T> T read(ReadOperation<T> op, boolean hedgeable, ConnectionSource primary) throws SQLException {
+        ensureStarted();
+        Replica replica = choose(null);
+        if (replica == null) {
+            primaryReads.increment();
+            return runOnPrimary(op, primary);
+        }
+        try {
+            long delayMs = hedgeable ? hedgeDelayMs() : -1;
+            if (delayMs < 0) {
+                return runOn(replica, op);
+            }
+            return hedgedRead(replica, op, delayMs);
+        } catch (SQLException e) {
+            if (!isConnectionFailure(e) || isCancelled()) {
+                throw e;
+            }
+            logger.warn("Replica read failed on {}, retrying on primary: {}", replica.name, e.getMessage());
+            fallbacks.increment();
+            return runOnPrimary(op, primary);
+        }
+    }
+
+    /**
+     * 借用一个读连接（用于流式查询，连接在调用方关闭前一直占用）
+     * 副本连接失败时标记为不可用并返回主库连接
+     */
+    public Connection borrowReadConnection(ConnectionSource primary) throws SQLException {
+        ensureStarted();
+        Replica replica = choose(null);
+        if (replica == null) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection conn = replica.pool().borrow();
+            replica.reads.increment();
+            replicaReads.increment();
+            return conn;
+        } catch (SQLException e) {
+            replica.failed(e, checkIntervalMs);
+            logger.warn("Replica {} unavailable, using primary: {}", replica.name, e.getMessage());
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    private <T> T runOnPrimary(ReadOperation<T> op, ConnectionSource primary) throws SQLException {
+        try (Connection conn = primary.getConnection()) {
+            return op.execute(conn);
+        }
+    }
+
+    /**
+     * 在指定副本上执行并记录耗时
+     */
+    private <T> T runOn(Replica replica, ReadOperation<T> op) throws SQLException {
+        long begin = System.nanoTime();
+        replica.inFlight.incrementAndGet();
+        try (Connection conn = replica.pool().borrow()) {
+            T result = op.execute(conn);
+            long elapsed = System.nanoTime() - begin;
+            replica.succeeded(elapsed);
+            readLatency.recordNanos(elapsed);
+            replicaReads.increment();
+            return result;
+        } catch (SQLException e) {
+            if (isConnectionFailure(e)) {
+                replica.failed(e, checkIntervalMs);
+            } else if (!isCancelled()) {
+                replica.errors.increment();
+            }
+            throw e;
+        } finally {
+            replica.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 对冲读：在当前线程执行第一次读取，超过 delayMs 未完成时在另一个副本上并行执行第二次
+     * 两次执行各自使用当前请求的子上下文，先成功的胜出并取消另一次。
+     */
+    private <T> T hedgedRead(Replica first, ReadOperation<T> op, long delayMs) throws SQLException {
+        RequestContext parent = RequestContext.current();
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        Attempt primaryAttempt = new Attempt();
+        Attempt hedgeAttempt = new Attempt();
+        CompletableFuture<T> hedgeResult = new CompletableFuture<>();
+        ScheduledFuture<?> trigger = scheduler.schedule(() -> {
+            Replica second = winner.isDone() ? null : choose(first);
+            if (second == null) {
+                hedgeResult.completeExceptionally(new SQLException("No replica available for hedged read"));
+                return;
+            }
+            hedges.increment();
+            hedgeAttempt.started = true;
+            hedgeExecutor().execute(() -> {
+                try (RequestContext context = new RequestContext(parent, defaultTimeoutSeconds)) {
+                    if (!hedgeAttempt.bind(context)) {
+                        hedgeResult.completeExceptionally(new SQLException("Hedged read abandoned"));
+                        return;
+                    }
+                    T result = runOn(second, op);
+                    hedgeResult.complete(result);
+                    if (winner.complete(result)) {
+                        hedgeWins.increment();
+                        primaryAttempt.abandon();
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    hedgeResult.completeExceptionally(e);
+                }
+            });
+        }, delayMs, TimeUnit.MILLISECONDS);
+
+        SQLException failure;
+        try (RequestContext context = new RequestContext(parent, defaultTimeoutSeconds)) {
+            primaryAttempt.bind(context);
+            T result = runOn(first, op);
+            if (winner.complete(result)) {
+                trigger.cancel(false);
+                hedgeAttempt.abandon();
+                return result;
+            }
+            failure = null;
+        } catch (SQLException e) {
+            failure = e;
+        }
+        if (winner.isDone()) {
+            return winner.join();
+        }
+        // 第一次执行失败：对冲已发出时等待其结果，否则直接抛出
+        trigger.cancel(false);
+        if (!hedgeAttempt.started) {
+            hedgeAttempt.abandon();
+            throw failure;
+        }
+        try {
+            return hedgeResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hedgeAttempt.abandon();
+            throw failure;
+        } catch (ExecutionException e) {
+            failure.addSuppressed(e.getCause());
+            throw failure;
+        }
+    }
+
+    /**
+     * 对冲延迟：近期副本读取耗时的分位数，样本不足或未开启对冲时返回 -1
+     */
+    private long hedgeDelayMs() {
+        if (!hedgeEnabled || replicas.size() < 2 || readLatency.getCount() < MIN_HEDGE_SAMPLES) {
+            return -1;
+        }
+        return Math.max(hedgeMinDelayMs, (long) Math.ceil(readLatency.getPercentileMillis(hedgeQuantile)));
+    }
+
+    private static boolean isCancelled() {
+        RequestContext context = RequestContext.current();
+        return context != null && context.isCancelled();
+    }
+
+    /**
+     * 是否为连接层面的失败（无法连接、连接中断、连接池超时），此时可以换到主库重试
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientConnectionException || (state != null && state.startsWith("08"));
+    }
+
+    /**
+     * 选择得分最低（耗时移动平均 ×（在途请求数 + 1））的可用副本
+     * 从轮转的起点开始比较，得分相同时请求分散到不同副本
+     * @param exclude 排除的副本，可为 null
+     */
+    private Replica choose(Replica exclude) {
+        if (closed) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        int size = replicas.size();
+        int start = Math.floorMod(nextStart.getAndIncrement(), size);
+        Replica best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica == exclude || !isEligible(replica, now)) {
+                continue;
+            }
+            double score = replica.latencyMillis * (replica.inFlight.get() + 1);
+            if (score < bestScore) {
+                best = replica;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private boolean isEligible(Replica replica, long now) {
+        if (replica.downUntil > now) {
+            return false;
+        }
+        if (maxLagSeconds <= 0) {
+            return true;
+        }
+        return !replica.replicationStopped && replica.lagSeconds <= maxLagSeconds;
+    }
+
+    /**
+     * 首次使用时启动后台延迟检查，并同步检查一次（超过最大延迟的副本从第一次读取起就不参与路由）
+     */
+    private void ensureStarted() {
+        if (scheduler != null) {
+            return;
+        }
+        synchronized (this) {
+            if (scheduler != null || closed) {
+                return;
+            }
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "mysql-replica-monitor");
+                t.setDaemon(true);
+                return t;
+            });
+            checkAll();
+            executor.scheduleWithFixedDelay(this::checkAll, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+            scheduler = executor;
+        }
+    }
+
+    private ExecutorService hedgeExecutor() {
+        ExecutorService executor = hedgeExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = hedgeExecutor;
+                if (executor == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    executor = Executors.newCachedThreadPool(r -> {
+                        Thread t = new Thread(r, "mysql-hedge-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    hedgeExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 检查所有副本的连接和复制延迟，并清理过期的写入记录
+     */
+    private void checkAll() {
+        for (Replica replica : replicas) {
+            check(replica);
+        }
+        long now = System.currentTimeMillis();
+        recentWrites.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesMs);
+    }
+
+    private void check(Replica replica) {
+        try (Connection conn = replica.pool().borrow();
+             Statement stmt = conn.createStatement()) {
+            stmt.setQueryTimeout((int) Math.max(1, checkIntervalMs / 1000));
+            readLag(replica, stmt);
+            if (replica.downUntil != 0) {
+                logger.info("Replica {} is available again", replica.name);
+            }
+            replica.downUntil = 0;
+            replica.lastError = null;
+        } catch (SQLException e) {
+            if (replica.downUntil == 0) {
+                logger.warn("Replica {} check failed: {}", replica.name, e.getMessage());
+            }
+            replica.failed(e, checkIntervalMs * 2);
+        }
+    }
+
+    /**
+     * 读取复制延迟：MySQL 8.0.22+ 使用 SHOW REPLICA STATUS，更早的版本使用 SHOW SLAVE STATUS
+     * 没有 REPLICATION CLIENT 权限或不是副本时延迟未知（-1），只记录一次警告
+     */
+    private void readLag(Replica replica, Statement stmt) throws SQLException {
+        ResultSet rs;
+        String column;
+        try {
+            rs = stmt.executeQuery("SHOW REPLICA STATUS");
+            column = "Seconds_Behind_Source";
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ER_PARSE_ERROR) {
+                rs = stmt.executeQuery("SHOW SLAVE STATUS");
+                column = "Seconds_Behind_Master";
+            } else if (e.getErrorCode() == ER_SPECIFIC_ACCESS_DENIED) {
+                replica.lagUnknown("no REPLICATION CLIENT privilege");
+                return;
+            } else {
+                throw e;
+            }
+        }
+        try (ResultSet status = rs) {
+            if (!status.next()) {
+                replica.lagUnknown("replication is not configured");
+                return;
+            }
+            long lag = status.getLong(column);
+            // 复制线程停止时延迟为 NULL
+            replica.replicationStopped = status.wasNull();
+            replica.lagSeconds = replica.replicationStopped ? -1 : lag;
+        }
+    }
+
+    /**
+     * 预热副本连接池
+     * @return 是否至少有一个副本可用
+     */
+    public boolean warmUp() {
+        ensureStarted();
+        boolean any = false;
+        for (Replica replica : replicas) {
+            if (replica.downUntil == 0) {
+                replica.pool().fillToMinimum();
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    public List<ReplicaStats> getStats() {
+        List<ReplicaStats> stats = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Replica replica : replicas) {
+            ConnectionPool pool = replica.pool;
+            stats.add(new ReplicaStats(replica.name, maskPassword(replica.url), isEligible(replica, now),
+                replica.lagSeconds, replica.latencyMillis, replica.inFlight.get(), replica.reads.sum(),
+                replica.errors.sum(), replica.lastError, pool == null ? null : pool.getStats()));
+        }
+        return stats;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * 当前对冲延迟（毫秒），不对冲时返回 -1
+     */
+    public long getHedgeDelayMs() {
+        return hedgeDelayMs();
+    }
+
+    private static String maskPassword(String url) {
+        return url.replaceAll("(?i)(password=)[^&;]*", "$1***");
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            ConnectionPool pool = replica.pool;
+            if (pool != null) {
+                pool.close();
+                replica.pool = null;
+            }
+        }
+    }
+
+    /**
+     * 对冲读中的一次执行，另一次胜出后取消其语句
+     */
+    private static final class Attempt {
+        private volatile boolean started;
+        private volatile boolean abandoned;
+        private volatile RequestContext context;
+
+        /**
+         * @return 是否仍需执行（已放弃时返回 false）
+         */
+        boolean bind(RequestContext context) {
+            this.context = context;
+            return !abandoned;
+        }
+
+        void abandon() {
+            abandoned = true;
+            RequestContext current = context;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    /**
+     * 一个只读副本，连接池在首次使用时创建
+     */
+    private static final class Replica {
+        private final String name;
+        private final String url;
+        private final Properties properties;
+        private final PoolConfig poolConfig;
+        private volatile ConnectionPool pool;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private volatile double latencyMillis;
+        private volatile long lagSeconds = -1;
+        private volatile boolean replicationStopped;
+        private volatile boolean lagWarned;
+        /** 标记为不可用直到该时间，0 表示可用 */
+        private volatile long downUntil;
+        private volatile String lastError;
+
+        private Replica(String name, String url, Properties properties, PoolConfig poolConfig) {
+            this.name = name;
+            this.url = url;
+            this.properties = properties;
+            this.poolConfig = poolConfig;
+        }
+
+        private synchronized ConnectionPool pool() {
+            if (pool == null) {
+                pool = new ConnectionPool(name, url, properties, poolConfig);
+            }
+            return pool;
+        }
+
+        private void succeeded(long nanos) {
+            reads.increment();
+            double millis = nanos / 1_000_000.0;
+            double previous = latencyMillis;
+            latencyMillis = previous == 0 ? millis : previous + EWMA_ALPHA * (millis - previous);
+        }
+
+        private void failed(SQLException e, long downForMs) {
+            errors.increment();
+            lastError = e.getMessage();
+            downUntil = System.currentTimeMillis() + downForMs;
+        }
+
+        private void lagUnknown(String reason) {
+            lagSeconds = -1;
+            replicationStopped = false;
+            if (!lagWarned) {
+                lagWarned = true;
+                logger.warn("Replication lag of {} is unknown ({}), maxLagSeconds is not enforced for it", name, reason);
+            }
+        }
+    }
+}
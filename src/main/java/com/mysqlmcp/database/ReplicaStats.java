@@ -0,0 +1,93 @@
+package com.mysqlmcp.database;
+
+/**
+ * 只读副本状态快照
+ */
+public class ReplicaStats {
+    private final String name;
+    private final String url;
+    private final boolean available;
+    private final long lagSeconds;
+    private final double latencyMillis;
+    private final int inFlight;
+    private final long reads;
+    private final long errors;
+    private final String lastError;
+    private final PoolStats pool;
+
+    public ReplicaStats(String name, String url, boolean available, long lagSeconds, double latencyMillis,
+                        int inFlight, long reads, long errors, String lastError, PoolStats pool) {
+        this.name = name;
+        this.url = url;
+        this.available = available;
+        this.lagSeconds = lagSeconds;
+        this.latencyMillis = latencyMillis;
+        this.inFlight = inFlight;
+        this.reads = reads;
+        this.errors = errors;
+        this.lastError = lastError;
+        this.pool = pool;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 连接地址（不含密码参数）
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * 当前是否参与路由（可连接且延迟不超过 maxLagSeconds）
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * 最近一次检查得到的复制延迟（秒），未知时为 -1
+     */
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    /**
+     * 读请求耗时的指数移动平均（毫秒）
+     */
+    public double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * 副本连接池统计，连接池尚未创建时为 null
+     */
+    public PoolStats getPool() {
+        return pool;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicaStats{name=" + name + ", available=" + available + ", lagSeconds=" + lagSeconds
+            + ", latencyMs=" + String.format("%.3f", latencyMillis) + ", inFlight=" + inFlight
+            + ", reads=" + reads + ", errors=" + errors + "}";
+    }
+}
@@ -0,0 +1,213 @@
+package com.mysqlmcp.database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.metrics.CallTimings;
+
+/**
+ * 一个 JSON-RPC 请求的执行上下文
+ * 记录请求正在执行的语句和查询超时，取消请求时对这些语句调用 Statement.cancel()
+ * （MySQL 驱动通过单独的连接发送 KILL QUERY），服务器端立即停止执行。
+ * 由 DatabaseManager.beginRequest() 创建并绑定到当前线程，请求结束时关闭。
+ * 同一请求在其他连接或线程上执行的语句（例如对冲读）使用子上下文，可以单独取消。
+ */
+public final class RequestContext implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RequestContext.class);
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private final String requestId;
+    private final int timeoutSeconds;
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private final Queue<AutoCloseable> resources = new ConcurrentLinkedQueue<>();
+    private final CallTimings timings;
+    private final Map<String, RequestContext> activeRequests;
+    private final RequestContext parent;
+    private final RequestContext previous;
+    private volatile boolean cancelled;
+
+    /**
+     * @param activeRequests 按请求 ID 登记正在处理的请求，requestId 为 null（通知）时不登记
+     */
+    RequestContext(String requestId, int timeoutSeconds, Map<String, RequestContext> activeRequests) {
+        this.requestId = requestId;
+        this.timeoutSeconds = timeoutSeconds;
+        this.timings = new CallTimings();
+        this.activeRequests = activeRequests;
+        this.parent = null;
+        this.previous = CURRENT.get();
+        CURRENT.set(this);
+        if (requestId != null) {
+            activeRequests.put(requestId, this);
+        }
+    }
+
+    /**
+     * 创建 parent 的子上下文并绑定到当前线程
+     * 子上下文共享请求 ID、超时和阶段耗时，语句同时登记到父上下文（取消请求时一并中止）；
+     * 取消子上下文只中止它自己的语句。parent 为 null 时创建不属于任何请求的独立上下文。
+     * @param defaultTimeoutSeconds parent 为 null 时使用的查询超时
+     */
+    RequestContext(RequestContext parent, int defaultTimeoutSeconds) {
+        this.requestId = parent != null ? parent.requestId : null;
+        this.timeoutSeconds = parent != null ? parent.timeoutSeconds : defaultTimeoutSeconds;
+        this.timings = parent != null ? parent.timings : CallTimings.NONE;
+        this.activeRequests = null;
+        this.parent = parent;
+        this.previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    /**
+     * 当前线程正在处理的请求，没有时返回 null
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 当前请求的阶段耗时，不在请求中时返回 CallTimings.NONE（丢弃记录）
+     */
+    public static CallTimings timings() {
+        RequestContext context = CURRENT.get();
+        return context != null ? context.timings : CallTimings.NONE;
+    }
+
+    public CallTimings getTimings() {
+        return timings;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * 查询超时（秒），0 表示不限制
+     */
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * 请求已取消时抛出异常，用于在分块执行等多语句操作之间提前结束
+     */
+    public void checkCancelled() throws SQLException {
+        if (isCancelled()) {
+            throw new SQLException("Request " + requestId + " was cancelled", "70100");
+        }
+    }
+
+    /**
+     * 登记将要执行的语句，请求已取消时抛出异常
+     */
+    void register(Statement statement) throws SQLException {
+        checkCancelled();
+        statements.add(statement);
+        try {
+            if (parent != null) {
+                parent.register(statement);
+            }
+            // cancel() 先设置标记再遍历语句，登记后再检查一次，在两者之间取消时语句也不会继续执行
+            checkCancelled();
+        } catch (SQLException e) {
+            unregister(statement);
+            throw e;
+        }
+    }
+
+    void unregister(Statement statement) {
+        statements.remove(statement);
+        if (parent != null) {
+            parent.unregister(statement);
+        }
+    }
+
+    /**
+     * 登记请求结束时释放的资源（例如结果占用的内存预算），子上下文登记到父上下文
+     */
+    void attach(AutoCloseable resource) {
+        if (parent != null) {
+            parent.attach(resource);
+        } else {
+            resources.add(resource);
+        }
+    }
+
+    /**
+     * 取消请求：标记为已取消并中止所有正在执行的语句
+     */
+    void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+                logger.info("Cancelled statement for request {}", requestId);
+            } catch (SQLException e) {
+                logger.warn("Failed to cancel statement for request {}: {}", requestId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        if (activeRequests != null && requestId != null) {
+            activeRequests.remove(requestId, this);
+        }
+        AutoCloseable resource;
+        while ((resource = resources.poll()) != null) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.warn("Failed to release resource of request {}: {}", requestId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 语句在请求中的登记，语句执行完成后关闭
+     */
+    public static final class Registration implements AutoCloseable {
+        static final Registration NONE = new Registration(null, null);
+
+        private final RequestContext context;
+        private final Statement statement;
+
+        Registration(RequestContext context, Statement statement) {
+            this.context = context;
+            this.statement = statement;
+        }
+
+        /**
+         * 所属请求已取消时抛出异常
+         */
+        public void checkCancelled() throws SQLException {
+            if (context != null) {
+                context.checkCancelled();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (context != null) {
+                context.unregister(statement);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在内存中收集完整结果，按 ResultLimits 和结果内存预算截断
+ * 调用方每读到一行先检查 isFull()（已达到行数上限时说明结果被截断），再调用 add()。
+ */
+final class ResultCollector {
+    private final ResultLimits limits;
+    private final ResultMemoryBudget.Lease lease;
+    private final List<Object[]> rows = new ArrayList<>();
+    private long bytes;
+    private ResultTruncation truncation = ResultTruncation.NONE;
+
+    ResultCollector(ResultLimits limits, ResultMemoryBudget.Lease lease) {
+        this.limits = limits;
+        this.lease = lease;
+    }
+
+    /**
+     * 是否已达到行数上限
+     */
+    boolean isFull() {
+        return limits.getMaxRows() > 0 && rows.size() >= limits.getMaxRows();
+    }
+
+    /**
+     * 加入一行
+     * @return 超过字节数上限或内存预算不足时返回 false，该行不加入，调用方应停止读取
+     */
+    boolean add(Object[] row) {
+        long rowBytes = QueryResultCache.estimateRowBytes(row);
+        if (limits.getMaxBytes() > 0 && bytes + rowBytes > limits.getMaxBytes()) {
+            truncation = ResultTruncation.MAX_BYTES;
+            return false;
+        }
+        if (!lease.reserve(rowBytes)) {
+            truncation = ResultTruncation.MEMORY_BUDGET;
+            return false;
+        }
+        bytes += rowBytes;
+        rows.add(row);
+        return true;
+    }
+
+    void truncate(ResultTruncation truncation) {
+        this.truncation = truncation;
+    }
+
+    ResultTruncation getTruncation() {
+        return truncation;
+    }
+
+    int getRowCount() {
+        return rows.size();
+    }
+
+    QueryResult toResult(String[] columnNames) {
+        return new QueryResult(columnNames, rows, CacheStatus.BYPASS, truncation);
+    }
+}
@@ -0,0 +1,93 @@
+package com.mysqlmcp.database;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 单次查询结果的行数和字节数上限
+ * 超过上限的行不再返回，结果标记为截断；行数上限同时通过追加 LIMIT（或 setMaxRows）下推到服务器。
+ * 字节数按结果在堆上的估算大小计算（与结果缓存相同的估算方式）。
+ */
+public final class ResultLimits {
+    /** 不限制 */
+    public static final ResultLimits NONE = new ResultLimits(0, 0, false);
+
+    private final long maxRows;
+    private final long maxBytes;
+    private final boolean autoLimit;
+
+    ResultLimits(long maxRows, long maxBytes, boolean autoLimit) {
+        this.maxRows = Math.max(0, maxRows);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.autoLimit = autoLimit;
+    }
+
+    static ResultLimits fromEnvironment() {
+        return new ResultLimits(
+            ServerConfig.getLong("mysql.result.maxRows", "MYSQL_RESULT_MAX_ROWS", 10_000),
+            ServerConfig.getLong("mysql.result.maxBytes", "MYSQL_RESULT_MAX_BYTES", 32L * 1024 * 1024),
+            ServerConfig.getBoolean("mysql.result.autoLimit", "MYSQL_RESULT_AUTO_LIMIT", true));
+    }
+
+    /**
+     * 最大行数，0 表示不限制
+     */
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * 最大估算字节数，0 表示不限制
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 是否为没有 LIMIT 的 SELECT 自动追加 LIMIT
+     */
+    public boolean isAutoLimit() {
+        return autoLimit;
+    }
+
+    /**
+     * 按调用参数降低行数上限，不能超过服务器配置的上限
+     * @param requested 调用方要求的最大行数，小于等于 0 时忽略
+     */
+    public ResultLimits withMaxRows(long requested) {
+        if (requested <= 0 || (maxRows > 0 && requested >= maxRows)) {
+            return this;
+        }
+        return new ResultLimits(requested, maxBytes, autoLimit);
+    }
+
+    /**
+     * 为没有 LIMIT 的 SELECT 追加 LIMIT maxRows + 1（多读一行用于判断是否截断），不适用时原样返回
+     */
+    public String limitSql(String sql) {
+        if (!autoLimit || maxRows <= 0 || maxRows == Long.MAX_VALUE) {
+            return sql;
+        }
+        return SqlStatements.withLimit(sql, maxRows + 1);
+    }
+
+    /**
+     * 对流式结果应用上限，不限制时原样返回
+     */
+    public RowStream limitStream(RowStream stream) {
+        return maxRows <= 0 && maxBytes <= 0 ? stream : new LimitedRowStream(stream, this);
+    }
+
+    /**
+     * 语句级的最大行数（Statement.setMaxRows），0 表示不限制
+     */
+    int statementMaxRows() {
+        return maxRows <= 0 || maxRows >= Integer.MAX_VALUE ? 0 : (int) maxRows + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "maxRows=" + (maxRows > 0 ? maxRows : "unlimited")
+            + ", maxBytes=" + (maxBytes > 0 ? maxBytes : "unlimited")
+            + ", autoLimit=" + autoLimit;
+    }
+}
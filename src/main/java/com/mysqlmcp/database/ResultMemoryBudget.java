@@ -0,0 +1,220 @@
+package com.mysqlmcp.database;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 全进程共享的结果内存预算
+ * 需要在内存中保存完整结果的查询先申请一份预算（不足时排队等待），读取过程中按行的估算大小继续申请，
+ * 请求结束（响应写出）后归还。预算耗尽且等待超时时：尚未开始的查询被拒绝，正在读取的查询截断结果。
+ */
+public class ResultMemoryBudget {
+    private static final Logger logger = LoggerFactory.getLogger(ResultMemoryBudget.class);
+    /** 每次向预算申请的最小字节数，避免每行都加锁 */
+    private static final long CHUNK_BYTES = 1024 * 1024;
+
+    private final long capacityBytes;
+    private final long waitMillis;
+    private long usedBytes;
+    private long peakBytes;
+    private int waiting;
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong truncated = new AtomicLong();
+
+    /**
+     * @param capacityBytes 预算总字节数，0 表示不限制
+     * @param waitMillis 预算不足时的最长等待时间
+     */
+    ResultMemoryBudget(long capacityBytes, long waitMillis) {
+        this.capacityBytes = Math.max(0, capacityBytes);
+        this.waitMillis = Math.max(0, waitMillis);
+    }
+
+    static ResultMemoryBudget fromEnvironment() {
+        return new ResultMemoryBudget(
+            ServerConfig.getLong("mysql.result.memoryBudgetBytes", "MYSQL_RESULT_MEMORY_BUDGET_BYTES",
+                Runtime.getRuntime().maxMemory() / 4),
+            ServerConfig.getLong("mysql.result.budgetWaitMs", "MYSQL_RESULT_BUDGET_WAIT_MS", 5000));
+    }
+
+    public boolean isEnabled() {
+        return capacityBytes > 0;
+    }
+
+    /**
+     * 申请执行一个查询：先占用一份最小预算，不足时排队等待
+     * @throws SQLException 等待超时，预算仍不足
+     */
+    Lease admit() throws SQLException {
+        Lease lease = new Lease();
+        if (!isEnabled()) {
+            return lease;
+        }
+        long chunk = Math.min(CHUNK_BYTES, capacityBytes);
+        if (!tryAcquire(chunk)) {
+            queued.incrementAndGet();
+            if (!acquire(chunk)) {
+                rejected.incrementAndGet();
+                throw new SQLException("Result memory budget exhausted (" + getUsedBytes() + " of " + capacityBytes
+                    + " bytes in use) after waiting " + waitMillis + " ms, retry later", "HY001");
+            }
+        }
+        lease.grantedBytes = chunk;
+        admitted.incrementAndGet();
+        return lease;
+    }
+
+    private synchronized boolean tryAcquire(long bytes) {
+        if (usedBytes + bytes > capacityBytes) {
+            return false;
+        }
+        usedBytes += bytes;
+        peakBytes = Math.max(peakBytes, usedBytes);
+        return true;
+    }
+
+    /**
+     * 占用预算，不足时最多等待 waitMillis
+     */
+    private synchronized boolean acquire(long bytes) {
+        if (bytes > capacityBytes) {
+            return false;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        while (usedBytes + bytes > capacityBytes) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            waiting++;
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiting--;
+            }
+        }
+        usedBytes += bytes;
+        peakBytes = Math.max(peakBytes, usedBytes);
+        return true;
+    }
+
+    private synchronized void release(long bytes) {
+        usedBytes -= bytes;
+        notifyAll();
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /**
+     * 正在等待预算的查询数
+     */
+    public synchronized int getWaiting() {
+        return waiting;
+    }
+
+    public long getAdmitted() {
+        return admitted.get();
+    }
+
+    /**
+     * 需要排队等待才获得预算的查询数
+     */
+    public long getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * 等待超时被拒绝的查询数
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * 因预算不足被截断的结果数
+     */
+    public long getTruncated() {
+        return truncated.get();
+    }
+
+    @Override
+    public String toString() {
+        return isEnabled()
+            ? "used=" + getUsedBytes() + "/" + capacityBytes + " bytes, peak=" + getPeakBytes()
+                + ", waiting=" + getWaiting() + ", admitted=" + getAdmitted() + ", queued=" + getQueued()
+                + ", rejected=" + getRejected() + ", truncated=" + getTruncated()
+            : "unlimited";
+    }
+
+    /**
+     * 一个查询占用的预算，关闭时归还
+     * 同一请求的多次读取（例如对冲读）可以共享，reserve 的字节数累加
+     */
+    public final class Lease implements AutoCloseable {
+        private long grantedBytes;
+        private long reservedBytes;
+        private boolean closed;
+
+        private Lease() {
+        }
+
+        /**
+         * 为新读取的数据占用预算，已申请的部分不够时按块继续申请（可能等待）
+         * @return 预算不足时返回 false，调用方应停止读取并截断结果
+         */
+        synchronized boolean reserve(long bytes) {
+            if (!isEnabled()) {
+                return true;
+            }
+            if (closed) {
+                return false;
+            }
+            if (reservedBytes + bytes > grantedBytes) {
+                long needed = reservedBytes + bytes - grantedBytes;
+                long chunk = Math.max(CHUNK_BYTES, needed);
+                if (!tryAcquire(chunk) && !acquire(chunk)) {
+                    truncated.incrementAndGet();
+                    logger.warn("Result memory budget exhausted ({} of {} bytes in use), truncating result at {} bytes",
+                        getUsedBytes(), capacityBytes, reservedBytes);
+                    return false;
+                }
+                grantedBytes += chunk;
+            }
+            reservedBytes += bytes;
+            return true;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (grantedBytes > 0) {
+                release(grantedBytes);
+                grantedBytes = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mysqlmcp.database;
+
+/**
+ * 查询结果被截断的原因
+ */
+public enum ResultTruncation {
+    /** 结果完整 */
+    NONE(null, null),
+    /** 达到行数上限 */
+    MAX_ROWS("max_rows", "row limit reached"),
+    /** 达到字节数上限 */
+    MAX_BYTES("max_bytes", "byte limit reached"),
+    /** 全局结果内存预算不足 */
+    MEMORY_BUDGET("memory_budget", "server result memory budget exhausted");
+
+    private final String reason;
+    private final String description;
+
+    ResultTruncation(String reason, String description) {
+        this.reason = reason;
+        this.description = description;
+    }
+
+    /**
+     * 结果中 truncatedReason 字段的值
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * 返回给客户端的说明文字
+     */
+    public String describe(long rows) {
+        return "Result truncated after " + rows + " row(s): " + description
+            + "; narrow the query (WHERE/LIMIT) or page through it with query_open";
+    }
+}
@@ -0,0 +1,47 @@
+package com.mysqlmcp.database;
+
+import java.sql.SQLException;
+
+/**
+ * 逐行读取的查询结果
+ * 由 QueryStream（单个连接上的流式查询）和 ShardedQuery（多个分片合并后的结果）实现，
+ * 调用方按相同方式遍历并写出；ResultLimits.limitStream() 在外层按行数和字节数截断。
+ */
+public interface RowStream extends AutoCloseable {
+
+    String[] getColumnNames();
+
+    /**
+     * 结果缓存的查找状态
+     */
+    CacheStatus getCacheStatus();
+
+    /**
+     * 移动到下一行
+     */
+    boolean next() throws SQLException;
+
+    /**
+     * 读取当前行的列值
+     * @param index 列序号，从 0 开始
+     */
+    Object getValue(int index);
+
+    /**
+     * 已读取的行数
+     */
+    long getRowCount();
+
+    /**
+     * 结果是否因为上限被截断，读完之后才确定
+     */
+    default ResultTruncation getTruncation() {
+        return ResultTruncation.NONE;
+    }
+
+    /**
+     * 释放占用的连接，不抛出受检异常
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,331 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一页数据库结构快照：按表名排序的若干张表及其列、索引、外键和估算行数
+ * 由 information_schema 的几条集合查询的结果组装，不逐表查询。
+ */
+public class SchemaPage {
+
+    /**
+     * 表（或视图）
+     */
+    public static final class Table {
+        private final String name;
+        private final String type;
+        private final String engine;
+        private final Long rows;
+        private final String comment;
+        private final List<Column> columns = new ArrayList<>();
+        private final List<String> primaryKey = new ArrayList<>();
+        private final List<Index> indexes = new ArrayList<>();
+        private final List<ForeignKey> foreignKeys = new ArrayList<>();
+
+        private Table(String name, String type, String engine, Long rows, String comment) {
+            this.name = name;
+            this.type = type;
+            this.engine = engine;
+            this.rows = rows;
+            this.comment = comment;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * BASE TABLE、VIEW 或 SYSTEM VIEW
+         */
+        public String getType() {
+            return type;
+        }
+
+        public boolean isView() {
+            return type != null && type.endsWith("VIEW");
+        }
+
+        public String getEngine() {
+            return engine;
+        }
+
+        /**
+         * 估算行数（information_schema.TABLES.TABLE_ROWS，InnoDB 为统计值），视图为 null
+         */
+        public Long getRows() {
+            return rows;
+        }
+
+        /**
+         * 表注释，没有时为 null
+         */
+        public String getComment() {
+            return comment;
+        }
+
+        public List<Column> getColumns() {
+            return columns;
+        }
+
+        /**
+         * 主键列，没有主键时为空
+         */
+        public List<String> getPrimaryKey() {
+            return primaryKey;
+        }
+
+        /**
+         * 主键以外的索引
+         */
+        public List<Index> getIndexes() {
+            return indexes;
+        }
+
+        public List<ForeignKey> getForeignKeys() {
+            return foreignKeys;
+        }
+    }
+
+    /**
+     * 列
+     */
+    public static final class Column {
+        private final String name;
+        private final String type;
+        private final boolean nullable;
+        private final String defaultValue;
+        private final String extra;
+        private final String comment;
+
+        private Column(String name, String type, boolean nullable, String defaultValue, String extra, String comment) {
+            this.name = name;
+            this.type = type;
+            this.nullable = nullable;
+            this.defaultValue = defaultValue;
+            this.extra = extra;
+            this.comment = comment;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 完整的列类型，例如 varchar(64)、int unsigned
+         */
+        public String getType() {
+            return type;
+        }
+
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        public String getDefaultValue() {
+            return defaultValue;
+        }
+
+        /**
+         * 例如 auto_increment、DEFAULT_GENERATED，没有时为 null
+         */
+        public String getExtra() {
+            return extra;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+    }
+
+    /**
+     * 索引
+     */
+    public static final class Index {
+        private final String name;
+        private final boolean unique;
+        private final List<String> columns = new ArrayList<>();
+
+        private Index(String name, boolean unique) {
+            this.name = name;
+            this.unique = unique;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+
+        /**
+         * 按索引顺序的列，前缀索引带长度（例如 name(10)），函数索引为 (expression)
+         */
+        public List<String> getColumns() {
+            return columns;
+        }
+    }
+
+    /**
+     * 外键
+     */
+    public static final class ForeignKey {
+        private final String name;
+        private final String referencedDatabase;
+        private final String referencedTable;
+        private final List<String> columns = new ArrayList<>();
+        private final List<String> referencedColumns = new ArrayList<>();
+
+        private ForeignKey(String name, String referencedDatabase, String referencedTable) {
+            this.name = name;
+            this.referencedDatabase = referencedDatabase;
+            this.referencedTable = referencedTable;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 被引用表所在的数据库，与本表相同时为 null
+         */
+        public String getReferencedDatabase() {
+            return referencedDatabase;
+        }
+
+        public String getReferencedTable() {
+            return referencedTable;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public List<String> getReferencedColumns() {
+            return referencedColumns;
+        }
+    }
+
+    private final String database;
+    private final List<Table> tables;
+    private final boolean hasMore;
+
+    private SchemaPage(String database, List<Table> tables, boolean hasMore) {
+        this.database = database;
+        this.tables = Collections.unmodifiableList(tables);
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * 实际查询的数据库（未指定时为连接的当前数据库，没有当前数据库时为 null）
+     */
+    public String getDatabase() {
+        return database;
+    }
+
+    public List<Table> getTables() {
+        return tables;
+    }
+
+    /**
+     * 是否还有下一页
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * 下一页的起点（本页最后一张表的表名），没有下一页时为 null
+     */
+    public String getNextAfter() {
+        return hasMore ? tables.get(tables.size() - 1).getName() : null;
+    }
+
+    /**
+     * 组装查询结果，每一行的列顺序与 DatabaseManager 中对应查询的 SELECT 列表相同
+     * @param tableRows 表：TABLE_SCHEMA, TABLE_NAME, TABLE_TYPE, ENGINE, TABLE_ROWS, TABLE_COMMENT（最多 maxTables + 1 行）
+     * @param columnRows 列：TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT, EXTRA, COLUMN_COMMENT
+     * @param indexRows 索引：TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME, SUB_PART
+     * @param foreignKeyRows 外键：TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME, REFERENCED_TABLE_SCHEMA,
+     *                       REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME
+     */
+    static SchemaPage assemble(String database, int maxTables, List<Object[]> tableRows, List<Object[]> columnRows,
+                               List<Object[]> indexRows, List<Object[]> foreignKeyRows) {
+        boolean hasMore = tableRows.size() > maxTables;
+        Map<String, Table> byName = new LinkedHashMap<>();
+        for (Object[] row : tableRows.subList(0, Math.min(maxTables, tableRows.size()))) {
+            String type = text(row[2]);
+            String comment = "VIEW".equals(type) ? null : text(row[5]);
+            Long rows = row[4] == null || (type != null && type.endsWith("VIEW")) ? null : ((Number) row[4]).longValue();
+            byName.put(text(row[1]), new Table(text(row[1]), type, text(row[3]), rows, comment));
+        }
+
+        for (Object[] row : columnRows) {
+            Table table = byName.get(text(row[0]));
+            if (table != null) {
+                table.columns.add(new Column(text(row[1]), text(row[2]), "YES".equals(row[3]),
+                    row[4] == null ? null : row[4].toString(), text(row[5]), text(row[6])));
+            }
+        }
+
+        Map<String, Index> indexes = new LinkedHashMap<>();
+        for (Object[] row : indexRows) {
+            Table table = byName.get(text(row[0]));
+            if (table == null) {
+                continue;
+            }
+            String indexName = text(row[1]);
+            String column = row[3] == null ? "(expression)" : row[3].toString();
+            if (row[4] != null) {
+                column += "(" + row[4] + ")";
+            }
+            if ("PRIMARY".equals(indexName)) {
+                table.primaryKey.add(column);
+                continue;
+            }
+            Index index = indexes.get(table.name + "\u0000" + indexName);
+            if (index == null) {
+                index = new Index(indexName, ((Number) row[2]).intValue() == 0);
+                indexes.put(table.name + "\u0000" + indexName, index);
+                table.indexes.add(index);
+            }
+            index.columns.add(column);
+        }
+
+        Map<String, ForeignKey> foreignKeys = new LinkedHashMap<>();
+        for (Object[] row : foreignKeyRows) {
+            Table table = byName.get(text(row[0]));
+            if (table == null) {
+                continue;
+            }
+            String key = table.name + "\u0000" + row[1];
+            ForeignKey foreignKey = foreignKeys.get(key);
+            if (foreignKey == null) {
+                String referencedDatabase = text(row[3]);
+                foreignKey = new ForeignKey(text(row[1]),
+                    referencedDatabase != null && referencedDatabase.equals(database) ? null : referencedDatabase,
+                    text(row[4]));
+                foreignKeys.put(key, foreignKey);
+                table.foreignKeys.add(foreignKey);
+            }
+            foreignKey.columns.add(text(row[2]));
+            foreignKey.referencedColumns.add(text(row[5]));
+        }
+        return new SchemaPage(database, new ArrayList<>(byName.values()), hasMore);
+    }
+
+    /**
+     * 空字符串按 null 处理
+     */
+    private static String text(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString();
+        return text.isEmpty() ? null : text;
+    }
+}
@@ -0,0 +1,155 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 脚本执行结果：每条语句的影响行数、返回行数、耗时和错误，以及事务的提交或回滚
+ */
+public class ScriptResult {
+
+    /**
+     * 一条已执行的语句
+     */
+    public static final class StatementResult {
+        private final int index;
+        private final String sql;
+        private final long affectedRows;
+        private final long rows;
+        private final boolean resultSet;
+        private final long elapsedMillis;
+        private final String error;
+
+        StatementResult(int index, String sql, long affectedRows, long rows, boolean resultSet, long elapsedMillis,
+                        String error) {
+            this.index = index;
+            this.sql = sql;
+            this.affectedRows = affectedRows;
+            this.rows = rows;
+            this.resultSet = resultSet;
+            this.elapsedMillis = elapsedMillis;
+            this.error = error;
+        }
+
+        /**
+         * 在脚本中的序号（从 0 开始）
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getAffectedRows() {
+            return affectedRows;
+        }
+
+        /**
+         * 语句返回的结果集行数（只计数，不保留）
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * 是否返回了结果集
+         */
+        public boolean hasResultSet() {
+            return resultSet;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * 失败原因，成功时为 null
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final boolean transaction;
+    private final int statementCount;
+    private final List<StatementResult> statements = new ArrayList<>();
+    private long totalAffectedRows;
+    private int failedCount;
+    private boolean committed;
+    private boolean rolledBack;
+
+    ScriptResult(boolean transaction, int statementCount) {
+        this.transaction = transaction;
+        this.statementCount = statementCount;
+    }
+
+    void add(StatementResult statement) {
+        statements.add(statement);
+        totalAffectedRows += statement.affectedRows;
+        if (statement.error != null) {
+            failedCount++;
+        }
+    }
+
+    void commit() {
+        committed = true;
+    }
+
+    void rollBack() {
+        rolledBack = true;
+    }
+
+    /**
+     * 已执行的语句（包括失败的语句），停止执行后的语句不在其中
+     */
+    public List<StatementResult> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * 脚本中的语句总数
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getExecutedCount() {
+        return statements.size();
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * 各语句影响行数之和（回滚后仍按执行时的结果统计）
+     */
+    public long getTotalAffectedRows() {
+        return totalAffectedRows;
+    }
+
+    /**
+     * 是否在一个事务中执行
+     */
+    public boolean isTransaction() {
+        return transaction;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public boolean isRolledBack() {
+        return rolledBack;
+    }
+
+    /**
+     * 是否因为错误提前停止
+     */
+    public boolean isStopped() {
+        return statements.size() < statementCount;
+    }
+}
@@ -0,0 +1,185 @@
+package com.mysqlmcp.database;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 一组表结构相同的分片
+ * 每个分片有自己的连接池（首次使用时创建），分片查询在每个分片上各占用一个连接，由读取线程并行执行。
+ */
+public class ShardGroup implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ShardGroup.class);
+
+    /**
+     * 组中的一个分片
+     */
+    public static final class Shard {
+        private final String name;
+        private final String url;
+        private final Properties properties;
+        private final PoolConfig poolConfig;
+        private volatile ConnectionPool pool;
+
+        private Shard(String name, String url, Properties properties, PoolConfig poolConfig) {
+            this.name = name;
+            this.url = url;
+            this.properties = properties;
+            this.poolConfig = poolConfig;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 连接地址（不含密码参数）
+         */
+        public String getUrl() {
+            return url.replaceAll("(?i)(password=)[^&;]*", "$1***");
+        }
+
+        /**
+         * 连接池统计，连接池尚未创建时返回 null
+         */
+        public PoolStats getPoolStats() {
+            ConnectionPool current = pool;
+            return current == null ? null : current.getStats();
+        }
+
+        synchronized ConnectionPool pool() {
+            if (pool == null) {
+                pool = new ConnectionPool(name, url, properties, poolConfig);
+            }
+            return pool;
+        }
+
+        private synchronized void close() {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+    }
+
+    private final String name;
+    private final List<Shard> shards;
+    private final int bufferRows;
+    private volatile ExecutorService executor;
+
+    private ShardGroup(String name, List<Shard> shards, int bufferRows) {
+        this.name = name;
+        this.shards = Collections.unmodifiableList(shards);
+        this.bufferRows = bufferRows;
+    }
+
+    /**
+     * 读取分片组配置：mysql.shards.groups 列出组名（逗号分隔），每个组的分片地址由
+     * mysql.shards.&lt;组名&gt;.urls 指定（逗号分隔），用户名和密码默认与主库相同
+     * @param propertiesFactory 为分片地址创建连接属性（与主库相同的驱动设置）
+     */
+    static Map<String, ShardGroup> fromEnvironment(Function<String, Properties> propertiesFactory, PoolConfig poolConfig) {
+        Map<String, ShardGroup> groups = new LinkedHashMap<>();
+        String names = ServerConfig.getString("mysql.shards.groups", "MYSQL_SHARD_GROUPS", "");
+        int bufferRows = Math.max(1, ServerConfig.getInt("mysql.shards.bufferRows", "MYSQL_SHARD_BUFFER_ROWS", 256));
+        for (String groupName : names.split(",")) {
+            groupName = groupName.trim();
+            if (groupName.isEmpty()) {
+                continue;
+            }
+            String prefix = "mysql.shards." + groupName + ".";
+            String envPrefix = "MYSQL_SHARDS_" + groupName.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "_") + "_";
+            String urls = ServerConfig.getString(prefix + "urls", envPrefix + "URLS", "");
+            String username = ServerConfig.getString(prefix + "username", envPrefix + "USERNAME", null);
+            String password = ServerConfig.getString(prefix + "password", envPrefix + "PASSWORD", null);
+            List<Shard> shards = new ArrayList<>();
+            for (String url : urls.split(",")) {
+                if (url.isBlank()) {
+                    continue;
+                }
+                Properties properties = propertiesFactory.apply(url.trim());
+                if (username != null) {
+                    properties.setProperty("user", username);
+                }
+                if (password != null) {
+                    properties.setProperty("password", password);
+                }
+                shards.add(new Shard(groupName + "-" + (shards.size() + 1), url.trim(), properties, poolConfig));
+            }
+            if (shards.isEmpty()) {
+                logger.warn("Shard group '{}' has no shard URLs ({}urls), ignored", groupName, prefix);
+                continue;
+            }
+            groups.put(groupName, new ShardGroup(groupName, shards, bufferRows));
+            logger.info("Shard group '{}' configured with {} shard(s)", groupName, shards.size());
+        }
+        return groups;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * 在所有分片上并行执行同一条只读查询，返回合并后的流式结果
+     * 各分片的查询使用当前请求的子上下文，取消请求时一并中止
+     * @param includeShardColumn 是否在结果最前面加入来源分片列 _shard
+     * @param defaultTimeoutSeconds 不在请求中时使用的查询超时
+     */
+    ShardedQuery openQuery(String sql, List<Object> params, boolean includeShardColumn, int defaultTimeoutSeconds)
+            throws SQLException {
+        MergePlan plan = MergePlan.parse(sql);
+        return ShardedQuery.open(this, plan, params, includeShardColumn, bufferRows, defaultTimeoutSeconds);
+    }
+
+    /**
+     * 分片读取线程池，每个分片查询在执行期间占用一个线程
+     */
+    ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (this) {
+                current = executor;
+                if (current == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    current = Executors.newCachedThreadPool(r -> {
+                        Thread t = new Thread(r, "mysql-shard-" + name + "-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        for (Shard shard : shards) {
+            shard.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.mysqlmcp.database;
+
+/**
+ * 分片查询中一个分片的执行情况
+ */
+public class ShardResult {
+    private final String name;
+    private final String url;
+    private final long rows;
+    private final double openMillis;
+    private final double elapsedMillis;
+    private final boolean complete;
+    private final String error;
+
+    public ShardResult(String name, String url, long rows, double openMillis, double elapsedMillis,
+                       boolean complete, String error) {
+        this.name = name;
+        this.url = url;
+        this.rows = rows;
+        this.openMillis = openMillis;
+        this.elapsedMillis = elapsedMillis;
+        this.complete = complete;
+        this.error = error;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 连接地址（不含密码参数）
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * 合并结果中来自该分片的行数
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 从开始执行到返回第一批结果（结果集元数据）的耗时，失败时为 -1
+     */
+    public double getOpenMillis() {
+        return openMillis;
+    }
+
+    /**
+     * 该分片读取的总耗时（包括等待合并消费的时间）
+     */
+    public double getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 是否读完了该分片的全部结果（达到 LIMIT 提前结束时为 false）
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * 执行失败的原因，成功时为 null
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + (error != null ? "error: " + error
+            : rows + " row(s), open " + String.format("%.1f", openMillis) + " ms, total "
+                + String.format("%.1f", elapsedMillis) + " ms");
+    }
+}
@@ -0,0 +1,497 @@
+package com.mysqlmcp.database;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 分片查询的合并结果
+ * 每个分片由一个读取线程在自己的连接上流式读取（fetchSize = Integer.MIN_VALUE），读到的行放入有界队列，
+ * 调用方逐行取出：没有 ORDER BY 时按到达顺序拼接，有 ORDER BY 时从各分片队列头部做 k 路归并。
+ * 内存中最多保留每个分片 bufferRows 行；达到 LIMIT 或关闭时通过 KILL QUERY 中止仍在执行的分片查询。
+ * 单个分片失败不影响其他分片，失败原因通过 getShardResults() 返回。
+ */
+public class ShardedQuery implements RowStream {
+    private static final Logger logger = LoggerFactory.getLogger(ShardedQuery.class);
+    public static final String SHARD_COLUMN = "_shard";
+    /** 分片读取结束的标记 */
+    private static final Object[] END = new Object[0];
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    /**
+     * 从某个分片读取的一行
+     */
+    private static final class Row {
+        private final int shard;
+        private final Object[] values;
+
+        private Row(int shard, Object[] values) {
+            this.shard = shard;
+            this.values = values;
+        }
+    }
+
+    private final ShardGroup group;
+    private final MergePlan plan;
+    private final boolean includeShardColumn;
+    private final List<Reader> readers = new ArrayList<>();
+    /** 拼接时所有分片共用的队列 */
+    private final BlockingQueue<Row> shared;
+    private String[] shardColumns;
+    private String[] columnNames;
+    private int[] orderColumns;
+    private PriorityQueue<Row> heads;
+    /** 归并时上一行所在的分片，取下一行前先从该分片补充队列头部 */
+    private int refillShard = -1;
+    private int openShards;
+    private Row current;
+    private long rowCount;
+    private long skipped;
+    private volatile boolean closed;
+
+    private ShardedQuery(ShardGroup group, MergePlan plan, boolean includeShardColumn, int bufferRows) {
+        this.group = group;
+        this.plan = plan;
+        this.includeShardColumn = includeShardColumn;
+        int shardCount = group.getShards().size();
+        this.shared = plan.isOrdered() ? null : new ArrayBlockingQueue<>(bufferRows * shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<Row> queue = shared != null ? shared : new ArrayBlockingQueue<>(bufferRows);
+            readers.add(new Reader(i, group.getShards().get(i), queue));
+        }
+        this.openShards = shardCount;
+    }
+
+    /**
+     * 在所有分片上并行执行查询，等待各分片返回结果集元数据（或失败）后返回
+     * @throws SQLException 所有分片都失败时
+     */
+    static ShardedQuery open(ShardGroup group, MergePlan plan, List<Object> params, boolean includeShardColumn,
+                             int bufferRows, int defaultTimeoutSeconds) throws SQLException {
+        ShardedQuery query = new ShardedQuery(group, plan, includeShardColumn, bufferRows);
+        RequestContext parent = RequestContext.current();
+        CountDownLatch opened = new CountDownLatch(query.readers.size());
+        for (Reader reader : query.readers) {
+            group.executor().execute(() -> reader.run(parent, plan.getShardSql(), params, defaultTimeoutSeconds, opened));
+        }
+        try {
+            opened.await();
+            query.initialize();
+            return query;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            query.close();
+            throw new SQLException("Interrupted while opening sharded query", "70100", e);
+        } catch (SQLException | RuntimeException e) {
+            query.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 以第一个成功的分片的列为准，列不一致的分片按失败处理
+     */
+    private void initialize() throws SQLException {
+        for (Reader reader : readers) {
+            if (reader.columns == null) {
+                continue;
+            }
+            if (shardColumns == null) {
+                shardColumns = reader.columns;
+            } else if (!Arrays.equals(shardColumns, reader.columns)) {
+                reader.exclude("columns " + Arrays.toString(reader.columns) + " differ from "
+                    + Arrays.toString(shardColumns));
+            }
+        }
+        if (shardColumns == null) {
+            throw new SQLException("All " + readers.size() + " shard(s) of group '" + group.getName() + "' failed: "
+                + readers.get(0).error);
+        }
+        if (includeShardColumn) {
+            columnNames = new String[shardColumns.length + 1];
+            columnNames[0] = SHARD_COLUMN;
+            System.arraycopy(shardColumns, 0, columnNames, 1, shardColumns.length);
+        } else {
+            columnNames = shardColumns;
+        }
+        if (plan.isOrdered()) {
+            orderColumns = plan.resolve(shardColumns);
+            heads = new PriorityQueue<>(readers.size(), this::compareRows);
+        }
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public CacheStatus getCacheStatus() {
+        return CacheStatus.BYPASS;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        while (!closed) {
+            if (plan.getLimit() >= 0 && rowCount >= plan.getLimit()) {
+                // 已达到 LIMIT，中止仍在读取的分片
+                stopReaders();
+                break;
+            }
+            Row row = plan.isOrdered() ? nextMerged() : nextConcatenated();
+            if (row == null) {
+                break;
+            }
+            if (skipped < plan.getOffset()) {
+                skipped++;
+                continue;
+            }
+            current = row;
+            readers.get(row.shard).returned++;
+            rowCount++;
+            RequestContext.timings().addRows(1);
+            return true;
+        }
+        current = null;
+        return false;
+    }
+
+    /**
+     * 按到达顺序取出下一行，所有分片都结束时返回 null
+     */
+    private Row nextConcatenated() throws SQLException {
+        while (openShards > 0) {
+            Row row = take(shared);
+            if (row.values == END) {
+                openShards--;
+            } else if (!readers.get(row.shard).excluded) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取出各分片当前行中最小的一行，所有分片都结束时返回 null
+     */
+    private Row nextMerged() throws SQLException {
+        if (refillShard < 0) {
+            if (heads.isEmpty() && openShards > 0) {
+                for (Reader reader : readers) {
+                    refill(reader);
+                }
+            }
+        } else {
+            refill(readers.get(refillShard));
+        }
+        Row row = heads.poll();
+        refillShard = row != null ? row.shard : -1;
+        if (row == null) {
+            openShards = 0;
+        }
+        return row;
+    }
+
+    private void refill(Reader reader) throws SQLException {
+        if (reader.excluded) {
+            return;
+        }
+        Row row = take(reader.queue);
+        if (row.values != END) {
+            heads.add(row);
+        }
+    }
+
+    private Row take(BlockingQueue<Row> queue) throws SQLException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while reading sharded query", "70100", e);
+        }
+    }
+
+    /**
+     * 按 ORDER BY 比较两行，相等时按分片顺序
+     */
+    private int compareRows(Row a, Row b) {
+        List<MergePlan.OrderItem> orderBy = plan.getOrderBy();
+        for (int k = 0; k < orderColumns.length; k++) {
+            int c = compareValues(a.values[orderColumns[k]], b.values[orderColumns[k]]);
+            if (c != 0) {
+                return orderBy.get(k).descending ? -c : c;
+            }
+        }
+        return Integer.compare(a.shard, b.shard);
+    }
+
+    /**
+     * 按 MySQL 的排序规则比较列值：NULL 最小，数值按大小，字符串不区分大小写（与默认的 _ci 排序规则一致），
+     * 二进制按无符号字节
+     */
+    @SuppressWarnings("unchecked")
+    static int compareValues(Object a, Object b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            return compareNumbers((Number) a, (Number) b);
+        }
+        if (a instanceof String && b instanceof String) {
+            int c = ((String) a).compareToIgnoreCase((String) b);
+            return c != 0 ? c : ((String) a).compareTo((String) b);
+        }
+        if (a instanceof byte[] && b instanceof byte[]) {
+            return Arrays.compareUnsigned((byte[]) a, (byte[]) b);
+        }
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static int compareNumbers(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return Long.compare(a.longValue(), b.longValue());
+        }
+        if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte;
+    }
+
+    @Override
+    public Object getValue(int index) {
+        if (!includeShardColumn) {
+            return current.values[index];
+        }
+        return index == 0 ? readers.get(current.shard).shard.getName() : current.values[index - 1];
+    }
+
+    /**
+     * 当前行来自的分片
+     */
+    public String getCurrentShard() {
+        return current != null ? readers.get(current.shard).shard.getName() : null;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 是否有分片失败（结果只包含成功的分片）
+     */
+    public boolean isPartial() {
+        for (Reader reader : readers) {
+            if (reader.error != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 各分片的行数、耗时和错误
+     */
+    public List<ShardResult> getShardResults() {
+        List<ShardResult> results = new ArrayList<>(readers.size());
+        for (Reader reader : readers) {
+            long elapsed = reader.finished ? reader.elapsedNanos : System.nanoTime() - reader.startedAt;
+            results.add(new ShardResult(reader.shard.getName(), reader.shard.getUrl(), reader.returned,
+                reader.openNanos < 0 ? -1 : reader.openNanos / 1_000_000.0, elapsed / 1_000_000.0,
+                reader.complete, reader.error));
+        }
+        return results;
+    }
+
+    private void stopReaders() {
+        for (Reader reader : readers) {
+            reader.stop();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        stopReaders();
+    }
+
+    /**
+     * 一个分片的读取任务，在分片组的线程池中执行
+     */
+    private final class Reader {
+        private final int index;
+        private final ShardGroup.Shard shard;
+        private final BlockingQueue<Row> queue;
+        private volatile PreparedStatement statement;
+        private volatile String[] columns;
+        private volatile String error;
+        private volatile boolean stopped;
+        private volatile boolean excluded;
+        private volatile boolean finished;
+        private volatile boolean complete;
+        private volatile long startedAt = System.nanoTime();
+        private volatile long openNanos = -1;
+        private volatile long elapsedNanos;
+        /** 合并结果中来自该分片的行数，只由调用方线程修改 */
+        private long returned;
+
+        private Reader(int index, ShardGroup.Shard shard, BlockingQueue<Row> queue) {
+            this.index = index;
+            this.shard = shard;
+            this.queue = queue;
+        }
+
+        private void run(RequestContext parent, String sql, List<Object> params, int defaultTimeoutSeconds,
+                         CountDownLatch opened) {
+            startedAt = System.nanoTime();
+            boolean signalled = false;
+            try (RequestContext context = new RequestContext(parent, defaultTimeoutSeconds);
+                 Connection conn = shard.pool().borrow();
+                 PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                     ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                if (context.getTimeoutSeconds() > 0) {
+                    stmt.setQueryTimeout(context.getTimeoutSeconds());
+                }
+                context.register(stmt);
+                try {
+                    statement = stmt;
+                    if (stopped) {
+                        return;
+                    }
+                    if (params != null) {
+                        for (int i = 0; i < params.size(); i++) {
+                            stmt.setObject(i + 1, params.get(i));
+                        }
+                    }
+                    long begin = System.nanoTime();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        context.getTimings().addJdbcNanos(System.nanoTime() - begin);
+                        ResultSetMetaData metaData = rs.getMetaData();
+                        String[] names = new String[metaData.getColumnCount()];
+                        for (int i = 0; i < names.length; i++) {
+                            names[i] = metaData.getColumnLabel(i + 1);
+                        }
+                        columns = names;
+                        openNanos = System.nanoTime() - startedAt;
+                        opened.countDown();
+                        signalled = true;
+                        while (!stopped && rs.next()) {
+                            Object[] values = new Object[names.length];
+                            for (int i = 0; i < values.length; i++) {
+                                values[i] = rs.getObject(i + 1);
+                            }
+                            if (!offer(new Row(index, values))) {
+                                break;
+                            }
+                        }
+                        complete = !stopped;
+                    }
+                } finally {
+                    context.unregister(stmt);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!stopped) {
+                    error = e.getMessage();
+                    logger.warn("Shard {} query failed: {}", shard.getName(), e.getMessage());
+                }
+            } finally {
+                elapsedNanos = System.nanoTime() - startedAt;
+                finished = true;
+                if (!signalled) {
+                    opened.countDown();
+                }
+                offerEnd();
+            }
+        }
+
+        /**
+         * 放入一行，队列满时等待调用方消费
+         * @return 读取已停止时返回 false
+         */
+        private boolean offer(Row row) {
+            try {
+                while (!queue.offer(row, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (stopped) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * 放入结束标记，拼接时调用方据此统计已结束的分片，只在整个查询关闭后放弃
+         */
+        private void offerEnd() {
+            Row end = new Row(index, END);
+            try {
+                while (!queue.offer(end, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 结果不能合并（列不一致），按失败处理并停止读取
+         */
+        private void exclude(String reason) {
+            error = reason;
+            excluded = true;
+            logger.warn("Shard {} excluded from merge: {}", shard.getName(), reason);
+            stop();
+        }
+
+        /**
+         * 停止读取；查询仍在执行时通过 KILL QUERY 中止，避免关闭流式结果集时读完剩余的行
+         */
+        private void stop() {
+            stopped = true;
+            PreparedStatement stmt = statement;
+            if (stmt != null && !finished) {
+                try {
+                    stmt.cancel();
+                } catch (SQLException e) {
+                    logger.debug("Failed to cancel shard {} query: {}", shard.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.mysqlmcp.database;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 按序号存取的记录缓冲区
+ * 总大小不超过内存阈值时记录保存在堆上，超过后写入内存映射的临时文件，
+ * 文件按段映射，每条记录完整地位于一个段内。非线程安全，由调用方同步。
+ */
+public class SpillBuffer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SpillBuffer.class);
+
+    private final long memoryThresholdBytes;
+    private final int segmentSize;
+    private final Path spillDir;
+
+    private final List<byte[]> heapRecords = new ArrayList<>();
+    private long heapBytes;
+
+    private Path file;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long mappedBytes;
+    /** 溢出记录的位置：高 32 位为段序号，低 32 位为段内偏移 */
+    private long[] locations = new long[0];
+    private int[] lengths = new int[0];
+    private int spilledCount;
+    private long spilledBytes;
+
+    /**
+     * @param memoryThresholdBytes 堆上保存的最大字节数
+     * @param segmentSize 每个映射段的大小
+     * @param spillDir 临时文件目录，为 null 时使用系统临时目录
+     */
+    public SpillBuffer(long memoryThresholdBytes, int segmentSize, Path spillDir) {
+        this.memoryThresholdBytes = memoryThresholdBytes;
+        this.segmentSize = segmentSize;
+        this.spillDir = spillDir;
+    }
+
+    public void add(byte[] record) throws IOException {
+        if (channel == null && heapBytes + record.length <= memoryThresholdBytes) {
+            heapRecords.add(record);
+            heapBytes += record.length;
+            return;
+        }
+        if (channel == null) {
+            openSpillFile();
+        }
+        MappedByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < record.length) {
+            int size = Math.max(segmentSize, record.length);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, mappedBytes, size);
+            segments.add(segment);
+            mappedBytes += size;
+        }
+        if (spilledCount == locations.length) {
+            int capacity = Math.max(1024, spilledCount * 2);
+            locations = Arrays.copyOf(locations, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        locations[spilledCount] = ((long) (segments.size() - 1) << 32) | segment.position();
+        lengths[spilledCount] = record.length;
+        segment.put(record);
+        spilledCount++;
+        spilledBytes += record.length;
+    }
+
+    private void openSpillFile() throws IOException {
+        file = spillDir != null ? Files.createTempFile(spillDir, "mcp-spill-", ".dat")
+            : Files.createTempFile("mcp-spill-", ".dat");
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logger.debug("Spilling buffer to {} after {} bytes in memory", file, heapBytes);
+    }
+
+    /**
+     * 读取指定序号的记录
+     */
+    public byte[] get(long index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + size());
+        }
+        if (index < heapRecords.size()) {
+            return heapRecords.get((int) index);
+        }
+        int spilled = (int) (index - heapRecords.size());
+        long location = locations[spilled];
+        MappedByteBuffer segment = segments.get((int) (location >>> 32));
+        byte[] record = new byte[lengths[spilled]];
+        segment.get((int) location, record);
+        return record;
+    }
+
+    public long size() {
+        return heapRecords.size() + (long) spilledCount;
+    }
+
+    public long getMemoryBytes() {
+        return heapBytes;
+    }
+
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    public boolean isSpilled() {
+        return channel != null;
+    }
+
+    /**
+     * 释放内存并删除临时文件
+     */
+    @Override
+    public void close() {
+        heapRecords.clear();
+        segments.clear();
+        locations = new long[0];
+        lengths = new int[0];
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing spill file", e);
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete spill file {}", file, e);
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,691 @@
+package com.mysqlmcp.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 语句的轻量分析工具
+ * 不是完整的 SQL 解析器，只识别缓存失效等功能需要的语句类型和表名，无法识别时由调用方按保守策略处理。
+ */
+public final class SqlStatements {
+    private static final String IDENT = "(?:`(?:[^`]|``)+`|[A-Za-z0-9_$]+)";
+    private static final String QUALIFIED = IDENT + "(?:\\s*\\.\\s*" + IDENT + ")?";
+    private static final String QUALIFIED_LIST = QUALIFIED + "(?:\\s*,\\s*" + QUALIFIED + ")*";
+    private static final Pattern QUALIFIED_PATTERN = Pattern.compile(QUALIFIED);
+
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.DOTALL;
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+        "^CREATE\\s+(?:TEMPORARY\\s+)?TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(" + QUALIFIED + ")", FLAGS);
+    private static final Pattern ALTER_TABLE = Pattern.compile(
+        "^ALTER\\s+(?:ONLINE\\s+|OFFLINE\\s+)?(?:IGNORE\\s+)?TABLE\\s+(" + QUALIFIED + ")", FLAGS);
+    private static final Pattern ALTER_RENAME = Pattern.compile(
+        "\\bRENAME\\s+(?:TO\\s+|AS\\s+)?(?!(?:COLUMN|INDEX|KEY)\\b)(" + QUALIFIED + ")", FLAGS);
+    private static final Pattern DROP_TABLE = Pattern.compile(
+        "^DROP\\s+(?:TEMPORARY\\s+)?TABLES?\\s+(?:IF\\s+EXISTS\\s+)?(" + QUALIFIED_LIST + ")", FLAGS);
+    private static final Pattern RENAME_TABLE = Pattern.compile(
+        "^RENAME\\s+TABLES?\\s+(.+)$", FLAGS);
+    private static final Pattern TRUNCATE_TABLE = Pattern.compile(
+        "^TRUNCATE\\s+(?:TABLE\\s+)?(" + QUALIFIED + ")", FLAGS);
+    private static final Pattern INDEX = Pattern.compile(
+        "^(?:CREATE|DROP)\\s+(?:UNIQUE\\s+|FULLTEXT\\s+|SPATIAL\\s+)?INDEX\\s+" + IDENT
+            + "\\s+ON\\s+(" + QUALIFIED + ")", FLAGS);
+    private static final Pattern VIEW = Pattern.compile(
+        "^(?:CREATE|ALTER|DROP)\\s+(?:OR\\s+REPLACE\\s+)?(?:ALGORITHM\\s*=\\s*\\w+\\s+)?"
+            + "(?:DEFINER\\s*=\\s*\\S+\\s+)?(?:SQL\\s+SECURITY\\s+\\w+\\s+)?VIEWS?\\s+(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?("
+            + QUALIFIED_LIST + ")", FLAGS);
+    private static final Pattern DATABASE = Pattern.compile(
+        "^(?:CREATE|DROP|ALTER)\\s+(?:DATABASE|SCHEMA)\\s+(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?(" + IDENT + ")", FLAGS);
+
+    private static final Pattern INSERT = Pattern.compile(
+        "^(?:INSERT|REPLACE)\\s+(?:(?:LOW_PRIORITY|DELAYED|HIGH_PRIORITY)\\s+)?(?:IGNORE\\s+)?(?:INTO\\s+)?("
+            + QUALIFIED + ")", FLAGS);
+    private static final Pattern UPDATE = Pattern.compile(
+        "^UPDATE\\s+(?:LOW_PRIORITY\\s+)?(?:IGNORE\\s+)?(.+?)\\s+SET\\b", FLAGS);
+    private static final Pattern LOAD_DATA = Pattern.compile(
+        "^LOAD\\s+(?:DATA|XML)\\b.*?\\bINTO\\s+TABLE\\s+(" + QUALIFIED + ")", FLAGS);
+    private static final Pattern LOCKING_OR_SESSION = Pattern.compile(
+        "\\bFOR\\s+(?:UPDATE|SHARE)\\b|\\bLOCK\\s+IN\\s+SHARE\\s+MODE\\b|\\bINTO\\b|@"
+            + "|\\b(?:GET_LOCK|RELEASE_LOCK|RELEASE_ALL_LOCKS|IS_USED_LOCK|LAST_INSERT_ID|FOUND_ROWS|ROW_COUNT"
+            + "|CONNECTION_ID|NEXTVAL)\\s*\\(", FLAGS);
+    private static final Pattern EXPLAINED_WRITE = Pattern.compile(
+        "\\b(?:INSERT|REPLACE|UPDATE|DELETE)\\b", FLAGS);
+    private static final Pattern AUTOCOMMIT = Pattern.compile("\\bAUTOCOMMIT\\b", FLAGS);
+    /** 给用户变量赋值或获取用户锁的表达式（SELECT @a := ...、SELECT ... INTO @a、GET_LOCK） */
+    private static final Pattern SESSION_WRITE = Pattern.compile(
+        "@[\\w$.`]+\\s*:=|\\bINTO\\s+@|\\bGET_LOCK\\s*\\(", FLAGS);
+    private static final Pattern USE_DATABASE = Pattern.compile("^USE\\s+(" + IDENT + ")\\s*;?$", FLAGS);
+    private static final Pattern TEMPORARY_TABLE = Pattern.compile("^CREATE\\s+TEMPORARY\\s+TABLE\\b", FLAGS);
+    /** 函数调用：名称（可能带数据库）后紧跟左括号 */
+    private static final Pattern FUNCTION_CALL = Pattern.compile("(?<![\\w$`.])(" + QUALIFIED + ")\\s*\\(");
+    private static final Pattern TABLE_REFERENCE = Pattern.compile("\\b(?:FROM|JOIN|USING)\\s+", FLAGS);
+    /** FROM 子句结束的关键字 */
+    private static final Pattern CLAUSE_END = Pattern.compile(
+        "(?:WHERE|GROUP|ORDER|HAVING|LIMIT|UNION|WINDOW|FOR|LOCK|INTO|SET|EXCEPT|INTERSECT)\\b", FLAGS);
+    /** 不能作为表名的关键字 */
+    private static final Set<String> NON_TABLE_KEYWORDS = new HashSet<>(Arrays.asList(
+        "WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "CROSS", "STRAIGHT_JOIN", "NATURAL", "OUTER", "ON", "USING",
+        "GROUP", "ORDER", "HAVING", "LIMIT", "UNION", "FOR", "LOCK", "WINDOW", "PARTITION", "SET", "INTO",
+        "FORCE", "IGNORE", "USE", "EXCEPT", "INTERSECT", "AS"));
+
+    private SqlStatements() {
+    }
+
+    /**
+     * 表名（可带数据库名），名称统一转为小写
+     * table 为 null 时表示整个数据库
+     */
+    public static final class TableName {
+        private final String database;
+        private final String table;
+
+        public TableName(String database, String table) {
+            this.database = database == null ? null : database.toLowerCase(Locale.ROOT);
+            this.table = table == null ? null : table.toLowerCase(Locale.ROOT);
+        }
+
+        public String getDatabase() {
+            return database;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        @Override
+        public String toString() {
+            return (database != null ? database + "." : "") + (table != null ? table : "*");
+        }
+    }
+
+    /**
+     * 去掉注释（块注释、-- 和 # 行注释），保留字符串和反引号中的内容
+     */
+    public static String stripComments(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = skipQuoted(sql, i);
+                out.append(sql, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                out.append(' ');
+            } else if ((c == '#') || (c == '-' && i + 2 < n && sql.charAt(i + 1) == '-'
+                && Character.isWhitespace(sql.charAt(i + 2)))) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? n : end;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * 返回引号结束位置之后的下标，支持反斜杠转义和重复引号转义
+     */
+    static int skipQuoted(String sql, int start) {
+        char quote = sql.charAt(start);
+        int i = start + 1;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+                continue;
+            }
+            if (c == quote) {
+                if (i + 1 < n && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return n;
+    }
+
+    /**
+     * 语句的第一个关键字（大写），例如 SELECT、INSERT、CREATE
+     */
+    public static String leadingKeyword(String sql) {
+        String stripped = stripComments(sql);
+        int i = 0;
+        while (i < stripped.length() && (stripped.charAt(i) == '(' || Character.isWhitespace(stripped.charAt(i)))) {
+            i++;
+        }
+        int start = i;
+        while (i < stripped.length() && Character.isLetter(stripped.charAt(i))) {
+            i++;
+        }
+        return stripped.substring(start, i).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 是否为可以在只读副本上执行的查询：SELECT、SHOW、DESCRIBE、EXPLAIN、TABLE，
+     * 且不加锁、不写入变量或文件、不依赖会话状态（EXPLAIN ANALYZE 会实际执行被解释的语句）
+     */
+    public static boolean isReadOnlyQuery(String sql) {
+        String keyword = leadingKeyword(sql);
+        String text = maskLiterals(stripComments(sql));
+        switch (keyword) {
+            case "SELECT":
+            case "SHOW":
+            case "TABLE":
+                break;
+            case "DESCRIBE":
+            case "DESC":
+            case "EXPLAIN":
+                if (EXPLAINED_WRITE.matcher(text).find()) {
+                    return false;
+                }
+                break;
+            default:
+                return false;
+        }
+        return !LOCKING_OR_SESSION.matcher(text).find();
+    }
+
+    /**
+     * 为没有 LIMIT 的 SELECT 在末尾追加 LIMIT（返回去掉注释的规范化语句）
+     * 最外层已有 LIMIT，或带有 FOR UPDATE、LOCK IN SHARE MODE、INTO、PROCEDURE 等不能再追加 LIMIT 的子句，
+     * 以及包含优化器提示或版本注释时原样返回
+     */
+    public static String withLimit(String sql, long limit) {
+        if (!"SELECT".equals(leadingKeyword(sql)) || sql.contains("/*+") || sql.contains("/*!")) {
+            return sql;
+        }
+        String text = normalize(sql);
+        int n = text.length();
+        int depth = 0;
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(text, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && Character.isLetter(c) && (i == 0 || !isIdentifierChar(text.charAt(i - 1)))) {
+                int end = i;
+                while (end < n && isIdentifierChar(text.charAt(end))) {
+                    end++;
+                }
+                switch (text.substring(i, end).toUpperCase(Locale.ROOT)) {
+                    case "LIMIT":
+                    case "FOR":
+                    case "LOCK":
+                    case "INTO":
+                    case "PROCEDURE":
+                        return sql;
+                    default:
+                        break;
+                }
+                i = end - 1;
+            }
+        }
+        return text + " LIMIT " + limit;
+    }
+
+    /**
+     * 为 SELECT 加上 MAX_EXECUTION_TIME 优化器提示（返回去掉注释的规范化语句），超过时间后服务器中止查询
+     * 已包含优化器提示或版本注释时原样返回
+     */
+    public static String withMaxExecutionTime(String sql, long millis) {
+        if (!"SELECT".equals(leadingKeyword(sql)) || sql.contains("/*+") || sql.contains("/*!")) {
+            return sql;
+        }
+        String text = normalize(sql);
+        int start = 0;
+        while (start < text.length() && (text.charAt(start) == '(' || text.charAt(start) == ' ')) {
+            start++;
+        }
+        int end = start + "SELECT".length();
+        return text.substring(0, end) + " /*+ MAX_EXECUTION_TIME(" + millis + ") */" + text.substring(end);
+    }
+
+    /**
+     * 把 SQL 脚本拆分为单条语句
+     * 引号内和注释中的分隔符不拆分；行首的 DELIMITER 命令（mysql 客户端语法）修改之后使用的分隔符，
+     * 用于存储过程、触发器等包含分号的语句。语句保留其中的注释，只有空白和注释（版本注释除外）的片段被忽略。
+     * @throws IllegalArgumentException DELIMITER 命令没有指定分隔符
+     */
+    public static List<String> splitScript(String script) {
+        List<String> statements = new ArrayList<>();
+        String delimiter = ";";
+        int n = script.length();
+        int start = 0;
+        // 当前语句到目前为止只有空白和注释
+        boolean blank = true;
+        int i = 0;
+        while (i < n) {
+            char c = script.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(script, i);
+                blank = false;
+            } else if (c == '/' && i + 1 < n && script.charAt(i + 1) == '*') {
+                // 版本注释和优化器提示属于语句本身
+                blank &= !script.startsWith("/*!", i) && !script.startsWith("/*+", i);
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if ((c == '#') || (c == '-' && i + 2 < n && script.charAt(i + 1) == '-'
+                && Character.isWhitespace(script.charAt(i + 2)))) {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? n : end;
+            } else if (blank && script.regionMatches(true, i, "DELIMITER", 0, 9)
+                && (i + 9 == n || Character.isWhitespace(script.charAt(i + 9)))) {
+                int end = script.indexOf('\n', i);
+                end = end < 0 ? n : end;
+                String value = script.substring(i + 9, end).trim();
+                if (value.isEmpty()) {
+                    throw new IllegalArgumentException("DELIMITER without a delimiter value");
+                }
+                delimiter = value;
+                i = end;
+                start = i;
+            } else if (script.startsWith(delimiter, i)) {
+                if (!blank) {
+                    statements.add(script.substring(start, i).trim());
+                }
+                i += delimiter.length();
+                start = i;
+                blank = true;
+            } else {
+                blank &= Character.isWhitespace(c);
+                i++;
+            }
+        }
+        if (!blank) {
+            statements.add(script.substring(start).trim());
+        }
+        return statements;
+    }
+
+    /**
+     * 是否为控制事务的语句（BEGIN、START TRANSACTION、COMMIT、ROLLBACK、XA、LOCK TABLES 以及设置 autocommit）
+     */
+    public static boolean controlsTransaction(String sql) {
+        switch (leadingKeyword(sql)) {
+            case "BEGIN":
+            case "START":
+            case "COMMIT":
+            case "ROLLBACK":
+            case "XA":
+            case "LOCK":
+            case "UNLOCK":
+                return true;
+            case "SET":
+                return AUTOCOMMIT.matcher(maskLiterals(stripComments(sql))).find();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * USE 语句切换到的数据库，不是 USE 语句时返回 null
+     */
+    public static String useTarget(String sql) {
+        Matcher m = USE_DATABASE.matcher(stripComments(sql).trim());
+        return m.find() ? unquote(m.group(1)) : null;
+    }
+
+    /**
+     * 是否会改变连接的会话状态（当前数据库、会话变量和用户变量、临时表、预处理语句、表锁和用户锁），
+     * 执行过这类语句的连接不应再放回连接池；包含版本注释的语句（通常是 mysqldump 输出的 SET）
+     * 和存储过程调用（过程体可能设置变量）按会改变处理
+     */
+    public static boolean changesSessionState(String sql) {
+        if (sql.contains("/*!")) {
+            return true;
+        }
+        switch (leadingKeyword(sql)) {
+            case "USE":
+            case "SET":
+            case "PREPARE":
+            case "LOCK":
+            case "HANDLER":
+            case "CALL":
+                return true;
+            case "CREATE":
+                return TEMPORARY_TABLE.matcher(stripComments(sql)).find();
+            case "LOAD":
+                return maskLiterals(stripComments(sql)).indexOf('@') >= 0;
+            default:
+                // 绝大多数查询不含 @ 和 GET_LOCK，先用原文快速判断
+                return SESSION_WRITE.matcher(sql).find()
+                    && SESSION_WRITE.matcher(maskLiterals(stripComments(sql))).find();
+        }
+    }
+
+    /**
+     * 是否为会改变表结构的 DDL 语句
+     */
+    public static boolean isDdl(String sql) {
+        switch (leadingKeyword(sql)) {
+            case "CREATE":
+            case "ALTER":
+            case "DROP":
+            case "RENAME":
+            case "TRUNCATE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 解析 DDL 语句影响的表
+     * @return 受影响的表列表；无法识别时返回 null，调用方应按影响所有表处理
+     */
+    public static List<TableName> ddlTargets(String sql) {
+        String stripped = stripComments(sql);
+        List<TableName> targets = new ArrayList<>();
+        Matcher m;
+
+        if ((m = DATABASE.matcher(stripped)).find()) {
+            targets.add(new TableName(unquote(m.group(1)), null));
+        } else if ((m = CREATE_TABLE.matcher(stripped)).find() || (m = TRUNCATE_TABLE.matcher(stripped)).find()
+            || (m = INDEX.matcher(stripped)).find()) {
+            targets.add(parseTableName(m.group(1)));
+        } else if ((m = ALTER_TABLE.matcher(stripped)).find()) {
+            targets.add(parseTableName(m.group(1)));
+            Matcher rename = ALTER_RENAME.matcher(stripped.substring(m.end()));
+            if (rename.find()) {
+                targets.add(parseTableName(rename.group(1)));
+            }
+        } else if ((m = DROP_TABLE.matcher(stripped)).find() || (m = VIEW.matcher(stripped)).find()) {
+            targets.addAll(parseTableNames(m.group(1)));
+        } else if ((m = RENAME_TABLE.matcher(stripped)).find()) {
+            targets.addAll(parseTableNames(m.group(1)));
+        } else {
+            return null;
+        }
+        return targets;
+    }
+
+    /**
+     * 规范化 SQL 文本用于缓存键：去掉注释，合并引号外的连续空白，去掉末尾分号
+     */
+    public static String normalize(String sql) {
+        String stripped = stripComments(sql);
+        StringBuilder out = new StringBuilder(stripped.length());
+        int n = stripped.length();
+        int i = 0;
+        while (i < n) {
+            char c = stripped.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = skipQuoted(stripped, i);
+                out.append(stripped, i, end);
+                i = end;
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(stripped.charAt(i))) {
+                    i++;
+                }
+                out.append(' ');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ';' || out.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        return out.substring(0, end);
+    }
+
+    /**
+     * 把字符串常量替换为空字符串，避免常量中的关键字干扰解析（反引号标识符保持不变）
+     */
+    static String maskLiterals(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                i = skipQuoted(sql, i);
+                out.append("''");
+            } else if (c == '`') {
+                int end = skipQuoted(sql, i);
+                out.append(sql, i, end);
+                i = end;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 解析语句中 FROM、JOIN、USING 以及 FROM 子句中逗号之后引用的表（包括子查询中的表）
+     * 结果可能多于实际引用的表（例如 EXTRACT(YEAR FROM col) 中的列名），适合用于保守的缓存失效
+     * @return 引用的表；出现 FROM 但无法识别表名时返回 null
+     */
+    public static List<TableName> referencedTables(String sql) {
+        String text = maskLiterals(stripComments(sql));
+        List<TableName> tables = new ArrayList<>();
+        Matcher m = TABLE_REFERENCE.matcher(text);
+        while (m.find()) {
+            int pos = m.end();
+            boolean from = "FROM".equalsIgnoreCase(m.group().trim());
+            if (!addTableReference(text, pos, tables) && from && text.charAt(pos) != '(') {
+                return null;
+            }
+            if (from) {
+                addCommaSeparatedTables(text, pos, tables);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 解析语句中的函数调用名，db.f( 形式的调用带数据库
+     * 结果包括内置函数和 IN (、USING ( 等关键字，用于判断语句是否调用了存储函数
+     */
+    public static List<TableName> functionCalls(String sql) {
+        List<TableName> calls = new ArrayList<>();
+        Matcher m = FUNCTION_CALL.matcher(maskLiterals(stripComments(sql)));
+        while (m.find()) {
+            calls.add(parseTableName(m.group(1)));
+        }
+        return calls;
+    }
+
+    /**
+     * 解析 FROM 子句中顶层逗号之后的表，直到子句结束（WHERE 等关键字或所在括号结束）
+     */
+    private static void addCommaSeparatedTables(String text, int start, List<TableName> tables) {
+        int depth = 0;
+        int n = text.length();
+        for (int i = start; i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '`' || c == '\'') {
+                i = skipQuoted(text, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth == 0) {
+                    return;
+                }
+                depth--;
+            } else if (depth == 0 && c == ',') {
+                int pos = i + 1;
+                while (pos < n && Character.isWhitespace(text.charAt(pos))) {
+                    pos++;
+                }
+                addTableReference(text, pos, tables);
+            } else if (depth == 0 && Character.isLetter(c) && (i == 0 || !isIdentifierChar(text.charAt(i - 1)))
+                && CLAUSE_END.matcher(text).region(i, n).lookingAt()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 解析 pos 处的表名（跳过关键字和 DUAL）
+     * @return pos 处是否为标识符
+     */
+    private static boolean addTableReference(String text, int pos, List<TableName> tables) {
+        Matcher name = QUALIFIED_PATTERN.matcher(text).region(pos, text.length());
+        if (!name.lookingAt()) {
+            return false;
+        }
+        String upper = name.group().toUpperCase(Locale.ROOT);
+        if (!NON_TABLE_KEYWORDS.contains(upper) && !"DUAL".equals(upper)) {
+            tables.add(parseTableName(name.group()));
+        }
+        return true;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '`';
+    }
+
+    /**
+     * 解析语句可能修改的表
+     * @return 修改的表；只读语句返回空列表；无法识别时返回 null，调用方应按影响所有表处理
+     */
+    public static List<TableName> writeTargets(String sql) {
+        String keyword = leadingKeyword(sql);
+        String stripped = stripComments(sql);
+        Matcher m;
+        switch (keyword) {
+            case "SELECT":
+            case "SHOW":
+            case "DESCRIBE":
+            case "DESC":
+            case "EXPLAIN":
+                return new ArrayList<>();
+            case "INSERT":
+            case "REPLACE":
+                if ((m = INSERT.matcher(stripped)).find()) {
+                    List<TableName> targets = new ArrayList<>();
+                    targets.add(parseTableName(m.group(1)));
+                    return targets;
+                }
+                return null;
+            case "UPDATE":
+                if ((m = UPDATE.matcher(maskLiterals(stripped))).find()) {
+                    return referencedTables("FROM " + m.group(1));
+                }
+                return null;
+            case "DELETE":
+                // 多表 DELETE 的目标是 FROM/USING 中的表的子集，按全部引用的表处理
+                return referencedTables(stripped);
+            case "LOAD":
+                if ((m = LOAD_DATA.matcher(stripped)).find()) {
+                    List<TableName> targets = new ArrayList<>();
+                    targets.add(parseTableName(m.group(1)));
+                    return targets;
+                }
+                return null;
+            default:
+                return isDdl(sql) ? ddlTargets(sql) : null;
+        }
+    }
+
+    /**
+     * 解析文本中出现的所有表名（跳过 TO 关键字，用于 RENAME TABLE a TO b, c TO d）
+     */
+    static List<TableName> parseTableNames(String text) {
+        List<TableName> names = new ArrayList<>();
+        Matcher m = QUALIFIED_PATTERN.matcher(text);
+        while (m.find()) {
+            if (!"TO".equalsIgnoreCase(m.group())) {
+                names.add(parseTableName(m.group()));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 解析 db.table 或 table 形式的表名
+     */
+    public static TableName parseTableName(String qualified) {
+        List<String> parts = splitQualified(qualified);
+        if (parts.size() >= 2) {
+            return new TableName(unquote(parts.get(0)), unquote(parts.get(1)));
+        }
+        return new TableName(null, unquote(parts.get(0)));
+    }
+
+    /**
+     * 用反引号引用标识符，已引用的部分先去掉引号再重新引用
+     * @param qualified 是否把 . 视为 db.table 分隔符（表名为 true，列名为 false）
+     * @throws IllegalArgumentException 已引用的部分中有未成对的反引号
+     */
+    public static String quoteIdentifier(String name, boolean qualified) {
+        if (!qualified) {
+            return quotePart(name.trim());
+        }
+        StringBuilder quoted = new StringBuilder();
+        for (String part : splitQualified(name)) {
+            if (quoted.length() > 0) {
+                quoted.append('.');
+            }
+            quoted.append(quotePart(part));
+        }
+        return quoted.toString();
+    }
+
+    private static String quotePart(String part) {
+        String name = part;
+        if (part.length() >= 2 && part.startsWith("`") && part.endsWith("`")) {
+            String inner = part.substring(1, part.length() - 1);
+            // 引用的名称中的反引号必须写成两个，单个反引号会提前结束引用
+            if (inner.replace("``", "").indexOf('`') >= 0) {
+                throw new IllegalArgumentException("Invalid quoted identifier: " + part);
+            }
+            name = inner.replace("``", "`");
+        }
+        return "`" + name.replace("`", "``") + "`";
+    }
+
+    /**
+     * 按 . 拆分限定名，反引号中的 . 不拆分
+     */
+    private static List<String> splitQualified(String qualified) {
+        List<String> parts = new ArrayList<>(2);
+        int i = 0;
+        int n = qualified.length();
+        StringBuilder current = new StringBuilder();
+        while (i < n) {
+            char c = qualified.charAt(i);
+            if (c == '`') {
+                int end = skipQuoted(qualified, i);
+                current.append(qualified, i, end);
+                i = end;
+            } else if (c == '.') {
+                parts.add(current.toString().trim());
+                current.setLength(0);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        parts.add(current.toString().trim());
+        return parts;
+    }
+
+    static String unquote(String identifier) {
+        if (identifier.length() >= 2 && identifier.startsWith("`") && identifier.endsWith("`")) {
+            return identifier.substring(1, identifier.length() - 1).replace("``", "`");
+        }
+        return identifier;
+    }
+}
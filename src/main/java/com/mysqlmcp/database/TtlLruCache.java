@@ -0,0 +1,148 @@
+package com.mysqlmcp.database;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * 带过期时间的 LRU 缓存
+ * 按访问顺序淘汰，同时支持条目数上限和权重（例如字节数）上限，线程安全。
+ */
+public class TtlLruCache<K, V> {
+    private final long maxEntries;
+    private final long maxWeight;
+    private final long ttlMs;
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxEntries 最大条目数，<= 0 表示不限制
+     * @param maxWeight 最大总权重，<= 0 表示不限制
+     * @param ttlMs 过期时间（毫秒），<= 0 表示不过期
+     * @param weigher 计算条目权重，为 null 时每个条目权重为 1
+     */
+    public TtlLruCache(long maxEntries, long maxWeight, long ttlMs, ToLongFunction<V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlMs = ttlMs;
+        this.weigher = weigher != null ? weigher : v -> 1;
+    }
+
+    public TtlLruCache(long maxEntries, long ttlMs) {
+        this(maxEntries, 0, ttlMs, null);
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期时返回 null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired()) {
+            removeEntry(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        if (maxWeight > 0 && weight > maxWeight) {
+            // 单个条目超过总上限，不缓存
+            return;
+        }
+        Entry<V> previous = map.put(key, new Entry<>(value, weight,
+            ttlMs > 0 ? System.currentTimeMillis() + ttlMs : Long.MAX_VALUE));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext() && ((maxEntries > 0 && map.size() > maxEntries)
+            || (maxWeight > 0 && totalWeight > maxWeight))) {
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            totalWeight -= eldest.getValue().weight;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private void removeEntry(K key) {
+        Entry<V> removed = map.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        Entry<V> removed = map.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * 删除所有满足条件的条目
+     * @return 删除的条目数
+     */
+    public synchronized int invalidateIf(Predicate<K> predicate) {
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = it.next();
+            if (predicate.test(entry.getKey())) {
+                totalWeight -= entry.getValue().weight;
+                it.remove();
+                removed++;
+            }
+        }
+        invalidations.add(removed);
+        return removed;
+    }
+
+    public synchronized void clear() {
+        invalidations.add(map.size());
+        map.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(map.size(), totalWeight, hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long expiresAt;
+
+        private Entry(V value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mysqlmcp.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一次调用中各阶段的耗时累计
+ * JDBC 执行（执行语句和从服务器读取行）、行转换（读取列值）、JSON 序列化（编码结果和写出响应）
+ * 分别累加，调用结束后记录到 OperationStats。
+ */
+public final class CallTimings {
+    /** 不在请求中时使用，丢弃所有记录 */
+    public static final CallTimings NONE = new CallTimings();
+
+    private final LongAdder jdbcNanos = new LongAdder();
+    private final LongAdder conversionNanos = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    public void addJdbcNanos(long nanos) {
+        if (this != NONE) {
+            jdbcNanos.add(nanos);
+        }
+    }
+
+    public void addConversionNanos(long nanos) {
+        if (this != NONE) {
+            conversionNanos.add(nanos);
+        }
+    }
+
+    public void addSerializationNanos(long nanos) {
+        if (this != NONE) {
+            serializationNanos.add(nanos);
+        }
+    }
+
+    public void addRows(long count) {
+        if (this != NONE) {
+            rows.add(count);
+        }
+    }
+
+    public void addBytesWritten(long bytes) {
+        if (this != NONE) {
+            bytesWritten.add(bytes);
+        }
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.sum();
+    }
+
+    public long getConversionNanos() {
+        return conversionNanos.sum();
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+}
@@ -0,0 +1,140 @@
+package com.mysqlmcp.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 单个 JSON-RPC 方法或工具的调用统计
+ * 记录调用次数、错误数、总延迟分布，以及 JDBC 执行、行转换、JSON 序列化三个阶段各自的耗时分布
+ */
+public class OperationStats implements OperationStatsMBean {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram jdbc = new LatencyHistogram();
+    private final LatencyHistogram conversion = new LatencyHistogram();
+    private final LatencyHistogram serialization = new LatencyHistogram();
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 记录一次调用
+     * @param latencyNanos 从开始处理到响应写出的总耗时
+     * @param timings 本次调用各阶段的耗时、行数和写出字节数
+     */
+    public void record(long latencyNanos, boolean error, CallTimings timings) {
+        calls.increment();
+        if (error) {
+            errors.increment();
+        }
+        latency.recordNanos(latencyNanos);
+        jdbc.recordNanos(timings.getJdbcNanos());
+        conversion.recordNanos(timings.getConversionNanos());
+        serialization.recordNanos(timings.getSerializationNanos());
+        rows.add(timings.getRows());
+        bytesWritten.add(timings.getBytesWritten());
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.getMeanMillis();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxMillis();
+    }
+
+    @Override
+    public double getJdbcMillisTotal() {
+        return jdbc.getTotalMillis();
+    }
+
+    @Override
+    public double getConversionMillisTotal() {
+        return conversion.getTotalMillis();
+    }
+
+    @Override
+    public double getSerializationMillisTotal() {
+        return serialization.getTotalMillis();
+    }
+
+    @Override
+    public double getJdbcP99Millis() {
+        return jdbc.getPercentileMillis(0.99);
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("calls", getCalls());
+        json.addProperty("errors", getErrors());
+        json.add("latency", toJson(latency));
+        JsonObject phases = new JsonObject();
+        phases.add("jdbc", toJson(jdbc));
+        phases.add("conversion", toJson(conversion));
+        phases.add("serialization", toJson(serialization));
+        json.add("phases", phases);
+        json.addProperty("rows", getRows());
+        json.addProperty("bytesWritten", getBytesWritten());
+        return json;
+    }
+
+    private static JsonObject toJson(LatencyHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("p50Ms", histogram.getPercentileMillis(0.5));
+        json.addProperty("p99Ms", histogram.getPercentileMillis(0.99));
+        json.addProperty("maxMs", histogram.getMaxMillis());
+        json.addProperty("meanMs", histogram.getMeanMillis());
+        json.addProperty("totalMs", histogram.getTotalMillis());
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return name + "{calls=" + getCalls() + ", errors=" + getErrors()
+            + ", p50=" + String.format("%.2f", getP50Millis()) + "ms"
+            + ", p99=" + String.format("%.2f", getP99Millis()) + "ms"
+            + ", max=" + String.format("%.2f", getMaxMillis()) + "ms}";
+    }
+}
@@ -0,0 +1,31 @@
+package com.mysqlmcp.metrics;
+
+/**
+ * 通过 JMX 暴露的单个方法/工具的统计
+ */
+public interface OperationStatsMBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    double getJdbcMillisTotal();
+
+    double getConversionMillisTotal();
+
+    double getSerializationMillisTotal();
+
+    double getJdbcP99Millis();
+
+    long getRows();
+
+    long getBytesWritten();
+}
@@ -0,0 +1,158 @@
+package com.mysqlmcp.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 服务器调用统计
+ * 按 JSON-RPC 方法和工具名分别统计，通过 server_stats 工具和 JMX（com.mysqlmcp:type=Method/Tool）查看；
+ * 初始化平台 MBeanServer 需要加载大量类，快速启动时推迟到后台预热时调用 startJmx() 再注册
+ */
+public class ServerMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(ServerMetrics.class);
+    private static final String JMX_DOMAIN = "com.mysqlmcp";
+
+    private final boolean jmxEnabled;
+    private volatile boolean jmxStarted;
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<String, OperationStats> methods = new ConcurrentHashMap<>();
+    private final Map<String, OperationStats> tools = new ConcurrentHashMap<>();
+
+    public ServerMetrics(boolean jmxEnabled) {
+        this(jmxEnabled, false);
+    }
+
+    /**
+     * @param deferJmx 为 true 时在调用 startJmx() 之前不注册 MBean
+     */
+    public ServerMetrics(boolean jmxEnabled, boolean deferJmx) {
+        this.jmxEnabled = jmxEnabled;
+        this.jmxStarted = !deferJmx;
+    }
+
+    /**
+     * 从系统属性/环境变量读取配置
+     * 原生镜像默认不启用 JMX（需要构建时额外开启监控支持）
+     */
+    public static ServerMetrics fromEnvironment() {
+        boolean nativeImage = System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+        return new ServerMetrics(
+            ServerConfig.getBoolean("mcp.metrics.jmx.enabled", "MCP_METRICS_JMX_ENABLED", !nativeImage),
+            ServerConfig.isFastStartEnabled());
+    }
+
+    /**
+     * 开始注册 MBean，并补注册此前已经产生的统计项
+     */
+    public synchronized void startJmx() {
+        if (!jmxEnabled || jmxStarted) {
+            return;
+        }
+        jmxStarted = true;
+        methods.values().forEach(stats -> registerMBean("Method", stats));
+        tools.values().forEach(stats -> registerMBean("Tool", stats));
+    }
+
+    /**
+     * 记录一次请求，tools/call 同时记录到对应工具
+     * @param tool 工具名，非 tools/call 请求为 null
+     */
+    public void record(String method, String tool, long latencyNanos, boolean error, CallTimings timings) {
+        if (method != null) {
+            stats(methods, "Method", method).record(latencyNanos, error, timings);
+        }
+        if (tool != null) {
+            stats(tools, "Tool", tool).record(latencyNanos, error, timings);
+        }
+    }
+
+    private OperationStats stats(Map<String, OperationStats> map, String type, String name) {
+        OperationStats stats = map.get(name);
+        if (stats != null) {
+            return stats;
+        }
+        return map.computeIfAbsent(name, key -> {
+            OperationStats created = new OperationStats(key);
+            registerMBean(type, created);
+            return created;
+        });
+    }
+
+    private synchronized void registerMBean(String type, OperationStats stats) {
+        if (!jmxEnabled || !jmxStarted) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(stats.getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        } catch (JMException | RuntimeException e) {
+            logger.warn("Failed to register MBean for {} {}: {}", type, stats.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 注销所有 MBean
+     */
+    public void close() {
+        if (!jmxEnabled || !jmxStarted) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (ObjectName name : server.queryNames(new ObjectName(JMX_DOMAIN + ":*"), null)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException | RuntimeException e) {
+            logger.debug("Failed to unregister MBeans", e);
+        }
+    }
+
+    public long getUptimeMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("uptimeMs", getUptimeMillis());
+        json.add("methods", toJson(methods));
+        json.add("tools", toJson(tools));
+        return json;
+    }
+
+    private static JsonObject toJson(Map<String, OperationStats> map) {
+        JsonObject json = new JsonObject();
+        for (OperationStats stats : new TreeMap<>(map).values()) {
+            json.add(stats.getName(), stats.toJson());
+        }
+        return json;
+    }
+
+    /**
+     * 按名称排序的统计摘要，每行一项
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder("Uptime: " + getUptimeMillis() / 1000 + "s");
+        for (OperationStats stats : new TreeMap<>(methods).values()) {
+            builder.append("\nMethod ").append(stats);
+        }
+        for (OperationStats stats : new TreeMap<>(tools).values()) {
+            builder.append("\nTool ").append(stats);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.mysqlmcp.server;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * 收集 JSON-RPC 批量请求的响应
+ * 每个请求完成后调用 complete()，最后一个完成的线程按请求顺序写出响应数组；
+ * 通知没有响应，全部为通知时不写出任何内容（JSON-RPC 2.0 规范）
+ */
+class BatchResponse {
+    private static final Logger logger = LoggerFactory.getLogger(BatchResponse.class);
+
+    private final JsonObject[] responses;
+    private final AtomicInteger remaining;
+    private final ResponseWriter writer;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final long start = System.nanoTime();
+
+    BatchResponse(int size, ResponseWriter writer) {
+        this.responses = new JsonObject[size];
+        this.remaining = new AtomicInteger(size);
+        this.writer = writer;
+    }
+
+    /**
+     * 记录一个请求的响应
+     * @param response 通知为 null
+     */
+    void complete(int index, JsonObject response) {
+        responses[index] = response;
+        if (remaining.decrementAndGet() == 0) {
+            try {
+                write();
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+
+    /**
+     * 等待所有请求完成且响应数组已经写出（HTTP 传输在关闭响应前调用）
+     */
+    void await() throws InterruptedException {
+        done.await();
+    }
+
+    private void write() {
+        JsonArray array = new JsonArray();
+        for (JsonObject response : responses) {
+            if (response != null) {
+                array.add(response);
+            }
+        }
+        if (array.isEmpty()) {
+            return;
+        }
+        try {
+            writer.write(array);
+        } catch (IOException e) {
+            logger.error("Error writing batch response", e);
+            return;
+        }
+        logger.info("[LOG-INFO] Sent batch response with {} response(s) in {} ms",
+                   array.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
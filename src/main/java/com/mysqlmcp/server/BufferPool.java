@@ -0,0 +1,58 @@
+package com.mysqlmcp.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 传输层使用的直接缓冲区池
+ * 读写通道时直接使用池中的缓冲区，避免 JDK 为堆缓冲区额外复制一次，也避免每次连接重新分配
+ */
+final class BufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * 从系统属性/环境变量读取配置
+     */
+    static BufferPool fromEnvironment() {
+        int bufferSize = ServerConfig.getInt("mcp.transport.bufferBytes", "MCP_TRANSPORT_BUFFER_BYTES", 64 * 1024);
+        return new BufferPool(Math.max(1024, bufferSize), 16);
+    }
+
+    /**
+     * 获取一个已清空的缓冲区，池为空时新建
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，池已满时丢弃
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
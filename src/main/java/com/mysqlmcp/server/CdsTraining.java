@@ -0,0 +1,52 @@
+package com.mysqlmcp.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import com.mysqlmcp.database.DatabaseManager;
+
+/**
+ * AppCDS 归档的训练运行（mvn -Pcds package）
+ * 构建时以 -XX:ArchiveClassesAtExit 运行本类，按典型会话执行一遍请求，JVM 退出时把加载过的类
+ * 写入归档；运行时通过 -XX:SharedArchiveFile 加载，省去启动阶段类的读取、解析和校验。
+ * 训练时不连接真实数据库：工具调用在建立连接时失败，但驱动和错误处理路径的类同样会被加载。
+ */
+public final class CdsTraining {
+    private static final String[] REQUESTS = {
+        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\",\"params\":{}}",
+        "{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}",
+        "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}",
+        "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"ping\"}",
+        "{\"jsonrpc\":\"2.0\",\"id\":4,\"method\":\"tools/call\",\"params\":{\"name\":\"execute_query\","
+            + "\"arguments\":{\"sql\":\"SELECT 1\"}}}",
+        "{\"jsonrpc\":\"2.0\",\"id\":5,\"method\":\"tools/call\",\"params\":{\"name\":\"list_tables\",\"arguments\":{}}}",
+        "{\"jsonrpc\":\"2.0\",\"id\":6,\"method\":\"tools/call\",\"params\":{\"name\":\"server_stats\",\"arguments\":{}}}",
+        "[{\"jsonrpc\":\"2.0\",\"id\":7,\"method\":\"ping\"}]",
+        "{\"jsonrpc\":\"2.0\",\"id\":8,",
+    };
+
+    private CdsTraining() {
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        // 日志系统照常初始化（其类也进入归档），但不输出训练请求预期中的连接失败
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+        ((Logger) LoggerFactory.getLogger("com.mysqlmcp")).setLevel(Level.OFF);
+        DatabaseManager databaseManager = new DatabaseManager(
+            "jdbc:mysql://127.0.0.1:1/training?connectTimeout=1000", "training", "training");
+        MCPServer server = new MCPServer(databaseManager);
+        byte[] input = String.join("\n", REQUESTS).getBytes(StandardCharsets.UTF_8);
+        server.serve(Channels.newChannel(new ByteArrayInputStream(input)),
+                     Channels.newChannel(OutputStream.nullOutputStream()));
+        databaseManager.close();
+    }
+}
@@ -0,0 +1,131 @@
+package com.mysqlmcp.server;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 直接按 UTF-8 编码写入池化缓冲区的 Writer
+ * 响应序列化时字符直接编码为字节写入缓冲区，缓冲区满或 flush() 时写入通道，不经过中间的字符缓冲区和字符串。
+ * 非线程安全，由 ResponseWriter 串行化调用。
+ */
+final class ChannelWriter extends Writer {
+    private static final byte REPLACEMENT = '?';
+
+    private final WritableByteChannel channel;
+    private final BufferPool pool;
+    private ByteBuffer buffer;
+    /** 上一次写入以高代理字符结尾时，等待与下一个字符组成代码点 */
+    private char pendingHighSurrogate;
+
+    ChannelWriter(WritableByteChannel channel, BufferPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+        this.buffer = pool.acquire();
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        put((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            put(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            put(str.charAt(i));
+        }
+    }
+
+    private void put(char c) throws IOException {
+        if (c < 0x80 && pendingHighSurrogate == 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) c);
+            return;
+        }
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensure(4);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                return;
+            }
+            // 孤立的高代理字符
+            ensure(1);
+            buffer.put(REPLACEMENT);
+        }
+        if (c < 0x80) {
+            ensure(1);
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            ensure(2);
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensure(1);
+            buffer.put(REPLACEMENT);
+        } else {
+            ensure(3);
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    /**
+     * 将缓冲区中的字节全部写入通道
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                ensure(1);
+                buffer.put(REPLACEMENT);
+            }
+            drain();
+        } finally {
+            pool.release(buffer);
+            buffer = null;
+            channel.close();
+        }
+    }
+}
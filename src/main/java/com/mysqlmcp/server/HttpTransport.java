@@ -0,0 +1,420 @@
+package com.mysqlmcp.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.mysqlmcp.config.ServerConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Streamable HTTP 传输（MCP 2025-03-26 规范）
+ * 多个客户端通过 HTTP 共享同一个进程的连接池和缓存，请求仍由 MCPServer 的同一套逻辑处理。
+ * 客户端在 initialize 时获得 Mcp-Session-Id，之后的请求都要携带该头部；
+ * POST 的请求按 Accept 头返回 JSON 或 SSE 事件流，只包含通知的 POST 返回 202。
+ * HTTP 请求在不限数量的交换线程上读取和解析，只有 JSON-RPC 请求占用并发名额，通知（包括
+ * notifications/cancelled）就地处理，并发已满时仍能取消正在执行的请求。
+ * 服务器不会主动发起消息，因此不提供 GET 事件流（返回 405）。
+ */
+final class HttpTransport implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransport.class);
+
+    private static final String SESSION_HEADER = "Mcp-Session-Id";
+    private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]", "::1");
+
+    private final MCPServer server;
+    private final BufferPool bufferPool;
+    private final HttpServer httpServer;
+    /** 读取和解析 HTTP 请求的线程，不限数量，等待并发名额的请求不会阻塞通知 */
+    private final ExecutorService exchangeExecutor;
+    private final RequestDispatcher exchangeDispatcher;
+    private final RequestDispatcher batchDispatcher;
+    private final String path;
+    private final byte[] authToken;
+    private final Set<String> allowedOrigins;
+    private final long sessionTtlMs;
+    private final long maxBodyBytes;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    HttpTransport(MCPServer server, BufferPool bufferPool, InetSocketAddress address, String path,
+                  String authToken, Set<String> allowedOrigins, long sessionTtlMs, long maxBodyBytes,
+                  RequestDispatcher exchangeDispatcher, RequestDispatcher batchDispatcher) throws IOException {
+        this.server = server;
+        this.bufferPool = bufferPool;
+        this.path = path;
+        this.authToken = authToken == null || authToken.isEmpty() ? null : authToken.getBytes(StandardCharsets.UTF_8);
+        this.allowedOrigins = allowedOrigins;
+        this.sessionTtlMs = sessionTtlMs;
+        this.maxBodyBytes = Math.max(1, Math.min(maxBodyBytes, Integer.MAX_VALUE - 8));
+        this.exchangeDispatcher = exchangeDispatcher;
+        this.batchDispatcher = batchDispatcher;
+        this.httpServer = HttpServer.create(address, 0);
+        AtomicInteger counter = new AtomicInteger();
+        this.exchangeExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "mcp-http-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpServer.setExecutor(exchangeExecutor);
+        this.httpServer.createContext(path, this::handle);
+    }
+
+    /**
+     * 从系统属性/环境变量读取配置
+     * @param defaultMaxInFlight 未配置 mcp.dispatch.maxInFlight 时的默认值（通常为连接池最大连接数）
+     */
+    static HttpTransport fromEnvironment(MCPServer server, BufferPool bufferPool, int defaultMaxInFlight)
+            throws IOException {
+        String host = ServerConfig.getString("mcp.http.host", "MCP_HTTP_HOST", "127.0.0.1");
+        int port = ServerConfig.getInt("mcp.http.port", "MCP_HTTP_PORT", 8080);
+        String path = ServerConfig.getString("mcp.http.path", "MCP_HTTP_PATH", "/mcp");
+        String authToken = ServerConfig.getString("mcp.http.authToken", "MCP_HTTP_AUTH_TOKEN", null);
+        String origins = ServerConfig.getString("mcp.http.allowedOrigins", "MCP_HTTP_ALLOWED_ORIGINS", "");
+        long sessionTtlMs = ServerConfig.getLong("mcp.http.sessionTtlMs", "MCP_HTTP_SESSION_TTL_MS", 1_800_000);
+        long maxBodyBytes = ServerConfig.getLong("mcp.http.maxBodyBytes", "MCP_HTTP_MAX_BODY_BYTES", 64L * 1024 * 1024);
+
+        Set<String> allowedOrigins = Arrays.stream(origins.split(","))
+            .map(String::trim)
+            .filter(origin -> !origin.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        if (authToken == null && !LOCAL_HOSTS.contains(host)) {
+            logger.warn("HTTP transport is bound to {} without mcp.http.authToken; any client that can reach it "
+                + "can run SQL", host);
+        }
+        return new HttpTransport(server, bufferPool, new InetSocketAddress(host, port), path, authToken,
+            allowedOrigins, sessionTtlMs, maxBodyBytes,
+            RequestDispatcher.fromEnvironment(defaultMaxInFlight),
+            RequestDispatcher.fromEnvironment(defaultMaxInFlight));
+    }
+
+    void start() {
+        httpServer.start();
+        InetSocketAddress address = httpServer.getAddress();
+        logger.info("[LOG-INFO] HTTP transport listening on http://{}:{}{}",
+                   address.getHostString(), address.getPort(), path);
+    }
+
+    /**
+     * 停止接收新请求，等待处理中的请求最多 1 秒
+     */
+    @Override
+    public void close() {
+        httpServer.stop(1);
+        exchangeExecutor.shutdown();
+        try {
+            if (!exchangeExecutor.awaitTermination(5, TimeUnit.MINUTES)) {
+                exchangeExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchangeExecutor.shutdownNow();
+        }
+        exchangeDispatcher.close();
+        batchDispatcher.close();
+        logger.info("HTTP transport stopped, {} session(s) dropped", sessions.size());
+        sessions.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!isOriginAllowed(exchange.getRequestHeaders().getFirst("Origin"))) {
+                sendStatus(exchange, 403, "Origin not allowed");
+                return;
+            }
+            if (!isAuthorized(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                sendStatus(exchange, 401, "Unauthorized");
+                return;
+            }
+            switch (exchange.getRequestMethod()) {
+                case "POST":
+                    handlePost(exchange);
+                    break;
+                case "DELETE":
+                    handleDelete(exchange);
+                    break;
+                default:
+                    exchange.getResponseHeaders().set("Allow", "POST, DELETE");
+                    sendStatus(exchange, 405, "Method not allowed");
+                    break;
+            }
+        } catch (Exception e) {
+            logger.error("Error handling HTTP request", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 处理 POST：请求在当前线程上执行（占用一个并发名额），响应直接写入 HTTP 响应体（分块传输）
+     */
+    private void handlePost(HttpExchange exchange) throws IOException, InterruptedException {
+        byte[] body = readBody(exchange);
+        if (body == null) {
+            sendStatus(exchange, 413, "Request body exceeds " + maxBodyBytes + " bytes");
+            return;
+        }
+        IncomingMessage message = IncomingMessage.parse(body, body.length);
+        if (message.getError() != null) {
+            logger.warn("Failed to parse message: {}", message.getError());
+            try (ResponseWriter writer = openResponse(exchange, 400)) {
+                server.writeError(writer, message.getId(), -32700, "Parse error: " + message.getError());
+            }
+            return;
+        }
+
+        Session session = resolveSession(exchange, message);
+        if (session == null) {
+            return;
+        }
+
+        if (message.isBatch()) {
+            JsonArray batch = message.getBatch();
+            if (isNotificationsOnly(batch)) {
+                // 只有通知时 handleBatch 就地处理且不写出任何内容
+                server.handleBatch(batch, batchDispatcher, null, session.id);
+                sendStatus(exchange, 202, null);
+                return;
+            }
+            try (ResponseWriter writer = openResponse(exchange, 200)) {
+                BatchResponse batchResponse = server.handleBatch(batch, batchDispatcher, writer, session.id);
+                if (batchResponse != null) {
+                    batchResponse.await();
+                }
+            }
+            return;
+        }
+
+        JsonObject header = message.getHeader();
+        if (header == null || !MCPServer.isValidMethod(header)) {
+            try (ResponseWriter writer = openResponse(exchange, 400)) {
+                server.writeError(writer, message.getId(), -32600, "Invalid Request");
+            }
+            return;
+        }
+        String method = header.has("method") ? header.get("method").getAsString() : null;
+        Object id = message.getId();
+
+        if (MCPServer.isNotification(header)) {
+            JsonObject request;
+            try {
+                request = message.getRequest();
+            } catch (JsonParseException e) {
+                logger.warn("Failed to parse message: {}", e.getMessage());
+                try (ResponseWriter writer = openResponse(exchange, 400)) {
+                    server.writeError(writer, message.getId(), -32700, "Parse error: " + e.getMessage());
+                }
+                return;
+            }
+            server.traceReceived(request, method, id, true);
+            server.handleNotification(request, method, session.id);
+            sendStatus(exchange, 202, null);
+            return;
+        }
+        try (ResponseWriter writer = openResponse(exchange, 200)) {
+            exchangeDispatcher.runInCurrentThread(
+                () -> server.processMessage(message, method, id, writer, session.id));
+        }
+    }
+
+    /**
+     * 读取请求体，超过 maxBodyBytes 时返回 null（不读取剩余部分）
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null) {
+            try {
+                if (Long.parseLong(length.trim()) > maxBodyBytes) {
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                // 交给下面按实际读取的长度判断
+            }
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes((int) maxBodyBytes + 1);
+            return body.length > maxBodyBytes ? null : body;
+        }
+    }
+
+    /**
+     * DELETE：客户端结束会话
+     */
+    private void handleDelete(HttpExchange exchange) throws IOException {
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId == null) {
+            sendStatus(exchange, 400, "Missing " + SESSION_HEADER + " header");
+            return;
+        }
+        if (sessions.remove(sessionId) == null) {
+            sendStatus(exchange, 404, "Session not found");
+            return;
+        }
+        logger.info("[LOG-INFO] HTTP session {} closed by client", sessionId);
+        sendStatus(exchange, 200, null);
+    }
+
+    /**
+     * initialize 请求创建新会话并在响应头返回会话 ID；其他请求必须携带有效的会话 ID，
+     * 缺少时返回 400，未知或已过期时返回 404（客户端应重新 initialize）
+     * @return 会话，已经写出错误状态时为 null
+     */
+    private Session resolveSession(HttpExchange exchange, IncomingMessage message) throws IOException {
+        long now = System.currentTimeMillis();
+        JsonObject header = message.getHeader();
+        if (header != null && isInitialize(header)) {
+            Session session = createSession(now);
+            exchange.getResponseHeaders().set(SESSION_HEADER, session.id);
+            return session;
+        }
+
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId == null) {
+            sendStatus(exchange, 400, "Missing " + SESSION_HEADER + " header");
+            return null;
+        }
+        Session session = sessions.get(sessionId);
+        if (session == null || session.isExpired(now, sessionTtlMs)) {
+            if (session != null) {
+                sessions.remove(sessionId, session);
+            }
+            sendStatus(exchange, 404, "Session not found");
+            return null;
+        }
+        session.lastAccess = now;
+        return session;
+    }
+
+    /**
+     * 创建会话时顺带清理过期会话，不需要单独的清理线程
+     */
+    private Session createSession(long now) {
+        sessions.values().removeIf(session -> session.isExpired(now, sessionTtlMs));
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        Session session = new Session(HexFormat.of().formatHex(bytes), now);
+        sessions.put(session.id, session);
+        logger.info("[LOG-INFO] HTTP session {} created ({} active)", session.id, sessions.size());
+        return session;
+    }
+
+    private static boolean isInitialize(JsonObject request) {
+        JsonElement method = request.get("method");
+        return method != null && method.isJsonPrimitive() && "initialize".equals(method.getAsString());
+    }
+
+    private static boolean isNotificationsOnly(JsonArray batch) {
+        if (batch.isEmpty()) {
+            return false;
+        }
+        for (JsonElement element : batch) {
+            if (!element.isJsonObject() || !MCPServer.isValidMethod(element.getAsJsonObject())
+                    || !MCPServer.isNotification(element.getAsJsonObject())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 未配置允许的来源时只接受本机页面（防止 DNS 重绑定攻击）；没有 Origin 头的非浏览器客户端不受限制
+     */
+    private boolean isOriginAllowed(String origin) {
+        if (origin == null || allowedOrigins.contains("*") || allowedOrigins.contains(origin)) {
+            return true;
+        }
+        if (!allowedOrigins.isEmpty()) {
+            return false;
+        }
+        try {
+            String host = URI.create(origin).getHost();
+            return host != null && LOCAL_HOSTS.contains(host);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean isAuthorized(String authorization) {
+        if (authToken == null) {
+            return true;
+        }
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        byte[] presented = authorization.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(authToken, presented);
+    }
+
+    /**
+     * 发送响应头并返回写入响应体的写出器
+     * 客户端只接受 text/event-stream 时按 SSE 格式写出，否则返回 application/json
+     */
+    private ResponseWriter openResponse(HttpExchange exchange, int status) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        boolean eventStream = accept != null && accept.contains("text/event-stream")
+            && !accept.contains("application/json");
+        exchange.getResponseHeaders().set("Content-Type",
+            eventStream ? "text/event-stream; charset=utf-8" : "application/json; charset=utf-8");
+        if (eventStream) {
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        }
+        exchange.sendResponseHeaders(status, 0);
+        return new ResponseWriter(
+            new ChannelWriter(Channels.newChannel(exchange.getResponseBody()), bufferPool), eventStream);
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status, String text) throws IOException {
+        if (text == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * 客户端会话，只记录最后访问时间用于过期判断
+     */
+    private static final class Session {
+        private final String id;
+        private volatile long lastAccess;
+
+        private Session(String id, long lastAccess) {
+            this.id = id;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean isExpired(long now, long ttlMs) {
+            return ttlMs > 0 && now - lastAccess > ttlMs;
+        }
+    }
+}
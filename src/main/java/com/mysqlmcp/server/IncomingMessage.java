@@ -0,0 +1,281 @@
+package com.mysqlmcp.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * 从一行字节增量解析出的 JSON-RPC 消息
+ * 直接从 UTF-8 字节解析，不先转换为字符串。顶层请求只扫描成员边界，jsonrpc、id、method 等成员
+ * 立即解析，params 只复制字节片段，第一次调用 getRequest() 时才解析（通常在调度线程上），
+ * 读取线程不会因为大的 params 阻塞后面的消息（例如取消通知）。
+ * 即使后面的成员格式错误，也能拿到已经读到的 id 返回错误响应。
+ * 批量请求整体解析：每个元素在分发前都需要完整内容（通知就地处理、按工具采样日志）。
+ */
+final class IncomingMessage {
+    private JsonObject request;
+    private byte[] params;
+    private JsonArray batch;
+    private JsonElement id;
+    private String error;
+
+    private IncomingMessage() {
+    }
+
+    /**
+     * 解析一行消息，格式错误时不抛出异常，由 getError() 返回原因
+     */
+    static IncomingMessage parse(byte[] data, int length) {
+        IncomingMessage message = new IncomingMessage();
+        try {
+            Cursor cursor = new Cursor(data, length);
+            if (cursor.skipWhitespace() == '{') {
+                message.request = message.readRequest(cursor);
+                if (cursor.skipWhitespace() != -1) {
+                    throw new JsonParseException("Unexpected data after JSON value");
+                }
+            } else {
+                message.readOther(data, length);
+            }
+        } catch (IOException | JsonParseException | IllegalStateException | NumberFormatException e) {
+            message.request = null;
+            message.params = null;
+            message.batch = null;
+            message.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        return message;
+    }
+
+    /**
+     * 顶层不是对象：数组作为批量请求整体解析，其他值作为无效请求处理
+     */
+    private void readOther(byte[] data, int length) throws IOException {
+        JsonReader reader = reader(data, 0, length);
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            batch = JsonParser.parseReader(reader).getAsJsonArray();
+        } else {
+            JsonParser.parseReader(reader);
+        }
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonParseException("Unexpected data after JSON value");
+        }
+    }
+
+    /**
+     * 逐个成员读取请求对象，读到 id 后立即记录，params 只记录字节片段
+     */
+    private JsonObject readRequest(Cursor cursor) {
+        JsonObject object = new JsonObject();
+        cursor.position++;
+        int next = cursor.skipWhitespace();
+        if (next == '}') {
+            cursor.position++;
+            return object;
+        }
+        while (true) {
+            if (next != '"') {
+                throw cursor.error("Expected member name");
+            }
+            int nameStart = cursor.position;
+            String name = cursor.value(nameStart, cursor.skipString()).getAsString();
+            if (cursor.skipWhitespace() != ':') {
+                throw cursor.error("Expected ':'");
+            }
+            cursor.position++;
+            cursor.skipWhitespace();
+            int valueStart = cursor.position;
+            int valueEnd = cursor.skipValue();
+            if ("params".equals(name)) {
+                params = Arrays.copyOfRange(cursor.data, valueStart, valueEnd);
+            } else {
+                JsonElement value = cursor.value(valueStart, valueEnd);
+                if ("id".equals(name)) {
+                    id = value;
+                }
+                object.add(name, value);
+            }
+            next = cursor.skipWhitespace();
+            if (next == ',') {
+                cursor.position++;
+                next = cursor.skipWhitespace();
+            } else if (next == '}') {
+                cursor.position++;
+                return object;
+            } else {
+                throw cursor.error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private static JsonReader reader(byte[] data, int offset, int length) {
+        JsonReader reader = new JsonReader(
+            new InputStreamReader(new ByteArrayInputStream(data, offset, length), StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * 完整的单个请求，第一次调用时解析 params（params 格式错误时抛出 JsonParseException）；
+     * 批量请求、无效请求或解析失败时为 null
+     */
+    JsonObject getRequest() {
+        if (params != null) {
+            JsonElement value = JsonParser.parseReader(reader(params, 0, params.length));
+            params = null;
+            request.add("params", value);
+        }
+        return request;
+    }
+
+    /**
+     * 单个请求中已经解析的成员（params 以外），用于在解析 params 之前校验请求和判断是否是通知
+     */
+    JsonObject getHeader() {
+        return request;
+    }
+
+    boolean isBatch() {
+        return batch != null;
+    }
+
+    JsonArray getBatch() {
+        return batch;
+    }
+
+    /**
+     * 请求 id，解析失败时为失败前已读到的 id
+     */
+    JsonElement getId() {
+        return id;
+    }
+
+    /**
+     * 解析失败的原因，解析成功时为 null
+     */
+    String getError() {
+        return error;
+    }
+
+    /**
+     * 在 UTF-8 字节上扫描 JSON 结构（结构字符都是 ASCII，不需要解码）
+     */
+    private static final class Cursor {
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        Cursor(byte[] data, int limit) {
+            this.data = data;
+            this.limit = limit;
+        }
+
+        /**
+         * 跳过空白字符，返回下一个字节，到达末尾时返回 -1
+         */
+        int skipWhitespace() {
+            while (position < limit) {
+                byte b = data[position];
+                if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                    return b;
+                }
+                position++;
+            }
+            return -1;
+        }
+
+        /**
+         * 跳过从当前位置开始的字符串，返回字符串之后的位置
+         */
+        int skipString() {
+            int i = position + 1;
+            while (i < limit) {
+                byte b = data[i];
+                if (b == '\\') {
+                    i += 2;
+                } else if (b == '"') {
+                    position = i + 1;
+                    return position;
+                } else {
+                    i++;
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        /**
+         * 跳过从当前位置开始的值（只检查括号配对，内容在解析时校验），返回值之后的位置
+         */
+        int skipValue() {
+            if (position >= limit) {
+                throw error("Expected value");
+            }
+            byte first = data[position];
+            if (first == '"') {
+                return skipString();
+            }
+            if (first == '{' || first == '[') {
+                int depth = 0;
+                while (position < limit) {
+                    byte b = data[position];
+                    if (b == '"') {
+                        skipString();
+                        continue;
+                    }
+                    if (b == '{' || b == '[') {
+                        depth++;
+                    } else if ((b == '}' || b == ']') && --depth == 0) {
+                        return ++position;
+                    }
+                    position++;
+                }
+                throw error("Unterminated " + (first == '{' ? "object" : "array"));
+            }
+            int start = position;
+            while (position < limit) {
+                byte b = data[position];
+                if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    break;
+                }
+                position++;
+            }
+            if (position == start) {
+                throw error("Expected value");
+            }
+            return position;
+        }
+
+        /**
+         * 解析 [start, end) 的值，没有转义字符的字符串直接解码
+         */
+        JsonElement value(int start, int end) {
+            if (data[start] == '"') {
+                boolean escaped = false;
+                for (int i = start + 1; i < end - 1; i++) {
+                    if (data[i] == '\\') {
+                        escaped = true;
+                        break;
+                    }
+                }
+                if (!escaped) {
+                    return new JsonPrimitive(new String(data, start + 1, end - start - 2, StandardCharsets.UTF_8));
+                }
+            }
+            return JsonParser.parseReader(reader(data, start, end - start));
+        }
+
+        JsonParseException error(String message) {
+            return new JsonParseException(message + " at offset " + position);
+        }
+    }
+}
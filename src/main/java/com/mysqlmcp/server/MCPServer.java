@@ -1,20 +1,30 @@
 package com.mysqlmcp.server;
 
-import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonParseException;
+import com.mysqlmcp.config.ServerConfig;
 import com.mysqlmcp.database.DatabaseManager;
+import com.mysqlmcp.database.RequestContext;
+import com.mysqlmcp.metrics.CallTimings;
+import com.mysqlmcp.metrics.ServerMetrics;
 import com.mysqlmcp.tools.MCPToolHandler;
+import com.mysqlmcp.tools.StreamingResult;
+import com.mysqlmcp.trace.PayloadTracer;
 
 /**
  * MCP服务器主类
@@ -25,10 +35,20 @@ public class MCPServer {
     private static final Gson gson = new Gson();
     private final DatabaseManager databaseManager;
     private final MCPToolHandler toolHandler;
+    private final PayloadTracer tracer = PayloadTracer.fromEnvironment();
+    private final ServerMetrics metrics = ServerMetrics.fromEnvironment();
+    private final BufferPool bufferPool = BufferPool.fromEnvironment();
+    /** 只有 start()/startHttp() 启动的服务器才预热，基准测试等直接调用 serve() 时不预热 */
+    private volatile boolean warmUpEnabled;
+    private final AtomicBoolean warmUpStarted = new AtomicBoolean();
 
     public MCPServer() {
-        this.databaseManager = new DatabaseManager();
-        this.toolHandler = new MCPToolHandler(databaseManager);
+        this(new DatabaseManager());
+    }
+
+    public MCPServer(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        this.toolHandler = new MCPToolHandler(databaseManager, metrics);
     }
 
     public static void main(String[] args) {
@@ -40,82 +60,437 @@ public class MCPServer {
         // 日志配置由 logback.xml 管理，无需在此处设置
         
         MCPServer server = new MCPServer();
-        server.start();
+        String transport = ServerConfig.getString("mcp.transport", "MCP_TRANSPORT", "stdio");
+        if ("http".equalsIgnoreCase(transport)) {
+            server.startHttp();
+        } else {
+            server.start();
+        }
     }
 
     public void start() {
         logger.info("[LOG-INFO] MySQL MCP Server starting...");
+        warmUpEnabled = true;
         
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(System.in, StandardCharsets.UTF_8));
-             PrintWriter writer = new PrintWriter(
-                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true)) {
+        try {
+            serve(new FileInputStream(FileDescriptor.in).getChannel(),
+                  new FileOutputStream(FileDescriptor.out).getChannel());
+        } catch (IOException e) {
+            logger.error("Error reading input", e);
+        } finally {
+            toolHandler.close();
+            metrics.close();
+        }
+    }
+
+    /**
+     * 以 Streamable HTTP 传输启动，多个客户端会话共享本进程的连接池和缓存
+     * HTTP 服务器线程保持进程运行，进程退出时（关闭钩子）停止服务并释放资源
+     */
+    public void startHttp() {
+        logger.info("[LOG-INFO] MySQL MCP Server starting (HTTP transport)...");
+
+        HttpTransport transport;
+        try {
+            transport = HttpTransport.fromEnvironment(this, bufferPool, databaseManager.getPoolConfig().getMaxSize());
+        } catch (IOException e) {
+            logger.error("Failed to start HTTP transport", e);
+            toolHandler.close();
+            metrics.close();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            transport.close();
+            toolHandler.close();
+            metrics.close();
+            try {
+                databaseManager.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing database connections", e);
+            }
+        }, "mcp-http-shutdown"));
+        warmUpEnabled = true;
+        transport.start();
+    }
+
+    /**
+     * 在后台线程预热（只执行一次）：注册 JMX MBean，建立连接池的最小连接数并加载表列表
+     * 在握手完成（notifications/initialized）后才开始，不与 initialize/tools/list 争抢启动阶段的 CPU
+     */
+    private void startWarmUp() {
+        if (!warmUpEnabled || !warmUpStarted.compareAndSet(false, true)) {
+            return;
+        }
+        boolean warmUpDatabase = ServerConfig.getBoolean("mcp.warmup.enabled", "MCP_WARMUP_ENABLED", true);
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            metrics.startJmx();
+            if (warmUpDatabase) {
+                try {
+                    databaseManager.warmUp();
+                } catch (RuntimeException e) {
+                    logger.warn("Warm-up failed: {}", e.getMessage());
+                }
+            }
+            logger.info("Warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+        }, "mcp-warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * 从 in 逐行读取请求并将响应写入 out，直到输入结束且所有请求处理完成
+     * 通道在返回时关闭，工具处理器保持打开，可以重复调用（例如基准测试）
+     */
+    public void serve(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        try (MessageReader reader = MessageReader.fromEnvironment(in, bufferPool);
+             ResponseWriter writer = new ResponseWriter(new ChannelWriter(out, bufferPool));
+             RequestDispatcher dispatcher = RequestDispatcher.fromEnvironment(
+                databaseManager.getPoolConfig().getMaxSize())) {
             
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) {
+            while (reader.next()) {
+                if (reader.isTooLong()) {
+                    logger.warn("Discarded message longer than {} bytes", reader.getMaxLineBytes());
+                    writeError(writer, null, -32700,
+                               "Parse error: message exceeds " + reader.getMaxLineBytes() + " bytes");
+                    continue;
+                }
+                if (reader.isBlank()) {
                     continue;
                 }
                 
+                IncomingMessage message = IncomingMessage.parse(reader.array(), reader.length());
                 try {
-                    JsonObject request = JsonParser.parseString(line).getAsJsonObject();
-                    String method = request.has("method") ? request.get("method").getAsString() : null;
-                    Object id = request.has("id") ? request.get("id") : null;
-                    
-                    // 检查是否是通知（没有 id 或 id 为 null）
-                    boolean isNotification = (id == null || 
-                        (request.has("id") && request.get("id").isJsonNull()));
-                    
-                    String requestJson = gson.toJson(request);
-                    logger.info("[LOG-INFO] Received {}: {}", 
-                               isNotification ? "notification" : "request", requestJson);
+                    if (message.getError() != null) {
+                        logger.warn("Failed to parse message: {}", message.getError());
+                        writeError(writer, message.getId(), -32700, "Parse error: " + message.getError());
+                        continue;
+                    }
+                    if (message.isBatch()) {
+                        handleBatch(message.getBatch(), dispatcher, writer, null);
+                        continue;
+                    }
+                    JsonObject header = message.getHeader();
+                    if (header == null || !isValidMethod(header)) {
+                        writeError(writer, message.getId(), -32600, "Invalid Request");
+                        continue;
+                    }
+                    String method = header.has("method") ? header.get("method").getAsString() : null;
+                    Object id = message.getId();
                     
-                    // 如果是通知，只处理不响应
-                    if (isNotification) {
-                        handleNotification(request, method);
+                    // 如果是通知（没有 id 或 id 为 null），只处理不响应
+                    if (isNotification(header)) {
+                        JsonObject request = message.getRequest();
+                        traceReceived(request, method, id, true);
+                        handleNotification(request, method, null);
                     } else {
-                        // 立即处理请求并发送响应，不要有任何延迟
-                        JsonObject response = handleRequest(request);
-                        String responseJson = gson.toJson(response);
-                        
-                        logger.info("[LOG-INFO] Sending response: {}", responseJson);
-                        // 立即发送响应，确保客户端能收到
-                        writer.print(responseJson);
-                        writer.print('\n');
-                        writer.flush();
-                        // 强制刷新 System.out
-                        System.out.flush();
+                        // 交给调度器处理（params 在调度线程上解析），响应在请求完成后按 id 写回
+                        dispatcher.dispatch(() -> processMessage(message, method, id, writer, null));
                     }
+                } catch (JsonParseException e) {
+                    logger.warn("Failed to parse message: {}", e.getMessage());
+                    writeError(writer, message.getId(), -32700, "Parse error: " + e.getMessage());
                 } catch (Exception e) {
                     logger.error("Error processing request", e);
-                    
-                    Object requestId = null;
-                    try {
-                        if (line != null) {
-                            JsonObject req = JsonParser.parseString(line).getAsJsonObject();
-                            if (req.has("id")) {
-                                requestId = req.get("id");
-                            }
-                        }
-                    } catch (Exception ignored) {
-                        // Ignore parsing errors when creating error response
+                    writeError(writer, message.getId(), -32603, "Internal error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    void writeError(ResponseWriter writer, Object id, int code, String errorMessage) throws IOException {
+        JsonObject errorResponse = createErrorResponse(id, code, errorMessage);
+        writer.write(errorResponse);
+        logger.info("[LOG-INFO] Sent error response: {}", tracer.payload(errorResponse, true));
+    }
+
+    /**
+     * 处理 JSON-RPC 批量请求
+     * 批量中的请求交给调度器并发执行，全部完成后按请求顺序写出一个响应数组；
+     * 通知就地处理且不产生响应。批量中的工具调用不使用流式输出，结果作为数组元素返回。
+     * @param session 客户端会话（HTTP 传输），标准输入/输出为 null
+     * @return 收集响应的对象，可以等待响应写出；空批量直接写出错误响应并返回 null
+     */
+    BatchResponse handleBatch(JsonArray batch, RequestDispatcher dispatcher, ResponseWriter writer, String session)
+            throws IOException {
+        if (batch.isEmpty()) {
+            writeError(writer, null, -32600, "Invalid Request: empty batch");
+            return null;
+        }
+        logger.info("[LOG-INFO] Received batch of {} message(s)", batch.size());
+        
+        BatchResponse batchResponse = new BatchResponse(batch.size(), writer);
+        for (int i = 0; i < batch.size(); i++) {
+            JsonElement element = batch.get(i);
+            if (!element.isJsonObject() || !isValidMethod(element.getAsJsonObject())) {
+                batchResponse.complete(i, createErrorResponse(null, -32600, "Invalid Request"));
+                continue;
+            }
+            JsonObject request = element.getAsJsonObject();
+            String method = request.has("method") ? request.get("method").getAsString() : null;
+            Object id = request.has("id") ? request.get("id") : null;
+            boolean isNotification = isNotification(request);
+            boolean sampled = traceReceived(request, method, id, isNotification);
+            
+            if (isNotification) {
+                handleNotification(request, method, session);
+                batchResponse.complete(i, null);
+                continue;
+            }
+            int index = i;
+            try {
+                dispatcher.dispatch(() -> {
+                    long start = System.nanoTime();
+                    JsonObject response;
+                    try (RequestContext context = beginRequest(request, id, session)) {
+                        response = executeRequest(request, id);
+                        metrics.record(method, toolName(request), System.nanoTime() - start,
+                                       response.has("error"), context.getTimings());
                     }
-                    JsonObject errorResponse = createErrorResponse(requestId, -32603, "Internal error: " + e.getMessage());
-                    String errorJson = gson.toJson(errorResponse);
-                    logger.info("[LOG-INFO] Sending error response: {}", errorJson);
-                    writer.println(errorJson);
-                    writer.flush();
+                    logger.info("[LOG-INFO] Completed batched {} (id={}) in {} ms: {}",
+                               method, id, (System.nanoTime() - start) / 1_000_000, tracer.payload(response, sampled));
+                    batchResponse.complete(index, response);
+                });
+            } catch (RuntimeException e) {
+                logger.error("Error dispatching batched request", e);
+                batchResponse.complete(index, createErrorResponse(id, -32603, "Internal error: " + e.getMessage()));
+            }
+        }
+        return batchResponse;
+    }
+
+    static boolean isValidMethod(JsonObject request) {
+        return !request.has("method")
+            || (request.get("method").isJsonPrimitive() && request.get("method").getAsJsonPrimitive().isString());
+    }
+
+    /**
+     * 是否是通知（没有 id 或 id 为 null）
+     */
+    static boolean isNotification(JsonObject request) {
+        return !request.has("id") || request.get("id").isJsonNull();
+    }
+
+    /**
+     * 记录收到的请求，请求内容按方法/工具采样，延迟序列化，未采样时不序列化
+     * @return 是否采样，同一请求的响应使用相同结果
+     */
+    boolean traceReceived(JsonObject request, String method, Object id, boolean isNotification) {
+        boolean sampled = tracer.sample(method, toolName(request));
+        logger.info("[LOG-INFO] Received {} {} (id={}): {}",
+                   isNotification ? "notification" : "request", method, id,
+                   tracer.payload(request, sampled));
+        return sampled;
+    }
+
+    /**
+     * 解析请求的 params 后处理请求（在调度线程上执行），params 格式错误时写出解析错误
+     */
+    void processMessage(IncomingMessage message, String method, Object id, ResponseWriter writer, String session) {
+        JsonObject request;
+        try {
+            request = message.getRequest();
+        } catch (JsonParseException e) {
+            logger.warn("Failed to parse params of {} (id={}): {}", method, id, e.getMessage());
+            try {
+                writeError(writer, id, -32700, "Parse error: " + e.getMessage());
+            } catch (IOException io) {
+                logger.error("Failed to write parse error for id={}", id, io);
+            }
+            return;
+        }
+        boolean sampled = traceReceived(request, method, id, false);
+        processRequest(request, method, id, sampled, writer, session);
+    }
+
+    /**
+     * 处理单个请求并写出响应（可能在调度线程上执行）
+     * 响应写出后才记录日志，日志不会延迟响应
+     */
+    void processRequest(JsonObject request, String method, Object id, boolean sampled, ResponseWriter writer,
+                        String session) {
+        long start = System.nanoTime();
+        String tool = toolName(request);
+        try (RequestContext context = beginRequest(request, id, session)) {
+            CallTimings timings = context.getTimings();
+            JsonObject response;
+            try {
+                StreamOutcome outcome = "tools/list".equals(method)
+                    ? writeToolsList(id, writer)
+                    : tryStreamToolCall(request, id, writer);
+                if (outcome != StreamOutcome.NOT_STREAMED) {
+                    metrics.record(method, tool, System.nanoTime() - start, outcome == StreamOutcome.FAILED, timings);
+                    logger.info("[LOG-INFO] Sent streamed response for {} (id={}) in {} ms",
+                               method, id, (System.nanoTime() - start) / 1_000_000);
+                    return;
                 }
+                response = executeRequest(request, id);
+            } catch (IOException e) {
+                // 流式响应写出失败，输出可能已经部分写出，不能再写错误响应
+                logger.error("Error writing streamed response", e);
+                metrics.record(method, tool, System.nanoTime() - start, true, timings);
+                return;
+            } catch (Exception e) {
+                logger.error("Error processing request", e);
+                response = createErrorResponse(id, -32603, "Internal error: " + e.getMessage());
             }
-        } catch (IOException e) {
-            logger.error("Error reading input", e);
+            
+            try {
+                long writeStart = System.nanoTime();
+                timings.addBytesWritten(writer.write(response));
+                timings.addSerializationNanos(System.nanoTime() - writeStart);
+            } catch (IOException e) {
+                logger.error("Error writing response", e);
+                metrics.record(method, tool, System.nanoTime() - start, true, timings);
+                return;
+            }
+            metrics.record(method, tool, System.nanoTime() - start, response.has("error"), timings);
+            logger.info("[LOG-INFO] Sent response for {} (id={}) in {} ms: {}",
+                       method, id, (System.nanoTime() - start) / 1_000_000, tracer.payload(response, sampled));
+        }
+    }
+
+    /**
+     * 直接写出缓存的 tools/list 结果，不构建和序列化 JSON 树
+     */
+    private StreamOutcome writeToolsList(Object id, ResponseWriter writer) throws IOException {
+        CallTimings timings = RequestContext.timings();
+        long writeStart = System.nanoTime();
+        timings.addBytesWritten(writer.writeRaw(createResponseEnvelope(id), toolHandler.getToolsListJson()));
+        timings.addSerializationNanos(System.nanoTime() - writeStart);
+        return StreamOutcome.STREAMED;
+    }
+
+    /**
+     * tryStreamToolCall()/writeToolsList() 的处理结果
+     */
+    private enum StreamOutcome {
+        /** 不支持流式输出，由 handleRequest() 处理 */
+        NOT_STREAMED,
+        /** 已流式写出结果 */
+        STREAMED,
+        /** 打开流式结果失败，已写出错误响应 */
+        FAILED
+    }
+
+    /**
+     * 开始跟踪请求，请求期间执行的语句可以通过 notifications/cancelled 取消
+     * 工具参数 timeout_seconds 覆盖默认查询超时
+     */
+    private RequestContext beginRequest(JsonObject request, Object id, String session) {
+        if (toolName(request) != null) {
+            // 客户端没有发送 notifications/initialized 时，在首次工具调用时开始预热
+            startWarmUp();
+        }
+        Integer timeoutSeconds = null;
+        if (request.has("params") && request.get("params").isJsonObject()) {
+            JsonObject params = request.getAsJsonObject("params");
+            if (params.has("arguments") && params.get("arguments").isJsonObject()) {
+                JsonElement timeout = params.getAsJsonObject("arguments").get("timeout_seconds");
+                if (timeout != null && timeout.isJsonPrimitive() && timeout.getAsJsonPrimitive().isNumber()) {
+                    timeoutSeconds = timeout.getAsInt();
+                }
+            }
+        }
+        return databaseManager.beginRequest(requestKey(session, id), timeoutSeconds);
+    }
+
+    /**
+     * 请求 ID 的字符串形式，用于匹配取消通知中的 requestId（数字和字符串 ID 都适用）
+     * 不同会话的请求 ID 可能相同，HTTP 传输下加上会话 ID 作为前缀
+     */
+    private static String requestKey(String session, Object id) {
+        String key = requestKey(id);
+        return key == null || session == null ? key : session + "/" + key;
+    }
+
+    private static String requestKey(Object id) {
+        if (id == null) {
+            return null;
+        }
+        if (id instanceof JsonElement) {
+            JsonElement element = (JsonElement) id;
+            if (element.isJsonNull()) {
+                return null;
+            }
+            return element.isJsonPrimitive() ? element.getAsString() : element.toString();
+        }
+        return id.toString();
+    }
+
+    /**
+     * 处理请求并返回响应，异常转换为错误响应
+     */
+    private JsonObject executeRequest(JsonObject request, Object id) {
+        try {
+            return handleRequest(request);
+        } catch (Exception e) {
+            logger.error("Error processing request", e);
+            return createErrorResponse(id, -32603, "Internal error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * tools/call 请求的工具名，其他请求返回 null
+     */
+    private static String toolName(JsonObject request) {
+        if (!request.has("params") || !request.get("params").isJsonObject()) {
+            return null;
+        }
+        JsonObject params = request.getAsJsonObject("params");
+        return params.has("name") && params.get("name").isJsonPrimitive() ? params.get("name").getAsString() : null;
+    }
+
+    /**
+     * 对支持流式输出的工具调用，直接将结果写入输出
+     * 写出过程中逐行读取结果，写出耗时扣除其中的 JDBC 和行转换耗时后计为序列化耗时
+     */
+    private StreamOutcome tryStreamToolCall(JsonObject request, Object id, ResponseWriter writer) throws IOException {
+        if (!request.has("method") || !"tools/call".equals(request.get("method").getAsString())
+            || !request.has("params")) {
+            return StreamOutcome.NOT_STREAMED;
+        }
+        JsonObject params = request.getAsJsonObject("params");
+        if (!params.has("name")) {
+            return StreamOutcome.NOT_STREAMED;
+        }
+        String toolName = params.get("name").getAsString();
+        JsonObject arguments = params.has("arguments")
+            ? params.getAsJsonObject("arguments")
+            : new JsonObject();
+
+        StreamingResult result;
+        try {
+            result = toolHandler.openStreamingCall(toolName, arguments);
+        } catch (Exception e) {
+            logger.error("Error executing tool: {}", toolName, e);
+            JsonObject errorResponse = createErrorResponse(id, -32603, "Error executing tool: " + e.getMessage());
+            RequestContext.timings().addBytesWritten(writer.write(errorResponse));
+            logger.info("[LOG-INFO] Tool call failed, sent error response: {}", tracer.payload(errorResponse, true));
+            return StreamOutcome.FAILED;
         }
+        if (result == null) {
+            return StreamOutcome.NOT_STREAMED;
+        }
+
+        CallTimings timings = RequestContext.timings();
+        long readNanos = timings.getJdbcNanos() + timings.getConversionNanos();
+        long writeStart = System.nanoTime();
+        try (StreamingResult streaming = result) {
+            timings.addBytesWritten(writer.writeStreaming(createResponseEnvelope(id), streaming));
+        } finally {
+            long writeNanos = System.nanoTime() - writeStart;
+            readNanos = timings.getJdbcNanos() + timings.getConversionNanos() - readNanos;
+            timings.addSerializationNanos(Math.max(0, writeNanos - readNanos));
+        }
+        return StreamOutcome.STREAMED;
     }
 
     /**
      * 处理通知（没有 id 的请求，不需要响应）
      */
-    private void handleNotification(JsonObject notification, String method) {
+    void handleNotification(JsonObject notification, String method, String session) {
         if (method == null) {
             logger.warn("Received notification without method");
             return;
@@ -124,9 +499,12 @@ public class MCPServer {
         // 处理各种通知
         switch (method) {
             case "notifications/initialized":
-                String notificationJson = gson.toJson(notification);
-                logger.info("[LOG-INFO] Received initialized notification: {}", notificationJson);
+                logger.info("[LOG-INFO] Client initialized");
                 // 客户端已初始化完成，不需要响应
+                startWarmUp();
+                break;
+            case "notifications/cancelled":
+                handleCancelled(notification, session);
                 break;
             default:
                 logger.debug("Received unknown notification: {}", method);
@@ -134,6 +512,29 @@ public class MCPServer {
         }
     }
 
+    /**
+     * 取消正在执行的请求，中止其正在执行的 SQL 语句
+     * 被取消的请求仍会返回错误响应，客户端按 MCP 规范忽略即可
+     */
+    private void handleCancelled(JsonObject notification, String session) {
+        JsonObject params = notification.has("params") && notification.get("params").isJsonObject()
+            ? notification.getAsJsonObject("params")
+            : new JsonObject();
+        String requestId = requestKey(session, params.get("requestId"));
+        String reason = params.has("reason") && params.get("reason").isJsonPrimitive()
+            ? params.get("reason").getAsString()
+            : null;
+        if (requestId == null) {
+            logger.warn("Received cancellation without requestId");
+            return;
+        }
+        if (databaseManager.cancelRequest(requestId)) {
+            logger.info("[LOG-INFO] Cancelled request {} (reason: {})", requestId, reason);
+        } else {
+            logger.info("[LOG-INFO] Cancellation for request {} ignored, request is not in progress", requestId);
+        }
+    }
+
     private JsonObject handleRequest(JsonObject request) {
         String method = request.has("method") ? request.get("method").getAsString() : null;
         Object id = request.has("id") ? request.get("id") : null;
@@ -157,8 +558,6 @@ public class MCPServer {
     }
 
     private JsonObject handleInitialize(JsonObject request, Object id) {
-        String requestJson = gson.toJson(request);
-        logger.info("[LOG-INFO] Received initialize request: {}", requestJson);
         JsonObject result = new JsonObject();
         result.addProperty("protocolVersion", "2024-11-05");
         result.addProperty("serverVersion", "1.0.0");
@@ -180,11 +579,7 @@ public class MCPServer {
     }
 
     private JsonObject handleToolsList(JsonObject request, Object id) {
-        String requestJson = gson.toJson(request);
-        logger.info("[LOG-INFO] Received tools/list request: {}", requestJson);
         JsonObject toolsList = toolHandler.getToolsList();
-        String responseJson = gson.toJson(createSuccessResponse(id, toolsList));
-        logger.info("[LOG-INFO] Sending tools/list response: {}", responseJson);
         return createSuccessResponse(id, toolsList);
     }
 
@@ -203,26 +598,19 @@ public class MCPServer {
             ? params.getAsJsonObject("arguments") 
             : new JsonObject();
 
-        String requestJson = gson.toJson(request);
-        logger.info("[LOG-INFO] Received tools/call request: {}", requestJson);
-        logger.info("[LOG-INFO] Calling tool: {}, arguments: {}", toolName, gson.toJson(arguments));
-        
         try {
             JsonObject result = toolHandler.callTool(toolName, arguments);
-            JsonObject response = createSuccessResponse(id, result);
-            String responseJson = gson.toJson(response);
-            logger.info("[LOG-INFO] Tool call success, sending response: {}", responseJson);
-            return response;
+            return createSuccessResponse(id, result);
         } catch (Exception e) {
             logger.error("Error executing tool: {}", toolName, e);
-            JsonObject errorResponse = createErrorResponse(id, -32603, "Error executing tool: " + e.getMessage());
-            String errorJson = gson.toJson(errorResponse);
-            logger.info("[LOG-INFO] Tool call failed, sending error response: {}", errorJson);
-            return errorResponse;
+            return createErrorResponse(id, -32603, "Error executing tool: " + e.getMessage());
         }
     }
 
-    private JsonObject createSuccessResponse(Object id, JsonObject result) {
+    /**
+     * 创建只包含 jsonrpc 和 id 的响应对象
+     */
+    private JsonObject createResponseEnvelope(Object id) {
         JsonObject response = new JsonObject();
         response.addProperty("jsonrpc", "2.0");
         // JSON-RPC 2.0: id must be included in response, matching the request id
@@ -239,27 +627,17 @@ public class MCPServer {
             // If id is null, use 0 as default (some clients require non-null id)
             response.addProperty("id", 0);
         }
+        return response;
+    }
+
+    private JsonObject createSuccessResponse(Object id, JsonObject result) {
+        JsonObject response = createResponseEnvelope(id);
         response.add("result", result);
         return response;
     }
 
-    private JsonObject createErrorResponse(Object id, int code, String message) {
-        JsonObject response = new JsonObject();
-        response.addProperty("jsonrpc", "2.0");
-        // JSON-RPC 2.0: id must be included in error response, matching the request id
-        // Ensure id is never null - use 0 as default if id is null
-        if (id != null) {
-            if (id instanceof Number) {
-                response.addProperty("id", ((Number) id).doubleValue());
-            } else if (id instanceof String) {
-                response.addProperty("id", (String) id);
-            } else {
-                response.add("id", gson.toJsonTree(id));
-            }
-        } else {
-            // If id is null, use 0 as default (some clients require non-null id)
-            response.addProperty("id", 0);
-        }
+    JsonObject createErrorResponse(Object id, int code, String message) {
+        JsonObject response = createResponseEnvelope(id);
         
         JsonObject error = new JsonObject();
         error.addProperty("code", code);
@@ -0,0 +1,142 @@
+package com.mysqlmcp.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 从通道按行读取消息（每行一条 JSON-RPC 消息）
+ * 字节从池化缓冲区直接复制到可复用的行缓冲区，不解码为字符串，由 IncomingMessage 直接从字节解析。
+ * 超过 maxLineBytes 的行不再复制，丢弃到下一个换行符为止，缓冲区不会因为一行未结束的输入无限增长。
+ */
+final class MessageReader implements Closeable {
+    private static final int INITIAL_LINE_CAPACITY = 8 * 1024;
+    /** 超过该大小的行缓冲区在下一行开始时释放，避免一次大请求长期占用内存 */
+    private static final int MAX_RETAINED_LINE_CAPACITY = 1024 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final BufferPool pool;
+    private final int maxLineBytes;
+    private ByteBuffer buffer;
+    private byte[] line = new byte[INITIAL_LINE_CAPACITY];
+    private int length;
+    private boolean tooLong;
+    private boolean endOfInput;
+
+    MessageReader(ReadableByteChannel channel, BufferPool pool, int maxLineBytes) {
+        this.channel = channel;
+        this.pool = pool;
+        this.maxLineBytes = Math.max(1, maxLineBytes);
+        this.buffer = pool.acquire();
+        this.buffer.flip();
+    }
+
+    /**
+     * 从系统属性/环境变量读取单行最大字节数
+     */
+    static MessageReader fromEnvironment(ReadableByteChannel channel, BufferPool pool) {
+        int maxLineBytes = ServerConfig.getInt("mcp.stdio.maxLineBytes", "MCP_STDIO_MAX_LINE_BYTES", 64 * 1024 * 1024);
+        return new MessageReader(channel, pool, maxLineBytes);
+    }
+
+    /**
+     * 读取下一行（不含行尾的 \n 和 \r），超过上限的行由 isTooLong() 标记，内容为空
+     * @return 输入结束时返回 false
+     */
+    boolean next() throws IOException {
+        if (line.length > MAX_RETAINED_LINE_CAPACITY) {
+            line = new byte[INITIAL_LINE_CAPACITY];
+        }
+        length = 0;
+        tooLong = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                if (endOfInput) {
+                    return length > 0 || tooLong;
+                }
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    endOfInput = true;
+                }
+                continue;
+            }
+            int start = buffer.position();
+            int limit = buffer.limit();
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            append(end - start);
+            if (end < limit) {
+                buffer.position(end + 1);
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void append(int count) {
+        if (tooLong || length + count > maxLineBytes) {
+            // 超过上限后丢弃本行剩余内容，只继续寻找行尾
+            tooLong = true;
+            length = 0;
+            buffer.position(buffer.position() + count);
+            return;
+        }
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.min(Math.max(line.length * 2, length + count), maxLineBytes));
+        }
+        buffer.get(line, length, count);
+        length += count;
+    }
+
+    /**
+     * 当前行的字节，只有前 length() 个字节有效，读取下一行后内容会被覆盖
+     */
+    byte[] array() {
+        return line;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * 当前行是否超过 maxLineBytes 而被丢弃
+     */
+    boolean isTooLong() {
+        return tooLong;
+    }
+
+    int getMaxLineBytes() {
+        return maxLineBytes;
+    }
+
+    /**
+     * 当前行是否只包含空白字符
+     */
+    boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            byte b = line[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pool.release(buffer);
+        buffer = null;
+        channel.close();
+    }
+}
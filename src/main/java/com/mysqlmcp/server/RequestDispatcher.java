@@ -0,0 +1,149 @@
+package com.mysqlmcp.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 请求调度器
+ * concurrent 模式下每个请求在独立线程（JDK 21+ 为虚拟线程，否则为有界线程池）中执行，
+ * 并通过信号量限制同时处理的请求数，避免突发请求耗尽数据库连接池；
+ * sequential 模式下请求在读取线程上依次执行（与旧版本行为一致）。
+ */
+public class RequestDispatcher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RequestDispatcher.class);
+
+    private final boolean concurrent;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+
+    public RequestDispatcher(boolean concurrent, int maxInFlight) {
+        this.concurrent = concurrent;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        // sequential 模式下 runInCurrentThread 的调用也逐个执行
+        this.inFlight = new Semaphore(concurrent ? this.maxInFlight : 1);
+        this.executor = concurrent ? createExecutor(this.maxInFlight) : null;
+        logger.info("Request dispatch mode: {}, maxInFlight={}",
+            concurrent ? "concurrent" : "sequential", this.maxInFlight);
+    }
+
+    /**
+     * 根据配置创建调度器
+     * @param defaultMaxInFlight 未配置 mcp.dispatch.maxInFlight 时的默认值（通常为连接池最大连接数）
+     */
+    public static RequestDispatcher fromEnvironment(int defaultMaxInFlight) {
+        String mode = ServerConfig.getString("mcp.dispatch.mode", "MCP_DISPATCH_MODE", "concurrent");
+        int maxInFlight = ServerConfig.getInt("mcp.dispatch.maxInFlight", "MCP_DISPATCH_MAX_IN_FLIGHT", defaultMaxInFlight);
+        return new RequestDispatcher(!"sequential".equalsIgnoreCase(mode), maxInFlight);
+    }
+
+    /**
+     * 提交一个请求任务
+     * 达到并发上限时阻塞调用方（读取线程），从而对输入形成背压
+     */
+    public void dispatch(Runnable task) {
+        if (!concurrent) {
+            task.run();
+            return;
+        }
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a dispatch slot", e);
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 在调用线程上执行一个请求，与 dispatch 共用并发上限（sequential 模式下逐个执行）
+     * 用于自带线程的传输（例如 HTTP），达到上限时阻塞调用线程直到有请求完成
+     */
+    public void runInCurrentThread(Runnable task) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            task.run();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 当前正在处理的请求数
+     */
+    public int getInFlightCount() {
+        return (concurrent ? maxInFlight : 1) - inFlight.availablePermits();
+    }
+
+    /**
+     * 等待已提交的请求全部完成后关闭
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+                logger.warn("Timed out waiting for {} in-flight request(s)", getInFlightCount());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 优先使用虚拟线程（JDK 21+），否则退回到固定大小的线程池
+     */
+    private static ExecutorService createExecutor(int threads) {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("Using virtual threads for request dispatch");
+            return virtual;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.info("Virtual threads not available, using bounded pool of {} threads", threads);
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "mcp-request-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+}
@@ -0,0 +1,162 @@
+package com.mysqlmcp.server;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.mysqlmcp.tools.StreamingResult;
+
+/**
+ * 串行化的响应写出器
+ * 并发处理的请求完成后各自调用 write()，由本类保证每条响应完整地写成一行，不会相互穿插；
+ * 事件流模式下每条响应写成一个 SSE 事件（HTTP 传输）
+ */
+public class ResponseWriter implements AutoCloseable {
+    private static final Gson gson = new Gson();
+    private final ByteCountingWriter out;
+    private final boolean eventStream;
+
+    public ResponseWriter(Writer out) {
+        this(out, false);
+    }
+
+    /**
+     * @param eventStream 为 true 时按 text/event-stream 格式写出（event: message + data: 一行 JSON）
+     */
+    public ResponseWriter(Writer out, boolean eventStream) {
+        this.out = new ByteCountingWriter(out);
+        this.eventStream = eventStream;
+    }
+
+    /**
+     * 写出一条响应（一行 JSON）并立即刷新
+     * @return 写出的字节数（UTF-8）
+     */
+    public synchronized long write(JsonElement response) throws IOException {
+        long before = out.getBytes();
+        beginMessage();
+        gson.toJson(response, out);
+        endMessage();
+        out.flush();
+        return out.getBytes() - before;
+    }
+
+    /**
+     * 流式写出一条成功响应
+     * 先写出响应头字段（jsonrpc、id），再由 result 直接写入输出，不构建完整的 JSON 字符串
+     * @param envelope 不含 result 的响应对象
+     * @return 写出的字节数（UTF-8）
+     */
+    public synchronized long writeStreaming(JsonObject envelope, StreamingResult result) throws IOException {
+        long before = out.getBytes();
+        beginMessage();
+        JsonWriter jsonWriter = new JsonWriter(out);
+        jsonWriter.beginObject();
+        for (Map.Entry<String, JsonElement> member : envelope.entrySet()) {
+            jsonWriter.name(member.getKey());
+            gson.toJson(member.getValue(), jsonWriter);
+        }
+        jsonWriter.name("result");
+        result.writeTo(jsonWriter);
+        jsonWriter.endObject();
+        jsonWriter.flush();
+        endMessage();
+        out.flush();
+        return out.getBytes() - before;
+    }
+
+    /**
+     * 写出一条成功响应，result 为已经序列化好的 JSON（例如缓存的 tools/list 结果），不再重新序列化
+     * @param envelope 不含 result 的响应对象
+     * @return 写出的字节数（UTF-8）
+     */
+    public synchronized long writeRaw(JsonObject envelope, String resultJson) throws IOException {
+        long before = out.getBytes();
+        beginMessage();
+        JsonWriter jsonWriter = new JsonWriter(out);
+        jsonWriter.beginObject();
+        for (Map.Entry<String, JsonElement> member : envelope.entrySet()) {
+            jsonWriter.name(member.getKey());
+            gson.toJson(member.getValue(), jsonWriter);
+        }
+        jsonWriter.name("result").jsonValue(resultJson);
+        jsonWriter.endObject();
+        jsonWriter.flush();
+        endMessage();
+        out.flush();
+        return out.getBytes() - before;
+    }
+
+    private void beginMessage() throws IOException {
+        if (eventStream) {
+            out.write("event: message\ndata: ");
+        }
+    }
+
+    /**
+     * Gson 输出的 JSON 不含换行，一条响应正好是一个 data 行
+     */
+    private void endMessage() throws IOException {
+        out.write(eventStream ? "\n\n" : "\n");
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * 按 UTF-8 编码长度统计写出的字节数
+     */
+    private static final class ByteCountingWriter extends FilterWriter {
+        private long bytes;
+
+        private ByteCountingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            bytes += utf8Length((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            for (int i = off; i < off + len; i++) {
+                bytes += utf8Length(cbuf[i]);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+            for (int i = off; i < off + len; i++) {
+                bytes += utf8Length(str.charAt(i));
+            }
+        }
+
+        /**
+         * 代理对的两个字符各计 2 字节，合计为 4 字节
+         */
+        private static int utf8Length(char c) {
+            if (c < 0x80) {
+                return 1;
+            }
+            if (c < 0x800 || Character.isSurrogate(c)) {
+                return 2;
+            }
+            return 3;
+        }
+
+        private long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mysqlmcp.tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 统计已读取字节数的输入流，用于报告文件导入进度
+ */
+class CountingInputStream extends FilterInputStream {
+    private final AtomicLong counter;
+
+    CountingInputStream(InputStream in, AtomicLong counter) {
+        super(in);
+        this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            counter.incrementAndGet();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            counter.addAndGet(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        counter.addAndGet(skipped);
+        return skipped;
+    }
+}
@@ -0,0 +1,151 @@
+package com.mysqlmcp.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mysqlmcp.config.ServerConfig;
+import com.mysqlmcp.database.DatabaseManager;
+import com.mysqlmcp.database.QueryStream;
+import com.mysqlmcp.database.SpillBuffer;
+
+/**
+ * 管理 query_open 打开的游标
+ * 游标在空闲超过 TTL 后自动关闭；未读完的游标占用一个连接池连接，因此限制同时打开的数量。
+ */
+class CursorManager implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CursorManager.class);
+    /** 未指定 page_size 时每页的行数 */
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final DatabaseManager databaseManager;
+    private final int maxOpen;
+    private final long ttlMs;
+    private final long memoryThresholdBytes;
+    private final int segmentSize;
+    private final Path spillDir;
+    private final int maxPageSize;
+
+    private final Map<String, QueryCursor> cursors = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reaper;
+    private final LongAdder openedCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    CursorManager(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        this.maxOpen = Math.max(1, ServerConfig.getInt("mcp.cursor.maxOpen", "MCP_CURSOR_MAX_OPEN", 8));
+        this.ttlMs = Math.max(1000, ServerConfig.getLong("mcp.cursor.ttlMs", "MCP_CURSOR_TTL_MS", 300_000));
+        this.memoryThresholdBytes = ServerConfig.getLong("mcp.cursor.memoryThresholdBytes",
+            "MCP_CURSOR_MEMORY_THRESHOLD_BYTES", 8L * 1024 * 1024);
+        this.segmentSize = Math.max(64 * 1024, ServerConfig.getInt("mcp.cursor.spillSegmentBytes",
+            "MCP_CURSOR_SPILL_SEGMENT_BYTES", 16 * 1024 * 1024));
+        String dir = ServerConfig.getString("mcp.cursor.spillDir", "MCP_CURSOR_SPILL_DIR", null);
+        this.spillDir = dir != null ? Paths.get(dir) : null;
+        this.maxPageSize = Math.max(1, ServerConfig.getInt("mcp.cursor.maxPageSize", "MCP_CURSOR_MAX_PAGE_SIZE", 10_000));
+
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mcp-cursor-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.min(30_000, ttlMs);
+        reaper.scheduleWithFixedDelay(this::expireIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 执行查询并打开游标
+     * @param materialize 是否立即读取全部结果并释放连接
+     */
+    QueryCursor open(String sql, List<Object> params, boolean materialize) throws SQLException, IOException {
+        if (cursors.size() >= maxOpen) {
+            throw new IllegalStateException("Too many open cursors (max " + maxOpen + "), close unused cursors first");
+        }
+        QueryStream stream = databaseManager.openQueryStream(sql, params);
+        QueryCursor cursor = new QueryCursor(UUID.randomUUID().toString(), sql, stream,
+            new SpillBuffer(memoryThresholdBytes, segmentSize, spillDir));
+        cursors.put(cursor.getId(), cursor);
+        openedCount.increment();
+        logger.debug("Opened cursor {} for: {}", cursor.getId(), sql);
+        if (materialize) {
+            try {
+                cursor.materialize();
+            } catch (SQLException | IOException | RuntimeException e) {
+                close(cursor.getId());
+                throw e;
+            }
+        }
+        return cursor;
+    }
+
+    QueryCursor get(String id) {
+        QueryCursor cursor = cursors.get(id);
+        if (cursor == null) {
+            throw new IllegalArgumentException("Unknown or expired cursor: " + id);
+        }
+        return cursor;
+    }
+
+    boolean close(String id) {
+        QueryCursor cursor = cursors.remove(id);
+        if (cursor == null) {
+            return false;
+        }
+        cursor.close();
+        logger.debug("Closed cursor {}", id);
+        return true;
+    }
+
+    /**
+     * 把页大小限制在 1 到 mcp.cursor.maxPageSize 之间
+     */
+    int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, maxPageSize));
+    }
+
+    long getTtlMs() {
+        return ttlMs;
+    }
+
+    Collection<QueryCursor> getCursors() {
+        return cursors.values();
+    }
+
+    long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    private void expireIdle() {
+        long deadline = System.currentTimeMillis() - ttlMs;
+        for (QueryCursor cursor : cursors.values()) {
+            if (cursor.getLastAccess() < deadline && close(cursor.getId())) {
+                expiredCount.increment();
+                logger.info("Cursor {} expired after {} ms idle", cursor.getId(), ttlMs);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+        for (String id : cursors.keySet()) {
+            close(id);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.mysqlmcp.tools;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+import cn.hutool.core.text.csv.CsvParser;
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvRow;
+
+/**
+ * 从本地文件逐行读取待导入数据
+ * 每次 next() 只解析一行，内存占用与文件大小无关
+ */
+abstract class FileRowSource implements Iterator<List<Object>>, Closeable {
+    protected final LoadProgress progress;
+    private List<Object> nextRow;
+    private boolean finished;
+
+    protected FileRowSource(LoadProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * 目标表的列名（与每行值的顺序一致）
+     */
+    abstract List<String> getTargetColumns();
+
+    /**
+     * 读取下一行，文件结束时返回 null
+     */
+    protected abstract List<Object> readRow() throws IOException;
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !finished) {
+            try {
+                nextRow = readRow();
+            } catch (IOException e) {
+                throw new IllegalStateException("Error reading file: " + e.getMessage(), e);
+            }
+            finished = nextRow == null;
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public List<Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<Object> row = nextRow;
+        nextRow = null;
+        progress.rowsRead.incrementAndGet();
+        return row;
+    }
+
+    static BufferedReader openReader(Path path, LoadProgress progress) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+            new CountingInputStream(Files.newInputStream(path), progress.bytesRead), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * CSV 文件
+     * columns 为数组时按位置映射到目标列（null 表示跳过该字段）；为对象时按表头名映射；
+     * 未指定时使用表头作为列名
+     */
+    static class Csv extends FileRowSource {
+        private final CsvParser parser;
+        private final List<String> targetColumns = new ArrayList<>();
+        private final List<Integer> sourceIndexes = new ArrayList<>();
+        private final String nullValue;
+
+        Csv(Path path, LoadProgress progress, char delimiter, boolean header, JsonElement columns, String nullValue)
+                throws IOException {
+            super(progress);
+            this.nullValue = nullValue;
+            CsvReadConfig config = CsvReadConfig.defaultConfig();
+            config.setFieldSeparator(delimiter);
+            config.setContainsHeader(false);
+            config.setSkipEmptyRows(true);
+            this.parser = new CsvParser(openReader(path, progress), config);
+
+            List<String> headerNames = null;
+            if (header) {
+                CsvRow headerRow = parser.nextRow();
+                headerNames = headerRow == null ? new ArrayList<>() : new ArrayList<>(headerRow.getRawList());
+            }
+            resolveColumns(columns, headerNames, targetColumns, sourceIndexes);
+        }
+
+        /**
+         * 根据 columns 参数和表头计算目标列及其在文件中的位置
+         */
+        static void resolveColumns(JsonElement columns, List<String> headerNames,
+                                   List<String> targetColumns, List<Integer> sourceIndexes) {
+            if (columns == null || columns.isJsonNull()) {
+                if (headerNames == null) {
+                    throw new IllegalArgumentException("Parameter columns is required when the CSV file has no header");
+                }
+                for (int i = 0; i < headerNames.size(); i++) {
+                    targetColumns.add(headerNames.get(i).trim());
+                    sourceIndexes.add(i);
+                }
+            } else if (columns.isJsonArray()) {
+                JsonArray array = columns.getAsJsonArray();
+                for (int i = 0; i < array.size(); i++) {
+                    if (!array.get(i).isJsonNull()) {
+                        targetColumns.add(array.get(i).getAsString());
+                        sourceIndexes.add(i);
+                    }
+                }
+            } else if (columns.isJsonObject()) {
+                if (headerNames == null) {
+                    throw new IllegalArgumentException("Mapping columns by name requires a CSV header");
+                }
+                for (Map.Entry<String, JsonElement> entry : columns.getAsJsonObject().entrySet()) {
+                    int index = headerNames.indexOf(entry.getKey());
+                    if (index < 0) {
+                        throw new IllegalArgumentException("Column not found in CSV header: " + entry.getKey());
+                    }
+                    targetColumns.add(entry.getValue().getAsString());
+                    sourceIndexes.add(index);
+                }
+            } else {
+                throw new IllegalArgumentException("Parameter columns must be an array or an object");
+            }
+            if (targetColumns.isEmpty()) {
+                throw new IllegalArgumentException("No columns to load");
+            }
+        }
+
+        @Override
+        List<String> getTargetColumns() {
+            return targetColumns;
+        }
+
+        @Override
+        protected List<Object> readRow() {
+            CsvRow row = parser.nextRow();
+            if (row == null) {
+                return null;
+            }
+            List<String> fields = row.getRawList();
+            List<Object> values = new ArrayList<>(sourceIndexes.size());
+            for (int index : sourceIndexes) {
+                String value = index < fields.size() ? fields.get(index) : null;
+                values.add(value == null || value.equals(nullValue) ? null : value);
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    /**
+     * NDJSON 文件（每行一个 JSON 对象）
+     * columns 为数组时表示要导入的键（列名相同）；为对象时表示键到列名的映射；未指定时使用第一行的键
+     */
+    static class Ndjson extends FileRowSource {
+        private final BufferedReader reader;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> targetColumns = new ArrayList<>();
+        private JsonObject pending;
+        private long lineNumber;
+
+        Ndjson(Path path, LoadProgress progress, JsonElement columns) throws IOException {
+            super(progress);
+            this.reader = openReader(path, progress);
+
+            if (columns == null || columns.isJsonNull()) {
+                pending = readObject();
+                if (pending != null) {
+                    keys.addAll(pending.keySet());
+                    targetColumns.addAll(pending.keySet());
+                }
+            } else if (columns.isJsonArray()) {
+                for (JsonElement column : columns.getAsJsonArray()) {
+                    keys.add(column.getAsString());
+                    targetColumns.add(column.getAsString());
+                }
+            } else if (columns.isJsonObject()) {
+                for (Map.Entry<String, JsonElement> entry : columns.getAsJsonObject().entrySet()) {
+                    keys.add(entry.getKey());
+                    targetColumns.add(entry.getValue().getAsString());
+                }
+            } else {
+                throw new IllegalArgumentException("Parameter columns must be an array or an object");
+            }
+            if (targetColumns.isEmpty()) {
+                throw new IllegalArgumentException("No columns to load");
+            }
+        }
+
+        private JsonObject readObject() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    JsonElement element = JsonParser.parseString(line);
+                    if (!element.isJsonObject()) {
+                        throw new IllegalArgumentException("Line " + lineNumber + " is not a JSON object");
+                    }
+                    return element.getAsJsonObject();
+                } catch (JsonSyntaxException e) {
+                    throw new IllegalArgumentException("Invalid JSON at line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        List<String> getTargetColumns() {
+            return targetColumns;
+        }
+
+        @Override
+        protected List<Object> readRow() throws IOException {
+            JsonObject object = pending != null ? pending : readObject();
+            pending = null;
+            if (object == null) {
+                return null;
+            }
+            List<Object> values = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                values.add(JsonValues.toJavaValue(object.get(key)));
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
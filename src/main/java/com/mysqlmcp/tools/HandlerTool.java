@@ -0,0 +1,58 @@
+package com.mysqlmcp.tools;
+
+import java.sql.SQLException;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 由定义和处理函数组成的工具，用于内置工具
+ */
+final class HandlerTool implements Tool {
+    private final String name;
+    private final JsonObject definition;
+    private final Handler handler;
+    private final StreamingHandler streamingHandler;
+
+    /**
+     * 工具调用处理函数
+     */
+    @FunctionalInterface
+    interface Handler {
+        JsonObject call(JsonObject arguments) throws SQLException;
+    }
+
+    /**
+     * 流式调用处理函数，不支持时返回 null
+     */
+    @FunctionalInterface
+    interface StreamingHandler {
+        StreamingResult open(JsonObject arguments) throws SQLException;
+    }
+
+    HandlerTool(JsonObject definition, Handler handler, StreamingHandler streamingHandler) {
+        this.name = definition.get("name").getAsString();
+        this.definition = definition;
+        this.handler = handler;
+        this.streamingHandler = streamingHandler;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public JsonObject getDefinition() {
+        return definition;
+    }
+
+    @Override
+    public JsonObject call(JsonObject arguments) throws SQLException {
+        return handler.call(arguments);
+    }
+
+    @Override
+    public StreamingResult openStreaming(JsonObject arguments) throws SQLException {
+        return streamingHandler != null ? streamingHandler.open(arguments) : null;
+    }
+}
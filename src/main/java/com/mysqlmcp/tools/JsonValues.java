@@ -0,0 +1,90 @@
+package com.mysqlmcp.tools;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * 数据库值到 JSON 值的转换
+ * 数字和布尔值保持原类型，其他类型转换为字符串
+ */
+final class JsonValues {
+
+    private JsonValues() {
+    }
+
+    static JsonElement toJsonElement(Object value) {
+        if (value == null) {
+            return JsonNull.INSTANCE;
+        } else if (value instanceof Number) {
+            return new JsonPrimitive((Number) value);
+        } else if (value instanceof Boolean) {
+            return new JsonPrimitive((Boolean) value);
+        } else {
+            return new JsonPrimitive(value.toString());
+        }
+    }
+
+    /**
+     * 将 JSON 参数值转换为 JDBC 绑定值
+     * 整数转为 Long，小数转为 BigDecimal，对象和数组转为 JSON 字符串
+     */
+    static Object toJavaValue(JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            return null;
+        }
+        if (!element.isJsonPrimitive()) {
+            return element.toString();
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isBoolean()) {
+            return primitive.getAsBoolean();
+        }
+        if (primitive.isNumber()) {
+            BigDecimal number = primitive.getAsBigDecimal();
+            if (number.scale() <= 0) {
+                try {
+                    return number.longValueExact();
+                } catch (ArithmeticException e) {
+                    return number;
+                }
+            }
+            return number;
+        }
+        return primitive.getAsString();
+    }
+
+    /**
+     * 将 JSON 数组转换为 JDBC 绑定参数列表，数组为 null 时返回空列表
+     */
+    static List<Object> toJavaValues(JsonArray array) {
+        if (array == null) {
+            return Collections.emptyList();
+        }
+        List<Object> values = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            values.add(toJavaValue(element));
+        }
+        return values;
+    }
+
+    static void write(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else {
+            writer.value(value.toString());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mysqlmcp.tools;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 文件导入进度计数器
+ */
+class LoadProgress {
+    private final String id;
+    private final String path;
+    private final String table;
+    private final long fileSize;
+    private final long startedAt = System.currentTimeMillis();
+    final AtomicLong bytesRead = new AtomicLong();
+    final AtomicLong rowsRead = new AtomicLong();
+    final AtomicLong rowsCommitted = new AtomicLong();
+    final AtomicLong chunksCommitted = new AtomicLong();
+
+    LoadProgress(String id, String path, String table, long fileSize) {
+        this.id = id;
+        this.path = path;
+        this.table = table;
+        this.fileSize = fileSize;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    long getElapsedMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", id);
+        json.addProperty("path", path);
+        json.addProperty("table", table);
+        json.addProperty("fileSize", fileSize);
+        json.addProperty("bytesRead", bytesRead.get());
+        json.addProperty("rowsRead", rowsRead.get());
+        json.addProperty("rowsCommitted", rowsCommitted.get());
+        json.addProperty("chunksCommitted", chunksCommitted.get());
+        json.addProperty("elapsedMs", getElapsedMillis());
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return "load " + id + " " + path + " -> " + table + ": " + rowsCommitted.get() + " rows committed, "
+            + bytesRead.get() + "/" + fileSize + " bytes read";
+    }
+}
@@ -1,8 +1,21 @@
 package com.mysqlmcp.tools;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,7 +23,31 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.mysqlmcp.config.ServerConfig;
+import com.mysqlmcp.database.AdmissionDecision;
+import com.mysqlmcp.database.BatchResult;
+import com.mysqlmcp.database.CacheStats;
+import com.mysqlmcp.database.CacheStatus;
 import com.mysqlmcp.database.DatabaseManager;
+import com.mysqlmcp.database.PoolStats;
+import com.mysqlmcp.database.QueryAdmission;
+import com.mysqlmcp.database.QueryResult;
+import com.mysqlmcp.database.QueryResultCache;
+import com.mysqlmcp.database.ReplicaRouter;
+import com.mysqlmcp.database.ReplicaStats;
+import com.mysqlmcp.database.ResultLimits;
+import com.mysqlmcp.database.ResultMemoryBudget;
+import com.mysqlmcp.database.RowStream;
+import com.mysqlmcp.database.SchemaPage;
+import com.mysqlmcp.database.ScriptResult;
+import com.mysqlmcp.database.ShardGroup;
+import com.mysqlmcp.database.ShardedQuery;
+import com.mysqlmcp.database.SqlStatements;
+import com.mysqlmcp.metrics.ServerMetrics;
+
+import cn.hutool.core.text.csv.CsvParser;
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvRow;
 
 /**
  * MCP工具处理器
@@ -18,89 +55,258 @@ import com.mysqlmcp.database.DatabaseManager;
  */
 public class MCPToolHandler {
     private static final Logger logger = LoggerFactory.getLogger(MCPToolHandler.class);
+    /** describe_schema 每页的默认表数和最大表数 */
+    static final int DEFAULT_SCHEMA_PAGE_TABLES = 100;
+    static final int MAX_SCHEMA_PAGE_TABLES = 1000;
+    /** execute_script 结果中语句摘要的最大长度 */
+    private static final int SCRIPT_PREVIEW_LENGTH = 120;
     private final DatabaseManager databaseManager;
+    /** execute_query 未指定 stream 参数时是否使用流式输出 */
+    private final boolean streamQueriesByDefault;
+    /** insert_batch 未指定 chunk_size 时每个事务的行数 */
+    private final int defaultBatchChunkSize;
+    /** load_file 允许读取的目录（真实路径），为 null 时不注册 load_file */
+    private final Path loadFileAllowedDir;
+    /** 正在执行的文件导入 */
+    private final Map<String, LoadProgress> activeLoads = new ConcurrentHashMap<>();
+    private final AtomicLong loadSequence = new AtomicLong();
+    /** query_open 打开的游标 */
+    private final CursorManager cursorManager;
+    /** 按工具统计的结果缓存命中情况 */
+    private final ToolCacheStats toolCacheStats = new ToolCacheStats();
+    /** 按方法/工具统计的调用延迟 */
+    private final ServerMetrics metrics;
+    /** 已注册的工具 */
+    private final ToolRegistry registry = new ToolRegistry();
 
     public MCPToolHandler(DatabaseManager databaseManager) {
+        this(databaseManager, new ServerMetrics(false));
+    }
+
+    public MCPToolHandler(DatabaseManager databaseManager, ServerMetrics metrics) {
         this.databaseManager = databaseManager;
+        this.metrics = metrics;
+        this.streamQueriesByDefault = ServerConfig.getBoolean("mcp.query.stream", "MCP_QUERY_STREAM", true);
+        this.defaultBatchChunkSize = ServerConfig.getInt("mysql.batch.chunkSize", "MYSQL_BATCH_CHUNK_SIZE", 1000);
+        this.loadFileAllowedDir = resolveLoadFileAllowedDir();
+        this.cursorManager = new CursorManager(databaseManager);
+        registerBuiltInTools();
+        loadToolProviders();
     }
 
     /**
-     * 获取所有可用工具的列表
+     * 注册内置工具，每个工具的定义只在这里构建一次
      */
-    public JsonObject getToolsList() {
-        JsonObject result = new JsonObject();
-        JsonArray tools = new JsonArray();
-
+    private void registerBuiltInTools() {
         // Query tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "execute_query",
             "Execute SQL query",
             "Execute SELECT query and return results",
-            new String[]{"sql"}
-        ));
+            new String[]{"sql"},
+            new String[]{"params", "format", "include_rows", "stream", "max_rows", "timeout_seconds"}
+        ), this::handleExecuteQuery, this::openStreamingQuery);
+
+        // Sharded query tool, only when shard groups are configured
+        if (!databaseManager.getShardGroups().isEmpty()) {
+            register(createToolDefinition(
+                "execute_query_sharded",
+                "Execute SQL query on all shards",
+                "Run the same SELECT on every shard of a shard group in parallel and merge the results "
+                    + "(k-way merge for ORDER BY, LIMIT applied after merging); aggregates and GROUP BY are computed "
+                    + "per shard. Reports rows, timing and errors per shard. Groups: " + databaseManager.getShardGroups().keySet(),
+                new String[]{"sql"},
+                new String[]{"group", "params", "format", "include_rows", "include_shard", "stream", "max_rows",
+                    "timeout_seconds"}
+            ), this::handleExecuteQuerySharded, this::openStreamingShardedQuery);
+        }
+
+        // Cursor tools
+        register(createToolDefinition(
+            "query_open",
+            "Open query cursor",
+            "Execute SELECT query and return a cursor with the first page of rows; fetch more pages with query_fetch",
+            new String[]{"sql"},
+            new String[]{"params", "page_size", "format", "include_rows", "materialize", "timeout_seconds"}
+        ), this::handleQueryOpen);
+        register(createToolDefinition(
+            "query_fetch",
+            "Fetch cursor page",
+            "Fetch the next page of rows (or the page at offset) from a cursor opened by query_open",
+            new String[]{"cursor"},
+            new String[]{"page_size", "offset", "format", "include_rows"}
+        ), this::handleQueryFetch);
+        register(createToolDefinition(
+            "query_close",
+            "Close query cursor",
+            "Close a cursor and release its connection and buffered rows",
+            new String[]{"cursor"}
+        ), this::handleQueryClose);
 
         // Update tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "execute_update",
             "Execute SQL update",
             "Execute INSERT, UPDATE or DELETE statement",
-            new String[]{"sql"}
-        ));
+            new String[]{"sql"},
+            new String[]{"params", "timeout_seconds"}
+        ), this::handleExecuteUpdate);
+
+        // Script tool
+        register(createToolDefinition(
+            "execute_script",
+            "Execute SQL script",
+            "Split a multi-statement SQL script (quotes, comments and DELIMITER aware) and execute the statements "
+                + "in order on one connection, optionally in a single transaction; reports affected rows and timing "
+                + "per statement",
+            new String[]{"script"},
+            new String[]{"transaction", "continue_on_error", "timeout_seconds"}
+        ), this::handleExecuteScript);
 
         // Insert tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "insert_data",
             "Insert data",
             "Insert data into specified table",
             new String[]{"table", "data"}
-        ));
+        ), this::handleInsertData);
+
+        // Batch insert tool
+        register(createToolDefinition(
+            "insert_batch",
+            "Insert rows in batches",
+            "Insert many rows into specified table using batched multi-row INSERT, one transaction per chunk",
+            new String[]{"table", "rows"},
+            new String[]{"chunk_size", "return_keys", "timeout_seconds"}
+        ), this::handleInsertBatch);
+
+        // Load file tool，只有配置了允许读取的目录时才注册
+        if (loadFileAllowedDir != null) {
+            register(createToolDefinition(
+                "load_file",
+                "Load file into table",
+                "Stream a CSV or NDJSON file from the server's allowed directory into specified table without "
+                    + "loading the whole file into memory; relative paths are resolved against that directory",
+                new String[]{"path", "table"},
+                new String[]{"file_format", "columns", "header", "delimiter", "null_value", "chunk_size", "mode", "timeout_seconds"}
+            ), this::handleLoadFile);
+        }
 
         // Update data tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "update_data",
             "Update data",
             "Update data in specified table",
-            new String[]{"table", "data", "where"}
-        ));
+            new String[]{"table", "data", "where"},
+            new String[]{"params", "timeout_seconds"}
+        ), this::handleUpdateData);
 
         // Delete data tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "delete_data",
             "Delete data",
             "Delete data from specified table",
-            new String[]{"table", "where"}
-        ));
+            new String[]{"table", "where"},
+            new String[]{"params", "timeout_seconds"}
+        ), this::handleDeleteData);
 
         // List tables tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "list_tables",
             "List all tables",
             "Get all table names in the database",
             new String[]{},
             new String[]{"database"}
-        ));
+        ), this::handleListTables);
 
         // Describe table tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "describe_table",
             "Describe table structure",
             "Get column information for specified table",
             new String[]{"table"}
-        ));
+        ), this::handleDescribeTable);
 
         // Get table DDL tool
-        tools.add(createToolDefinition(
+        register(createToolDefinition(
             "get_table_ddl",
             "Get table DDL",
             "Get CREATE TABLE statement for specified table",
             new String[]{"table"},
             new String[]{"database"}
-        ));
+        ), this::handleGetTableDDL);
 
-        result.add("tools", tools);
-        return result;
+        // Schema snapshot tool
+        register(createToolDefinition(
+            "describe_schema",
+            "Describe database schema",
+            "Get tables with their columns, primary keys, indexes, foreign keys and estimated row counts for a whole "
+                + "database in one call (read from information_schema with a few set-based queries), paginated by table name",
+            new String[]{},
+            new String[]{"database", "pattern", "max_tables", "after"}
+        ), this::handleDescribeSchema);
+
+        // Database stats tool
+        register(createToolDefinition(
+            "database_stats",
+            "Get database stats",
+            "Get connection pool statistics (active, idle, waiting threads, wait time), cache hit/miss counters (per tool for the result cache) and read replica routing (lag, latency, hedged reads)",
+            new String[]{}
+        ), this::handleDatabaseStats);
+
+        // Server stats tool
+        register(createToolDefinition(
+            "server_stats",
+            "Get server call stats",
+            "Get per-method and per-tool call counts, errors, latency percentiles (p50/p99/max), time spent in JDBC execution, "
+                + "row conversion and JSON serialization, rows returned and bytes written",
+            new String[]{}
+        ), this::handleServerStats);
+    }
+
+    private void register(JsonObject definition, HandlerTool.Handler handler) {
+        register(definition, handler, null);
+    }
+
+    private void register(JsonObject definition, HandlerTool.Handler handler, HandlerTool.StreamingHandler streamingHandler) {
+        registry.register(new HandlerTool(definition, handler, streamingHandler));
     }
 
+    /**
+     * 通过 ServiceLoader 加载可插拔工具，与已注册工具重名的工具被忽略
+     */
+    private void loadToolProviders() {
+        for (ToolProvider provider : ServiceLoader.load(ToolProvider.class)) {
+            for (Tool tool : provider.createTools(databaseManager)) {
+                try {
+                    registry.register(tool);
+                    logger.info("Registered tool {} from {}", tool.getName(), provider.getClass().getName());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring tool from {}: {}", provider.getClass().getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    public ToolRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 获取所有可用工具的列表（所有调用共享同一个对象，不能修改）
+     */
+    public JsonObject getToolsList() {
+        return registry.getToolsList();
+    }
+
+    /**
+     * 序列化后的工具列表，用于直接写出 tools/list 响应
+     */
+    public String getToolsListJson() {
+        return registry.getToolsListJson();
+    }
+
+
     /**
      * 创建工具定义
      */
@@ -140,10 +346,30 @@ public class MCPToolHandler {
                     paramSchema.addProperty("type", "object");
                     paramSchema.addProperty("description", "Data to insert or update (key-value pairs)");
                     break;
+                case "cursor":
+                    paramSchema.addProperty("type", "string");
+                    paramSchema.addProperty("description", "Cursor id returned by query_open");
+                    break;
+                case "path":
+                    paramSchema.addProperty("type", "string");
+                    paramSchema.addProperty("description", "Path of the local file to load");
+                    break;
+                case "rows":
+                    paramSchema.addProperty("type", "array");
+                    JsonObject rowSchema = new JsonObject();
+                    rowSchema.addProperty("type", "object");
+                    paramSchema.add("items", rowSchema);
+                    paramSchema.addProperty("description", "Rows to insert, each an object of column-value pairs");
+                    break;
                 case "where":
                     paramSchema.addProperty("type", "string");
                     paramSchema.addProperty("description", "WHERE condition (e.g., id=1)");
                     break;
+                case "script":
+                    paramSchema.addProperty("type", "string");
+                    paramSchema.addProperty("description", "SQL script; statements end with ; or the delimiter set by "
+                        + "a DELIMITER line");
+                    break;
                 case "database":
                     paramSchema.addProperty("type", "string");
                     paramSchema.addProperty("description", "Database name (optional, uses current database if not specified)");
@@ -161,6 +387,134 @@ public class MCPToolHandler {
                     paramSchema.addProperty("type", "string");
                     paramSchema.addProperty("description", "Database name (optional, uses current database if not specified)");
                     break;
+                case "pattern":
+                    paramSchema.addProperty("type", "string");
+                    paramSchema.addProperty("description", "Only include tables whose name matches this LIKE pattern (e.g., order%)");
+                    break;
+                case "max_tables":
+                    paramSchema.addProperty("type", "integer");
+                    paramSchema.addProperty("description", "Tables per page (default " + DEFAULT_SCHEMA_PAGE_TABLES
+                        + ", max " + MAX_SCHEMA_PAGE_TABLES + ")");
+                    break;
+                case "after":
+                    paramSchema.addProperty("type", "string");
+                    paramSchema.addProperty("description", "Continue after this table name (nextAfter of the previous page)");
+                    break;
+                case "group":
+                    paramSchema.addProperty("type", "string");
+                    JsonArray groups = new JsonArray();
+                    for (String group : databaseManager.getShardGroups().keySet()) {
+                        groups.add(group);
+                    }
+                    paramSchema.add("enum", groups);
+                    paramSchema.addProperty("description", "Shard group name (optional when only one group is configured)");
+                    break;
+                case "include_shard":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Add a leading _shard column with the source shard of each row (default true)");
+                    break;
+                case "params":
+                    paramSchema.addProperty("type", "array");
+                    paramSchema.addProperty("description", "Values bound in order to ? placeholders in the SQL statement "
+                        + "(or in the WHERE condition for update_data/delete_data)");
+                    break;
+                case "format":
+                    paramSchema.addProperty("type", "string");
+                    JsonArray formats = new JsonArray();
+                    for (ResultFormat format : ResultFormat.values()) {
+                        formats.add(format.getName());
+                    }
+                    paramSchema.add("enum", formats);
+                    paramSchema.addProperty("description", "Result encoding: objects (default, one object per row), "
+                        + "columns (column names + row arrays), columnar (one value array per column), "
+                        + "tsv or markdown (text table in content)");
+                    break;
+                case "include_rows":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Include structured rows next to content "
+                        + "(default true for objects/columns/columnar, false for tsv/markdown)");
+                    break;
+                case "chunk_size":
+                    paramSchema.addProperty("type", "integer");
+                    paramSchema.addProperty("description", "Rows per batch and transaction (default " + defaultBatchChunkSize + ")");
+                    break;
+                case "transaction":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Run all statements in one transaction, committed at the end "
+                        + "(default false, each statement auto-commits; DDL always commits implicitly)");
+                    break;
+                case "continue_on_error":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Skip failed statements and continue (default false: stop at "
+                        + "the first error and roll back the transaction)");
+                    break;
+                case "return_keys":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Return generated keys for each chunk (default true)");
+                    break;
+                case "stream":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Stream rows directly to the output instead of buffering the whole result");
+                    break;
+                case "max_rows":
+                    paramSchema.addProperty("type", "integer");
+                    paramSchema.addProperty("description", "Maximum rows to return; extra rows are dropped and the result "
+                        + "is marked truncated (cannot exceed the server limit, "
+                        + databaseManager.getResultLimits().getMaxRows() + ", 0 means unlimited)");
+                    break;
+                case "timeout_seconds":
+                    paramSchema.addProperty("type", "integer");
+                    paramSchema.addProperty("description", "Query timeout in seconds for each statement of this call, 0 for no limit "
+                        + "(default " + databaseManager.getDefaultQueryTimeoutSeconds() + ")");
+                    break;
+                case "page_size":
+                    paramSchema.addProperty("type", "integer");
+                    paramSchema.addProperty("description", "Rows per page (default " + CursorManager.DEFAULT_PAGE_SIZE + ")");
+                    break;
+                case "offset":
+                    paramSchema.addProperty("type", "integer");
+                    paramSchema.addProperty("description", "Row offset to fetch from (default: continue after the previous page)");
+                    break;
+                case "materialize":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Read the whole result immediately and release the connection "
+                        + "(rows beyond the memory threshold are spilled to a temporary file)");
+                    break;
+                case "file_format":
+                    paramSchema.addProperty("type", "string");
+                    JsonArray fileFormats = new JsonArray();
+                    fileFormats.add("csv");
+                    fileFormats.add("ndjson");
+                    paramSchema.add("enum", fileFormats);
+                    paramSchema.addProperty("description", "File format (default inferred from the file extension, csv otherwise)");
+                    break;
+                case "columns":
+                    paramSchema.addProperty("description", "Target columns: an array maps fields/keys by position or name "
+                        + "(null skips a CSV field), an object maps CSV header names or JSON keys to table columns "
+                        + "(default: CSV header or keys of the first JSON object)");
+                    break;
+                case "header":
+                    paramSchema.addProperty("type", "boolean");
+                    paramSchema.addProperty("description", "Whether the first CSV line is a header (default true)");
+                    break;
+                case "delimiter":
+                    paramSchema.addProperty("type", "string");
+                    paramSchema.addProperty("description", "CSV field delimiter (default ,)");
+                    break;
+                case "null_value":
+                    paramSchema.addProperty("type", "string");
+                    paramSchema.addProperty("description", "CSV field value loaded as NULL (default \\N)");
+                    break;
+                case "mode":
+                    paramSchema.addProperty("type", "string");
+                    JsonArray modes = new JsonArray();
+                    modes.add("insert");
+                    modes.add("load_data");
+                    paramSchema.add("enum", modes);
+                    paramSchema.addProperty("description", "insert (default, batched INSERT committed per chunk) or "
+                        + "load_data (LOAD DATA LOCAL INFILE for CSV, requires mysql.loadLocalInfile.enabled; "
+                        + "the whole file is loaded by one statement, all-or-nothing on transactional tables)");
+                    break;
             }
             properties.add(param, paramSchema);
         }
@@ -176,28 +530,140 @@ public class MCPToolHandler {
      * 调用指定的工具
      */
     public JsonObject callTool(String toolName, JsonObject arguments) throws SQLException {
-        logger.info("Calling tool: {}, arguments: {}", toolName, arguments);
-
-        switch (toolName) {
-            case "execute_query":
-                return handleExecuteQuery(arguments);
-            case "execute_update":
-                return handleExecuteUpdate(arguments);
-            case "insert_data":
-                return handleInsertData(arguments);
-            case "update_data":
-                return handleUpdateData(arguments);
-            case "delete_data":
-                return handleDeleteData(arguments);
-            case "list_tables":
-                return handleListTables(arguments);
-            case "describe_table":
-                return handleDescribeTable(arguments);
-            case "get_table_ddl":
-                return handleGetTableDDL(arguments);
-            default:
-                throw new IllegalArgumentException("Unknown tool: " + toolName);
+        // 参数由 MCPServer 按采样配置记录，这里不再序列化
+        logger.info("Calling tool: {}", toolName);
+
+        Tool tool = registry.get(toolName);
+        if (tool == null) {
+            throw new IllegalArgumentException("Unknown tool: " + toolName);
+        }
+        return tool.call(arguments);
+    }
+
+    /**
+     * 以流式方式调用工具
+     * 仅对支持流式输出的工具生效（内置工具中为 execute_query），其他情况返回 null，调用方应改用 callTool()。
+     * 返回的结果占用数据库连接，写出后必须关闭。
+     */
+    public StreamingResult openStreamingCall(String toolName, JsonObject arguments) throws SQLException {
+        Tool tool = registry.get(toolName);
+        return tool != null ? tool.openStreaming(arguments) : null;
+    }
+
+    /**
+     * execute_query 的流式调用，格式不支持流式输出或关闭了 stream 时返回 null
+     */
+    private StreamingResult openStreamingQuery(JsonObject arguments) throws SQLException {
+        if (!arguments.has("sql")) {
+            return null;
+        }
+        boolean stream = arguments.has("stream")
+            ? arguments.get("stream").getAsBoolean()
+            : streamQueriesByDefault;
+        ResultFormat format = parseFormat(arguments);
+        if (!stream || !format.isStreamable()) {
+            return null;
+        }
+
+        String sql = arguments.get("sql").getAsString();
+        logger.info("Calling tool (streaming): execute_query, sql: {}", sql);
+        List<Object> params = parseParams(arguments);
+        ResultLimits limits = resultLimits(arguments);
+        AdmissionDecision admission = databaseManager.admitQuery(sql, params);
+        if (admission != null) {
+            limits = admission.applyTo(limits);
+            sql = admission.applyTo(limits.limitSql(sql));
+        }
+        RowStream queryStream = databaseManager.openQueryStream(sql, params, limits);
+        toolCacheStats.record("execute_query", queryStream.getCacheStatus());
+        return admission == null
+            ? new StreamingQueryResult(queryStream, format, includeRows(arguments, format))
+            : new StreamingAdmittedResult(queryStream, admission, format, includeRows(arguments, format));
+    }
+
+    /**
+     * execute_query_sharded 的流式调用，格式不支持流式输出或关闭了 stream 时返回 null
+     */
+    private StreamingResult openStreamingShardedQuery(JsonObject arguments) throws SQLException {
+        if (!arguments.has("sql")) {
+            return null;
+        }
+        boolean stream = arguments.has("stream")
+            ? arguments.get("stream").getAsBoolean()
+            : streamQueriesByDefault;
+        ResultFormat format = parseFormat(arguments);
+        if (!stream || !format.isStreamable()) {
+            return null;
+        }
+
+        logger.info("Calling tool (streaming): execute_query_sharded, sql: {}", arguments.get("sql").getAsString());
+        ResultLimits limits = resultLimits(arguments);
+        ShardedQuery query = openShardedQuery(arguments, limits);
+        return new StreamingShardedResult(limits.limitStream(query), query, format, includeRows(arguments, format));
+    }
+
+    private JsonObject handleExecuteQuerySharded(JsonObject arguments) throws SQLException {
+        if (!arguments.has("sql")) {
+            throw new IllegalArgumentException("Missing parameter: sql");
+        }
+        
+        ResultFormat format = parseFormat(arguments);
+        ResultLimits limits = resultLimits(arguments);
+        try (ShardedQuery query = openShardedQuery(arguments, limits)) {
+            JsonObject result = ResultEncoder.encode(databaseManager.materialize(query, limits), format,
+                includeRows(arguments, format));
+            StreamingShardedResult.addShards(result, query);
+            return result;
+        }
+    }
+
+    /**
+     * @param limits 没有 LIMIT 的语句在各分片上追加 LIMIT（每个分片最多需要返回 maxRows + 1 行）
+     */
+    private ShardedQuery openShardedQuery(JsonObject arguments, ResultLimits limits) throws SQLException {
+        String group;
+        if (arguments.has("group")) {
+            group = arguments.get("group").getAsString();
+        } else if (databaseManager.getShardGroups().size() == 1) {
+            group = databaseManager.getShardGroups().keySet().iterator().next();
+        } else {
+            throw new IllegalArgumentException("Missing parameter: group (configured groups: "
+                + databaseManager.getShardGroups().keySet() + ")");
         }
+        boolean includeShard = !arguments.has("include_shard") || arguments.get("include_shard").getAsBoolean();
+        return databaseManager.openShardedQuery(group, limits.limitSql(arguments.get("sql").getAsString()),
+            parseParams(arguments), includeShard);
+    }
+
+    /**
+     * 本次调用的结果上限：服务器配置的上限，max_rows 参数只能调低行数上限
+     */
+    private ResultLimits resultLimits(JsonObject arguments) {
+        ResultLimits limits = databaseManager.getResultLimits();
+        return arguments.has("max_rows") ? limits.withMaxRows(arguments.get("max_rows").getAsLong()) : limits;
+    }
+
+    private ResultFormat parseFormat(JsonObject arguments) {
+        return ResultFormat.parse(arguments.has("format") ? arguments.get("format").getAsString() : null);
+    }
+
+    /**
+     * 读取 params 参数（绑定到 ? 占位符的值）
+     */
+    private List<Object> parseParams(JsonObject arguments) {
+        if (!arguments.has("params") || arguments.get("params").isJsonNull()) {
+            return JsonValues.toJavaValues(null);
+        }
+        if (!arguments.get("params").isJsonArray()) {
+            throw new IllegalArgumentException("Parameter params must be an array");
+        }
+        return JsonValues.toJavaValues(arguments.getAsJsonArray("params"));
+    }
+
+    private boolean includeRows(JsonObject arguments, ResultFormat format) {
+        return arguments.has("include_rows")
+            ? arguments.get("include_rows").getAsBoolean()
+            : format.includesRowsByDefault();
     }
 
     private JsonObject handleExecuteQuery(JsonObject arguments) throws SQLException {
@@ -206,39 +672,110 @@ public class MCPToolHandler {
         }
         
         String sql = arguments.get("sql").getAsString();
-        List<Map<String, Object>> results = databaseManager.executeQuery(sql);
+        ResultFormat format = parseFormat(arguments);
+        List<Object> params = parseParams(arguments);
+        ResultLimits limits = resultLimits(arguments);
+        AdmissionDecision admission = databaseManager.admitQuery(sql, params);
+        if (admission != null) {
+            // 降级时降低行数上限并加上执行时间提示（提示要在追加 LIMIT 之后加上）
+            limits = admission.applyTo(limits);
+            sql = admission.applyTo(limits.limitSql(sql));
+        }
+        QueryResult queryResult = databaseManager.executeQueryResult(sql, params, limits);
+        toolCacheStats.record("execute_query", queryResult.getCacheStatus());
+        JsonObject result = ResultEncoder.encode(queryResult, format, includeRows(arguments, format));
+        if (queryResult.getCacheStatus() == CacheStatus.HIT) {
+            result.addProperty("cached", true);
+        }
+        if (admission != null) {
+            StreamingAdmittedResult.addAdmission(result, admission);
+        }
+        return result;
+    }
+
+    private JsonObject handleQueryOpen(JsonObject arguments) throws SQLException {
+        if (!arguments.has("sql")) {
+            throw new IllegalArgumentException("Missing parameter: sql");
+        }
+        
+        String sql = arguments.get("sql").getAsString();
+        boolean materialize = arguments.has("materialize") && arguments.get("materialize").getAsBoolean();
+        QueryCursor cursor;
+        try {
+            cursor = cursorManager.open(sql, parseParams(arguments), materialize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cursor buffer I/O error: " + e.getMessage(), e);
+        }
+        toolCacheStats.record("query_open", cursor.getCacheStatus());
+        return fetchPage(cursor, arguments, null);
+    }
+
+    private JsonObject handleQueryFetch(JsonObject arguments) throws SQLException {
+        if (!arguments.has("cursor")) {
+            throw new IllegalArgumentException("Missing parameter: cursor");
+        }
+        
+        QueryCursor cursor = cursorManager.get(arguments.get("cursor").getAsString());
+        Long offset = arguments.has("offset") ? arguments.get("offset").getAsLong() : null;
+        return fetchPage(cursor, arguments, offset);
+    }
+
+    /**
+     * 从游标读取一页并编码，结构与 execute_query 相同，另外附带 cursor、offset 和 hasMore
+     */
+    private JsonObject fetchPage(QueryCursor cursor, JsonObject arguments, Long offset) throws SQLException {
+        ResultFormat format = parseFormat(arguments);
+        int pageSize = cursorManager.clampPageSize(arguments.has("page_size")
+            ? arguments.get("page_size").getAsInt()
+            : CursorManager.DEFAULT_PAGE_SIZE);
+        QueryCursor.Page page;
+        try {
+            page = cursor.fetch(offset, pageSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cursor buffer I/O error: " + e.getMessage(), e);
+        }
+        
+        JsonObject result = ResultEncoder.encode(page.result, format, includeRows(arguments, format));
+        String summary = "Cursor " + cursor.getId() + ": rows " + page.offset + "-"
+            + (page.offset + page.result.getRowCount()) + " (" + page.result.getRowCount() + " row(s)), "
+            + (page.hasMore ? "more rows available, call query_fetch to continue" : "no more rows");
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        textContent.addProperty("text", summary);
+        if (format == ResultFormat.TSV || format == ResultFormat.MARKDOWN) {
+            result.getAsJsonArray("content").add(textContent);
+        } else {
+            JsonArray content = new JsonArray();
+            content.add(textContent);
+            result.add("content", content);
+        }
+        
+        result.addProperty("cursor", cursor.getId());
+        result.addProperty("offset", page.offset);
+        result.addProperty("hasMore", page.hasMore);
+        return result;
+    }
+
+    private JsonObject handleQueryClose(JsonObject arguments) {
+        if (!arguments.has("cursor")) {
+            throw new IllegalArgumentException("Missing parameter: cursor");
+        }
+        
+        String id = arguments.get("cursor").getAsString();
+        boolean closed = cursorManager.close(id);
         
         JsonObject result = new JsonObject();
         JsonArray content = new JsonArray();
-        JsonArray rows = new JsonArray();
-        
-        for (Map<String, Object> row : results) {
-            JsonObject rowObj = new JsonObject();
-            for (Map.Entry<String, Object> entry : row.entrySet()) {
-                Object value = entry.getValue();
-                if (value == null) {
-                    rowObj.add(entry.getKey(), null);
-                } else if (value instanceof Number) {
-                    rowObj.addProperty(entry.getKey(), (Number) value);
-                } else if (value instanceof Boolean) {
-                    rowObj.addProperty(entry.getKey(), (Boolean) value);
-                } else {
-                    rowObj.addProperty(entry.getKey(), value.toString());
-                }
-            }
-            rows.add(rowObj);
-        }
         
         // 按照 MCP 协议规范，添加 content 数组
         JsonObject textContent = new JsonObject();
         textContent.addProperty("type", "text");
-        textContent.addProperty("text", "Query returned " + rows.size() + " row(s)");
+        textContent.addProperty("text", closed ? "Cursor " + id + " closed" : "Cursor " + id + " was not open (already closed or expired)");
         content.add(textContent);
         result.add("content", content);
         
         // 同时保留原始数据格式以便兼容
-        result.add("rows", rows);
-        result.addProperty("count", rows.size());
+        result.addProperty("closed", closed);
         return result;
     }
 
@@ -248,7 +785,7 @@ public class MCPToolHandler {
         }
         
         String sql = arguments.get("sql").getAsString();
-        int affectedRows = databaseManager.executeUpdate(sql);
+        int affectedRows = databaseManager.executeUpdate(sql, parseParams(arguments));
         
         JsonObject result = new JsonObject();
         JsonArray content = new JsonArray();
@@ -265,6 +802,83 @@ public class MCPToolHandler {
         return result;
     }
 
+    private JsonObject handleExecuteScript(JsonObject arguments) throws SQLException {
+        if (!arguments.has("script")) {
+            throw new IllegalArgumentException("Missing parameter: script");
+        }
+        
+        List<String> statements = SqlStatements.splitScript(arguments.get("script").getAsString());
+        if (statements.isEmpty()) {
+            throw new IllegalArgumentException("Script contains no statements");
+        }
+        boolean transaction = arguments.has("transaction") && arguments.get("transaction").getAsBoolean();
+        boolean continueOnError = arguments.has("continue_on_error") && arguments.get("continue_on_error").getAsBoolean();
+        ScriptResult scriptResult = databaseManager.executeScript(statements, transaction, continueOnError);
+        
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        JsonArray statementArray = new JsonArray();
+        StringBuilder errors = new StringBuilder();
+        for (ScriptResult.StatementResult statement : scriptResult.getStatements()) {
+            JsonObject item = new JsonObject();
+            item.addProperty("index", statement.getIndex());
+            item.addProperty("sql", preview(statement.getSql()));
+            item.addProperty("affectedRows", statement.getAffectedRows());
+            if (statement.hasResultSet()) {
+                item.addProperty("rows", statement.getRows());
+            }
+            item.addProperty("elapsedMs", statement.getElapsedMillis());
+            if (statement.getError() != null) {
+                item.addProperty("error", statement.getError());
+                errors.append("\n- Statement ").append(statement.getIndex()).append(" (")
+                    .append(preview(statement.getSql())).append("): ").append(statement.getError());
+            }
+            statementArray.add(item);
+        }
+        
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        StringBuilder text = new StringBuilder("Script executed ")
+            .append(scriptResult.getExecutedCount()).append(" of ").append(scriptResult.getStatementCount())
+            .append(" statement(s), ").append(scriptResult.getFailedCount()).append(" failed. Affected rows: ")
+            .append(scriptResult.getTotalAffectedRows());
+        if (scriptResult.isCommitted()) {
+            text.append(". Transaction committed");
+        } else if (scriptResult.isRolledBack()) {
+            text.append(". Transaction rolled back");
+            if (scriptResult.getStatements().stream().anyMatch(statement -> SqlStatements.isDdl(statement.getSql()))) {
+                text.append(" (DDL statements were committed implicitly and are not rolled back)");
+            }
+        }
+        text.append(errors);
+        textContent.addProperty("text", text.toString());
+        content.add(textContent);
+        result.add("content", content);
+        
+        // 同时保留原始数据格式以便兼容
+        result.add("statements", statementArray);
+        result.addProperty("executed", scriptResult.getExecutedCount());
+        result.addProperty("failed", scriptResult.getFailedCount());
+        result.addProperty("affectedRows", scriptResult.getTotalAffectedRows());
+        if (scriptResult.isTransaction()) {
+            result.addProperty("committed", scriptResult.isCommitted());
+            result.addProperty("rolledBack", scriptResult.isRolledBack());
+        }
+        if (scriptResult.getFailedCount() > 0) {
+            result.addProperty("isError", true);
+        }
+        return result;
+    }
+
+    /**
+     * 语句的单行摘要，用于结果中标识语句（不回显整条长语句）
+     */
+    private static String preview(String sql) {
+        String text = SqlStatements.normalize(sql);
+        return text.length() <= SCRIPT_PREVIEW_LENGTH ? text : text.substring(0, SCRIPT_PREVIEW_LENGTH) + "...";
+    }
+
     private JsonObject handleInsertData(JsonObject arguments) throws SQLException {
         if (!arguments.has("table") || !arguments.has("data")) {
             throw new IllegalArgumentException("Missing parameter: table or data");
@@ -273,30 +887,14 @@ public class MCPToolHandler {
         String table = arguments.get("table").getAsString();
         JsonObject data = arguments.getAsJsonObject("data");
         
-        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
-        StringBuilder values = new StringBuilder(" VALUES (");
-        boolean first = true;
-        
+        // 值使用绑定变量，相同结构的插入语句文本相同，可复用预编译语句
+        String sql = buildInsertSql(table, data.keySet());
+        List<Object> params = new ArrayList<>(data.size());
         for (String key : data.keySet()) {
-            if (!first) {
-                sql.append(", ");
-                values.append(", ");
-            }
-            sql.append(key);
-            JsonElement value = data.get(key);
-            if (value.isJsonNull()) {
-                values.append("NULL");
-            } else if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()) {
-                values.append("'").append(escapeSql(value.getAsString())).append("'");
-            } else {
-                values.append(value.getAsString());
-            }
-            first = false;
+            params.add(JsonValues.toJavaValue(data.get(key)));
         }
         
-        sql.append(")").append(values).append(")");
-        
-        Map<String, Object> result = databaseManager.executeUpdateWithKeys(sql.toString());
+        Map<String, Object> result = databaseManager.executeUpdateWithKeys(sql, params);
         
         JsonObject jsonResult = new JsonObject();
         JsonArray content = new JsonArray();
@@ -320,6 +918,403 @@ public class MCPToolHandler {
         return jsonResult;
     }
 
+    private JsonObject handleInsertBatch(JsonObject arguments) throws SQLException {
+        if (!arguments.has("table") || !arguments.has("rows") || !arguments.get("rows").isJsonArray()) {
+            throw new IllegalArgumentException("Missing parameter: table or rows");
+        }
+        
+        String table = arguments.get("table").getAsString();
+        JsonArray rows = arguments.getAsJsonArray("rows");
+        int chunkSize = arguments.has("chunk_size") ? arguments.get("chunk_size").getAsInt() : defaultBatchChunkSize;
+        boolean returnKeys = !arguments.has("return_keys") || arguments.get("return_keys").getAsBoolean();
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Parameter rows must not be empty");
+        }
+        
+        // 列集合为所有行键的并集（按首次出现顺序），缺少的列绑定 NULL
+        LinkedHashSet<String> columns = new LinkedHashSet<>();
+        for (JsonElement row : rows) {
+            if (!row.isJsonObject()) {
+                throw new IllegalArgumentException("Each element of rows must be an object");
+            }
+            columns.addAll(row.getAsJsonObject().keySet());
+        }
+        
+        String sql = buildInsertSql(table, columns);
+        
+        List<List<Object>> params = new ArrayList<>(rows.size());
+        for (JsonElement row : rows) {
+            JsonObject rowObj = row.getAsJsonObject();
+            List<Object> rowParams = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                rowParams.add(JsonValues.toJavaValue(rowObj.get(column)));
+            }
+            params.add(rowParams);
+        }
+        
+        BatchResult batchResult = databaseManager.executeBatch(sql, params, chunkSize, returnKeys);
+        
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        JsonArray chunkArray = new JsonArray();
+        for (BatchResult.Chunk chunk : batchResult.getChunks()) {
+            JsonObject chunkObj = new JsonObject();
+            chunkObj.addProperty("index", chunk.getIndex());
+            chunkObj.addProperty("rows", chunk.getRowCount());
+            chunkObj.addProperty("affectedRows", chunk.getAffectedRows());
+            chunkObj.addProperty("elapsedMs", chunk.getElapsedMillis());
+            if (returnKeys) {
+                JsonArray keys = new JsonArray();
+                for (Object key : chunk.getGeneratedKeys()) {
+                    keys.add(JsonValues.toJsonElement(key));
+                }
+                chunkObj.add("generatedKeys", keys);
+            }
+            chunkArray.add(chunkObj);
+        }
+        
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        StringBuilder text = new StringBuilder("Batch insert committed ")
+            .append(batchResult.getCommittedRows()).append(" of ").append(rows.size())
+            .append(" row(s) in ").append(batchResult.getChunkCount()).append(" chunk(s). Affected rows: ")
+            .append(batchResult.getTotalAffectedRows());
+        if (batchResult.getError() != null) {
+            text.append(". Chunk ").append(batchResult.getFailedChunk())
+                .append(" failed and was rolled back: ").append(batchResult.getError());
+        }
+        textContent.addProperty("text", text.toString());
+        content.add(textContent);
+        result.add("content", content);
+        
+        // 同时保留原始数据格式以便兼容
+        result.add("chunks", chunkArray);
+        result.addProperty("affectedRows", batchResult.getTotalAffectedRows());
+        result.addProperty("committedRows", batchResult.getCommittedRows());
+        if (batchResult.getError() != null) {
+            result.addProperty("isError", true);
+            result.addProperty("failedChunk", batchResult.getFailedChunk());
+            result.addProperty("error", batchResult.getError());
+        }
+        return result;
+    }
+
+    /**
+     * 生成参数化的单行 INSERT 语句
+     */
+    private String buildInsertSql(String table, Iterable<String> columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(SqlStatements.quoteIdentifier(table, true)).append(" (");
+        StringBuilder values = new StringBuilder(" VALUES (");
+        boolean first = true;
+        for (String column : columns) {
+            if (!first) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(SqlStatements.quoteIdentifier(column, false));
+            values.append('?');
+            first = false;
+        }
+        return sql.append(")").append(values).append(")").toString();
+    }
+
+    private JsonObject handleLoadFile(JsonObject arguments) throws SQLException {
+        if (!arguments.has("path") || !arguments.has("table")) {
+            throw new IllegalArgumentException("Missing parameter: path or table");
+        }
+        
+        Path path = resolveLoadPath(arguments.get("path").getAsString());
+        String table = arguments.get("table").getAsString();
+        String fileFormat = arguments.has("file_format")
+            ? arguments.get("file_format").getAsString().toLowerCase(Locale.ROOT)
+            : inferFileFormat(path);
+        String mode = arguments.has("mode") ? arguments.get("mode").getAsString().toLowerCase(Locale.ROOT) : "insert";
+        JsonElement columns = arguments.get("columns");
+        boolean header = !arguments.has("header") || arguments.get("header").getAsBoolean();
+        String nullValue = arguments.has("null_value") ? arguments.get("null_value").getAsString() : "\\N";
+        int chunkSize = arguments.has("chunk_size") ? arguments.get("chunk_size").getAsInt() : defaultBatchChunkSize;
+        char delimiter = ',';
+        if (arguments.has("delimiter")) {
+            String value = arguments.get("delimiter").getAsString();
+            if (value.length() != 1) {
+                throw new IllegalArgumentException("Parameter delimiter must be a single character");
+            }
+            delimiter = value.charAt(0);
+        }
+        if (!"csv".equals(fileFormat) && !"ndjson".equals(fileFormat)) {
+            throw new IllegalArgumentException("Unsupported file format: " + fileFormat);
+        }
+        
+        long fileSize;
+        try {
+            fileSize = Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read file: " + path, e);
+        }
+        LoadProgress progress = new LoadProgress("load-" + loadSequence.incrementAndGet(), path.toString(), table, fileSize);
+        activeLoads.put(progress.getId(), progress);
+        logger.info("Starting {} ({}, mode {})", progress, fileFormat, mode);
+        try {
+            switch (mode) {
+                case "insert":
+                    return loadFileByInsert(path, table, fileFormat, columns, header, delimiter, nullValue, chunkSize, progress);
+                case "load_data":
+                    if (!"csv".equals(fileFormat)) {
+                        throw new IllegalArgumentException("Mode load_data only supports csv files");
+                    }
+                    return loadFileByLoadData(path, table, columns, header, delimiter, nullValue, progress);
+                default:
+                    throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+        } finally {
+            activeLoads.remove(progress.getId());
+            logger.info("Finished {} in {} ms", progress, progress.getElapsedMillis());
+        }
+    }
+
+    /**
+     * 读取 mcp.loadFile.allowedDir 配置的目录
+     * 没有配置或目录不存在时返回 null，不注册 load_file，避免读取服务器上的任意文件
+     */
+    private static Path resolveLoadFileAllowedDir() {
+        String allowedDir = ServerConfig.getString("mcp.loadFile.allowedDir", "MCP_LOAD_FILE_ALLOWED_DIR", null);
+        if (allowedDir == null || allowedDir.trim().isEmpty()) {
+            logger.info("Tool load_file is disabled: mcp.loadFile.allowedDir is not configured");
+            return null;
+        }
+        try {
+            Path dir = Paths.get(allowedDir.trim()).toRealPath();
+            if (!Files.isDirectory(dir)) {
+                logger.warn("Tool load_file is disabled: {} is not a directory", allowedDir);
+                return null;
+            }
+            return dir;
+        } catch (IOException | InvalidPathException e) {
+            logger.warn("Tool load_file is disabled: cannot resolve directory {}: {}", allowedDir, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 解析并校验要导入的文件路径，相对路径按允许读取的目录解析
+     * 先检查路径是否在该目录下再检查文件是否存在，目录外的路径不会暴露文件是否存在
+     */
+    private Path resolveLoadPath(String file) {
+        Path path;
+        try {
+            path = loadFileAllowedDir.resolve(file).normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid file path: " + file);
+        }
+        if (!path.startsWith(loadFileAllowedDir)) {
+            throw new IllegalArgumentException("File is outside the allowed directory: " + file);
+        }
+        Path realPath;
+        try {
+            // 符号链接可能指向目录外，按真实路径再检查一次
+            realPath = path.toRealPath();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("File not found: " + file);
+        }
+        if (!realPath.startsWith(loadFileAllowedDir)) {
+            throw new IllegalArgumentException("File is outside the allowed directory: " + file);
+        }
+        if (!Files.isRegularFile(realPath)) {
+            throw new IllegalArgumentException("File not found: " + file);
+        }
+        return realPath;
+    }
+
+    private static String inferFileFormat(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json") ? "ndjson" : "csv";
+    }
+
+    /**
+     * 逐行读取文件并按分块批量插入，每个分块一个事务，失败时之前的分块保持已提交
+     */
+    private JsonObject loadFileByInsert(Path path, String table, String fileFormat, JsonElement columns, boolean header,
+                                       char delimiter, String nullValue, int chunkSize, LoadProgress progress)
+            throws SQLException {
+        BatchResult batchResult;
+        try (FileRowSource source = "ndjson".equals(fileFormat)
+                 ? new FileRowSource.Ndjson(path, progress, columns)
+                 : new FileRowSource.Csv(path, progress, delimiter, header, columns, nullValue)) {
+            String sql = buildInsertSql(table, source.getTargetColumns());
+            batchResult = databaseManager.executeBatch(sql, source, chunkSize, false, false, (chunk, totals) -> {
+                progress.rowsCommitted.set(totals.getCommittedRows());
+                progress.chunksCommitted.set(totals.getChunkCount());
+                logger.debug("{}", progress);
+            });
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read file: " + path + ": " + e.getMessage(), e);
+        }
+        
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        StringBuilder text = new StringBuilder("Loaded ").append(batchResult.getCommittedRows())
+            .append(" row(s) from ").append(path.getFileName()).append(" into ").append(table)
+            .append(" in ").append(batchResult.getChunkCount()).append(" chunk(s). Affected rows: ")
+            .append(batchResult.getTotalAffectedRows());
+        if (batchResult.getError() != null) {
+            text.append(". Chunk ").append(batchResult.getFailedChunk())
+                .append(" failed and was rolled back: ").append(batchResult.getError());
+        }
+        textContent.addProperty("text", text.toString());
+        content.add(textContent);
+        result.add("content", content);
+        
+        // 同时保留原始数据格式以便兼容
+        result.addProperty("mode", "insert");
+        result.addProperty("rowsRead", progress.rowsRead.get());
+        result.addProperty("committedRows", batchResult.getCommittedRows());
+        result.addProperty("affectedRows", batchResult.getTotalAffectedRows());
+        result.addProperty("chunks", batchResult.getChunkCount());
+        result.addProperty("bytesRead", progress.bytesRead.get());
+        result.addProperty("elapsedMs", progress.getElapsedMillis());
+        if (batchResult.getError() != null) {
+            result.addProperty("isError", true);
+            result.addProperty("failedChunk", batchResult.getFailedChunk());
+            result.addProperty("error", batchResult.getError());
+        }
+        return result;
+    }
+
+    /**
+     * 使用 LOAD DATA LOCAL INFILE 导入 CSV 文件，整个文件在一个语句中导入
+     * 不分块提交：InnoDB 等事务表上失败或取消时整个文件回滚，导入期间一直占用一个连接
+     * 字段先读入用户变量，再通过 SET 子句把 null_value 转换为 NULL
+     */
+    private JsonObject loadFileByLoadData(Path path, String table, JsonElement columns, boolean header,
+                                         char delimiter, String nullValue, LoadProgress progress) throws SQLException {
+        List<String> targetColumns = new ArrayList<>();
+        List<Integer> sourceIndexes = new ArrayList<>();
+        String lineTerminator;
+        try {
+            List<String> headerNames = header ? readCsvHeader(path, delimiter) : null;
+            FileRowSource.Csv.resolveColumns(columns, headerNames, targetColumns, sourceIndexes);
+            lineTerminator = detectLineTerminator(path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read file: " + path + ": " + e.getMessage(), e);
+        }
+        
+        int fieldCount = 0;
+        for (int index : sourceIndexes) {
+            fieldCount = Math.max(fieldCount, index + 1);
+        }
+        StringBuilder fields = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                fields.append(", ");
+            }
+            int target = sourceIndexes.indexOf(i);
+            if (target < 0) {
+                fields.append("@skip");
+                continue;
+            }
+            fields.append("@f").append(i);
+            if (assignments.length() > 0) {
+                assignments.append(", ");
+            }
+            assignments.append(SqlStatements.quoteIdentifier(targetColumns.get(target), false))
+                .append(" = NULLIF(@f").append(i).append(", ").append(sqlLiteral(nullValue)).append(")");
+        }
+        String sql = "LOAD DATA LOCAL INFILE 'load_file' INTO TABLE " + SqlStatements.quoteIdentifier(table, true)
+            + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY " + sqlLiteral(String.valueOf(delimiter))
+            + " OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '' LINES TERMINATED BY " + sqlLiteral(lineTerminator)
+            + (header ? " IGNORE 1 LINES" : "")
+            + " (" + fields + ") SET " + assignments;
+        
+        long affectedRows;
+        try (InputStream input = new CountingInputStream(Files.newInputStream(path), progress.bytesRead)) {
+            affectedRows = databaseManager.loadLocalInfile(sql, input);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read file: " + path + ": " + e.getMessage(), e);
+        }
+        progress.rowsCommitted.set(affectedRows);
+        progress.chunksCommitted.set(1);
+        
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        textContent.addProperty("text", "Loaded " + affectedRows + " row(s) from " + path.getFileName()
+            + " into " + table + " using LOAD DATA LOCAL INFILE");
+        content.add(textContent);
+        result.add("content", content);
+        
+        // 同时保留原始数据格式以便兼容
+        result.addProperty("mode", "load_data");
+        result.addProperty("committedRows", affectedRows);
+        result.addProperty("affectedRows", affectedRows);
+        result.addProperty("bytesRead", progress.bytesRead.get());
+        result.addProperty("elapsedMs", progress.getElapsedMillis());
+        return result;
+    }
+
+    private static List<String> readCsvHeader(Path path, char delimiter) throws IOException {
+        CsvReadConfig config = CsvReadConfig.defaultConfig();
+        config.setFieldSeparator(delimiter);
+        try (CsvParser parser = new CsvParser(Files.newBufferedReader(path, StandardCharsets.UTF_8), config)) {
+            CsvRow row = parser.nextRow();
+            return row == null ? new ArrayList<>() : new ArrayList<>(row.getRawList());
+        }
+    }
+
+    /**
+     * 根据第一行的换行符判断文件使用 \n 还是 \r\n
+     */
+    private static String detectLineTerminator(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            int previous = -1;
+            int b;
+            while ((b = input.read()) >= 0) {
+                if (b == '\n') {
+                    return previous == '\r' ? "\r\n" : "\n";
+                }
+                previous = b;
+            }
+        }
+        return "\n";
+    }
+
+    /**
+     * 生成 SQL 字符串字面量
+     */
+    private static String sqlLiteral(String value) {
+        StringBuilder literal = new StringBuilder("'");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\'':
+                    literal.append("\\'");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    literal.append(c);
+            }
+        }
+        return literal.append('\'').toString();
+    }
+
     private JsonObject handleUpdateData(JsonObject arguments) throws SQLException {
         if (!arguments.has("table") || !arguments.has("data") || !arguments.has("where")) {
             throw new IllegalArgumentException("Missing parameter: table, data or where");
@@ -329,28 +1324,24 @@ public class MCPToolHandler {
         JsonObject data = arguments.getAsJsonObject("data");
         String where = arguments.get("where").getAsString();
         
-        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        StringBuilder sql = new StringBuilder("UPDATE ").append(SqlStatements.quoteIdentifier(table, true)).append(" SET ");
+        List<Object> params = new ArrayList<>(data.size());
         boolean first = true;
         
         for (String key : data.keySet()) {
             if (!first) {
                 sql.append(", ");
             }
-            sql.append(key).append(" = ");
-            JsonElement value = data.get(key);
-            if (value.isJsonNull()) {
-                sql.append("NULL");
-            } else if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()) {
-                sql.append("'").append(escapeSql(value.getAsString())).append("'");
-            } else {
-                sql.append(value.getAsString());
-            }
+            sql.append(SqlStatements.quoteIdentifier(key, false)).append(" = ?");
+            params.add(JsonValues.toJavaValue(data.get(key)));
             first = false;
         }
         
+        // WHERE 条件中的 ? 占位符在 SET 的值之后绑定
         sql.append(" WHERE ").append(where);
+        params.addAll(parseParams(arguments));
         
-        int affectedRows = databaseManager.executeUpdate(sql.toString());
+        int affectedRows = databaseManager.executeUpdate(sql.toString(), params);
         
         JsonObject result = new JsonObject();
         JsonArray content = new JsonArray();
@@ -375,8 +1366,8 @@ public class MCPToolHandler {
         String table = arguments.get("table").getAsString();
         String where = arguments.get("where").getAsString();
         
-        String sql = "DELETE FROM " + table + " WHERE " + where;
-        int affectedRows = databaseManager.executeUpdate(sql);
+        String sql = "DELETE FROM " + SqlStatements.quoteIdentifier(table, true) + " WHERE " + where;
+        int affectedRows = databaseManager.executeUpdate(sql, parseParams(arguments));
         
         JsonObject result = new JsonObject();
         JsonArray content = new JsonArray();
@@ -508,8 +1499,371 @@ public class MCPToolHandler {
         return result;
     }
 
-    private String escapeSql(String str) {
-        return str.replace("'", "''").replace("\\", "\\\\");
+    private JsonObject handleDescribeSchema(JsonObject arguments) throws SQLException {
+        String databaseName = arguments.has("database") ? arguments.get("database").getAsString() : null;
+        String pattern = arguments.has("pattern") ? arguments.get("pattern").getAsString() : null;
+        String after = arguments.has("after") ? arguments.get("after").getAsString() : null;
+        int maxTables = arguments.has("max_tables")
+            ? Math.max(1, Math.min(MAX_SCHEMA_PAGE_TABLES, arguments.get("max_tables").getAsInt()))
+            : DEFAULT_SCHEMA_PAGE_TABLES;
+        SchemaPage page = databaseManager.describeSchema(databaseName, pattern, after, maxTables);
+        
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        JsonArray tableArray = new JsonArray();
+        
+        String dbInfo = page.getDatabase() != null ? "Database '" + page.getDatabase() + "'" : "Current database";
+        StringBuilder text = new StringBuilder(dbInfo + ": " + page.getTables().size() + " table(s)"
+            + (pattern != null ? " matching '" + pattern + "'" : "")
+            + (page.hasMore() ? ", more available (call describe_schema with after=\"" + page.getNextAfter() + "\")" : "")
+            + "\n");
+        for (SchemaPage.Table table : page.getTables()) {
+            tableArray.add(toJson(table));
+            appendTable(text, table);
+        }
+        
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        textContent.addProperty("text", text.toString());
+        content.add(textContent);
+        result.add("content", content);
+        
+        // 同时保留原始数据格式以便兼容
+        if (page.getDatabase() != null) {
+            result.addProperty("database", page.getDatabase());
+        }
+        result.add("tables", tableArray);
+        result.addProperty("count", page.getTables().size());
+        result.addProperty("hasMore", page.hasMore());
+        if (page.hasMore()) {
+            result.addProperty("nextAfter", page.getNextAfter());
+        }
+        return result;
+    }
+
+    /**
+     * 表结构转换为 JSON，省略空值和默认值以减小体积
+     */
+    private JsonObject toJson(SchemaPage.Table table) {
+        JsonObject json = new JsonObject();
+        json.addProperty("name", table.getName());
+        if (table.isView()) {
+            json.addProperty("type", "view");
+        }
+        if (table.getEngine() != null) {
+            json.addProperty("engine", table.getEngine());
+        }
+        if (table.getRows() != null) {
+            json.addProperty("rows", table.getRows());
+        }
+        if (table.getComment() != null) {
+            json.addProperty("comment", table.getComment());
+        }
+        JsonArray columns = new JsonArray();
+        for (SchemaPage.Column column : table.getColumns()) {
+            JsonObject col = new JsonObject();
+            col.addProperty("name", column.getName());
+            col.addProperty("type", column.getType());
+            col.addProperty("nullable", column.isNullable());
+            if (column.getDefaultValue() != null) {
+                col.addProperty("defaultValue", column.getDefaultValue());
+            }
+            if (column.getExtra() != null) {
+                col.addProperty("extra", column.getExtra());
+            }
+            if (column.getComment() != null) {
+                col.addProperty("comment", column.getComment());
+            }
+            columns.add(col);
+        }
+        json.add("columns", columns);
+        if (!table.getPrimaryKey().isEmpty()) {
+            json.add("primaryKey", toJsonArray(table.getPrimaryKey()));
+        }
+        if (!table.getIndexes().isEmpty()) {
+            JsonArray indexes = new JsonArray();
+            for (SchemaPage.Index index : table.getIndexes()) {
+                JsonObject idx = new JsonObject();
+                idx.addProperty("name", index.getName());
+                idx.addProperty("unique", index.isUnique());
+                idx.add("columns", toJsonArray(index.getColumns()));
+                indexes.add(idx);
+            }
+            json.add("indexes", indexes);
+        }
+        if (!table.getForeignKeys().isEmpty()) {
+            JsonArray foreignKeys = new JsonArray();
+            for (SchemaPage.ForeignKey foreignKey : table.getForeignKeys()) {
+                JsonObject fk = new JsonObject();
+                fk.addProperty("name", foreignKey.getName());
+                fk.add("columns", toJsonArray(foreignKey.getColumns()));
+                if (foreignKey.getReferencedDatabase() != null) {
+                    fk.addProperty("refDatabase", foreignKey.getReferencedDatabase());
+                }
+                fk.addProperty("refTable", foreignKey.getReferencedTable());
+                fk.add("refColumns", toJsonArray(foreignKey.getReferencedColumns()));
+                foreignKeys.add(fk);
+            }
+            json.add("foreignKeys", foreignKeys);
+        }
+        return json;
+    }
+
+    private static JsonArray toJsonArray(List<String> values) {
+        JsonArray array = new JsonArray(values.size());
+        for (String value : values) {
+            array.add(value);
+        }
+        return array;
+    }
+
+    /**
+     * 以紧凑的文本描述一张表：表头一行，之后每列、主键、索引、外键各一行
+     */
+    private static void appendTable(StringBuilder text, SchemaPage.Table table) {
+        text.append("\n").append(table.getName());
+        List<String> info = new ArrayList<>();
+        if (table.isView()) {
+            info.add("view");
+        }
+        if (table.getEngine() != null) {
+            info.add(table.getEngine());
+        }
+        if (table.getRows() != null) {
+            info.add("~" + table.getRows() + " rows");
+        }
+        if (!info.isEmpty()) {
+            text.append(" [").append(String.join(", ", info)).append("]");
+        }
+        if (table.getComment() != null) {
+            text.append(" -- ").append(table.getComment());
+        }
+        text.append("\n");
+        for (SchemaPage.Column column : table.getColumns()) {
+            text.append("  ").append(column.getName()).append(" ").append(column.getType());
+            if (!column.isNullable()) {
+                text.append(" NOT NULL");
+            }
+            if (column.getDefaultValue() != null) {
+                text.append(" DEFAULT ").append(column.getDefaultValue());
+            }
+            if (column.getExtra() != null) {
+                text.append(" ").append(column.getExtra());
+            }
+            if (column.getComment() != null) {
+                text.append(" -- ").append(column.getComment());
+            }
+            text.append("\n");
+        }
+        if (!table.getPrimaryKey().isEmpty()) {
+            text.append("  PRIMARY KEY (").append(String.join(", ", table.getPrimaryKey())).append(")\n");
+        }
+        for (SchemaPage.Index index : table.getIndexes()) {
+            text.append("  ").append(index.isUnique() ? "UNIQUE " : "").append("INDEX ").append(index.getName())
+                .append(" (").append(String.join(", ", index.getColumns())).append(")\n");
+        }
+        for (SchemaPage.ForeignKey foreignKey : table.getForeignKeys()) {
+            text.append("  FOREIGN KEY ").append(foreignKey.getName())
+                .append(" (").append(String.join(", ", foreignKey.getColumns())).append(") -> ");
+            if (foreignKey.getReferencedDatabase() != null) {
+                text.append(foreignKey.getReferencedDatabase()).append(".");
+            }
+            text.append(foreignKey.getReferencedTable())
+                .append("(").append(String.join(", ", foreignKey.getReferencedColumns())).append(")\n");
+        }
+    }
+
+    private JsonObject handleDatabaseStats(JsonObject arguments) {
+        PoolStats stats = databaseManager.getPoolStats();
+
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        JsonObject pool = toJson(stats);
+
+        CacheStats metadataStats = databaseManager.getMetadataCache().getStats();
+        QueryResultCache resultCache = databaseManager.getResultCache();
+        CacheStats resultStats = resultCache.getStats();
+        JsonObject resultCacheJson = toJson(resultStats);
+        resultCacheJson.addProperty("enabled", resultCache.isEnabled());
+        resultCacheJson.addProperty("bytes", resultStats.getWeight());
+        resultCacheJson.add("byTool", toolCacheStats.toJson());
+        JsonArray loads = new JsonArray();
+        for (LoadProgress progress : activeLoads.values()) {
+            loads.add(progress.toJson());
+        }
+        JsonObject cursors = new JsonObject();
+        int streamingCursors = 0;
+        long bufferedRows = 0;
+        long memoryBytes = 0;
+        long spilledBytes = 0;
+        for (QueryCursor cursor : cursorManager.getCursors()) {
+            streamingCursors += cursor.isStreaming() ? 1 : 0;
+            bufferedRows += cursor.getBufferedRows();
+            memoryBytes += cursor.getMemoryBytes();
+            spilledBytes += cursor.getSpilledBytes();
+        }
+        cursors.addProperty("open", cursorManager.getCursors().size());
+        cursors.addProperty("holdingConnection", streamingCursors);
+        cursors.addProperty("bufferedRows", bufferedRows);
+        cursors.addProperty("memoryBytes", memoryBytes);
+        cursors.addProperty("spilledBytes", spilledBytes);
+        cursors.addProperty("opened", cursorManager.getOpenedCount());
+        cursors.addProperty("expired", cursorManager.getExpiredCount());
+        JsonObject requests = new JsonObject();
+        requests.addProperty("inFlight", databaseManager.getActiveRequestCount());
+        requests.addProperty("defaultQueryTimeoutSeconds", databaseManager.getDefaultQueryTimeoutSeconds());
+        ReplicaRouter router = databaseManager.getReplicaRouter();
+        JsonObject replicas = new JsonObject();
+        replicas.addProperty("enabled", router.isEnabled());
+        replicas.addProperty("replicaReads", router.getReplicaReads());
+        replicas.addProperty("primaryReads", router.getPrimaryReads());
+        replicas.addProperty("fallbacks", router.getFallbacks());
+        replicas.addProperty("hedges", router.getHedges());
+        replicas.addProperty("hedgeWins", router.getHedgeWins());
+        replicas.addProperty("hedgeDelayMs", router.getHedgeDelayMs());
+        JsonArray replicaList = new JsonArray();
+        for (ReplicaStats replica : router.getStats()) {
+            JsonObject item = new JsonObject();
+            item.addProperty("name", replica.getName());
+            item.addProperty("url", replica.getUrl());
+            item.addProperty("available", replica.isAvailable());
+            item.addProperty("lagSeconds", replica.getLagSeconds());
+            item.addProperty("latencyMs", replica.getLatencyMillis());
+            item.addProperty("inFlight", replica.getInFlight());
+            item.addProperty("reads", replica.getReads());
+            item.addProperty("errors", replica.getErrors());
+            item.addProperty("lastError", replica.getLastError());
+            item.add("pool", toJson(replica.getPool()));
+            replicaList.add(item);
+        }
+        replicas.add("replicas", replicaList);
+        ResultLimits limits = databaseManager.getResultLimits();
+        ResultMemoryBudget budget = databaseManager.getResultMemoryBudget();
+        JsonObject resultMemory = new JsonObject();
+        resultMemory.addProperty("maxRows", limits.getMaxRows());
+        resultMemory.addProperty("maxBytes", limits.getMaxBytes());
+        resultMemory.addProperty("autoLimit", limits.isAutoLimit());
+        resultMemory.addProperty("budgetBytes", budget.getCapacityBytes());
+        resultMemory.addProperty("usedBytes", budget.getUsedBytes());
+        resultMemory.addProperty("peakBytes", budget.getPeakBytes());
+        resultMemory.addProperty("waiting", budget.getWaiting());
+        resultMemory.addProperty("admitted", budget.getAdmitted());
+        resultMemory.addProperty("queued", budget.getQueued());
+        resultMemory.addProperty("rejected", budget.getRejected());
+        resultMemory.addProperty("truncated", budget.getTruncated());
+        QueryAdmission queryAdmission = databaseManager.getQueryAdmission();
+        JsonObject admission = new JsonObject();
+        admission.addProperty("enabled", queryAdmission.isEnabled());
+        admission.addProperty("warnRowsExamined", queryAdmission.getWarnRowsExamined());
+        admission.addProperty("maxRowsExamined", queryAdmission.getMaxRowsExamined());
+        admission.addProperty("warnCost", queryAdmission.getWarnCost());
+        admission.addProperty("maxCost", queryAdmission.getMaxCost());
+        admission.addProperty("overLimitAction", queryAdmission.getOverLimitAction().getName());
+        for (AdmissionDecision.Action action : AdmissionDecision.Action.values()) {
+            admission.addProperty(action.getName(), queryAdmission.getDecisions(action));
+        }
+        admission.addProperty("explainFailures", queryAdmission.getExplainFailures());
+        admission.add("planCache", toJson(queryAdmission.getPlanCacheStats()));
+        JsonObject shardGroups = new JsonObject();
+        for (ShardGroup group : databaseManager.getShardGroups().values()) {
+            JsonArray shards = new JsonArray();
+            for (ShardGroup.Shard shard : group.getShards()) {
+                JsonObject item = new JsonObject();
+                item.addProperty("name", shard.getName());
+                item.addProperty("url", shard.getUrl());
+                item.add("pool", toJson(shard.getPoolStats()));
+                shards.add(item);
+            }
+            shardGroups.add(group.getName(), shards);
+        }
+
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        textContent.addProperty("text", (stats != null ? "Connection pool: " + stats : "Connection pool not initialized yet")
+            + "\nMetadata cache: " + metadataStats
+            + "\nResult cache: " + (resultCache.isEnabled() ? resultStats : "disabled")
+            + "\nActive loads: " + loads.size()
+            + "\nOpen cursors: " + cursorManager.getCursors().size()
+            + "\nIn-flight requests: " + databaseManager.getActiveRequestCount()
+            + "\nResult limits: " + limits + ", memory budget: " + budget
+            + "\nQuery admission: " + queryAdmission
+            + (router.isEnabled() ? "\nReplicas: " + router.getStats() + ", replica reads: " + router.getReplicaReads()
+                + ", primary reads: " + router.getPrimaryReads() + ", fallbacks: " + router.getFallbacks()
+                + ", hedges: " + router.getHedges() + " (won " + router.getHedgeWins() + ")" : ""));
+        content.add(textContent);
+        result.add("content", content);
+
+        // 同时保留原始数据格式以便兼容
+        result.add("pool", pool);
+        result.add("metadataCache", toJson(metadataStats));
+        result.add("resultCache", resultCacheJson);
+        result.add("activeLoads", loads);
+        result.add("cursors", cursors);
+        result.add("requests", requests);
+        result.add("resultMemory", resultMemory);
+        result.add("admission", admission);
+        result.add("replicas", replicas);
+        result.add("shardGroups", shardGroups);
+        return result;
+    }
+
+    /**
+     * 连接池统计转换为 JSON，连接池尚未创建时返回空对象
+     */
+    private JsonObject toJson(PoolStats stats) {
+        JsonObject pool = new JsonObject();
+        if (stats != null) {
+            pool.addProperty("total", stats.getTotalConnections());
+            pool.addProperty("active", stats.getActiveConnections());
+            pool.addProperty("idle", stats.getIdleConnections());
+            pool.addProperty("waiting", stats.getWaitingThreads());
+            pool.addProperty("maxSize", stats.getMaxSize());
+            pool.addProperty("borrowCount", stats.getBorrowCount());
+            pool.addProperty("timeoutCount", stats.getTimeoutCount());
+            pool.addProperty("createdCount", stats.getCreatedCount());
+            pool.addProperty("closedCount", stats.getClosedCount());
+            pool.addProperty("leakCount", stats.getLeakCount());
+            pool.addProperty("avgWaitMs", stats.getAverageWaitMillis());
+            pool.addProperty("maxWaitMs", stats.getMaxWaitMillis());
+        }
+        return pool;
+    }
+
+    private JsonObject handleServerStats(JsonObject arguments) {
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        textContent.addProperty("text", metrics.summary());
+        content.add(textContent);
+        result.add("content", content);
+        
+        // 同时保留原始数据格式以便兼容
+        for (Map.Entry<String, JsonElement> entry : metrics.toJson().entrySet()) {
+            result.add(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private JsonObject toJson(CacheStats stats) {
+        JsonObject json = new JsonObject();
+        json.addProperty("size", stats.getSize());
+        json.addProperty("hits", stats.getHits());
+        json.addProperty("misses", stats.getMisses());
+        json.addProperty("hitRatio", stats.getHitRatio());
+        json.addProperty("evictions", stats.getEvictions());
+        json.addProperty("invalidations", stats.getInvalidations());
+        return json;
     }
-}
 
+    /**
+     * 关闭所有游标
+     */
+    public void close() {
+        cursorManager.close();
+    }
+}
@@ -0,0 +1,185 @@
+package com.mysqlmcp.tools;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.mysqlmcp.database.CacheStatus;
+import com.mysqlmcp.database.QueryResult;
+import com.mysqlmcp.database.QueryStream;
+import com.mysqlmcp.database.SpillBuffer;
+
+/**
+ * 服务器端游标
+ * 按需从流式结果集读取行，已读取的行编码后保存在 SpillBuffer 中，可以按 offset 重新读取；
+ * 结果集读完后立即关闭并归还连接。
+ */
+class QueryCursor {
+    private final String id;
+    private final String sql;
+    private final String[] columns;
+    private final SpillBuffer buffer;
+    private final CacheStatus cacheStatus;
+    private volatile QueryStream stream;
+    private long position;
+    private volatile long lastAccess = System.currentTimeMillis();
+    private boolean closed;
+
+    QueryCursor(String id, String sql, QueryStream stream, SpillBuffer buffer) {
+        this.id = id;
+        this.sql = sql;
+        this.stream = stream;
+        this.columns = stream.getColumnNames();
+        this.buffer = buffer;
+        this.cacheStatus = stream.getCacheStatus();
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    String[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * 打开游标时结果缓存的查找状态
+     */
+    CacheStatus getCacheStatus() {
+        return cacheStatus;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * 一页结果
+     */
+    static final class Page {
+        final QueryResult result;
+        final long offset;
+        final boolean hasMore;
+
+        Page(QueryResult result, long offset, boolean hasMore) {
+            this.result = result;
+            this.offset = offset;
+            this.hasMore = hasMore;
+        }
+    }
+
+    /**
+     * 读取一页
+     * @param offset 起始行号（从 0 开始），为 null 时从上一页末尾继续
+     */
+    synchronized Page fetch(Long offset, int pageSize) throws SQLException, IOException {
+        checkOpen();
+        lastAccess = System.currentTimeMillis();
+        long start = offset != null ? Math.max(0, offset) : position;
+        long end = start + pageSize;
+        while (buffer.size() < end && readRow()) {
+            // 读取到所需行数或结果集结束
+        }
+        end = Math.min(end, buffer.size());
+
+        List<Object[]> rows = new ArrayList<>((int) Math.max(0, end - start));
+        for (long i = start; i < end; i++) {
+            rows.add(decode(buffer.get(i)));
+        }
+        position = Math.max(start, end);
+        boolean hasMore = position < buffer.size() || (stream != null && readRow());
+        return new Page(new QueryResult(columns, rows), start, hasMore);
+    }
+
+    /**
+     * 读取剩余的所有行并释放连接
+     */
+    synchronized void materialize() throws SQLException, IOException {
+        checkOpen();
+        while (readRow()) {
+            // 读取全部剩余行
+        }
+    }
+
+    private boolean readRow() throws SQLException, IOException {
+        if (stream == null) {
+            return false;
+        }
+        if (!stream.next()) {
+            stream.close();
+            stream = null;
+            return false;
+        }
+        buffer.add(encode());
+        return true;
+    }
+
+    private byte[] encode() throws SQLException, IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        for (int i = 0; i < columns.length; i++) {
+            JsonValues.write(writer, stream.getValue(i));
+        }
+        writer.endArray();
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Object[] decode(byte[] record) {
+        JsonArray array = JsonParser.parseString(new String(record, StandardCharsets.UTF_8)).getAsJsonArray();
+        Object[] row = new Object[array.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = JsonValues.toJavaValue(array.get(i));
+        }
+        return row;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Cursor is closed: " + id);
+        }
+    }
+
+    /**
+     * 是否仍占用数据库连接
+     */
+    boolean isStreaming() {
+        return stream != null;
+    }
+
+    // 以下统计方法不加锁，读取期间可能略有滞后
+
+    long getBufferedRows() {
+        return buffer.size();
+    }
+
+    long getMemoryBytes() {
+        return buffer.getMemoryBytes();
+    }
+
+    long getSpilledBytes() {
+        return buffer.getSpilledBytes();
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+        buffer.close();
+    }
+}
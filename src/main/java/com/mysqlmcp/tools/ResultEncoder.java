@@ -0,0 +1,177 @@
+package com.mysqlmcp.tools;
+
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mysqlmcp.database.QueryResult;
+import com.mysqlmcp.database.RequestContext;
+import com.mysqlmcp.database.ResultTruncation;
+
+/**
+ * 将查询结果按指定格式编码为工具调用结果
+ */
+final class ResultEncoder {
+
+    private ResultEncoder() {
+    }
+
+    /**
+     * 编码查询结果
+     * @param includeRows 是否附带结构化数据（rows/data），为 false 时只返回 content
+     */
+    static JsonObject encode(QueryResult queryResult, ResultFormat format, boolean includeRows) {
+        long begin = System.nanoTime();
+        try {
+            return encodeResult(queryResult, format, includeRows);
+        } finally {
+            RequestContext.timings().addSerializationNanos(System.nanoTime() - begin);
+        }
+    }
+
+    private static JsonObject encodeResult(QueryResult queryResult, ResultFormat format, boolean includeRows) {
+        String[] columns = queryResult.getColumnNames();
+        List<Object[]> rows = queryResult.getRows();
+
+        JsonObject result = new JsonObject();
+        JsonArray content = new JsonArray();
+        
+        // 按照 MCP 协议规范，添加 content 数组
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        switch (format) {
+            case TSV:
+                textContent.addProperty("text", renderTsv(columns, rows));
+                break;
+            case MARKDOWN:
+                textContent.addProperty("text", renderMarkdown(columns, rows));
+                break;
+            default:
+                textContent.addProperty("text", "Query returned " + rows.size() + " row(s)");
+                break;
+        }
+        content.add(textContent);
+        result.add("content", content);
+
+        if (includeRows) {
+            switch (format) {
+                case OBJECTS:
+                    result.add("rows", toObjectRows(columns, rows));
+                    break;
+                case COLUMNAR:
+                    result.add("columns", toColumnArray(columns));
+                    result.add("data", toColumnMajor(columns, rows));
+                    break;
+                default:
+                    result.add("columns", toColumnArray(columns));
+                    result.add("rows", toArrayRows(rows));
+                    break;
+            }
+        }
+        result.addProperty("count", rows.size());
+        result.addProperty("format", format.getName());
+        ResultTruncation truncation = queryResult.getTruncation();
+        if (truncation != ResultTruncation.NONE) {
+            JsonObject truncatedContent = new JsonObject();
+            truncatedContent.addProperty("type", "text");
+            truncatedContent.addProperty("text", truncation.describe(rows.size()));
+            content.add(truncatedContent);
+            result.addProperty("truncated", true);
+            result.addProperty("truncatedReason", truncation.getReason());
+        }
+        return result;
+    }
+
+    static JsonArray toColumnArray(String[] columns) {
+        JsonArray array = new JsonArray(columns.length);
+        for (String column : columns) {
+            array.add(column);
+        }
+        return array;
+    }
+
+    private static JsonArray toObjectRows(String[] columns, List<Object[]> rows) {
+        JsonArray array = new JsonArray(rows.size());
+        for (Object[] row : rows) {
+            JsonObject rowObj = new JsonObject();
+            for (int i = 0; i < columns.length; i++) {
+                rowObj.add(columns[i], JsonValues.toJsonElement(row[i]));
+            }
+            array.add(rowObj);
+        }
+        return array;
+    }
+
+    private static JsonArray toArrayRows(List<Object[]> rows) {
+        JsonArray array = new JsonArray(rows.size());
+        for (Object[] row : rows) {
+            JsonArray rowArray = new JsonArray(row.length);
+            for (Object value : row) {
+                rowArray.add(JsonValues.toJsonElement(value));
+            }
+            array.add(rowArray);
+        }
+        return array;
+    }
+
+    private static JsonArray toColumnMajor(String[] columns, List<Object[]> rows) {
+        JsonArray data = new JsonArray(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            JsonArray values = new JsonArray(rows.size());
+            for (Object[] row : rows) {
+                values.add(JsonValues.toJsonElement(row[i]));
+            }
+            data.add(values);
+        }
+        return data;
+    }
+
+    private static String renderTsv(String[] columns, List<Object[]> rows) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                text.append('\t');
+            }
+            text.append(escapeTsv(columns[i]));
+        }
+        text.append('\n');
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    text.append('\t');
+                }
+                text.append(row[i] == null ? "NULL" : escapeTsv(row[i].toString()));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String renderMarkdown(String[] columns, List<Object[]> rows) {
+        StringBuilder text = new StringBuilder("|");
+        for (String column : columns) {
+            text.append(' ').append(escapeMarkdown(column)).append(" |");
+        }
+        text.append("\n|");
+        for (int i = 0; i < columns.length; i++) {
+            text.append(" --- |");
+        }
+        text.append('\n');
+        for (Object[] row : rows) {
+            text.append('|');
+            for (Object value : row) {
+                text.append(' ').append(value == null ? "NULL" : escapeMarkdown(value.toString())).append(" |");
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String escapeTsv(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String escapeMarkdown(String value) {
+        return value.replace("|", "\\|").replace("\r\n", "<br>").replace("\n", "<br>");
+    }
+}
@@ -0,0 +1,54 @@
+package com.mysqlmcp.tools;
+
+/**
+ * execute_query 结果编码格式
+ */
+enum ResultFormat {
+    /** 每行一个对象，键为列名（默认，与旧版本兼容） */
+    OBJECTS("objects", true),
+    /** columns 列名数组 + rows 二维数组，列名只出现一次 */
+    COLUMNS("columns", true),
+    /** 按列存储：columns 列名数组 + data 中每列一个值数组 */
+    COLUMNAR("columnar", true),
+    /** content 中以制表符分隔的文本表格 */
+    TSV("tsv", false),
+    /** content 中的 Markdown 表格 */
+    MARKDOWN("markdown", false);
+
+    private final String name;
+    /** 未指定 include_rows 时是否附带结构化数据 */
+    private final boolean rowsByDefault;
+
+    ResultFormat(String name, boolean rowsByDefault) {
+        this.name = name;
+        this.rowsByDefault = rowsByDefault;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean includesRowsByDefault() {
+        return rowsByDefault;
+    }
+
+    /**
+     * 是否可以逐行流式输出（按列存储和文本格式需要先读完整个结果）
+     */
+    boolean isStreamable() {
+        return this == OBJECTS || this == COLUMNS;
+    }
+
+    static ResultFormat parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return OBJECTS;
+        }
+        for (ResultFormat format : values()) {
+            if (format.name.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown format: " + value
+            + " (expected objects, columns, columnar, tsv or markdown)");
+    }
+}
@@ -0,0 +1,84 @@
+package com.mysqlmcp.tools;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.mysqlmcp.database.AdmissionDecision;
+import com.mysqlmcp.database.QueryPlan;
+import com.mysqlmcp.database.RowStream;
+
+/**
+ * 经过准入检查的 execute_query 流式结果
+ * 行之后写出准入决定和执行计划摘要（admission），提示或降级时在 content 中说明。
+ */
+class StreamingAdmittedResult extends StreamingQueryResult {
+    private static final Gson gson = new Gson();
+    private final AdmissionDecision admission;
+
+    StreamingAdmittedResult(RowStream stream, AdmissionDecision admission, ResultFormat format, boolean includeRows) {
+        super(stream, format, includeRows);
+        this.admission = admission;
+    }
+
+    @Override
+    protected void writeExtraFields(JsonWriter writer) throws IOException {
+        writer.name("admission");
+        gson.toJson(toJson(admission), writer);
+    }
+
+    @Override
+    protected String summary(long count) {
+        return isNoteworthy(admission) ? super.summary(count) + "\n" + admission.describe() : super.summary(count);
+    }
+
+    /**
+     * 在非流式结果中加入准入决定
+     */
+    static void addAdmission(JsonObject result, AdmissionDecision admission) {
+        result.add("admission", toJson(admission));
+        if (isNoteworthy(admission)) {
+            JsonObject textContent = new JsonObject();
+            textContent.addProperty("type", "text");
+            textContent.addProperty("text", admission.describe());
+            result.getAsJsonArray("content").add(textContent);
+        }
+    }
+
+    /**
+     * 放行的查询不在 content 中说明
+     */
+    private static boolean isNoteworthy(AdmissionDecision admission) {
+        return admission.getAction() != AdmissionDecision.Action.ALLOW;
+    }
+
+    private static JsonObject toJson(AdmissionDecision admission) {
+        JsonObject item = new JsonObject();
+        item.addProperty("decision", admission.getAction().getName());
+        if (admission.getReason() != null) {
+            item.addProperty("reason", admission.getReason());
+        }
+        QueryPlan plan = admission.getPlan();
+        if (plan != null) {
+            JsonObject planJson = new JsonObject();
+            planJson.addProperty("cost", plan.getCost());
+            planJson.addProperty("rowsExamined", plan.getRowsExamined());
+            JsonArray fullScans = new JsonArray();
+            for (String table : plan.getFullScans()) {
+                fullScans.add(table);
+            }
+            planJson.add("fullScans", fullScans);
+            planJson.addProperty("filesort", plan.isFilesort());
+            planJson.addProperty("temporary", plan.isTemporary());
+            planJson.addProperty("cached", admission.isPlanCached());
+            item.add("plan", planJson);
+        }
+        if (admission.getAction() == AdmissionDecision.Action.DOWNGRADE) {
+            item.addProperty("maxExecutionMs", admission.getMaxExecutionMillis());
+            item.addProperty("maxRows", admission.getMaxRows());
+        }
+        return item;
+    }
+}
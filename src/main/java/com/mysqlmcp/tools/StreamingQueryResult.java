@@ -0,0 +1,133 @@
+package com.mysqlmcp.tools;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.stream.JsonWriter;
+import com.mysqlmcp.database.CacheStatus;
+import com.mysqlmcp.database.ResultTruncation;
+import com.mysqlmcp.database.RowStream;
+
+/**
+ * execute_query 的流式结果
+ * 每读取一行立即写入 JsonWriter，输出结构与非流式结果相同（rows、count、content）。
+ * 支持 objects 和 columns 两种可逐行输出的格式；子类可以在行之后写出额外的字段。
+ * 结果被截断时附带 truncated 和 truncatedReason，并在 content 中说明。
+ */
+class StreamingQueryResult implements StreamingResult {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingQueryResult.class);
+    private final RowStream stream;
+    private final ResultFormat format;
+    private final boolean includeRows;
+
+    StreamingQueryResult(RowStream stream, ResultFormat format, boolean includeRows) {
+        this.stream = stream;
+        this.format = format;
+        this.includeRows = includeRows;
+    }
+
+    @Override
+    public void writeTo(JsonWriter writer) throws IOException {
+        String[] columns = stream.getColumnNames();
+        String error = null;
+
+        writer.beginObject();
+        if (includeRows && format == ResultFormat.COLUMNS) {
+            writer.name("columns");
+            writer.beginArray();
+            for (String column : columns) {
+                writer.value(column);
+            }
+            writer.endArray();
+        }
+        if (includeRows) {
+            writer.name("rows");
+            writer.beginArray();
+        }
+        try {
+            while (stream.next()) {
+                if (!includeRows) {
+                    continue;
+                }
+                if (format == ResultFormat.COLUMNS) {
+                    writer.beginArray();
+                    for (int i = 0; i < columns.length; i++) {
+                        JsonValues.write(writer, stream.getValue(i));
+                    }
+                    writer.endArray();
+                } else {
+                    writer.beginObject();
+                    for (int i = 0; i < columns.length; i++) {
+                        writer.name(columns[i]);
+                        JsonValues.write(writer, stream.getValue(i));
+                    }
+                    writer.endObject();
+                }
+            }
+        } catch (SQLException e) {
+            // 响应已经开始输出，无法再改为 JSON-RPC 错误，在结果中标记错误
+            logger.error("Error while streaming query result", e);
+            error = e.getMessage();
+        }
+        if (includeRows) {
+            writer.endArray();
+        }
+
+        long count = stream.getRowCount();
+        writer.name("count").value(count);
+        writer.name("format").value(format.getName());
+        if (stream.getCacheStatus() == CacheStatus.HIT) {
+            writer.name("cached").value(true);
+        }
+        ResultTruncation truncation = stream.getTruncation();
+        if (truncation != ResultTruncation.NONE) {
+            writer.name("truncated").value(true);
+            writer.name("truncatedReason").value(truncation.getReason());
+        }
+        writeExtraFields(writer);
+
+        // 按照 MCP 协议规范，添加 content 数组
+        writer.name("content");
+        writer.beginArray();
+        writer.beginObject();
+        writer.name("type").value("text");
+        if (error == null) {
+            writer.name("text").value(summary(count));
+        } else {
+            writer.name("text").value("Query failed after " + count + " row(s): " + error);
+        }
+        writer.endObject();
+        if (error == null && truncation != ResultTruncation.NONE) {
+            writer.beginObject();
+            writer.name("type").value("text");
+            writer.name("text").value(truncation.describe(count));
+            writer.endObject();
+        }
+        writer.endArray();
+        if (error != null) {
+            writer.name("isError").value(true);
+        }
+        writer.endObject();
+    }
+
+    /**
+     * 在行和 count 之后写出额外的字段，默认不写
+     */
+    protected void writeExtraFields(JsonWriter writer) throws IOException {
+    }
+
+    /**
+     * 成功时 content 中的文本
+     */
+    protected String summary(long count) {
+        return "Query returned " + count + " row(s)";
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.mysqlmcp.tools;
+
+import java.io.IOException;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * 可流式写出的工具调用结果
+ * 与返回 JsonObject 不同，结果在写响应时才逐步生成并直接写入输出，不在内存中构建完整的 JSON 树
+ */
+public interface StreamingResult extends AutoCloseable {
+
+    /**
+     * 将 result 对象写入 writer（包括开始和结束的大括号）
+     */
+    void writeTo(JsonWriter writer) throws IOException;
+
+    /**
+     * 释放结果占用的资源（例如数据库连接），不抛出受检异常
+     */
+    @Override
+    void close();
+}
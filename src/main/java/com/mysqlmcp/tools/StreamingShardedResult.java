@@ -0,0 +1,79 @@
+package com.mysqlmcp.tools;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.mysqlmcp.database.RowStream;
+import com.mysqlmcp.database.ShardResult;
+import com.mysqlmcp.database.ShardedQuery;
+
+/**
+ * execute_query_sharded 的流式结果
+ * 合并后的行逐行写出，行之后写出每个分片的行数、耗时和错误（shards、partial）。
+ */
+class StreamingShardedResult extends StreamingQueryResult {
+    private static final Gson gson = new Gson();
+    private final ShardedQuery query;
+
+    /**
+     * @param rows 写出的行（query 本身或按结果上限截断后的 query）
+     */
+    StreamingShardedResult(RowStream rows, ShardedQuery query, ResultFormat format, boolean includeRows) {
+        super(rows, format, includeRows);
+        this.query = query;
+    }
+
+    @Override
+    protected void writeExtraFields(JsonWriter writer) throws IOException {
+        writer.name("shards");
+        gson.toJson(toJson(query), writer);
+        writer.name("partial").value(query.isPartial());
+    }
+
+    @Override
+    protected String summary(long count) {
+        return super.summary(count) + "\n" + describeShards(query);
+    }
+
+    /**
+     * 在非流式结果中加入分片信息
+     */
+    static void addShards(JsonObject result, ShardedQuery query) {
+        result.add("shards", toJson(query));
+        result.addProperty("partial", query.isPartial());
+        JsonObject textContent = new JsonObject();
+        textContent.addProperty("type", "text");
+        textContent.addProperty("text", describeShards(query));
+        result.getAsJsonArray("content").add(textContent);
+    }
+
+    private static JsonArray toJson(ShardedQuery query) {
+        JsonArray shards = new JsonArray();
+        for (ShardResult shard : query.getShardResults()) {
+            JsonObject item = new JsonObject();
+            item.addProperty("name", shard.getName());
+            item.addProperty("url", shard.getUrl());
+            item.addProperty("rows", shard.getRows());
+            item.addProperty("openMs", shard.getOpenMillis());
+            item.addProperty("elapsedMs", shard.getElapsedMillis());
+            item.addProperty("complete", shard.isComplete());
+            if (shard.getError() != null) {
+                item.addProperty("error", shard.getError());
+            }
+            shards.add(item);
+        }
+        return shards;
+    }
+
+    private static String describeShards(ShardedQuery query) {
+        StringBuilder text = new StringBuilder(query.isPartial()
+            ? "Partial result, some shards failed:" : "Shards:");
+        for (ShardResult shard : query.getShardResults()) {
+            text.append("\n- ").append(shard);
+        }
+        return text.toString();
+    }
+}
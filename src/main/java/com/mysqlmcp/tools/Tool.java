@@ -0,0 +1,37 @@
+package com.mysqlmcp.tools;
+
+import java.sql.SQLException;
+
+import com.google.gson.JsonObject;
+
+/**
+ * MCP 工具
+ * 每个工具声明一次自己的定义（name、description、inputSchema），注册到 ToolRegistry 后
+ * tools/list 和 tools/call 都通过注册表完成，不需要修改 MCPToolHandler。
+ */
+public interface Tool {
+
+    /**
+     * 工具名，与定义中的 name 一致
+     */
+    String getName();
+
+    /**
+     * 工具定义，注册时读取一次并缓存，返回后不应再修改
+     */
+    JsonObject getDefinition();
+
+    /**
+     * 调用工具
+     * @return 工具调用结果（包含 content 数组）
+     */
+    JsonObject call(JsonObject arguments) throws SQLException;
+
+    /**
+     * 以流式方式调用工具，不支持流式输出时返回 null，由调用方改用 call()
+     * 返回的结果可能占用数据库连接，写出后必须关闭
+     */
+    default StreamingResult openStreaming(JsonObject arguments) throws SQLException {
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.mysqlmcp.tools;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+import com.mysqlmcp.database.CacheStatus;
+
+/**
+ * 按工具统计结果缓存的命中情况
+ */
+class ToolCacheStats {
+    private final Map<String, LongAdder[]> counters = new ConcurrentHashMap<>();
+
+    void record(String tool, CacheStatus status) {
+        if (status == CacheStatus.BYPASS) {
+            return;
+        }
+        LongAdder[] adders = counters.computeIfAbsent(tool, k -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        adders[status == CacheStatus.HIT ? 0 : 1].increment();
+    }
+
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, LongAdder[]> entry : counters.entrySet()) {
+            long hits = entry.getValue()[0].sum();
+            long misses = entry.getValue()[1].sum();
+            JsonObject tool = new JsonObject();
+            tool.addProperty("hits", hits);
+            tool.addProperty("misses", misses);
+            tool.addProperty("hitRatio", hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+            json.add(entry.getKey(), tool);
+        }
+        return json;
+    }
+}
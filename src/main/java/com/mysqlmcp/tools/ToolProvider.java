@@ -0,0 +1,19 @@
+package com.mysqlmcp.tools;
+
+import java.util.List;
+
+import com.mysqlmcp.database.DatabaseManager;
+
+/**
+ * 可插拔工具的提供者
+ * 通过 ServiceLoader 加载：在 jar 的 META-INF/services/com.mysqlmcp.tools.ToolProvider 中列出实现类，
+ * 放到类路径上即可，启动时其工具注册到 ToolRegistry。
+ */
+public interface ToolProvider {
+
+    /**
+     * 创建要注册的工具
+     * @param databaseManager 服务器使用的数据库管理器（共享连接池和缓存）
+     */
+    List<Tool> createTools(DatabaseManager databaseManager);
+}
@@ -0,0 +1,88 @@
+package com.mysqlmcp.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * 工具注册表
+ * 按名称直接查找工具；tools/list 的结果在注册变化后第一次请求时构建并序列化一次，之后直接复用。
+ */
+public class ToolRegistry {
+    private static final Gson gson = new Gson();
+
+    private final Map<String, Tool> tools = new ConcurrentHashMap<>();
+    /** 按注册顺序排列，tools/list 按此顺序返回 */
+    private final Map<String, Tool> ordered = new LinkedHashMap<>();
+    private volatile JsonObject toolsList;
+    private volatile String toolsListJson;
+
+    /**
+     * 注册工具
+     * @throws IllegalArgumentException 同名工具已注册
+     */
+    public synchronized void register(Tool tool) {
+        String name = tool.getName();
+        if (tools.putIfAbsent(name, tool) != null) {
+            throw new IllegalArgumentException("Tool already registered: " + name);
+        }
+        ordered.put(name, tool);
+        toolsList = null;
+        toolsListJson = null;
+    }
+
+    /**
+     * 按名称查找工具，不存在时返回 null
+     */
+    public Tool get(String name) {
+        return name == null ? null : tools.get(name);
+    }
+
+    public synchronized Collection<Tool> getTools() {
+        return Collections.unmodifiableList(new ArrayList<>(ordered.values()));
+    }
+
+    /**
+     * tools/list 的结果，所有调用共享同一个对象，调用方不能修改
+     */
+    public JsonObject getToolsList() {
+        JsonObject list = toolsList;
+        if (list == null) {
+            list = buildToolsList();
+        }
+        return list;
+    }
+
+    /**
+     * 序列化后的 tools/list 结果
+     */
+    public String getToolsListJson() {
+        String json = toolsListJson;
+        if (json == null) {
+            buildToolsList();
+            json = toolsListJson;
+        }
+        return json;
+    }
+
+    private synchronized JsonObject buildToolsList() {
+        if (toolsList == null) {
+            JsonArray array = new JsonArray();
+            for (Tool tool : ordered.values()) {
+                array.add(tool.getDefinition());
+            }
+            JsonObject list = new JsonObject();
+            list.add("tools", array);
+            toolsListJson = gson.toJson(list);
+            toolsList = list;
+        }
+        return toolsList;
+    }
+}
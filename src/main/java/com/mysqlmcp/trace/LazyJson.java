@@ -0,0 +1,100 @@
+package com.mysqlmcp.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+
+/**
+ * 延迟序列化的 JSON 日志参数
+ * 只有日志实际输出时才在 toString() 中序列化，并且最多输出 maxChars 个字符，
+ * 超过后立即停止序列化，大结果不会被完整序列化第二次。
+ */
+public final class LazyJson {
+    private static final Gson gson = new Gson();
+
+    private final JsonElement element;
+    private final int maxChars;
+
+    private LazyJson(JsonElement element, int maxChars) {
+        this.element = element;
+        this.maxChars = maxChars;
+    }
+
+    public static LazyJson of(JsonElement element, int maxChars) {
+        return new LazyJson(element, maxChars);
+    }
+
+    @Override
+    public String toString() {
+        CappedWriter writer = new CappedWriter(maxChars);
+        try {
+            gson.toJson(element, writer);
+        } catch (JsonIOException e) {
+            if (!(e.getCause() instanceof CappedWriter.LimitReached)) {
+                return "<unserializable: " + e.getMessage() + ">";
+            }
+            return writer.builder + "...(truncated at " + maxChars + " chars)";
+        }
+        return writer.builder.toString();
+    }
+
+    /**
+     * 达到字符上限后抛出异常中止序列化的 Writer
+     */
+    private static final class CappedWriter extends Writer {
+        private final StringBuilder builder = new StringBuilder();
+        private final int maxChars;
+
+        private CappedWriter(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int room = maxChars - builder.length();
+            if (len > room) {
+                builder.append(cbuf, off, Math.max(0, room));
+                throw LimitReached.INSTANCE;
+            }
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            int room = maxChars - builder.length();
+            if (len > room) {
+                builder.append(str, off, off + Math.max(0, room));
+                throw LimitReached.INSTANCE;
+            }
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * 只用于中止序列化的控制流，共享一个没有堆栈的实例
+         */
+        private static final class LimitReached extends IOException {
+            private static final long serialVersionUID = 1L;
+            private static final LimitReached INSTANCE = new LimitReached();
+
+            private LimitReached() {
+                super("payload limit reached", null);
+            }
+
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mysqlmcp.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.mysqlmcp.config.ServerConfig;
+
+/**
+ * 请求/响应内容的日志采样
+ * 按方法或工具名配置采样率，未采样的请求只记录方法和 id，不序列化内容；
+ * 采样的内容延迟序列化并截断到 mcp.trace.maxPayloadChars 个字符。
+ */
+public class PayloadTracer {
+    private static final Logger logger = LoggerFactory.getLogger(PayloadTracer.class);
+    private static final String DEFAULT_KEY = "*";
+    private static final String NOT_SAMPLED = "(payload not sampled)";
+
+    private final int maxPayloadChars;
+    private final Map<String, Double> sampleRates;
+
+    public PayloadTracer(int maxPayloadChars, Map<String, Double> sampleRates) {
+        this.maxPayloadChars = maxPayloadChars;
+        this.sampleRates = sampleRates;
+    }
+
+    /**
+     * 从系统属性/环境变量读取配置
+     * mcp.trace.sampleRates 格式为 key=rate 的逗号分隔列表，key 为方法名（如 tools/list）、工具名（如 execute_query）或 *
+     */
+    public static PayloadTracer fromEnvironment() {
+        int maxPayloadChars = Math.max(0, ServerConfig.getInt("mcp.trace.maxPayloadChars", "MCP_TRACE_MAX_PAYLOAD_CHARS", 4096));
+        String rates = ServerConfig.getString("mcp.trace.sampleRates", "MCP_TRACE_SAMPLE_RATES", "*=1.0");
+        return new PayloadTracer(maxPayloadChars, parseSampleRates(rates));
+    }
+
+    static Map<String, Double> parseSampleRates(String value) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String item : value.split(",")) {
+            String trimmed = item.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int eq = trimmed.indexOf('=');
+            if (eq <= 0) {
+                logger.warn("Invalid trace sample rate '{}', expected key=rate", trimmed);
+                continue;
+            }
+            try {
+                double rate = Double.parseDouble(trimmed.substring(eq + 1).trim());
+                rates.put(trimmed.substring(0, eq).trim(), Math.max(0, Math.min(1, rate)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid trace sample rate '{}', expected key=rate", trimmed);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * 决定是否记录该请求的内容，同一请求的请求和响应使用同一个结果
+     * @param tool tools/call 的工具名，其他方法为 null
+     */
+    public boolean sample(String method, String tool) {
+        Double rate = tool != null ? sampleRates.get(tool) : null;
+        if (rate == null && method != null) {
+            rate = sampleRates.get(method);
+        }
+        if (rate == null) {
+            rate = sampleRates.getOrDefault(DEFAULT_KEY, 1.0);
+        }
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * 返回用作日志参数的内容：采样时为延迟序列化的 JSON，否则为占位文本
+     */
+    public Object payload(JsonElement element, boolean sampled) {
+        return sampled && maxPayloadChars > 0 ? LazyJson.of(element, maxPayloadChars) : NOT_SAMPLED;
+    }
+
+    public int getMaxPayloadChars() {
+        return maxPayloadChars;
+    }
+}
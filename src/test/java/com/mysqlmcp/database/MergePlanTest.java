@@ -0,0 +1,136 @@
+package com.mysqlmcp.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class MergePlanTest {
+    private static final String[] COLUMNS = {"id", "name", "total"};
+
+    @Test
+    public void parseWithoutOrderOrLimit() {
+        String sql = "SELECT id, name FROM users WHERE active = 1";
+        MergePlan plan = MergePlan.parse(sql);
+        assertFalse(plan.isOrdered());
+        assertEquals(-1, plan.getLimit());
+        assertEquals(0, plan.getOffset());
+        assertEquals(sql, plan.getShardSql());
+    }
+
+    @Test
+    public void parseOrderByDirections() {
+        MergePlan plan = MergePlan.parse("SELECT id, name, total FROM orders ORDER BY total DESC, name, id asc");
+        List<MergePlan.OrderItem> orderBy = plan.getOrderBy();
+        assertEquals(3, orderBy.size());
+        assertEquals("total", orderBy.get(0).expression);
+        assertTrue(orderBy.get(0).descending);
+        assertEquals("name", orderBy.get(1).expression);
+        assertFalse(orderBy.get(1).descending);
+        assertEquals("id", orderBy.get(2).expression);
+        assertFalse(orderBy.get(2).descending);
+    }
+
+    @Test
+    public void parseIgnoresOrderByInSubqueriesAndFunctions() {
+        MergePlan plan = MergePlan.parse(
+            "SELECT id, GROUP_CONCAT(name ORDER BY name) AS names FROM (SELECT * FROM t ORDER BY id LIMIT 5) x");
+        assertFalse(plan.isOrdered());
+        assertEquals(-1, plan.getLimit());
+    }
+
+    @Test
+    public void resolveByAliasPositionAndQualifiedName() {
+        MergePlan plan = MergePlan.parse(
+            "SELECT o.id, o.name, SUM(o.amount) AS total FROM orders o GROUP BY o.id, o.name "
+                + "ORDER BY total DESC, 2, o.`id`");
+        assertArrayEquals(new int[] {2, 1, 0}, plan.resolve(COLUMNS));
+    }
+
+    @Test
+    public void resolveMatchesColumnNamesCaseInsensitively() {
+        assertArrayEquals(new int[] {1}, MergePlan.parse("SELECT * FROM t ORDER BY NAME").resolve(COLUMNS));
+        assertArrayEquals(new int[] {0}, MergePlan.parse("SELECT * FROM t ORDER BY db.t.ID").resolve(COLUMNS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void resolveRejectsPositionOutOfRange() {
+        MergePlan.parse("SELECT id, name, total FROM t ORDER BY 4").resolve(COLUMNS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void resolveRejectsUnselectedExpression() {
+        MergePlan.parse("SELECT id, name, total FROM t ORDER BY created_at").resolve(COLUMNS);
+    }
+
+    @Test
+    public void unionResetsOrderAndLimitOfEarlierBlocks() {
+        MergePlan plan = MergePlan.parse("(SELECT id FROM a ORDER BY id LIMIT 3) UNION (SELECT id FROM b)");
+        assertFalse(plan.isOrdered());
+        assertEquals(-1, plan.getLimit());
+
+        plan = MergePlan.parse("SELECT id FROM a ORDER BY id LIMIT 3 UNION ALL SELECT id FROM b");
+        assertFalse(plan.isOrdered());
+        assertEquals(-1, plan.getLimit());
+    }
+
+    @Test
+    public void unionKeepsOrderAndLimitOfWholeQuery() {
+        MergePlan plan = MergePlan.parse("SELECT id FROM a UNION SELECT id FROM b ORDER BY id DESC LIMIT 10");
+        assertEquals(1, plan.getOrderBy().size());
+        assertEquals("id", plan.getOrderBy().get(0).expression);
+        assertTrue(plan.getOrderBy().get(0).descending);
+        assertEquals(10, plan.getLimit());
+    }
+
+    @Test
+    public void limitWithoutOffsetKeepsShardSql() {
+        String sql = "SELECT * FROM t ORDER BY id LIMIT 20";
+        MergePlan plan = MergePlan.parse(sql);
+        assertEquals(20, plan.getLimit());
+        assertEquals(0, plan.getOffset());
+        assertEquals(sql, plan.getShardSql());
+        assertEquals("id", plan.getOrderBy().get(0).expression);
+    }
+
+    @Test
+    public void limitOffsetCountIsRewrittenPerShard() {
+        MergePlan plan = MergePlan.parse("SELECT * FROM t ORDER BY id LIMIT 30, 10");
+        assertEquals(10, plan.getLimit());
+        assertEquals(30, plan.getOffset());
+        assertEquals("SELECT * FROM t ORDER BY id LIMIT 40", plan.getShardSql());
+    }
+
+    @Test
+    public void limitCountOffsetIsRewrittenPerShard() {
+        MergePlan plan = MergePlan.parse("select *\n  from t order by id limit 10 offset 30;");
+        assertEquals(10, plan.getLimit());
+        assertEquals(30, plan.getOffset());
+        assertEquals("select * from t order by id LIMIT 40", plan.getShardSql());
+    }
+
+    @Test
+    public void limitWithZeroOffsetKeepsShardSql() {
+        String sql = "SELECT * FROM t LIMIT 0, 5";
+        MergePlan plan = MergePlan.parse(sql);
+        assertEquals(5, plan.getLimit());
+        assertEquals(0, plan.getOffset());
+        assertEquals(sql, plan.getShardSql());
+    }
+
+    @Test
+    public void orderByEndsBeforeLockingClause() {
+        MergePlan plan = MergePlan.parse("SELECT * FROM t ORDER BY id DESC FOR UPDATE");
+        assertEquals(1, plan.getOrderBy().size());
+        assertEquals("id", plan.getOrderBy().get(0).expression);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitWithPlaceholdersIsRejected() {
+        MergePlan.parse("SELECT * FROM t LIMIT ?");
+    }
+}
@@ -0,0 +1,74 @@
+package com.mysqlmcp.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ShardedQueryTest {
+
+    private static int sign(int value) {
+        return Integer.signum(value);
+    }
+
+    @Test
+    public void nullSortsFirst() {
+        assertEquals(0, ShardedQuery.compareValues(null, null));
+        assertEquals(-1, sign(ShardedQuery.compareValues(null, 0)));
+        assertEquals(1, sign(ShardedQuery.compareValues(-1L, null)));
+        assertEquals(-1, sign(ShardedQuery.compareValues(null, "")));
+    }
+
+    @Test
+    public void integralTypesCompareByValue() {
+        assertEquals(0, ShardedQuery.compareValues(5, 5L));
+        assertEquals(-1, sign(ShardedQuery.compareValues(4, 5L)));
+        assertEquals(1, sign(ShardedQuery.compareValues(Long.MAX_VALUE, Integer.MAX_VALUE)));
+        assertEquals(-1, sign(ShardedQuery.compareValues((short) -3, (byte) 2)));
+    }
+
+    @Test
+    public void decimalsCompareExactly() {
+        assertEquals(0, ShardedQuery.compareValues(new BigDecimal("1.50"), new BigDecimal("1.5")));
+        assertEquals(0, ShardedQuery.compareValues(new BigDecimal("2.00"), 2));
+        assertEquals(-1, sign(ShardedQuery.compareValues(9007199254740992L, new BigDecimal("9007199254740993"))));
+        assertEquals(1, sign(ShardedQuery.compareValues(
+            new BigInteger("18446744073709551615"), Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void doublesCompareWithOtherNumbers() {
+        assertEquals(0, ShardedQuery.compareValues(2.0d, 2));
+        assertEquals(-1, sign(ShardedQuery.compareValues(1.5d, new BigDecimal("1.75"))));
+        assertEquals(1, sign(ShardedQuery.compareValues(10L, 9.99d)));
+        assertEquals(-1, sign(ShardedQuery.compareValues(-0.5f, 0)));
+    }
+
+    @Test
+    public void mixedNumbersSortInNumericOrder() {
+        List<Object> values = new ArrayList<>(Arrays.asList(
+            3L, null, new BigDecimal("2.5"), 1, -7.25d, new BigDecimal("100"), 0L, 2.5d, null));
+        values.sort(ShardedQuery::compareValues);
+        assertEquals(Arrays.asList(
+            null, null, -7.25d, 0L, 1, new BigDecimal("2.5"), 2.5d, 3L, new BigDecimal("100")), values);
+    }
+
+    @Test
+    public void stringsCompareCaseInsensitivelyThenExactly() {
+        assertEquals(-1, sign(ShardedQuery.compareValues("apple", "Banana")));
+        assertEquals(-1, sign(ShardedQuery.compareValues("ABC", "abc")));
+        assertEquals(0, ShardedQuery.compareValues("abc", "abc"));
+    }
+
+    @Test
+    public void binaryComparesUnsigned() {
+        assertTrue(ShardedQuery.compareValues(new byte[] {0x01}, new byte[] {(byte) 0xff}) < 0);
+        assertTrue(ShardedQuery.compareValues(new byte[] {0x01, 0x00}, new byte[] {0x01}) > 0);
+    }
+}
@@ -0,0 +1,266 @@
+package com.mysqlmcp.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class SqlStatementsTest {
+
+    private static List<String> names(List<SqlStatements.TableName> tables) {
+        return tables.stream().map(SqlStatements.TableName::toString).collect(Collectors.toList());
+    }
+
+    // splitScript
+
+    @Test
+    public void splitScriptIgnoresDelimitersInQuotes() {
+        List<String> statements = SqlStatements.splitScript(
+            "INSERT INTO t VALUES ('a;b', \"c;d\", 'it''s;', 'x\\';y');\nSELECT `col;name` FROM `t;1`;");
+        assertEquals(Arrays.asList(
+            "INSERT INTO t VALUES ('a;b', \"c;d\", 'it''s;', 'x\\';y')",
+            "SELECT `col;name` FROM `t;1`"), statements);
+    }
+
+    @Test
+    public void splitScriptIgnoresDelimitersInComments() {
+        List<String> statements = SqlStatements.splitScript(
+            "-- first; statement\nSELECT 1; # trailing; comment\n/* block; comment */ SELECT 2;");
+        assertEquals(Arrays.asList(
+            "-- first; statement\nSELECT 1",
+            "# trailing; comment\n/* block; comment */ SELECT 2"), statements);
+    }
+
+    @Test
+    public void splitScriptEndsBlockCommentAtFirstTerminator() {
+        // MySQL 不支持嵌套注释，第一个 */ 结束注释
+        List<String> statements = SqlStatements.splitScript("/* outer /* inner; */ SELECT 1; */ SELECT 2;");
+        assertEquals(Arrays.asList("/* outer /* inner; */ SELECT 1", "*/ SELECT 2"), statements);
+    }
+
+    @Test
+    public void splitScriptDropsCommentOnlyFragments() {
+        List<String> statements = SqlStatements.splitScript("SELECT 1;\n-- only a comment\n;/* another */;\n");
+        assertEquals(Arrays.asList("SELECT 1"), statements);
+    }
+
+    @Test
+    public void splitScriptKeepsVersionComments() {
+        List<String> statements = SqlStatements.splitScript(
+            "/*!40101 SET NAMES utf8mb4 */;\n/*!40014 SET FOREIGN_KEY_CHECKS=0 */;\n/*+ hint */;");
+        assertEquals(Arrays.asList(
+            "/*!40101 SET NAMES utf8mb4 */", "/*!40014 SET FOREIGN_KEY_CHECKS=0 */", "/*+ hint */"), statements);
+    }
+
+    @Test
+    public void splitScriptHonoursDelimiterBlocks() {
+        String script = "DROP PROCEDURE IF EXISTS p;\n"
+            + "DELIMITER $$\n"
+            + "CREATE PROCEDURE p()\nBEGIN\n  SELECT 1;\n  SELECT ';$$';\nEND$$\n"
+            + "DELIMITER ;\n"
+            + "CALL p();";
+        List<String> statements = SqlStatements.splitScript(script);
+        assertEquals(Arrays.asList(
+            "DROP PROCEDURE IF EXISTS p",
+            "CREATE PROCEDURE p()\nBEGIN\n  SELECT 1;\n  SELECT ';$$';\nEND",
+            "CALL p()"), statements);
+    }
+
+    @Test
+    public void splitScriptKeepsLastStatementWithoutDelimiter() {
+        assertEquals(Arrays.asList("SELECT 1", "SELECT 2"), SqlStatements.splitScript("SELECT 1;\nSELECT 2\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void splitScriptRejectsEmptyDelimiter() {
+        SqlStatements.splitScript("DELIMITER \nSELECT 1;");
+    }
+
+    // withLimit
+
+    @Test
+    public void withLimitAppendsToPlainSelect() {
+        assertEquals("SELECT * FROM t WHERE a = 1 LIMIT 100",
+            SqlStatements.withLimit("SELECT *\n  FROM t -- rows\n WHERE a = 1;", 100));
+    }
+
+    @Test
+    public void withLimitKeepsExistingLimit() {
+        String sql = "SELECT * FROM t LIMIT 5";
+        assertSame(sql, SqlStatements.withLimit(sql, 100));
+    }
+
+    @Test
+    public void withLimitAppliesToWholeUnion() {
+        assertEquals("SELECT a FROM t UNION ALL SELECT a FROM u LIMIT 10",
+            SqlStatements.withLimit("SELECT a FROM t UNION ALL SELECT a FROM u", 10));
+        assertEquals("(SELECT a FROM t LIMIT 3) UNION (SELECT a FROM u) LIMIT 10",
+            SqlStatements.withLimit("(SELECT a FROM t LIMIT 3) UNION (SELECT a FROM u)", 10));
+    }
+
+    @Test
+    public void withLimitIgnoresLimitInSubqueries() {
+        assertEquals("SELECT * FROM (SELECT a FROM t LIMIT 5) x WHERE a IN (SELECT b FROM u LIMIT 1) LIMIT 10",
+            SqlStatements.withLimit(
+                "SELECT * FROM (SELECT a FROM t LIMIT 5) x WHERE a IN (SELECT b FROM u LIMIT 1)", 10));
+    }
+
+    @Test
+    public void withLimitIgnoresKeywordsInLiteralsAndIdentifiers() {
+        assertEquals("SELECT 'limit 1', `limit` FROM t LIMIT 10",
+            SqlStatements.withLimit("SELECT 'limit 1', `limit` FROM t", 10));
+    }
+
+    @Test
+    public void withLimitLeavesLockingAndIntoUnchanged() {
+        for (String sql : Arrays.asList(
+                "SELECT * FROM t WHERE id = 1 FOR UPDATE",
+                "SELECT * FROM t LOCK IN SHARE MODE",
+                "SELECT a INTO @x FROM t",
+                "SELECT * FROM t INTO OUTFILE '/tmp/t.csv'",
+                "SELECT /*+ MAX_EXECUTION_TIME(10) */ * FROM t",
+                "SELECT /*!40001 SQL_NO_CACHE */ * FROM t",
+                "SHOW TABLES",
+                "UPDATE t SET a = 1")) {
+            assertSame(sql, SqlStatements.withLimit(sql, 10));
+        }
+    }
+
+    // withMaxExecutionTime
+
+    @Test
+    public void withMaxExecutionTimeAddsHintAfterSelect() {
+        assertEquals("SELECT /*+ MAX_EXECUTION_TIME(500) */ * FROM t",
+            SqlStatements.withMaxExecutionTime("SELECT *\n  FROM t;", 500));
+        assertEquals("(SELECT /*+ MAX_EXECUTION_TIME(500) */ a FROM t) UNION (SELECT a FROM u)",
+            SqlStatements.withMaxExecutionTime("(SELECT a FROM t) UNION (SELECT a FROM u)", 500));
+    }
+
+    @Test
+    public void withMaxExecutionTimeLeavesHintsAndOtherStatementsUnchanged() {
+        for (String sql : Arrays.asList(
+                "SELECT /*+ BKA(t) */ * FROM t", "SELECT /*!50000 1 */", "INSERT INTO t VALUES (1)")) {
+            assertSame(sql, SqlStatements.withMaxExecutionTime(sql, 500));
+        }
+    }
+
+    // referencedTables / writeTargets
+
+    @Test
+    public void referencedTablesHandlesQualifiedAndQuotedNames() {
+        assertEquals(Arrays.asList("shop.orders", "customers", "my db.line items"),
+            names(SqlStatements.referencedTables(
+                "SELECT * FROM shop.orders o JOIN Customers c ON c.id = o.cid "
+                    + "LEFT JOIN `My DB`.`Line Items` li USING (order_id)")));
+    }
+
+    @Test
+    public void referencedTablesIncludesCommaJoinsAndSubqueries() {
+        assertEquals(Arrays.asList("a", "b", "c", "d"),
+            names(SqlStatements.referencedTables(
+                "SELECT * FROM a, (SELECT x FROM c) s, b WHERE a.id IN (SELECT id FROM d)")));
+    }
+
+    @Test
+    public void referencedTablesIgnoresLiteralsCommentsAndDual() {
+        assertEquals(Arrays.asList("t"),
+            names(SqlStatements.referencedTables("SELECT 'FROM x' /* FROM y */ FROM t -- FROM z")));
+        assertTrue(SqlStatements.referencedTables("SELECT 1 FROM DUAL").isEmpty());
+    }
+
+    @Test
+    public void writeTargetsOfDml() {
+        assertTrue(SqlStatements.writeTargets("SELECT * FROM t").isEmpty());
+        assertEquals(Arrays.asList("db.t"),
+            names(SqlStatements.writeTargets("INSERT IGNORE INTO `db`.`T` (a) SELECT a FROM u")));
+        assertEquals(Arrays.asList("t"), names(SqlStatements.writeTargets("REPLACE t VALUES (1)")));
+        assertEquals(Arrays.asList("a", "b"),
+            names(SqlStatements.writeTargets("UPDATE a JOIN b ON a.id = b.id SET a.x = 'SET'")));
+        assertEquals(Arrays.asList("s.t"), names(SqlStatements.writeTargets("DELETE FROM s.t WHERE id = 1")));
+        assertEquals(Arrays.asList("t"),
+            names(SqlStatements.writeTargets("LOAD DATA LOCAL INFILE 'x.csv' INTO TABLE t")));
+    }
+
+    @Test
+    public void writeTargetsOfDdl() {
+        assertEquals(Arrays.asList("db.t"),
+            names(SqlStatements.writeTargets("CREATE TABLE IF NOT EXISTS db.t (a INT)")));
+        assertEquals(Arrays.asList("t", "u"), names(SqlStatements.writeTargets("ALTER TABLE t RENAME TO u")));
+        assertEquals(Arrays.asList("a", "b", "c", "d"),
+            names(SqlStatements.writeTargets("RENAME TABLE a TO b, c TO d")));
+        assertEquals(Arrays.asList("db.*"), names(SqlStatements.writeTargets("DROP DATABASE IF EXISTS db")));
+        assertEquals(Arrays.asList("x", "y.z"), names(SqlStatements.writeTargets("DROP TABLE x, y.z")));
+    }
+
+    @Test
+    public void writeTargetsUnknownStatementsReturnNull() {
+        assertNull(SqlStatements.writeTargets("CALL p()"));
+        assertNull(SqlStatements.writeTargets("GRANT SELECT ON *.* TO u"));
+    }
+
+    @Test
+    public void parseTableNameUnquotesAndLowercases() {
+        SqlStatements.TableName name = SqlStatements.parseTableName("`My.DB` . `a``b`");
+        assertEquals("my.db", name.getDatabase());
+        assertEquals("a`b", name.getTable());
+        assertNull(SqlStatements.parseTableName("Orders").getDatabase());
+    }
+
+    // quoteIdentifier
+
+    @Test
+    public void quoteIdentifierQuotesPlainNames() {
+        assertEquals("`orders`", SqlStatements.quoteIdentifier("orders", false));
+        assertEquals("`a``b`", SqlStatements.quoteIdentifier("a`b", false));
+        assertEquals("`shop`.`orders`", SqlStatements.quoteIdentifier("shop.orders", true));
+        assertEquals("`shop.orders`", SqlStatements.quoteIdentifier("shop.orders", false));
+    }
+
+    @Test
+    public void quoteIdentifierRequotesQuotedNames() {
+        assertEquals("`orders`", SqlStatements.quoteIdentifier("`orders`", false));
+        assertEquals("`a``b`", SqlStatements.quoteIdentifier("`a``b`", false));
+        assertEquals("`my db`.`t``1`", SqlStatements.quoteIdentifier("`my db`.`t``1`", true));
+        assertEquals("`db`.`t`", SqlStatements.quoteIdentifier("`db`.t", true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quoteIdentifierRejectsLoneBacktickInQuotedName() {
+        SqlStatements.quoteIdentifier("`a` UNION SELECT 1 -- `", false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quoteIdentifierRejectsLoneBacktickInQualifiedPart() {
+        SqlStatements.quoteIdentifier("db.`t`;DROP TABLE x;`", true);
+    }
+
+    // changesSessionState
+
+    @Test
+    public void changesSessionStateDetectsSessionStatements() {
+        for (String sql : Arrays.asList(
+                "USE db", "SET @a = 1", "set names utf8mb4", "PREPARE s FROM 'SELECT 1'", "LOCK TABLES t READ",
+                "CALL p()", "CREATE TEMPORARY TABLE t (a INT)", "SELECT @a := 1", "SELECT a INTO @x FROM t",
+                "SELECT GET_LOCK('l', 1)", "/*!40101 SET NAMES utf8 */",
+                "LOAD DATA INFILE 'x' INTO TABLE t (@a) SET b = @a")) {
+            assertTrue(sql, SqlStatements.changesSessionState(sql));
+        }
+    }
+
+    @Test
+    public void changesSessionStateIgnoresOrdinaryStatements() {
+        for (String sql : Arrays.asList(
+                "SELECT * FROM t", "SELECT '@a := 1', 'GET_LOCK(' FROM t", "SELECT email FROM t WHERE email LIKE '%@x'",
+                "UPDATE t SET a = 1", "CREATE TABLE t (a INT)", "LOAD DATA INFILE 'x' INTO TABLE t",
+                "-- SET @a = 1\nSELECT 1")) {
+            assertFalse(sql, SqlStatements.changesSessionState(sql));
+        }
+    }
+}